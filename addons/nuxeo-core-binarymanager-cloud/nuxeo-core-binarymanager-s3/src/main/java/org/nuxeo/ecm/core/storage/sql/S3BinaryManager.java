@@ -26,19 +26,30 @@ import static org.apache.commons.lang3.StringUtils.isNotBlank;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.security.GeneralSecurityException;
 import java.security.KeyPair;
 import java.security.KeyStore;
 import java.security.PrivateKey;
 import java.security.PublicKey;
 import java.security.cert.Certificate;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
 import javax.servlet.http.HttpServletRequest;
@@ -48,6 +59,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.nuxeo.common.Environment;
+import org.nuxeo.common.utils.SizeUtils;
 import org.nuxeo.ecm.blob.AbstractBinaryGarbageCollector;
 import org.nuxeo.ecm.blob.AbstractCloudBinaryManager;
 import org.nuxeo.ecm.core.api.Blob;
@@ -81,6 +93,7 @@ import com.amazonaws.services.s3.model.ListObjectsRequest;
 import com.amazonaws.services.s3.model.ObjectListing;
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
 import com.amazonaws.services.s3.model.SSEAwsKeyManagementParams;
 import com.amazonaws.services.s3.model.StaticEncryptionMaterialsProvider;
@@ -153,6 +166,53 @@ public class S3BinaryManager extends AbstractCloudBinaryManager {
 
     public static final String DIRECTDOWNLOAD_EXPIRE_PROPERTY_COMPAT = "downloadfroms3.expire";
 
+    /**
+     * The number of threads used for concurrent multipart uploads and ranged downloads. Defaults to 10.
+     *
+     * @since 11.1
+     */
+    public static final String TRANSFER_THREADS_PROPERTY = "transfer.threads";
+
+    /**
+     * The size above which uploads are done as concurrent multipart uploads. Defaults to 16 MB.
+     *
+     * @since 11.1
+     */
+    public static final String MULTIPART_UPLOAD_THRESHOLD_PROPERTY = "multipart.upload.threshold";
+
+    /**
+     * The minimum part size of multipart uploads. Defaults to 5 MB, which is the S3 minimum.
+     *
+     * @since 11.1
+     */
+    public static final String MULTIPART_UPLOAD_PART_SIZE_PROPERTY = "multipart.upload.partsize";
+
+    /**
+     * The size above which downloads to the cache are done as concurrent ranged GETs. Defaults to 16 MB.
+     *
+     * @since 11.1
+     */
+    public static final String MULTIPART_DOWNLOAD_THRESHOLD_PROPERTY = "multipart.download.threshold";
+
+    /**
+     * The size of each ranged GET of a concurrent download. Defaults to 8 MB.
+     *
+     * @since 11.1
+     */
+    public static final String MULTIPART_DOWNLOAD_PART_SIZE_PROPERTY = "multipart.download.partsize";
+
+    public static final int DEFAULT_TRANSFER_THREADS = 10;
+
+    public static final long DEFAULT_MULTIPART_UPLOAD_THRESHOLD = 16L * 1024 * 1024; // 16 MB
+
+    public static final long DEFAULT_MULTIPART_UPLOAD_PART_SIZE = 5L * 1024 * 1024; // 5 MB
+
+    public static final long DEFAULT_MULTIPART_DOWNLOAD_THRESHOLD = 16L * 1024 * 1024; // 16 MB
+
+    public static final long DEFAULT_MULTIPART_DOWNLOAD_PART_SIZE = 8L * 1024 * 1024; // 8 MB
+
+    protected static final int DOWNLOAD_BUFFER_SIZE = 64 * 1024;
+
     public static final String DELIMITER = "/";
 
     /** @deprecated since 11.1, now unused */
@@ -181,9 +241,20 @@ public class S3BinaryManager extends AbstractCloudBinaryManager {
 
     protected TransferManager transferManager;
 
+    /**
+     * Executor used by the transfer manager for multipart uploads, and for ranged downloads.
+     *
+     * @since 11.1
+     */
+    protected ExecutorService transferExecutor;
+
+    protected long multipartDownloadThreshold;
+
+    protected long multipartDownloadPartSize;
+
     @Override
     public void close() {
-        // this also shuts down the AmazonS3Client
+        // this also shuts down the AmazonS3Client and the transfer executor
         transferManager.shutdownNow();
         super.close();
     }
@@ -381,10 +452,57 @@ public class S3BinaryManager extends AbstractCloudBinaryManager {
             directDownloadExpire = dde;
         }
 
-        transferManager = TransferManagerBuilder.standard().withS3Client(amazonS3).build();
+        // set up concurrent transfers
+        int transferThreads = getIntProperty(TRANSFER_THREADS_PROPERTY);
+        if (transferThreads <= 0) {
+            transferThreads = DEFAULT_TRANSFER_THREADS;
+        }
+        long multipartUploadThreshold = getSizeProperty(MULTIPART_UPLOAD_THRESHOLD_PROPERTY,
+                DEFAULT_MULTIPART_UPLOAD_THRESHOLD);
+        long multipartUploadPartSize = getSizeProperty(MULTIPART_UPLOAD_PART_SIZE_PROPERTY,
+                DEFAULT_MULTIPART_UPLOAD_PART_SIZE);
+        multipartDownloadThreshold = getSizeProperty(MULTIPART_DOWNLOAD_THRESHOLD_PROPERTY,
+                DEFAULT_MULTIPART_DOWNLOAD_THRESHOLD);
+        multipartDownloadPartSize = getSizeProperty(MULTIPART_DOWNLOAD_PART_SIZE_PROPERTY,
+                DEFAULT_MULTIPART_DOWNLOAD_PART_SIZE);
+        transferExecutor = newTransferExecutor(transferThreads);
+
+        transferManager = TransferManagerBuilder.standard()
+                                                .withS3Client(amazonS3)
+                                                .withExecutorFactory(() -> transferExecutor)
+                                                .withMultipartUploadThreshold(Long.valueOf(multipartUploadThreshold))
+                                                .withMinimumUploadPartSize(Long.valueOf(multipartUploadPartSize))
+                                                .build();
         abortOldUploads();
     }
 
+    protected ExecutorService newTransferExecutor(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "s3-transfer-" + blobProviderId + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Gets a size property (for instance {@code 16 MB}), or the default value if undefined.
+     *
+     * @since 11.1
+     */
+    protected long getSizeProperty(String key, long defaultValue) {
+        String s = getProperty(key);
+        if (isBlank(s)) {
+            return defaultValue;
+        }
+        try {
+            return SizeUtils.parseSizeInBytes(s.trim());
+        } catch (NumberFormatException e) {
+            log.error("Cannot parse " + key + ": " + s);
+            return defaultValue;
+        }
+    }
+
     protected void removeBinary(String digest) {
         amazonS3.deleteObject(bucketName, bucketNamePrefix + digest);
     }
@@ -619,26 +737,17 @@ public class S3BinaryManager extends AbstractCloudBinaryManager {
                 t0 = System.currentTimeMillis();
                 log.debug("fetching blob " + digest + " from S3");
             }
+            String key = bucketNamePrefix + digest;
             try {
-                Download download = transferManager.download(
-                        new GetObjectRequest(bucketName, bucketNamePrefix + digest), file);
-                download.waitForCompletion();
                 if (isEncrypted) {
+                    // client-side encryption, ranged reads can't be used
+                    Download download = transferManager.download(new GetObjectRequest(bucketName, key), file);
+                    download.waitForCompletion();
                     // can't easily check the decrypted digest
                     return true;
                 }
-                if (!digest.equals(download.getObjectMetadata().getETag())) {
-                    // if our digest algorithm is not MD5 (so the ETag can never match),
-                    // or in case of a multipart upload (where the ETag may not be the MD5),
-                    // check manually the object integrity
-                    // TODO this is costly and it should possible to deactivate it
-                    String currentDigest = new DigestUtils(getDigestAlgorithm()).digestAsHex(file);
-                    if (!currentDigest.equals(digest)) {
-                        String msg = "Invalid S3 object digest, expected=" + digest + " actual=" + currentDigest;
-                        log.error(msg);
-                        throw new IOException(msg);
-                    }
-                }
+                String etag = fetchFileRanges(key, file);
+                checkDigest(digest, etag, file);
                 return true;
             } catch (AmazonClientException e) {
                 if (!isMissingKey(e)) {
@@ -656,6 +765,109 @@ public class S3BinaryManager extends AbstractCloudBinaryManager {
             }
 
         }
+
+        /**
+         * Fetches an object into a file.
+         * <p>
+         * The first GET reads up to the multipart download threshold and returns the object length and ETag, so no HEAD
+         * request is needed. If the object is larger, the rest is fetched using concurrent ranged GETs, each one writing
+         * directly at its position in the file.
+         *
+         * @return the object ETag
+         * @since 11.1
+         */
+        protected String fetchFileRanges(String key, File file) throws IOException, InterruptedException {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ObjectMetadata metadata;
+                try {
+                    metadata = fetchRange(key, 0, multipartDownloadThreshold, channel);
+                } catch (AmazonServiceException e) {
+                    if (e.getStatusCode() != 416) {
+                        throw e;
+                    }
+                    // empty object, a range is not satisfiable
+                    return amazonS3.getObjectMetadata(bucketName, key).getETag();
+                }
+                long length = metadata.getInstanceLength();
+                if (length > multipartDownloadThreshold) {
+                    fetchFileRanges(key, multipartDownloadThreshold, length, channel);
+                }
+                return metadata.getETag();
+            }
+        }
+
+        /**
+         * Fetches the end of an object, from the given offset, using concurrent ranged GETs.
+         *
+         * @param length the object length
+         * @since 11.1
+         */
+        protected void fetchFileRanges(String key, long offset, long length, FileChannel channel)
+                throws IOException, InterruptedException {
+            List<Future<ObjectMetadata>> futures = new ArrayList<>();
+            S3Utils.processSlices(multipartDownloadPartSize, length - offset, (num, begin, end) -> futures.add(
+                    transferExecutor.submit(() -> fetchRange(key, offset + begin, offset + end, channel))));
+            try {
+                for (Future<ObjectMetadata> future : futures) {
+                    future.get();
+                }
+            } catch (ExecutionException e) {
+                futures.forEach(future -> future.cancel(true));
+                Throwable cause = e.getCause();
+                if (cause instanceof AmazonClientException) {
+                    throw (AmazonClientException) cause;
+                } else if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                throw new IOException(cause);
+            } catch (InterruptedException e) {
+                futures.forEach(future -> future.cancel(true));
+                throw e;
+            }
+        }
+
+        /**
+         * Fetches a range of an object, the range may end after the end of the object.
+         *
+         * @return the metadata of the response
+         */
+        protected ObjectMetadata fetchRange(String key, long begin, long end, FileChannel channel) throws IOException {
+            GetObjectRequest request = new GetObjectRequest(bucketName, key).withRange(begin, end - 1);
+            try (S3Object object = amazonS3.getObject(request); InputStream in = object.getObjectContent()) {
+                ObjectMetadata metadata = object.getObjectMetadata();
+                long expectedEnd = begin + metadata.getContentLength();
+                byte[] bytes = new byte[DOWNLOAD_BUFFER_SIZE];
+                long position = begin;
+                int n;
+                while ((n = in.read(bytes)) != -1) {
+                    ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, n);
+                    while (buffer.hasRemaining()) {
+                        position += channel.write(buffer, position);
+                    }
+                }
+                if (position != expectedEnd) {
+                    throw new IOException("Incomplete S3 ranged read of " + key + ", expected end=" + expectedEnd
+                            + " actual=" + position);
+                }
+                return metadata;
+            }
+        }
+
+        protected void checkDigest(String digest, String etag, File file) throws IOException {
+            if (!digest.equals(etag)) {
+                // if our digest algorithm is not MD5 (so the ETag can never match),
+                // or in case of a multipart upload (where the ETag may not be the MD5),
+                // check manually the object integrity
+                // TODO this is costly and it should possible to deactivate it
+                String currentDigest = new DigestUtils(getDigestAlgorithm()).digestAsHex(file);
+                if (!currentDigest.equals(digest)) {
+                    String msg = "Invalid S3 object digest, expected=" + digest + " actual=" + currentDigest;
+                    log.error(msg);
+                    throw new IOException(msg);
+                }
+            }
+        }
     }
 
     /**
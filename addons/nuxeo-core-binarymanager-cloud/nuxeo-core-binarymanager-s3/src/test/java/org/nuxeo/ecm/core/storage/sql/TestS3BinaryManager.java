@@ -41,6 +41,7 @@ import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.conn.ConnectionPoolTimeoutException;
 import org.junit.After;
@@ -78,6 +79,9 @@ import com.amazonaws.services.s3.model.S3Object;
  * <li>nuxeo.s3storage.awssecret (or AWS_SECRET_ACCESS_KEY environment variable)</li>
  * </ul>
  * <p>
+ * To run against a local S3-compatible server, also set the {@value #TEST_ENDPOINT_ENV_VAR} environment variable (for
+ * instance {@code http://localhost:9000}); path-style access is then used.
+ * <p>
  * ***** NOTE THAT THE TESTS WILL REMOVE ALL FILES IN THE BUCKET!!! *****
  */
 @RunWith(FeaturesRunner.class)
@@ -92,6 +96,8 @@ public class TestS3BinaryManager extends AbstractS3BinaryTest<S3BinaryManager> {
 
     protected S3BinaryManager binaryManager3;
 
+    public static final String TEST_ENDPOINT_ENV_VAR = "NUXEO_TEST_S3_ENDPOINT";
+
     @BeforeClass
     public static void beforeClass() {
 
@@ -111,6 +117,11 @@ public class TestS3BinaryManager extends AbstractS3BinaryTest<S3BinaryManager> {
         PROPERTIES.put(BUCKET_NAME_PROPERTY, "nuxeo-s3-directupload");
         PROPERTIES.put(BUCKET_PREFIX_PROPERTY, "testfolder/");
         PROPERTIES.put(S3BinaryManager.BUCKET_REGION_PROPERTY, "eu-west-3");
+        String endpoint = System.getenv(TEST_ENDPOINT_ENV_VAR);
+        if (StringUtils.isNotBlank(endpoint)) {
+            PROPERTIES.put(S3BinaryManager.ENDPOINT_PROPERTY, endpoint);
+            PROPERTIES.put(S3BinaryManager.PATHSTYLEACCESS_PROPERTY, "true");
+        }
     }
 
     @Before
@@ -278,6 +289,33 @@ public class TestS3BinaryManager extends AbstractS3BinaryTest<S3BinaryManager> {
         test(20 * 1024 * 1024);
     }
 
+    @Test
+    public void testMultipartUploadAndRangedDownload() throws Exception {
+        Map<String, String> properties = new HashMap<>(PROPERTIES);
+        properties.put(S3BinaryManager.TRANSFER_THREADS_PROPERTY, "4");
+        properties.put(S3BinaryManager.MULTIPART_UPLOAD_THRESHOLD_PROPERTY, "5MB");
+        properties.put(S3BinaryManager.MULTIPART_UPLOAD_PART_SIZE_PROPERTY, "5MB");
+        properties.put(S3BinaryManager.MULTIPART_DOWNLOAD_THRESHOLD_PROPERTY, "1MB");
+        properties.put(S3BinaryManager.MULTIPART_DOWNLOAD_PART_SIZE_PROPERTY, "1MB");
+        S3BinaryManager multipartBinaryManager = new S3BinaryManager();
+        multipartBinaryManager.initialize("repo", properties);
+        try {
+            byte[] bytes = generateRandomBytes(12 * 1024 * 1024 + 123);
+            Binary binary = multipartBinaryManager.getBinary(new ByteArrayBlob(bytes));
+            String digest = binary.getDigest();
+
+            // clear cache to fetch the binary from the S3 bucket using ranged GETs
+            multipartBinaryManager.fileCache.clear();
+            binary = multipartBinaryManager.getBinary(digest);
+            try (InputStream stream = binary.getStream()) {
+                assertNotNull(stream);
+                assertTrue(Arrays.equals(bytes, IOUtils.toByteArray(stream)));
+            }
+        } finally {
+            multipartBinaryManager.close();
+        }
+    }
+
     protected void test(int size) throws SdkBaseException, InterruptedException, IOException {
         Blob blob = new ByteArrayBlob(generateRandomBytes(size));
         binaryManager.writeBlob(blob);
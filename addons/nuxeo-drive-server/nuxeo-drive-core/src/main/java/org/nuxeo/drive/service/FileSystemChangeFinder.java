@@ -73,4 +73,17 @@ public interface FileSystemChangeFinder {
      */
     long getUpperBound(Set<String> repositoryNames);
 
+    /**
+     * Returns the upper bound of the range clause in the change query following the given lower bound, taking into
+     * account the clustering delay if clustering is enabled for at least one of the given repositories.
+     * <p>
+     * The upper bound must come from the source serving the range starting at this lower bound.
+     *
+     * @param lowerBound the lower bound of the range, or a negative value if missing
+     * @since 11.1
+     */
+    default long getUpperBound(Set<String> repositoryNames, long lowerBound) {
+        return getUpperBound(repositoryNames);
+    }
+
 }
@@ -111,6 +111,17 @@ public interface NuxeoDriveManager {
     FileSystemChangeSummary getChangeSummary(NuxeoPrincipal principal, Map<String, Set<IdRef>> lastSyncRootRefs,
             long lowerBound);
 
+    /**
+     * Same as {@link #getChangeSummary(NuxeoPrincipal, Map, long)}, but when the change feed is enabled and holds no
+     * change after the given lower bound under the synchronization roots of the user, polls it for such a change up to
+     * the given timeout before building the summary.
+     *
+     * @param timeout the maximum time to wait for a change, in milliseconds, 0 to not wait
+     * @since 11.1
+     */
+    FileSystemChangeSummary getChangeSummary(NuxeoPrincipal principal, Map<String, Set<IdRef>> lastSyncRootRefs,
+            long lowerBound, long timeout);
+
     /**
      * Gets the {@link FileSystemChangeFinder} member.
      */
@@ -19,6 +19,8 @@
 package org.nuxeo.drive.service.impl;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -82,8 +84,8 @@ public class AuditChangeFinder implements FileSystemChangeFinder {
         // Find changes from the log under active roots or events that are
         // linked to the un-registration or deletion of formerly synchronized
         // roots
-        List<LogEntry> entries = queryAuditEntries(session, activeRoots, collectionSyncRootMemberIds, lowerBound,
-                upperBound, limit);
+        List<LogEntry> entries = queryEntries(session, activeRoots, collectionSyncRootMemberIds, lowerBound, upperBound,
+                limit);
 
         // First pass over the entries to check if a "NuxeoDrive" event has
         // occurred during that period.
@@ -110,7 +112,7 @@ public class AuditChangeFinder implements FileSystemChangeFinder {
                 SynchronizationRoots updatedActiveRoots = synchronizationRoots.get(session.getRepositoryName());
                 Set<String> updatedCollectionSyncRootMemberIds = driveManager.getCollectionSyncRootMemberIds(
                         session.getPrincipal()).get(session.getRepositoryName());
-                entries = queryAuditEntries(session, updatedActiveRoots, updatedCollectionSyncRootMemberIds, lowerBound,
+                entries = queryEntries(session, updatedActiveRoots, updatedCollectionSyncRootMemberIds, lowerBound,
                         upperBound, limit);
                 break;
             }
@@ -262,6 +264,46 @@ public class AuditChangeFinder implements FileSystemChangeFinder {
         return entries.get(0).getId();
     }
 
+    /**
+     * Returns the upper bound from the {@link FileSystemChangeFeed} if it is usable and holds all the entries following
+     * the lower bound, so that the range is served by the feed, otherwise from the audit.
+     * <p>
+     * The upper bound is never lower than the lower bound, as the feed may not have consumed yet the last entries
+     * returned by the audit.
+     *
+     * @since 11.1
+     */
+    @Override
+    public long getUpperBound(Set<String> repositoryNames, long lowerBound) {
+        if (lowerBound >= 0 && FileSystemChangeFeed.isUsable()
+                && FileSystemChangeFeed.getInstance().holds(lowerBound)) {
+            long feedUpperBound = getFeedUpperBound(repositoryNames);
+            if (feedUpperBound > -1) {
+                return Math.max(lowerBound, feedUpperBound);
+            }
+        }
+        return getUpperBound(repositoryNames);
+    }
+
+    /**
+     * Returns the last id held by the {@link FileSystemChangeFeed} considering events older than the last clustering
+     * invalidation date if clustering is enabled for at least one of the given repositories, or -1 if the feed doesn't
+     * hold such an id.
+     *
+     * @since 11.1
+     */
+    protected long getFeedUpperBound(Set<String> repositoryNames) {
+        long clusteringDelay = getClusteringDelay(repositoryNames);
+        long maxLogDate = Long.MAX_VALUE;
+        if (clusteringDelay > -1) {
+            // Double the delay in case of overlapping, see https://jira.nuxeo.com/browse/NXP-14826
+            maxLogDate = System.currentTimeMillis() - 2 * clusteringDelay;
+        }
+        long upperBound = FileSystemChangeFeed.getInstance().getUpperBound(maxLogDate);
+        log.debug("Greatest id from the change feed: {}", upperBound);
+        return upperBound;
+    }
+
     /**
      * Returns the longest clustering delay among the given repositories for which clustering is enabled.
      */
@@ -282,6 +324,88 @@ public class AuditChangeFinder implements FileSystemChangeFinder {
         return clusteringDelay;
     }
 
+    /**
+     * Gets the log entries from the {@link FileSystemChangeFeed} if it is usable and holds all the entries of the
+     * range, otherwise from the audit.
+     * <p>
+     * If the feed evicted the range after its upper bound was computed, the audit may not return yet all the entries
+     * up to this upper bound, in which case the range cannot be served consistently.
+     *
+     * @throws TooManyChangesException if the range cannot be served consistently
+     * @since 11.1
+     */
+    protected List<LogEntry> queryEntries(CoreSession session, SynchronizationRoots activeRoots,
+            Set<String> collectionSyncRootMemberIds, long lowerBound, long upperBound, int limit) {
+        if (FileSystemChangeFeed.isUsable()) {
+            List<LogEntry> feedEntries = FileSystemChangeFeed.getInstance()
+                                                             .getEntries(session.getRepositoryName(), lowerBound,
+                                                                     upperBound);
+            if (feedEntries != null) {
+                return filterFeedEntries(session, activeRoots, collectionSyncRootMemberIds, feedEntries, limit);
+            }
+            log.debug("Change feed doesn't hold the range ({}, {}], querying the audit", lowerBound, upperBound);
+            long auditUpperBound = getUpperBound(Collections.singleton(session.getRepositoryName()));
+            if (upperBound > auditUpperBound) {
+                throw new TooManyChangesException(String.format(
+                        "Change feed doesn't hold the range (%d, %d] anymore and the audit only holds ids up to %d",
+                        lowerBound, upperBound, auditUpperBound));
+            }
+        }
+        return queryAuditEntries(session, activeRoots, collectionSyncRootMemberIds, lowerBound, upperBound, limit);
+    }
+
+    /**
+     * Filters the entries of the {@link FileSystemChangeFeed} the same way as {@link #queryAuditEntries}.
+     *
+     * @since 11.1
+     */
+    protected List<LogEntry> filterFeedEntries(CoreSession session, SynchronizationRoots activeRoots,
+            Set<String> collectionSyncRootMemberIds, List<LogEntry> feedEntries, int limit) {
+        Set<String> rootPaths = activeRoots.getPaths();
+        List<LogEntry> entries = new ArrayList<>();
+        for (LogEntry entry : feedEntries) {
+            if (NuxeoDriveEvents.EVENT_CATEGORY.equals(entry.getCategory())
+                    || !rootPaths.isEmpty() && (isUnderRoots(entry.getDocPath(), rootPaths)
+                            || collectionSyncRootMemberIds != null
+                                    && collectionSyncRootMemberIds.contains(entry.getDocUUID()))) {
+                entries.add(entry);
+            }
+        }
+        // same order as the audit query, see queryAuditEntries
+        entries.sort(Comparator.comparing(LogEntry::getEventDate, Comparator.nullsLast(Comparator.<Date> reverseOrder())));
+        if (entries.size() > limit) {
+            entries = entries.subList(0, limit);
+        }
+
+        // Post filter the output to remove (un)registration that are unrelated
+        // to the current user.
+        List<LogEntry> postFilteredEntries = new ArrayList<>();
+        String principalName = session.getPrincipal().getName();
+        for (LogEntry entry : entries) {
+            ExtendedInfo impactedUserInfo = entry.getExtendedInfos().get("impactedUserName");
+            if (impactedUserInfo != null && !principalName.equals(impactedUserInfo.getValue(String.class))) {
+                // ignore event that only impact other users
+                continue;
+            }
+            log.debug("Change detected: {}", entry);
+            postFilteredEntries.add(entry);
+        }
+        return postFilteredEntries;
+    }
+
+    protected boolean isUnderRoots(String docPath, Set<String> rootPaths) {
+        if (docPath == null) {
+            return false;
+        }
+        for (String rootPath : rootPaths) {
+            // same as the "like rootPath%" of the audit query
+            if (docPath.startsWith(rootPath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @SuppressWarnings("unchecked")
     protected List<LogEntry> queryAuditEntries(CoreSession session, SynchronizationRoots activeRoots,
             Set<String> collectionSyncRootMemberIds, long lowerBound, long upperBound, int limit) {
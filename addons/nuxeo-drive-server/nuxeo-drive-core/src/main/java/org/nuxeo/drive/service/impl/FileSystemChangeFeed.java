@@ -0,0 +1,355 @@
+/*
+ * (C) Copyright 2019 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nuxeo.drive.service.impl;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.nuxeo.drive.service.NuxeoDriveEvents;
+import org.nuxeo.ecm.core.uidgen.PrefetchingUIDSequencer;
+import org.nuxeo.ecm.core.uidgen.UIDGeneratorService;
+import org.nuxeo.ecm.platform.audit.api.ExtendedInfo;
+import org.nuxeo.ecm.platform.audit.api.LogEntry;
+import org.nuxeo.ecm.platform.audit.impl.LogEntryImpl;
+import org.nuxeo.ecm.platform.audit.impl.StreamAuditWriter;
+import org.nuxeo.ecm.platform.audit.listener.StreamAuditEventListener;
+import org.nuxeo.runtime.api.Framework;
+import org.nuxeo.runtime.cluster.ClusterService;
+import org.nuxeo.runtime.stream.StreamService;
+
+/**
+ * Node-local feed of the audit entries relevant to Nuxeo Drive, filled by the {@link FileSystemChangeFeedProcessor}
+ * from the stream of entries written to the audit.
+ * <p>
+ * Entries are kept per repository ordered by audit id, stripped of what the change finder doesn't need, for a bounded
+ * duration and up to a maximum count. The feed knows which id range it holds completely, so that a change finder can
+ * serve a range from it and fall back to the audit for older ranges. This relies on the audit ids being written in
+ * increasing order, so the feed is only used when this is guaranteed, see {@link #isUsable()}.
+ * <p>
+ * Callers can check if the feed holds new entries matching their synchronization roots, so that clients polling for
+ * changes don't need to query anything while nothing happens under their roots.
+ *
+ * @since 11.1
+ */
+public class FileSystemChangeFeed {
+
+    private static final Logger log = LogManager.getLogger(FileSystemChangeFeed.class);
+
+    public static final String ENABLED_PROP = "nuxeo.drive.change.feed.enabled";
+
+    public static final String RETENTION_PROP = "nuxeo.drive.change.feed.retention";
+
+    public static final String MAX_SIZE_PROP = "nuxeo.drive.change.feed.maxSize";
+
+    public static final Duration DEFAULT_RETENTION = Duration.ofHours(1);
+
+    public static final int DEFAULT_MAX_SIZE = 100_000;
+
+    public static final String FILE_SYSTEM_ITEM_ID = "fileSystemItemId";
+
+    public static final String IMPACTED_USER_NAME = "impactedUserName";
+
+    public static final String DOCUMENT_CATEGORY = "eventDocumentCategory";
+
+    public static final String LIFE_CYCLE_CATEGORY = "eventLifeCycleCategory";
+
+    public static final String LIFE_CYCLE_TRANSITION_EVENT = "lifecycle_transition_event";
+
+    public static final String ROOT_UNREGISTERED_EVENT = "rootUnregistered";
+
+    /**
+     * The document events detected under the synchronization roots, same as the audit query.
+     */
+    public static final Set<String> DOCUMENT_EVENT_IDS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "documentCreated", "documentModified", "documentMoved", "documentCreatedByCopy", "documentRestored",
+            "addedToCollection", "documentProxyPublished", "documentLocked", "documentUnlocked", "documentUntrashed")));
+
+    protected static volatile FileSystemChangeFeed instance;
+
+    protected static volatile Boolean ordered;
+
+    protected final long retentionMillis;
+
+    protected final int maxSize;
+
+    /** Relevant entries per repository, keyed by audit id. */
+    protected final Map<String, NavigableMap<Long, LogEntry>> entries = new ConcurrentHashMap<>();
+
+    /** The last id and last log date of each batch of consumed entries, oldest first. */
+    protected final Deque<long[]> watermarks = new ArrayDeque<>();
+
+    protected int size;
+
+    /** All the entries with an id greater than this one, up to {@link #lastId}, have been consumed. */
+    protected volatile long coveredFrom = Long.MAX_VALUE;
+
+    /** The greatest consumed id. */
+    protected volatile long lastId = -1;
+
+    public FileSystemChangeFeed(long retentionMillis, int maxSize) {
+        this.retentionMillis = retentionMillis;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Checks if the change feed is enabled.
+     */
+    public static boolean isEnabled() {
+        return Framework.isBooleanPropertyTrue(ENABLED_PROP);
+    }
+
+    /**
+     * Checks if the change feed is enabled and if the audit ids are written in increasing order, which the covered
+     * range of the feed relies on.
+     */
+    public static boolean isUsable() {
+        if (!isEnabled()) {
+            return false;
+        }
+        Boolean result = ordered;
+        if (result == null) {
+            ordered = result = Boolean.valueOf(isAuditOrdered());
+            if (!result.booleanValue()) {
+                log.warn("Audit ids are not written in increasing order, the Drive change feed is not used");
+            }
+        }
+        return result.booleanValue();
+    }
+
+    /**
+     * Checks if the audit ids are written in increasing order.
+     * <p>
+     * This requires a single audit writer, so a single partition for the audit stream, and a single partition for the
+     * stream of written entries so that they are consumed in this order. With a cluster, the audit writer can move to
+     * another node, so the ids must not come from blocks prefetched by each node.
+     */
+    protected static boolean isAuditOrdered() {
+        String logConfig = Framework.getProperty(StreamAuditEventListener.AUDIT_LOG_CONFIG_PROP,
+                StreamAuditEventListener.DEFAULT_LOG_CONFIG);
+        org.nuxeo.lib.stream.log.LogManager logManager = Framework.getService(StreamService.class)
+                                                                  .getLogManager(logConfig);
+        for (String stream : Arrays.asList(StreamAuditEventListener.STREAM_NAME,
+                StreamAuditWriter.WRITTEN_STREAM_NAME)) {
+            if (logManager.exists(stream) && logManager.size(stream) != 1) {
+                log.debug("Stream {} has several partitions", stream);
+                return false;
+            }
+        }
+        if (Framework.getService(ClusterService.class).isEnabled()
+                && Framework.getService(UIDGeneratorService.class).getSequencer() instanceof PrefetchingUIDSequencer) {
+            log.debug("Audit ids may come from blocks prefetched by each cluster node");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the change feed of this node.
+     */
+    public static FileSystemChangeFeed getInstance() {
+        FileSystemChangeFeed feed = instance;
+        if (feed == null) {
+            synchronized (FileSystemChangeFeed.class) {
+                feed = instance;
+                if (feed == null) {
+                    String retention = Framework.getProperty(RETENTION_PROP);
+                    long retentionMillis = retention == null ? DEFAULT_RETENTION.toMillis()
+                            : Duration.parse(retention).toMillis();
+                    int maxSize = Integer.parseInt(
+                            Framework.getProperty(MAX_SIZE_PROP, String.valueOf(DEFAULT_MAX_SIZE)));
+                    instance = feed = new FileSystemChangeFeed(retentionMillis, maxSize);
+                }
+            }
+        }
+        return feed;
+    }
+
+    /**
+     * Checks if an audit entry can be part of a Nuxeo Drive change summary.
+     */
+    public static boolean isRelevant(LogEntry entry) {
+        String category = entry.getCategory();
+        String eventId = entry.getEventId();
+        if (DOCUMENT_CATEGORY.equals(category)) {
+            return DOCUMENT_EVENT_IDS.contains(eventId);
+        } else if (LIFE_CYCLE_CATEGORY.equals(category)) {
+            return LIFE_CYCLE_TRANSITION_EVENT.equals(eventId) && entry.getDocLifeCycle() != null
+                    && !"deleted".equals(entry.getDocLifeCycle());
+        } else {
+            return NuxeoDriveEvents.EVENT_CATEGORY.equals(category) && !ROOT_UNREGISTERED_EVENT.equals(eventId);
+        }
+    }
+
+    /**
+     * Adds a batch of entries written to the audit, in audit id order.
+     */
+    public synchronized void addEntries(List<LogEntry> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long batchLastId = -1;
+        long batchLastLogDate = 0;
+        for (LogEntry entry : batch) {
+            long id = entry.getId();
+            if (coveredFrom == Long.MAX_VALUE) {
+                // first entry consumed by this node, older ones are only in the audit
+                coveredFrom = id - 1;
+            }
+            batchLastId = Math.max(batchLastId, id);
+            if (entry.getLogDate() != null) {
+                batchLastLogDate = Math.max(batchLastLogDate, entry.getLogDate().getTime());
+            }
+            if (isRelevant(entry) && entry.getRepositoryId() != null) {
+                LogEntry previous = entries.computeIfAbsent(entry.getRepositoryId(),
+                        k -> new ConcurrentSkipListMap<>()).put(Long.valueOf(id), compact(entry));
+                if (previous == null) {
+                    size++;
+                }
+            }
+        }
+        lastId = Math.max(lastId, batchLastId);
+        watermarks.addLast(new long[] { batchLastId, batchLastLogDate });
+        evict(System.currentTimeMillis() - retentionMillis);
+    }
+
+    /**
+     * Keeps only what the change finder needs from an entry.
+     */
+    protected LogEntry compact(LogEntry entry) {
+        LogEntryImpl compact = new LogEntryImpl();
+        compact.setId(entry.getId());
+        compact.setEventId(entry.getEventId());
+        compact.setCategory(entry.getCategory());
+        compact.setEventDate(entry.getEventDate());
+        compact.setLogDate(entry.getLogDate());
+        compact.setRepositoryId(entry.getRepositoryId());
+        compact.setDocUUID(entry.getDocUUID());
+        compact.setDocPath(entry.getDocPath());
+        compact.setDocLifeCycle(entry.getDocLifeCycle());
+        Map<String, ExtendedInfo> infos = new HashMap<>();
+        Map<String, ExtendedInfo> extendedInfos = entry.getExtendedInfos();
+        if (extendedInfos != null) {
+            for (String key : Arrays.asList(FILE_SYSTEM_ITEM_ID, IMPACTED_USER_NAME)) {
+                ExtendedInfo info = extendedInfos.get(key);
+                if (info != null) {
+                    infos.put(key, info);
+                }
+            }
+        }
+        compact.setExtendedInfos(infos);
+        return compact;
+    }
+
+    /**
+     * Evicts the batches logged before the given date, and the oldest ones while the feed is too large.
+     */
+    protected void evict(long minLogDate) {
+        while (watermarks.size() > 1 && (watermarks.peekFirst()[1] < minLogDate || size > maxSize)) {
+            long evictedId = watermarks.pollFirst()[0];
+            for (NavigableMap<Long, LogEntry> map : entries.values()) {
+                NavigableMap<Long, LogEntry> head = map.headMap(Long.valueOf(evictedId), true);
+                size -= head.size();
+                head.clear();
+            }
+            coveredFrom = Math.max(coveredFrom, evictedId);
+            log.trace("Evicted change feed entries up to id: {}", evictedId);
+        }
+    }
+
+    /**
+     * Checks if the feed holds all the entries following the given id.
+     */
+    public boolean holds(long lowerBound) {
+        return lowerBound >= coveredFrom;
+    }
+
+    /**
+     * Gets the relevant entries of a repository in the given id range.
+     *
+     * @return the entries in id order, or {@code null} if the feed doesn't hold all the entries of the range
+     */
+    public List<LogEntry> getEntries(String repositoryName, long lowerBound, long upperBound) {
+        if (lowerBound < coveredFrom || upperBound > lastId) {
+            return null;
+        }
+        NavigableMap<Long, LogEntry> map = entries.get(repositoryName);
+        if (map == null || lowerBound >= upperBound) {
+            return Collections.emptyList();
+        }
+        List<LogEntry> result = new ArrayList<>(
+                map.subMap(Long.valueOf(lowerBound), false, Long.valueOf(upperBound), true).values());
+        // entries evicted while copying
+        return lowerBound < coveredFrom ? null : result;
+    }
+
+    /**
+     * Gets the greatest consumed id among the batches logged before the given date.
+     *
+     * @param maxLogDate the log date, or {@link Long#MAX_VALUE} to get the greatest consumed id
+     * @return the id, or {@code -1} if there is no such batch in the feed
+     */
+    public synchronized long getUpperBound(long maxLogDate) {
+        if (maxLogDate == Long.MAX_VALUE) {
+            return lastId;
+        }
+        for (Iterator<long[]> it = watermarks.descendingIterator(); it.hasNext();) {
+            long[] watermark = it.next();
+            if (watermark[1] < maxLogDate) {
+                return watermark[0];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks if the feed holds a relevant entry of a repository greater than the given id and matching the given
+     * filter.
+     * <p>
+     * This doesn't check that the feed holds all the entries following this id, see {@link #holds(long)}.
+     */
+    public boolean hasEntries(String repositoryName, long lowerBound, Predicate<LogEntry> filter) {
+        NavigableMap<Long, LogEntry> map = entries.get(repositoryName);
+        return map != null && map.tailMap(Long.valueOf(lowerBound), false).values().stream().anyMatch(filter);
+    }
+
+    /**
+     * Clears the feed, the entries consumed next will start a new covered range.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        watermarks.clear();
+        size = 0;
+        coveredFrom = Long.MAX_VALUE;
+        lastId = -1;
+    }
+
+}
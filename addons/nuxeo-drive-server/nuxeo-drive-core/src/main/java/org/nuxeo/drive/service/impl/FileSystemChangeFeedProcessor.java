@@ -0,0 +1,134 @@
+/*
+ * (C) Copyright 2019 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nuxeo.drive.service.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.nuxeo.ecm.platform.audit.impl.StreamAuditWriter.WRITTEN_STREAM_NAME;
+import static org.nuxeo.ecm.platform.audit.listener.StreamAuditEventListener.AUDIT_ENTRY_CODEC_PROP;
+import static org.nuxeo.ecm.platform.audit.listener.StreamAuditEventListener.ENTRY_CODEC_FLAG;
+import static org.nuxeo.ecm.platform.audit.listener.StreamAuditEventListener.JSON_ENTRY_CODEC;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.nuxeo.ecm.core.api.NuxeoException;
+import org.nuxeo.ecm.platform.audit.api.AuditLogger;
+import org.nuxeo.ecm.platform.audit.api.LogEntry;
+import org.nuxeo.ecm.platform.audit.impl.AvroLogEntry;
+import org.nuxeo.ecm.platform.audit.impl.LogEntryImpl;
+import org.nuxeo.ecm.platform.audit.listener.StreamAuditEventListener;
+import org.nuxeo.lib.stream.codec.Codec;
+import org.nuxeo.lib.stream.computation.AbstractBatchComputation;
+import org.nuxeo.lib.stream.computation.ComputationContext;
+import org.nuxeo.lib.stream.computation.Record;
+import org.nuxeo.lib.stream.computation.Topology;
+import org.nuxeo.runtime.api.Framework;
+import org.nuxeo.runtime.cluster.ClusterService;
+import org.nuxeo.runtime.stream.StreamProcessorTopology;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Fills the {@link FileSystemChangeFeed} of this node from the stream of entries written to the audit.
+ * <p>
+ * The computation name includes the cluster node id so that every node consumes all the entries.
+ *
+ * @since 11.1
+ */
+public class FileSystemChangeFeedProcessor implements StreamProcessorTopology {
+
+    private static final Logger log = LogManager.getLogger(FileSystemChangeFeedProcessor.class);
+
+    public static final String COMPUTATION_NAME_PREFIX = "DriveChangeFeed-";
+
+    @Override
+    public Topology getTopology(Map<String, String> options) {
+        String name = COMPUTATION_NAME_PREFIX + Framework.getService(ClusterService.class).getNodeId();
+        return Topology.builder()
+                       .addComputation(() -> new ChangeFeedComputation(name),
+                               Collections.singletonList("i1:" + WRITTEN_STREAM_NAME))
+                       .build();
+    }
+
+    /**
+     * Computation adding the decoded entries of a batch to the change feed.
+     */
+    public static class ChangeFeedComputation extends AbstractBatchComputation {
+
+        protected final ObjectMapper mapper = new ObjectMapper();
+
+        protected Codec<AvroLogEntry> codec;
+
+        public ChangeFeedComputation(String name) {
+            super(name, 1, 0);
+        }
+
+        @Override
+        public void init(ComputationContext context) {
+            super.init(context);
+            codec = StreamAuditEventListener.getEntryCodec();
+        }
+
+        @Override
+        protected void batchProcess(ComputationContext context, String inputStreamName, List<Record> records) {
+            List<LogEntry> entries = new ArrayList<>(records.size());
+            for (Record record : records) {
+                try {
+                    entries.add(getLogEntry(record));
+                } catch (NuxeoException e) {
+                    log.error("Discard invalid record: {}", record, e);
+                }
+            }
+            log.debug("Adding {} entries to the change feed", entries::size);
+            FileSystemChangeFeed.getInstance().addEntries(entries);
+        }
+
+        @Override
+        public void batchFailure(ComputationContext context, String inputStreamName, List<Record> records) {
+            // error log already done by abstract
+        }
+
+        /**
+         * Decodes a log entry, written either as JSON or, when the record has the
+         * {@link StreamAuditEventListener#ENTRY_CODEC_FLAG}, with the configured codec.
+         */
+        protected LogEntry getLogEntry(Record record) {
+            if (!record.getFlags().contains(ENTRY_CODEC_FLAG)) {
+                String json = new String(record.getData(), UTF_8);
+                try {
+                    return mapper.readValue(json, LogEntryImpl.class);
+                } catch (IOException e) {
+                    throw new NuxeoException("Invalid json logEntry: " + json, e);
+                }
+            }
+            if (codec == null) {
+                throw new NuxeoException("Cannot decode logEntry written with a codec, " + AUDIT_ENTRY_CODEC_PROP
+                        + " is: " + JSON_ENTRY_CODEC);
+            }
+            try {
+                return codec.decode(record.getData()).toLogEntry(Framework.getService(AuditLogger.class));
+            } catch (IllegalArgumentException e) {
+                throw new NuxeoException("Invalid " + codec.getName() + " logEntry", e);
+            }
+        }
+    }
+
+}
@@ -33,6 +33,8 @@ import java.util.Map;
 import java.util.Set;
 import java.util.TimeZone;
 import java.util.TreeSet;
+import java.util.concurrent.Semaphore;
+import java.util.function.Predicate;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -68,6 +70,8 @@ import org.nuxeo.ecm.core.event.Event;
 import org.nuxeo.ecm.core.event.EventService;
 import org.nuxeo.ecm.core.event.impl.DocumentEventContext;
 import org.nuxeo.ecm.core.query.sql.NXQL;
+import org.nuxeo.ecm.platform.audit.api.ExtendedInfo;
+import org.nuxeo.ecm.platform.audit.api.LogEntry;
 import org.nuxeo.ecm.platform.audit.service.NXAuditEventsService;
 import org.nuxeo.ecm.platform.ec.notification.NotificationConstants;
 import org.nuxeo.ecm.platform.query.api.PageProvider;
@@ -93,6 +97,38 @@ public class NuxeoDriveManagerImpl extends DefaultComponent implements NuxeoDriv
 
     public static final String DOCUMENT_CHANGE_LIMIT_PROPERTY = "org.nuxeo.drive.document.change.limit";
 
+    /**
+     * Maximum time a change summary request waits for a change, in milliseconds.
+     *
+     * @since 11.1
+     */
+    public static final String CHANGE_SUMMARY_MAX_WAIT_PROPERTY = "org.nuxeo.drive.change.summary.maxWait";
+
+    /**
+     * @since 11.1
+     */
+    public static final long DEFAULT_CHANGE_SUMMARY_MAX_WAIT = 60_000;
+
+    /**
+     * Maximum number of change summary requests waiting for a change at the same time on this node, the following
+     * ones don't wait.
+     *
+     * @since 11.1
+     */
+    public static final String CHANGE_SUMMARY_MAX_WAITERS_PROPERTY = "org.nuxeo.drive.change.summary.maxWaiters";
+
+    /**
+     * @since 11.1
+     */
+    public static final int DEFAULT_CHANGE_SUMMARY_MAX_WAITERS = 50;
+
+    /**
+     * Interval between two checks of the change feed by a waiting change summary request, in milliseconds.
+     *
+     * @since 11.1
+     */
+    protected static final long CHANGE_SUMMARY_POLL_INTERVAL = 500;
+
     public static final TimeZone UTC = TimeZone.getTimeZone("UTC");
 
     public static final String DRIVE_SYNC_ROOT_CACHE = "driveSyncRoot";
@@ -118,6 +154,8 @@ public class NuxeoDriveManagerImpl extends DefaultComponent implements NuxeoDriv
 
     protected FileSystemChangeFinder changeFinder;
 
+    protected Semaphore changeSummaryWaiters;
+
     protected Cache getSyncRootCache() {
         return syncRootCache;
     }
@@ -337,7 +375,7 @@ public class NuxeoDriveManagerImpl extends DefaultComponent implements NuxeoDriv
         allRepositories.addAll(lastSyncRootRefs.keySet());
         allRepositories.addAll(collectionSyncRootMemberIds.keySet());
         long syncDate;
-        long upperBound = changeFinder.getUpperBound(allRepositories);
+        long upperBound = changeFinder.getUpperBound(allRepositories, lowerBound);
         // Truncate sync date to 0 milliseconds
         syncDate = System.currentTimeMillis();
         syncDate = syncDate - (syncDate % 1000);
@@ -390,6 +428,92 @@ public class NuxeoDriveManagerImpl extends DefaultComponent implements NuxeoDriv
 
     }
 
+    @Override
+    public FileSystemChangeSummary getChangeSummary(NuxeoPrincipal principal, Map<String, Set<IdRef>> lastSyncRootRefs,
+            long lowerBound, long timeout) {
+        if (timeout > 0 && lowerBound >= 0 && FileSystemChangeFeed.isUsable()) {
+            long maxWait = Long.parseLong(Framework.getProperty(CHANGE_SUMMARY_MAX_WAIT_PROPERTY,
+                    String.valueOf(DEFAULT_CHANGE_SUMMARY_MAX_WAIT)));
+            if (changeSummaryWaiters.tryAcquire()) {
+                try {
+                    boolean changed = awaitChanges(principal, lastSyncRootRefs.keySet(), lowerBound,
+                            Math.min(timeout, maxWait));
+                    log.debug("Waited for changes after {} for user {}: {}", () -> lowerBound, principal::getName,
+                            () -> changed);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new NuxeoException(e);
+                } finally {
+                    changeSummaryWaiters.release();
+                }
+            } else {
+                log.debug("Too many change summary requests waiting, not waiting for user {}", principal::getName);
+            }
+        }
+        return getChangeSummary(principal, lastSyncRootRefs, lowerBound);
+    }
+
+    /**
+     * Polls the change feed until it holds an entry after the given lower bound under the synchronization roots of
+     * the given user, so that only the requests of the users impacted by a change are woken up.
+     * <p>
+     * Returns immediately if the feed doesn't hold the entries following the lower bound.
+     *
+     * @return {@code true} if there is such an entry or the feed doesn't hold the entries following the lower bound,
+     *         {@code false} if the timeout elapsed
+     * @since 11.1
+     */
+    protected boolean awaitChanges(NuxeoPrincipal principal, Set<String> lastRepositories, long lowerBound,
+            long timeout) throws InterruptedException {
+        Map<String, SynchronizationRoots> roots = getSynchronizationRoots(principal);
+        Map<String, Set<String>> collectionSyncRootMemberIds = getCollectionSyncRootMemberIds(principal);
+        Set<String> allRepositories = new TreeSet<>(lastRepositories);
+        allRepositories.addAll(roots.keySet());
+        allRepositories.addAll(collectionSyncRootMemberIds.keySet());
+        FileSystemChangeFeed feed = FileSystemChangeFeed.getInstance();
+        long deadline = System.currentTimeMillis() + timeout;
+        for (;;) {
+            if (!feed.holds(lowerBound)) {
+                return true;
+            }
+            for (String repositoryName : allRepositories) {
+                SynchronizationRoots activeRoots = roots.get(repositoryName);
+                Set<String> rootPaths = activeRoots == null ? Collections.emptySet() : activeRoots.getPaths();
+                Set<String> memberIds = collectionSyncRootMemberIds.getOrDefault(repositoryName,
+                        Collections.emptySet());
+                if (feed.hasEntries(repositoryName, lowerBound,
+                        isChangeFor(principal.getName(), rootPaths, memberIds))) {
+                    return true;
+                }
+            }
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            Thread.sleep(Math.min(CHANGE_SUMMARY_POLL_INTERVAL, remaining));
+        }
+    }
+
+    /**
+     * Matches the change feed entries of a repository that a user can get in a change summary: the entries under its
+     * synchronization roots or about its collection members, and the synchronization root events not impacting only
+     * other users.
+     *
+     * @since 11.1
+     */
+    protected Predicate<LogEntry> isChangeFor(String principalName, Set<String> rootPaths, Set<String> memberIds) {
+        return entry -> {
+            if (NuxeoDriveEvents.EVENT_CATEGORY.equals(entry.getCategory())) {
+                ExtendedInfo impactedUserInfo = entry.getExtendedInfos()
+                                                     .get(FileSystemChangeFeed.IMPACTED_USER_NAME);
+                return impactedUserInfo == null || principalName.equals(impactedUserInfo.getValue(String.class));
+            }
+            String docPath = entry.getDocPath();
+            return docPath != null && rootPaths.stream().anyMatch(docPath::startsWith)
+                    || memberIds.contains(entry.getDocUUID());
+        };
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public Map<String, SynchronizationRoots> getSynchronizationRoots(NuxeoPrincipal principal) {
@@ -598,6 +722,8 @@ public class NuxeoDriveManagerImpl extends DefaultComponent implements NuxeoDriv
         collectionSyncRootMemberCache = Framework.getService(CacheService.class)
                                                  .getCache(DRIVE_COLLECTION_SYNC_ROOT_MEMBER_CACHE);
         changeFinder = changeFinderRegistry.changeFinder;
+        changeSummaryWaiters = new Semaphore(Integer.parseInt(Framework.getProperty(
+                CHANGE_SUMMARY_MAX_WAITERS_PROPERTY, String.valueOf(DEFAULT_CHANGE_SUMMARY_MAX_WAITERS))));
     }
 
     @Override
@@ -605,6 +731,7 @@ public class NuxeoDriveManagerImpl extends DefaultComponent implements NuxeoDriv
         syncRootCache = null;
         collectionSyncRootMemberCache = null;
         changeFinder = null;
+        changeSummaryWaiters = null;
     }
 
 }
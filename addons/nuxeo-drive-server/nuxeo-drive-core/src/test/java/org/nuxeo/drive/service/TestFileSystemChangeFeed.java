@@ -0,0 +1,129 @@
+/*
+ * (C) Copyright 2019 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nuxeo.drive.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.nuxeo.drive.service.impl.FileSystemChangeFeed;
+import org.nuxeo.ecm.platform.audit.api.LogEntry;
+import org.nuxeo.ecm.platform.audit.impl.ExtendedInfoImpl;
+import org.nuxeo.ecm.platform.audit.impl.LogEntryImpl;
+
+/**
+ * @since 11.1
+ */
+public class TestFileSystemChangeFeed {
+
+    protected static LogEntry entry(long id, String category, String eventId, long logDate) {
+        LogEntryImpl entry = new LogEntryImpl();
+        entry.setId(id);
+        entry.setCategory(category);
+        entry.setEventId(eventId);
+        entry.setEventDate(new Date(logDate));
+        entry.setLogDate(new Date(logDate));
+        entry.setRepositoryId("test");
+        entry.setDocUUID("doc" + id);
+        entry.setDocPath("/folder/doc" + id);
+        entry.getExtendedInfos().put("comment", ExtendedInfoImpl.createExtendedInfo("not kept"));
+        entry.getExtendedInfos().put("fileSystemItemId", ExtendedInfoImpl.createExtendedInfo("fs" + id));
+        return entry;
+    }
+
+    protected static List<Long> ids(List<LogEntry> entries) {
+        return entries.stream().map(LogEntry::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testEntries() {
+        long now = System.currentTimeMillis();
+        FileSystemChangeFeed feed = new FileSystemChangeFeed(60_000, 100);
+        assertNull(feed.getEntries("test", 0, 10));
+        assertFalse(feed.holds(0));
+        assertEquals(-1, feed.getUpperBound(Long.MAX_VALUE));
+
+        feed.addEntries(Arrays.asList( //
+                entry(10, "eventDocumentCategory", "documentCreated", now), //
+                entry(11, "eventDocumentCategory", "documentRemoved", now), // not relevant
+                entry(12, "NuxeoDrive", "rootRegistered", now)));
+        feed.addEntries(Collections.singletonList(entry(13, "eventDocumentCategory", "documentModified", now)));
+
+        assertEquals(Arrays.asList(10L, 12L, 13L), ids(feed.getEntries("test", 9, 13)));
+        assertEquals(Arrays.asList(12L), ids(feed.getEntries("test", 10, 12)));
+        assertEquals(Collections.emptyList(), feed.getEntries("other", 9, 13));
+        // range not held
+        assertTrue(feed.holds(9));
+        assertFalse(feed.holds(8));
+        assertNull(feed.getEntries("test", 8, 13));
+        assertNull(feed.getEntries("test", 9, 14));
+        assertEquals(13, feed.getUpperBound(Long.MAX_VALUE));
+
+        LogEntry entry = feed.getEntries("test", 9, 10).get(0);
+        assertEquals("fs10", entry.getExtendedInfos().get("fileSystemItemId").getValue(String.class));
+        assertNull(entry.getExtendedInfos().get("comment"));
+    }
+
+    @Test
+    public void testEviction() {
+        long now = System.currentTimeMillis();
+        FileSystemChangeFeed feed = new FileSystemChangeFeed(60_000, 100);
+        feed.addEntries(Collections.singletonList(entry(1, "eventDocumentCategory", "documentCreated", now - 120_000)));
+        feed.addEntries(Collections.singletonList(entry(2, "eventDocumentCategory", "documentCreated", now - 30_000)));
+        feed.addEntries(Collections.singletonList(entry(3, "eventDocumentCategory", "documentCreated", now)));
+
+        // first batch too old
+        assertFalse(feed.holds(0));
+        assertNull(feed.getEntries("test", 0, 3));
+        assertEquals(Arrays.asList(2L, 3L), ids(feed.getEntries("test", 1, 3)));
+        // last batch logged before a given date
+        assertEquals(2, feed.getUpperBound(now - 10_000));
+        assertEquals(-1, feed.getUpperBound(now - 60_000));
+
+        FileSystemChangeFeed small = new FileSystemChangeFeed(60_000, 1);
+        small.addEntries(Collections.singletonList(entry(1, "eventDocumentCategory", "documentCreated", now)));
+        small.addEntries(Collections.singletonList(entry(2, "eventDocumentCategory", "documentCreated", now)));
+        assertNull(small.getEntries("test", 0, 2));
+        assertEquals(Arrays.asList(2L), ids(small.getEntries("test", 1, 2)));
+    }
+
+    @Test
+    public void testHasEntries() {
+        long now = System.currentTimeMillis();
+        FileSystemChangeFeed feed = new FileSystemChangeFeed(60_000, 100);
+        assertFalse(feed.hasEntries("test", 0, entry -> true));
+        feed.addEntries(Arrays.asList( //
+                entry(1, "eventDocumentCategory", "documentCreated", now), //
+                entry(2, "eventDocumentCategory", "documentModified", now)));
+
+        assertTrue(feed.hasEntries("test", 0, entry -> true));
+        assertTrue(feed.hasEntries("test", 1, entry -> true));
+        assertFalse(feed.hasEntries("test", 2, entry -> true));
+        assertFalse(feed.hasEntries("other", 0, entry -> true));
+        // only the entries matching the filter, e.g. under the roots of a user
+        assertTrue(feed.hasEntries("test", 0, entry -> entry.getDocPath().startsWith("/folder/doc1")));
+        assertFalse(feed.hasEntries("test", 1, entry -> entry.getDocPath().startsWith("/folder/doc1")));
+    }
+
+}
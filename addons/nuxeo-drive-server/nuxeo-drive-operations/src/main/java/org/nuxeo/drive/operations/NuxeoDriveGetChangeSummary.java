@@ -56,6 +56,13 @@ public class NuxeoDriveGetChangeSummary {
             + " If set to 0, the interval will start from the repository's initialization.", values = "-1")
     protected Long lowerBound = -1L;
 
+    /**
+     * @since 11.1
+     */
+    @Param(name = "timeout", required = false, description = "Optional time to wait for a change in milliseconds, when there is no change after the lower bound." //
+            + " Only used when the change feed is enabled.", values = "0")
+    protected Long timeout = 0L;
+
     /**
      * Expect a String structure with form: repo-1:root-ref-1,repo-1:root-ref-2,repo-2:root-ref-3
      *
@@ -71,7 +78,8 @@ public class NuxeoDriveGetChangeSummary {
         Map<String, Set<IdRef>> lastActiveRootRefs = RootDefinitionsHelper.parseRootDefinitions(
                 lastSyncActiveRootDefinitions);
         FileSystemChangeSummary docChangeSummary;
-        docChangeSummary = driveManager.getChangeSummary(ctx.getPrincipal(), lastActiveRootRefs, lowerBound);
+        docChangeSummary = driveManager.getChangeSummary(ctx.getPrincipal(), lastActiveRootRefs, lowerBound,
+                timeout.longValue());
         return Blobs.createJSONBlobFromValue(docChangeSummary);
     }
 
@@ -108,7 +108,12 @@ public class GenericMultiThreadedImporter implements ImporterRunner {
 
     protected String repositoryName;
 
-    protected static final String[] PERF_HEADERS = { "nbDocs", "average", "imediate" };
+    protected static final String[] PERF_HEADERS = { "nbDocs", "average", "imediate", "activeTasks", "queuedTasks" };
+
+    /**
+     * @since 11.1
+     */
+    protected int childrenChunkSize = GenericThreadedImportTask.DEFAULT_CHILDREN_CHUNK_SIZE;
 
     public static ThreadPoolExecutor getExecutor() {
         return importTP;
@@ -254,6 +259,7 @@ public class GenericMultiThreadedImporter implements ImporterRunner {
         rootImportTask.addListeners(listeners);
         rootImportTask.addImportingDocumentFilters(importingDocumentFilters);
         rootImportTask.setTransactionTimeout(transactionTimeout);
+        rootImportTask.setChildrenChunkSize(childrenChunkSize);
         return rootImportTask;
     }
 
@@ -308,7 +314,7 @@ public class GenericMultiThreadedImporter implements ImporterRunner {
         long lastCreatedDocCounter = 0;
 
         PerfLogger perfLogger = enablePerfLogging ? new PerfLogger(PERF_HEADERS) : null;
-        while (activeTasks > 0) {
+        while (activeTasks > 0 || !importTP.getQueue().isEmpty()) {
             sleep(500);
             activeTasks = importTP.getActiveCount();
             boolean logProgress = false;
@@ -335,7 +341,8 @@ public class GenericMultiThreadedImporter implements ImporterRunner {
                 log.info("immediate speed = " + imediateSpeed + " docs/s");
 
                 if (enablePerfLogging) {
-                    Double[] perfData = { Double.valueOf(inbCreatedDocs), averageSpeed, imediateSpeed };
+                    Double[] perfData = { Double.valueOf(inbCreatedDocs), averageSpeed, imediateSpeed,
+                            Double.valueOf(activeTasks), Double.valueOf(importTP.getQueue().size()) };
                     perfLogger.log(perfData);
                 }
 
@@ -430,6 +437,16 @@ public class GenericMultiThreadedImporter implements ImporterRunner {
         this.transactionTimeout = transactionTimeout;
     }
 
+    /**
+     * Sets the number of children above which the children of a folder are split into chunks imported by several
+     * threads, 0 to never split them.
+     *
+     * @since 11.1
+     */
+    public void setChildrenChunkSize(int childrenChunkSize) {
+        this.childrenChunkSize = childrenChunkSize;
+    }
+
     public void setEnablePerfLogging(boolean enablePerfLogging) {
         this.enablePerfLogging = enablePerfLogging;
     }
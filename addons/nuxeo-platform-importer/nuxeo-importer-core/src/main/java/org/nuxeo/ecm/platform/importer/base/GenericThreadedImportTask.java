@@ -27,6 +27,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -103,6 +104,27 @@ public class GenericThreadedImportTask implements Runnable {
 
     protected String repositoryName;
 
+    /**
+     * @since 11.1
+     */
+    public static final int DEFAULT_CHILDREN_CHUNK_SIZE = 500;
+
+    /**
+     * Number of children above which the children of a folder are split into chunks imported by several tasks, 0 to
+     * never split them.
+     *
+     * @since 11.1
+     */
+    protected int childrenChunkSize = DEFAULT_CHILDREN_CHUNK_SIZE;
+
+    /**
+     * The children to import under the root document instead of the root source, for a task importing a chunk of the
+     * children of a folder.
+     *
+     * @since 11.1
+     */
+    protected List<SourceNode> rootChildren;
+
     private static synchronized int getNextTaskId() {
         taskCounter += 1;
         return taskCounter;
@@ -159,16 +181,25 @@ public class GenericThreadedImportTask implements Runnable {
         }
 
         if (uploadedFiles % batchSize == 0 || force) {
-            Stopwatch stopwatch = SimonManager.getStopwatch("org.nuxeo.ecm.platform.importer.session_save");
-            Split split = stopwatch.start();
-            fslog("Committing Core Session after " + uploadedFiles + " files", true);
-            session.save();
-            TransactionHelper.commitOrRollbackTransaction();
-            TransactionHelper.startTransaction(transactionTimeout);
-            split.stop();
+            saveAndCommit();
         }
     }
 
+    /**
+     * Saves the session and commits the current transaction, starting a new one.
+     *
+     * @since 11.1
+     */
+    protected void saveAndCommit() {
+        Stopwatch stopwatch = SimonManager.getStopwatch("org.nuxeo.ecm.platform.importer.session_save");
+        Split split = stopwatch.start();
+        fslog("Committing Core Session after " + uploadedFiles + " files", true);
+        session.save();
+        TransactionHelper.commitOrRollbackTransaction();
+        TransactionHelper.startTransaction(transactionTimeout);
+        split.stop();
+    }
+
     protected DocumentModel doCreateFolderishNode(DocumentModel parent, SourceNode node) {
         if (!shouldImportDocument(node)) {
             return null;
@@ -266,6 +297,7 @@ public class GenericThreadedImportTask implements Runnable {
             Integer batchSize) {
         GenericThreadedImportTask newTask = new GenericThreadedImportTask(repositoryName, node, parent,
                 skipContainerCreation, log, batchSize, factory, threadPolicy, null);
+        newTask.setChildrenChunkSize(childrenChunkSize);
         newTask.addListeners(listeners);
         newTask.addImportingDocumentFilters(importingDocumentFilters);
         return newTask;
@@ -328,9 +360,7 @@ public class GenericThreadedImportTask implements Runnable {
                 List<SourceNode> nodes = node.getChildren();
                 split.stop();
                 if (nodes != null) {
-                    for (SourceNode child : nodes) {
-                        recursiveCreateDocumentFromNode(folder, child);
-                    }
+                    importChildren(folder, nodes);
                 }
             }
         } else {
@@ -338,6 +368,60 @@ public class GenericThreadedImportTask implements Runnable {
         }
     }
 
+    /**
+     * Imports the children of a folder.
+     * <p>
+     * When there are more than {@link #childrenChunkSize} children, they are split into chunks and the chunks other
+     * than the first one are handed to new tasks while the executor queue has room for them, so that a wide folder is
+     * imported by several threads. The chunks that cannot be handed are imported by this task.
+     *
+     * @since 11.1
+     */
+    protected void importChildren(DocumentModel folder, List<SourceNode> nodes) throws IOException {
+        ThreadPoolExecutor executor = GenericMultiThreadedImporter.getExecutor();
+        List<SourceNode> remaining = nodes;
+        if (childrenChunkSize > 0 && nodes.size() > childrenChunkSize && executor != null) {
+            remaining = new ArrayList<>(nodes.subList(0, childrenChunkSize));
+            boolean saved = false;
+            for (int i = childrenChunkSize; i < nodes.size(); i += childrenChunkSize) {
+                List<SourceNode> chunk = nodes.subList(i, Math.min(i + childrenChunkSize, nodes.size()));
+                boolean forked = false;
+                if (executor.getQueue().remainingCapacity() > 0) {
+                    if (!saved) {
+                        // the folder must be visible to the new tasks
+                        saveAndCommit();
+                        saved = true;
+                    }
+                    try {
+                        executor.execute(createChunkTask(folder, new ArrayList<>(chunk)));
+                        forked = true;
+                    } catch (RejectedExecutionException e) {
+                        log.debug("Chunk import task rejected, importing it in the current task");
+                    }
+                }
+                if (!forked) {
+                    remaining.addAll(chunk);
+                }
+            }
+        }
+        for (SourceNode child : remaining) {
+            recursiveCreateDocumentFromNode(folder, child);
+        }
+    }
+
+    /**
+     * Creates a task importing a chunk of the children of a folder.
+     *
+     * @since 11.1
+     */
+    protected GenericThreadedImportTask createChunkTask(DocumentModel folder, List<SourceNode> chunk) {
+        GenericThreadedImportTask newTask = createNewTask(folder, chunk.get(0), rsLogger, batchSize);
+        newTask.setRootChildren(chunk);
+        newTask.setBatchSize(getBatchSize());
+        newTask.setTransactionTimeout(transactionTimeout);
+        return newTask;
+    }
+
     public void setInputSource(SourceNode node) {
         this.rootSource = node;
     }
@@ -377,7 +461,13 @@ public class GenericThreadedImportTask implements Runnable {
                     rootDoc = session.getDocument(rootDoc.getRef());
                 }
                 try {
-                    recursiveCreateDocumentFromNode(rootDoc, rootSource);
+                    if (rootChildren == null) {
+                        recursiveCreateDocumentFromNode(rootDoc, rootSource);
+                    } else {
+                        for (SourceNode child : rootChildren) {
+                            recursiveCreateDocumentFromNode(rootDoc, child);
+                        }
+                    }
                 } catch (IOException e) {
                     throw new NuxeoException(e);
                 }
@@ -488,4 +578,18 @@ public class GenericThreadedImportTask implements Runnable {
         this.jobName = jobName;
     }
 
+    /**
+     * @since 11.1
+     */
+    public void setChildrenChunkSize(int childrenChunkSize) {
+        this.childrenChunkSize = childrenChunkSize;
+    }
+
+    /**
+     * @since 11.1
+     */
+    protected void setRootChildren(List<SourceNode> rootChildren) {
+        this.rootChildren = rootChildren;
+    }
+
 }
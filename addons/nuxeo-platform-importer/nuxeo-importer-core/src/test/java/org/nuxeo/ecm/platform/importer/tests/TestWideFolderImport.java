@@ -0,0 +1,77 @@
+/*
+ * (C) Copyright 2019 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nuxeo.ecm.platform.importer.tests;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import javax.inject.Inject;
+
+import org.apache.commons.logging.LogFactory;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.nuxeo.ecm.core.api.CoreSession;
+import org.nuxeo.ecm.core.test.CoreFeature;
+import org.nuxeo.ecm.core.test.annotations.Granularity;
+import org.nuxeo.ecm.core.test.annotations.RepositoryConfig;
+import org.nuxeo.ecm.platform.importer.base.GenericMultiThreadedImporter;
+import org.nuxeo.ecm.platform.importer.log.BasicLogger;
+import org.nuxeo.ecm.platform.importer.source.FileSourceNode;
+import org.nuxeo.runtime.test.runner.Features;
+import org.nuxeo.runtime.test.runner.FeaturesRunner;
+import org.nuxeo.runtime.transaction.TransactionHelper;
+
+/**
+ * @since 11.1
+ */
+@RunWith(FeaturesRunner.class)
+@Features(CoreFeature.class)
+@RepositoryConfig(cleanup = Granularity.METHOD)
+public class TestWideFolderImport {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Inject
+    protected CoreSession session;
+
+    @Test
+    public void testImportInChunks() throws Exception {
+        File root = folder.newFolder("wide");
+        for (int i = 0; i < 25; i++) {
+            Files.write(new File(root, "file" + i + ".txt").toPath(), ("content " + i).getBytes(UTF_8));
+        }
+        TransactionHelper.commitOrRollbackTransaction();
+
+        GenericMultiThreadedImporter importer = new GenericMultiThreadedImporter(new FileSourceNode(root), "/", 5, 3,
+                new BasicLogger(LogFactory.getLog(TestWideFolderImport.class)));
+        importer.setChildrenChunkSize(10);
+        importer.run();
+
+        // the root task kept the first chunk and handed the two other ones to new tasks
+        assertEquals(3, GenericMultiThreadedImporter.getExecutor().getCompletedTaskCount());
+
+        TransactionHelper.startTransaction();
+        assertEquals(25, session.query("SELECT * FROM File WHERE ecm:path STARTSWITH '/wide'").size());
+        assertEquals(1, session.query("SELECT * FROM Folder WHERE ecm:name = 'wide'").size());
+    }
+
+}
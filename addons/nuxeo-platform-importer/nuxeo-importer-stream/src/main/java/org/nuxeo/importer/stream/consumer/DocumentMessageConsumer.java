@@ -21,6 +21,8 @@ package org.nuxeo.importer.stream.consumer;
 import static org.nuxeo.runtime.transaction.TransactionHelper.commitOrRollbackTransaction;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.commons.logging.Log;
@@ -39,6 +41,8 @@ import org.nuxeo.runtime.transaction.TransactionHelper;
 
 /**
  * Consumes DocumentMessage and produce Nuxeo document.
+ * <p>
+ * The documents of a batch are created together on commit, see {@link CoreSession#createDocuments(List)}.
  *
  * @since 9.1
  */
@@ -51,6 +55,9 @@ public class DocumentMessageConsumer extends AbstractConsumer<DocumentMessage> {
 
     protected CoreSession session;
 
+    /** @since 11.1 */
+    protected final List<DocumentModel> batchDocs = new ArrayList<>();
+
     public DocumentMessageConsumer(String consumerId, String repositoryName, String rootPath) {
         super(consumerId);
         this.rootPath = rootPath;
@@ -68,6 +75,7 @@ public class DocumentMessageConsumer extends AbstractConsumer<DocumentMessage> {
 
     @Override
     public void begin() {
+        batchDocs.clear();
         TransactionHelper.startTransaction();
         if (session == null) {
             this.session = CoreInstance.openCoreSessionSystem(repositoryName);
@@ -87,7 +95,7 @@ public class DocumentMessageConsumer extends AbstractConsumer<DocumentMessage> {
         if (props != null && !props.isEmpty()) {
             setDocumentProperties(doc, props);
         }
-        doc = session.createDocument(doc);
+        batchDocs.add(doc);
     }
 
     protected Blob getBlob(DocumentMessage message) {
@@ -104,6 +112,10 @@ public class DocumentMessageConsumer extends AbstractConsumer<DocumentMessage> {
     @Override
     public void commit() {
         log.debug("commit");
+        if (!batchDocs.isEmpty()) {
+            session.createDocuments(batchDocs);
+            batchDocs.clear();
+        }
         session.save();
         // TODO: here if tx is in rollback we must throw something
         commitOrRollbackTransaction();
@@ -112,6 +124,7 @@ public class DocumentMessageConsumer extends AbstractConsumer<DocumentMessage> {
     @Override
     public void rollback() {
         log.info("rollback");
+        batchDocs.clear();
         TransactionHelper.setTransactionRollbackOnly();
         TransactionHelper.commitOrRollbackTransaction();
     }
@@ -48,6 +48,9 @@ import org.nuxeo.runtime.transaction.TransactionHelper;
  * {@link org.nuxeo.ecm.quota.QuotaStatsUpdater} counting the non folderish documents.
  * <p>
  * Store the descendant and children count on {@code Folderish} documents.
+ * <p>
+ * The counts of the ancestors are always saved in the user transaction, even when the size statistics are propagated
+ * through the quota stream, see {@link org.nuxeo.ecm.quota.size.QuotaSizeUpdateProcessor}.
  *
  * @since 5.5
  */
@@ -24,6 +24,7 @@ import static org.nuxeo.ecm.core.api.versioning.VersioningService.VERSIONING_OPT
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 
 import org.apache.logging.log4j.LogManager;
@@ -31,6 +32,7 @@ import org.apache.logging.log4j.Logger;
 import org.nuxeo.ecm.core.api.Blob;
 import org.nuxeo.ecm.core.api.CoreSession;
 import org.nuxeo.ecm.core.api.DocumentModel;
+import org.nuxeo.ecm.core.api.DocumentRef;
 import org.nuxeo.ecm.core.api.IdRef;
 import org.nuxeo.ecm.core.api.PathRef;
 import org.nuxeo.ecm.core.api.ScrollResult;
@@ -43,6 +45,9 @@ import org.nuxeo.runtime.api.Framework;
 import org.nuxeo.runtime.services.config.ConfigurationService;
 import org.nuxeo.runtime.transaction.TransactionHelper;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 /**
  * {@link org.nuxeo.ecm.quota.QuotaStatsUpdater} counting space used by Blobs in document. This implementation does not
  * track the space used by non-Blob properties.
@@ -80,6 +85,20 @@ public class DocumentsSizeUpdater extends AbstractQuotaStatsUpdater {
     /** @since 11.1 */
     public static final int DEFAULT_INIT_SCROLL_KEEP_ALIVE = 120;
 
+    /**
+     * How long the size statistics of the ancestors are cached to check the quota when they are propagated
+     * asynchronously, in seconds.
+     *
+     * @since 11.1
+     */
+    public static final String LIMITS_CACHE_TTL_PROP = "nuxeo.quota.stream.limits.cache.ttl";
+
+    /** @since 11.1 */
+    public static final int DEFAULT_LIMITS_CACHE_TTL = 10;
+
+    /** @since 11.1 */
+    protected volatile Cache<String, SizeLimit> limitsCache;
+
     @Override
     public void computeInitialStatistics(CoreSession session, QuotaStatsInitialWork currentWorker, String path) {
         log.debug("Starting initial Quota computation for path: {}", path);
@@ -161,7 +180,9 @@ public class DocumentsSizeUpdater extends AbstractQuotaStatsUpdater {
         boolean isDeleted = doc.isTrashed();
         long size = getBlobsSize(doc);
         long versionsSize = getVersionsSize(session, doc);
-        updateDocumentAndAncestors(session, doc, size, size + versionsSize, isDeleted ? size : 0, versionsSize);
+        // always synchronous, as the statistics of the ancestors are read right after
+        updateDocument(doc, size, size + versionsSize, isDeleted ? size : 0, versionsSize);
+        updateAncestorDocuments(session, doc, size + versionsSize, isDeleted ? size : 0, versionsSize);
     }
 
     protected void initDocumentFromChildren(DocumentModel doc) {
@@ -384,6 +405,10 @@ public class DocumentsSizeUpdater extends AbstractQuotaStatsUpdater {
         if (delta <= 0) {
             return;
         }
+        if (QuotaSizeUpdateProcessor.isEnabled()) {
+            checkQuotaCached(session, doc, delta);
+            return;
+        }
         for (DocumentModel parent : getAncestors(session, doc)) {
             log.trace("processing {} {}", parent::getId, parent::getPathAsString);
             QuotaAware quotaDoc = parent.getAdapter(QuotaAware.class);
@@ -399,6 +424,74 @@ public class DocumentsSizeUpdater extends AbstractQuotaStatsUpdater {
         }
     }
 
+    /**
+     * Checks the size delta against the maximum quota of the ancestors, using their statistics cached for a short
+     * time. As the statistics are propagated asynchronously, the limit may be exceeded by the uploads done during the
+     * propagation delay.
+     *
+     * @since 11.1
+     */
+    protected void checkQuotaCached(CoreSession session, DocumentModel doc, long delta) {
+        Cache<String, SizeLimit> cache = getLimitsCache();
+        String repositoryName = session.getRepositoryName();
+        for (DocumentRef ref : session.getParentDocumentRefs(doc.getRef())) {
+            String key = QuotaSizeDelta.getKey(repositoryName, ref.toString());
+            SizeLimit limit = cache.getIfPresent(key);
+            if (limit == null) {
+                limit = getSizeLimit(session.getDocument(ref));
+                cache.put(key, limit);
+            }
+            if (limit.maxSize > 0 && limit.totalSize + delta > limit.maxSize) {
+                log.info("Raising Quota Exception on {} ({})", doc::getId, doc::getPathAsString);
+                throw new QuotaExceededException(session.getDocument(ref), doc, limit.maxSize);
+            }
+        }
+    }
+
+    /** @since 11.1 */
+    protected Cache<String, SizeLimit> getLimitsCache() {
+        if (limitsCache == null) {
+            synchronized (this) {
+                if (limitsCache == null) {
+                    int ttl = Framework.getService(ConfigurationService.class)
+                                       .getInteger(LIMITS_CACHE_TTL_PROP, DEFAULT_LIMITS_CACHE_TTL);
+                    limitsCache = CacheBuilder.newBuilder().expireAfterWrite(ttl, TimeUnit.SECONDS).build();
+                }
+            }
+        }
+        return limitsCache;
+    }
+
+    /** @since 11.1 */
+    protected SizeLimit getSizeLimit(DocumentModel parent) {
+        QuotaAware quotaDoc = parent.getAdapter(QuotaAware.class);
+        // when enabling quota on user workspaces, the max size set on the
+        // UserWorkspacesRoot is the max size set on every user workspace
+        if (quotaDoc == null || quotaDoc.getMaxQuota() <= 0 || USER_WORKSPACES_ROOT.equals(parent.getType())) {
+            return SizeLimit.NONE;
+        }
+        return new SizeLimit(quotaDoc.getMaxQuota(), quotaDoc.getTotalSize());
+    }
+
+    /**
+     * The maximum size and total size of a document.
+     *
+     * @since 11.1
+     */
+    protected static class SizeLimit {
+
+        protected static final SizeLimit NONE = new SizeLimit(0, 0);
+
+        protected final long maxSize;
+
+        protected final long totalSize;
+
+        protected SizeLimit(long maxSize, long totalSize) {
+            this.maxSize = maxSize;
+            this.totalSize = totalSize;
+        }
+    }
+
     /** Gets the sum of all blobs sizes for all the document's versions. */
     protected long getVersionsSize(CoreSession session, DocumentModel doc) {
         long versionsSize = 0;
@@ -470,6 +563,25 @@ public class DocumentsSizeUpdater extends AbstractQuotaStatsUpdater {
             // avoids computing ancestors if there's no update to do
             return;
         }
+        if (QuotaSizeUpdateProcessor.isEnabled()) {
+            // the ancestors will be saved by the quota stream processor
+            QuotaSizeUpdateProcessor.addDeltas(session.getRepositoryName(),
+                    session.getParentDocumentRefs(doc.getRef()), deltaTotal, deltaTrash, deltaVersions);
+            return;
+        }
+        updateAncestorDocuments(session, doc, deltaTotal, deltaTrash, deltaVersions);
+    }
+
+    /**
+     * Updates and saves the ancestors in the current transaction.
+     *
+     * @since 11.1
+     */
+    protected void updateAncestorDocuments(CoreSession session, DocumentModel doc, long deltaTotal, long deltaTrash,
+            long deltaVersions) {
+        if (deltaTotal == 0 && deltaTrash == 0 && deltaVersions == 0) {
+            return;
+        }
         List<DocumentModel> ancestors = getAncestors(session, doc);
         for (DocumentModel ancestor : ancestors) {
             updateDocument(ancestor, 0, deltaTotal, deltaTrash, deltaVersions);
@@ -48,6 +48,9 @@ public class QuotaAwareDocument implements QuotaAware {
 
     public static final String DOCUMENTS_SIZE_MAX_SIZE_PROPERTY = "dss:maxSize";
 
+    /** @since 11.1 */
+    public static final String DOCUMENTS_SIZE_APPLIED_OFFSET_PROPERTY = "dss:appliedOffset";
+
     protected DocumentModel doc;
 
     protected static final Log log = LogFactory.getLog(QuotaAwareDocument.class);
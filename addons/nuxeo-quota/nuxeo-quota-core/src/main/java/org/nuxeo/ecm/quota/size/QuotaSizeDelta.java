@@ -0,0 +1,146 @@
+/*
+ * (C) Copyright 2019 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nuxeo.ecm.quota.size;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import org.nuxeo.ecm.core.api.NuxeoException;
+import org.nuxeo.lib.stream.computation.Record;
+import org.nuxeo.lib.stream.computation.Watermark;
+
+/**
+ * Size deltas to apply to the quota statistics of a document, written to the quota stream when statistics are
+ * propagated asynchronously to the ancestors.
+ * <p>
+ * The record key is the repository and document id, so that all the deltas of a document go to the same partition.
+ *
+ * @since 11.1
+ */
+public class QuotaSizeDelta {
+
+    protected static final char KEY_SEPARATOR = ':';
+
+    protected static final String DATA_SEPARATOR = ",";
+
+    protected final String repositoryName;
+
+    protected final String docId;
+
+    protected long total;
+
+    protected long trash;
+
+    protected long versions;
+
+    /** The watermark of the record this delta was read from, or 0. */
+    protected long watermark;
+
+    public QuotaSizeDelta(String repositoryName, String docId, long total, long trash, long versions) {
+        this.repositoryName = repositoryName;
+        this.docId = docId;
+        this.total = total;
+        this.trash = trash;
+        this.versions = versions;
+    }
+
+    public static String getKey(String repositoryName, String docId) {
+        return repositoryName + KEY_SEPARATOR + docId;
+    }
+
+    public String getKey() {
+        return getKey(repositoryName, docId);
+    }
+
+    public String getRepositoryName() {
+        return repositoryName;
+    }
+
+    public String getDocId() {
+        return docId;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getTrash() {
+        return trash;
+    }
+
+    public long getVersions() {
+        return versions;
+    }
+
+    /**
+     * Adds the deltas of another instance for the same document to this one.
+     */
+    public void add(QuotaSizeDelta other) {
+        total += other.total;
+        trash += other.trash;
+        versions += other.versions;
+    }
+
+    public boolean isEmpty() {
+        return total == 0 && trash == 0 && versions == 0;
+    }
+
+    /**
+     * Gets the time at which this delta was first written to the stream, or 0 if it was not read from a record.
+     */
+    public long getTimestamp() {
+        return watermark == 0 ? 0 : Watermark.ofValue(watermark).getTimestamp();
+    }
+
+    /**
+     * Converts this delta to a record, keeping the watermark of the record it was read from if any.
+     */
+    public Record toRecord() {
+        String data = total + DATA_SEPARATOR + trash + DATA_SEPARATOR + versions;
+        if (watermark == 0) {
+            return new Record(getKey(), data.getBytes(UTF_8));
+        }
+        return new Record(getKey(), data.getBytes(UTF_8), watermark);
+    }
+
+    /**
+     * @throws NuxeoException if the record is invalid
+     */
+    public static QuotaSizeDelta fromRecord(Record record) {
+        String key = record.getKey();
+        String data = new String(record.getData(), UTF_8);
+        int i = key == null ? -1 : key.lastIndexOf(KEY_SEPARATOR);
+        String[] values = data.split(DATA_SEPARATOR);
+        if (i <= 0 || values.length != 3) {
+            throw new NuxeoException("Invalid quota size delta: " + key + " " + data);
+        }
+        QuotaSizeDelta delta;
+        try {
+            delta = new QuotaSizeDelta(key.substring(0, i), key.substring(i + 1), Long.parseLong(values[0]),
+                    Long.parseLong(values[1]), Long.parseLong(values[2]));
+        } catch (NumberFormatException e) {
+            throw new NuxeoException("Invalid quota size delta: " + key + " " + data, e);
+        }
+        delta.watermark = record.getWatermark();
+        return delta;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" + getKey() + ", total=" + total + ", trash=" + trash + ", versions="
+                + versions + ")";
+    }
+
+}
@@ -0,0 +1,338 @@
+/*
+ * (C) Copyright 2019 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nuxeo.ecm.quota.size;
+
+import static org.nuxeo.ecm.quota.size.QuotaAwareDocument.DOCUMENTS_SIZE_APPLIED_OFFSET_PROPERTY;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+
+import javax.security.auth.login.LoginException;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.nuxeo.ecm.core.api.CloseableCoreSession;
+import org.nuxeo.ecm.core.api.CoreInstance;
+import org.nuxeo.ecm.core.api.CoreSession;
+import org.nuxeo.ecm.core.api.DocumentModel;
+import org.nuxeo.ecm.core.api.DocumentRef;
+import org.nuxeo.ecm.core.api.IdRef;
+import org.nuxeo.ecm.core.api.NuxeoException;
+import org.nuxeo.lib.stream.computation.AbstractBatchComputation;
+import org.nuxeo.lib.stream.computation.ComputationContext;
+import org.nuxeo.lib.stream.computation.Record;
+import org.nuxeo.lib.stream.computation.Topology;
+import org.nuxeo.lib.stream.log.LogAppender;
+import org.nuxeo.lib.stream.log.LogOffset;
+import org.nuxeo.runtime.api.Framework;
+import org.nuxeo.runtime.api.login.NuxeoLoginContext;
+import org.nuxeo.runtime.services.config.ConfigurationService;
+import org.nuxeo.runtime.stream.StreamProcessorTopology;
+import org.nuxeo.runtime.stream.StreamService;
+import org.nuxeo.runtime.transaction.TransactionHelper;
+
+/**
+ * Asynchronous propagation of the size statistics to the ancestors of a document.
+ * <p>
+ * When {@value #STREAM_ENABLED_PROP} is {@code true}, the {@link DocumentsSizeUpdater} doesn't save the ancestors in
+ * the user transaction anymore. Instead the deltas of a transaction are summed per ancestor and written to the
+ * {@value #STREAM_NAME} stream just before commit, so that they are not lost if the node stops right after the commit.
+ * A computation reads them, sums again the deltas of a batch per ancestor and applies them with one save per ancestor,
+ * so that concurrent uploads in the same tree don't all update the same top-level folders. Applying the deltas is
+ * idempotent, see {@link QuotaSizeUpdateComputation}.
+ * <p>
+ * As the stream is not part of the transaction, the deltas of a transaction whose commit fails after they were written
+ * are still applied, the statistics can then be fixed by recomputing them.
+ * <p>
+ * Only the size statistics go through the stream, the count statistics of the
+ * {@link org.nuxeo.ecm.quota.count.DocumentsCountUpdater} are still saved on the ancestors in the user transaction.
+ *
+ * @since 11.1
+ */
+public class QuotaSizeUpdateProcessor implements StreamProcessorTopology {
+
+    private static final Logger log = LogManager.getLogger(QuotaSizeUpdateProcessor.class);
+
+    public static final String STREAM_ENABLED_PROP = "nuxeo.quota.stream.enabled";
+
+    public static final String LOG_CONFIG_PROP = "nuxeo.stream.quota.log.config";
+
+    public static final String DEFAULT_LOG_CONFIG = "quota";
+
+    public static final String STREAM_NAME = "quota";
+
+    public static final String COMPUTATION_NAME = "QuotaSizeUpdater";
+
+    /**
+     * How long the deltas of an ancestor that cannot be found are retried, in seconds. The ancestor may have been
+     * created by a transaction that is still committing.
+     */
+    public static final String MISSING_RETRY_DURATION_PROP = "nuxeo.quota.stream.missing.retry.duration";
+
+    public static final int DEFAULT_MISSING_RETRY_DURATION = 60;
+
+    protected static final ThreadLocal<DeltaCollector> collector = new ThreadLocal<>();
+
+    /**
+     * Checks if the size statistics of the ancestors are propagated asynchronously.
+     */
+    public static boolean isEnabled() {
+        return Framework.isBooleanPropertyTrue(STREAM_ENABLED_PROP);
+    }
+
+    /**
+     * Adds size deltas to the given ancestors. The deltas are written to the stream when the current transaction
+     * commits, or immediately if there is no transaction.
+     */
+    public static void addDeltas(String repositoryName, DocumentRef[] refs, long total, long trash, long versions) {
+        if (TransactionHelper.isTransactionMarkedRollback()) {
+            return;
+        }
+        DeltaCollector deltaCollector = collector.get();
+        if (deltaCollector == null) {
+            deltaCollector = new DeltaCollector();
+            if (TransactionHelper.isTransactionActiveOrPreparing()) {
+                TransactionHelper.registerSynchronization(deltaCollector);
+                collector.set(deltaCollector);
+            }
+        }
+        for (DocumentRef ref : refs) {
+            deltaCollector.add(new QuotaSizeDelta(repositoryName, ref.toString(), total, trash, versions));
+        }
+        if (collector.get() == null) {
+            deltaCollector.append();
+        }
+    }
+
+    protected static LogAppender<Record> getAppender() {
+        String logConfig = Framework.getProperty(LOG_CONFIG_PROP, DEFAULT_LOG_CONFIG);
+        return Framework.getService(StreamService.class).getLogManager(logConfig).getAppender(STREAM_NAME);
+    }
+
+    /**
+     * Collects the deltas of a transaction, summed per ancestor, and writes them to the stream before commit.
+     * <p>
+     * Deltas added by the other synchronizations after this one ran are written after commit.
+     */
+    protected static class DeltaCollector implements Synchronization {
+
+        protected final Map<String, QuotaSizeDelta> deltas = new LinkedHashMap<>();
+
+        protected void add(QuotaSizeDelta delta) {
+            deltas.merge(delta.getKey(), delta, (d1, d2) -> {
+                d1.add(d2);
+                return d1;
+            });
+        }
+
+        @Override
+        public void beforeCompletion() {
+            if (!TransactionHelper.isTransactionMarkedRollback()) {
+                append();
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            collector.remove();
+            if (status == Status.STATUS_COMMITTED) {
+                append();
+            }
+        }
+
+        protected void append() {
+            if (deltas.isEmpty()) {
+                return;
+            }
+            LogAppender<Record> appender = getAppender();
+            deltas.values().stream().filter(delta -> !delta.isEmpty()).forEach(delta -> {
+                log.trace("Appending {}", delta);
+                appender.append(delta.getKey(), delta.toRecord());
+            });
+            deltas.clear();
+        }
+    }
+
+    @Override
+    public Topology getTopology(Map<String, String> options) {
+        return Topology.builder()
+                       .addComputation(() -> new QuotaSizeUpdateComputation(COMPUTATION_NAME),
+                               Collections.singletonList("i1:" + STREAM_NAME))
+                       .build();
+    }
+
+    /**
+     * Computation applying the deltas of a batch, summed per ancestor.
+     * <p>
+     * The offset of the last record applied to an ancestor is saved with its statistics, in the same transaction. As
+     * all the records of an ancestor are in the same partition, the records of a batch replayed after a failure are
+     * skipped if their offset is not after it.
+     * <p>
+     * As the deltas are written before the user transaction commits, an ancestor created by this transaction may not
+     * be visible yet. The deltas of a missing ancestor are written again to the stream for the duration configured by
+     * {@value #MISSING_RETRY_DURATION_PROP}, after which the ancestor is considered removed.
+     */
+    public static class QuotaSizeUpdateComputation extends AbstractBatchComputation {
+
+        protected static final char OFFSET_SEPARATOR = ':';
+
+        protected final Map<Record, LogOffset> offsets = new IdentityHashMap<>();
+
+        protected final List<QuotaSizeDelta> retries = new ArrayList<>();
+
+        public QuotaSizeUpdateComputation(String name) {
+            super(name, 1, 0);
+        }
+
+        @Override
+        public void processRecord(ComputationContext context, String inputStreamName, Record record) {
+            // the batch may be processed by the super call
+            LogOffset offset = context.getLastOffset();
+            if (offset != null) {
+                offsets.put(record, offset);
+            }
+            super.processRecord(context, inputStreamName, record);
+        }
+
+        @Override
+        protected void batchProcess(ComputationContext context, String inputStreamName, List<Record> records) {
+            Map<String, Map<String, Map<QuotaSizeDelta, LogOffset>>> deltasByRepository = new HashMap<>();
+            for (Record record : records) {
+                QuotaSizeDelta delta;
+                try {
+                    delta = QuotaSizeDelta.fromRecord(record);
+                } catch (NuxeoException e) {
+                    log.error("Discard invalid record: {}", record, e);
+                    continue;
+                }
+                // deltas are distinct instances, keys are compared by identity
+                deltasByRepository.computeIfAbsent(delta.getRepositoryName(), k -> new LinkedHashMap<>())
+                                  .computeIfAbsent(delta.getDocId(), k -> new LinkedHashMap<>())
+                                  .put(delta, offsets.get(record));
+            }
+            log.debug("Applying quota size deltas from {} records", records::size);
+            retries.clear();
+            deltasByRepository.forEach(this::applyDeltas);
+            records.forEach(offsets::remove);
+            if (!retries.isEmpty()) {
+                LogAppender<Record> appender = getAppender();
+                retries.forEach(delta -> {
+                    log.debug("Retrying {} on missing document", delta);
+                    appender.append(delta.getKey(), delta.toRecord());
+                });
+                retries.clear();
+            }
+        }
+
+        @Override
+        public void batchFailure(ComputationContext context, String inputStreamName, List<Record> records) {
+            // error log already done by abstract
+            records.forEach(offsets::remove);
+        }
+
+        protected void applyDeltas(String repositoryName, Map<String, Map<QuotaSizeDelta, LogOffset>> deltas) {
+            TransactionHelper.runInTransaction(() -> {
+                try (NuxeoLoginContext loginContext = Framework.loginSystem();
+                        CloseableCoreSession session = CoreInstance.openCoreSession(repositoryName)) {
+                    deltas.forEach((docId, docDeltas) -> applyDeltas(session, docId, docDeltas));
+                    session.save();
+                } catch (LoginException e) {
+                    throw new NuxeoException(e);
+                }
+            });
+        }
+
+        /**
+         * Applies to a document the sum of its deltas that were not already applied.
+         */
+        protected void applyDeltas(CoreSession session, String docId, Map<QuotaSizeDelta, LogOffset> deltas) {
+            DocumentRef ref = new IdRef(docId);
+            if (!session.exists(ref)) {
+                // ancestor removed since, or created by a transaction that is still committing
+                long minTimestamp = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(
+                        Framework.getService(ConfigurationService.class)
+                                 .getInteger(MISSING_RETRY_DURATION_PROP, DEFAULT_MISSING_RETRY_DURATION));
+                deltas.keySet()
+                      .stream()
+                      .filter(delta -> delta.getTimestamp() > minTimestamp)
+                      .forEach(retries::add);
+                return;
+            }
+            DocumentModel doc = session.getDocument(ref);
+            QuotaAware quotaDoc = doc.getAdapter(QuotaAware.class);
+            if (quotaDoc == null) {
+                quotaDoc = QuotaAwareDocumentFactory.make(doc);
+            }
+            String appliedOffset = (String) quotaDoc.getDoc().getPropertyValue(DOCUMENTS_SIZE_APPLIED_OFFSET_PROPERTY);
+            QuotaSizeDelta sum = new QuotaSizeDelta(session.getRepositoryName(), docId, 0, 0, 0);
+            LogOffset lastOffset = null;
+            for (Entry<QuotaSizeDelta, LogOffset> entry : deltas.entrySet()) {
+                LogOffset offset = entry.getValue();
+                if (isApplied(appliedOffset, offset)) {
+                    log.debug("Skipping already applied {} at {}", entry.getKey(), offset);
+                    continue;
+                }
+                sum.add(entry.getKey());
+                if (offset != null && (lastOffset == null || offset.offset() > lastOffset.offset())) {
+                    lastOffset = offset;
+                }
+            }
+            if (sum.isEmpty()) {
+                return;
+            }
+            quotaDoc.addTotalSize(sum.getTotal());
+            quotaDoc.addTrashSize(sum.getTrash());
+            quotaDoc.addVersionsSize(sum.getVersions());
+            if (lastOffset != null) {
+                quotaDoc.getDoc()
+                        .setPropertyValue(DOCUMENTS_SIZE_APPLIED_OFFSET_PROPERTY,
+                                lastOffset.partition().toString() + OFFSET_SEPARATOR + lastOffset.offset());
+            }
+            quotaDoc.save();
+            log.trace("Applied {} ==> {}", sum, quotaDoc.getQuotaInfo());
+        }
+
+        /**
+         * Checks if the record with the given offset was already applied to a document, given the offset of the last
+         * record applied to it.
+         */
+        protected boolean isApplied(String appliedOffset, LogOffset offset) {
+            if (appliedOffset == null || offset == null) {
+                return false;
+            }
+            int i = appliedOffset.lastIndexOf(OFFSET_SEPARATOR);
+            if (i < 0 || !appliedOffset.substring(0, i).equals(offset.partition().toString())) {
+                // the partitions may have changed
+                return false;
+            }
+            try {
+                return Long.parseLong(appliedOffset.substring(i + 1)) >= offset.offset();
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+    }
+
+}
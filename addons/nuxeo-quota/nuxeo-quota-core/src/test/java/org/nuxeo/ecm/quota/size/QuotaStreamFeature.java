@@ -0,0 +1,73 @@
+/*
+ * (C) Copyright 2019 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nuxeo.ecm.quota.size;
+
+import static org.nuxeo.ecm.quota.size.QuotaSizeUpdateProcessor.COMPUTATION_NAME;
+import static org.nuxeo.ecm.quota.size.QuotaSizeUpdateProcessor.DEFAULT_LOG_CONFIG;
+import static org.nuxeo.ecm.quota.size.QuotaSizeUpdateProcessor.LOG_CONFIG_PROP;
+import static org.nuxeo.ecm.quota.size.QuotaSizeUpdateProcessor.STREAM_ENABLED_PROP;
+import static org.nuxeo.ecm.quota.size.QuotaSizeUpdateProcessor.STREAM_NAME;
+
+import java.time.Duration;
+
+import org.nuxeo.ecm.quota.count.QuotaFeature;
+import org.nuxeo.lib.stream.log.LogManager;
+import org.nuxeo.runtime.api.Framework;
+import org.nuxeo.runtime.stream.StreamService;
+import org.nuxeo.runtime.test.runner.Deploy;
+import org.nuxeo.runtime.test.runner.Features;
+import org.nuxeo.runtime.test.runner.FeaturesRunner;
+import org.nuxeo.runtime.test.runner.RunnerFeature;
+import org.nuxeo.runtime.test.runner.TransactionalFeature;
+
+/**
+ * Propagates the size statistics to the ancestors through the quota stream, and waits for the stream to be processed
+ * when waiting for asynchronous completion.
+ *
+ * @since 11.1
+ */
+@Features(QuotaFeature.class)
+@Deploy("org.nuxeo.ecm.quota.core.test:OSGI-INF/test-quota-stream-contrib.xml")
+public class QuotaStreamFeature implements RunnerFeature {
+
+    @Override
+    public void initialize(FeaturesRunner runner) {
+        // read when deploying the stream processor
+        System.setProperty(STREAM_ENABLED_PROP, "true");
+        runner.getFeature(TransactionalFeature.class).addWaiter(this::await);
+    }
+
+    @Override
+    public void stop(FeaturesRunner runner) {
+        System.clearProperty(STREAM_ENABLED_PROP);
+    }
+
+    @SuppressWarnings("resource") // LogManager not ours to close
+    protected boolean await(Duration duration) throws InterruptedException {
+        String logConfig = Framework.getProperty(LOG_CONFIG_PROP, DEFAULT_LOG_CONFIG);
+        LogManager logManager = Framework.getService(StreamService.class).getLogManager(logConfig);
+        long deadline = System.currentTimeMillis() + duration.toMillis();
+        // when there is no lag between producer and consumer we are done
+        while (logManager.getLag(STREAM_NAME, COMPUTATION_NAME).lag() > 0) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(50);
+        }
+        return true;
+    }
+
+}
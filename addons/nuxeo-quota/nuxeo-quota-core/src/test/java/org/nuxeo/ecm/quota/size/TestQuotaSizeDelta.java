@@ -0,0 +1,69 @@
+/*
+ * (C) Copyright 2019 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nuxeo.ecm.quota.size;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.nuxeo.ecm.core.api.NuxeoException;
+import org.nuxeo.lib.stream.computation.Record;
+import org.nuxeo.lib.stream.computation.Watermark;
+
+/**
+ * @since 11.1
+ */
+public class TestQuotaSizeDelta {
+
+    @Test
+    public void testRecord() {
+        QuotaSizeDelta delta = new QuotaSizeDelta("default", "1234-5678", 100, -20, 3);
+        Record record = delta.toRecord();
+        assertEquals("default:1234-5678", record.getKey());
+
+        QuotaSizeDelta decoded = QuotaSizeDelta.fromRecord(record);
+        assertEquals("default", decoded.getRepositoryName());
+        assertEquals("1234-5678", decoded.getDocId());
+        assertEquals(100, decoded.getTotal());
+        assertEquals(-20, decoded.getTrash());
+        assertEquals(3, decoded.getVersions());
+        assertEquals(Watermark.ofValue(record.getWatermark()).getTimestamp(), decoded.getTimestamp());
+
+        // a delta written again keeps its original watermark
+        assertEquals(record.getWatermark(), decoded.toRecord().getWatermark());
+        assertEquals(0, delta.getTimestamp());
+    }
+
+    @Test
+    public void testAdd() {
+        QuotaSizeDelta delta = new QuotaSizeDelta("default", "1234", 100, 0, 0);
+        delta.add(new QuotaSizeDelta("default", "1234", 50, 10, 5));
+        assertFalse(delta.isEmpty());
+        assertEquals(150, delta.getTotal());
+        assertEquals(10, delta.getTrash());
+        assertEquals(5, delta.getVersions());
+        delta.add(new QuotaSizeDelta("default", "1234", -150, -10, -5));
+        assertTrue(delta.isEmpty());
+    }
+
+    @Test(expected = NuxeoException.class)
+    public void testInvalidRecord() {
+        QuotaSizeDelta.fromRecord(new Record("default:1234", "foo".getBytes(UTF_8)));
+    }
+
+}
@@ -230,6 +230,20 @@ public interface CoreSession {
      */
     DocumentModel getDocument(DocumentRef docRef) throws DocumentNotFoundException;
 
+    /**
+     * Gets a document model given its reference, populated with the schemas of a prefetch profile.
+     * <p>
+     * Prefetch profiles are configured via the document type manager. Any other data model not part of the profile
+     * will be lazily loaded as needed.
+     *
+     * @param docRef the document reference
+     * @param prefetchProfile the prefetch profile name, or {@code null} for the default schemas
+     * @return the document
+     * @throws DocumentNotFoundException if the document cannot be found
+     * @since 11.1
+     */
+    DocumentModel getDocument(DocumentRef docRef, String prefetchProfile) throws DocumentNotFoundException;
+
     /**
      * Gets a list of documents given their references.
      * <p>
@@ -496,6 +510,19 @@ public interface CoreSession {
      */
     DocumentModel[] createDocument(DocumentModel[] docModels);
 
+    /**
+     * Bulk creation of documents.
+     * <p>
+     * The documents are created in order, so a document can be the parent of the following ones. The parents are only
+     * resolved and checked for permissions once for all their children, and the documents are written to the storage
+     * together on the next save.
+     *
+     * @param docModels the document models to use for initialization
+     * @return the created documents
+     * @since 11.1
+     */
+    List<DocumentModel> createDocuments(List<DocumentModel> docModels);
+
     /**
      * Low-level import of documents, reserved for the administrator.
      * <p>
@@ -1044,6 +1071,26 @@ public interface CoreSession {
      */
     DocumentModelList query(String query, String queryType, Filter filter, long limit, long offset, long countUpTo);
 
+    /**
+     * Executes the given query and returns the result that matches the filter, fetching together for all the returned
+     * documents the schemas of a prefetch profile.
+     * <p>
+     * Prefetch profiles are configured via the document type manager. Any other data model not part of the profile
+     * will be lazily loaded as needed.
+     *
+     * @param query the query to execute
+     * @param queryType the query type, like "NXQL"
+     * @param filter the filter to apply to result
+     * @param limit the maximum number of documents to retrieve, or 0 for all of them
+     * @param offset the offset (starting at 0) into the list of documents
+     * @param countUpTo see {@link #query(String, String, Filter, long, long, long)}
+     * @param prefetchProfile the prefetch profile name, or {@code null} for the default schemas
+     * @return the query result
+     * @since 11.1
+     */
+    DocumentModelList query(String query, String queryType, Filter filter, long limit, long offset, long countUpTo,
+            String prefetchProfile);
+
     /**
      * Executes the given query and returns an iterable of maps containing the requested properties (which must be
      * closed when done).
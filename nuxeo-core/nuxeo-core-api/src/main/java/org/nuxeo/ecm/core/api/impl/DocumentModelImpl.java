@@ -76,8 +76,13 @@ import org.nuxeo.ecm.core.schema.types.ListType;
 import org.nuxeo.ecm.core.schema.types.Schema;
 import org.nuxeo.ecm.core.schema.types.Type;
 import org.nuxeo.runtime.api.Framework;
+import org.nuxeo.runtime.metrics.MetricsService;
 import org.nuxeo.runtime.transaction.TransactionHelper;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SharedMetricRegistries;
+
 /**
  * Standard implementation of a {@link DocumentModel}.
  */
@@ -190,6 +195,20 @@ public class DocumentModelImpl implements DocumentModel, Cloneable {
 
     protected boolean isTrashed;
 
+    /**
+     * The prefetch profile used to read the document, if any.
+     *
+     * @since 11.1
+     */
+    protected transient String prefetchProfile;
+
+    /**
+     * The schemas prefetched with the prefetch profile that haven't been accessed yet.
+     *
+     * @since 11.1
+     */
+    protected transient Set<String> unaccessedPrefetchedSchemas;
+
     protected DocumentModelImpl() {
     }
 
@@ -423,6 +442,9 @@ public class DocumentModelImpl implements DocumentModel, Cloneable {
         if (ref == null) {
             return null;
         }
+        if (prefetchProfile != null) {
+            getPrefetchCounter("misses").inc();
+        }
         // load from session
         TypeProvider typeProvider = getSchemaManager();
         final Schema schemaType = typeProvider.getSchema(schema);
@@ -437,10 +459,47 @@ public class DocumentModelImpl implements DocumentModel, Cloneable {
         DataModel dataModel = dataModels.get(schema);
         if (dataModel == null) {
             dataModel = loadDataModel(schema);
+        } else {
+            countPrefetchHit(schema);
         }
         return dataModel;
     }
 
+    /**
+     * Sets the prefetch profile used to read the document, and the schemas it prefetched.
+     * <p>
+     * The first access to each prefetched schema counts as a hit for the profile, and each schema loaded lazily from
+     * the session counts as a miss.
+     *
+     * @since 11.1
+     */
+    public void setPrefetchProfile(String prefetchProfile, Collection<String> prefetchedSchemas) {
+        this.prefetchProfile = prefetchProfile;
+        unaccessedPrefetchedSchemas = prefetchProfile == null ? null : new HashSet<>(prefetchedSchemas);
+    }
+
+    /**
+     * Gets the prefetch profile used to read the document.
+     *
+     * @return the prefetch profile name, or {@code null} if the document was read with the default prefetch
+     * @since 11.1
+     */
+    public String getPrefetchProfile() {
+        return prefetchProfile;
+    }
+
+    protected void countPrefetchHit(String schema) {
+        if (unaccessedPrefetchedSchemas != null && unaccessedPrefetchedSchemas.remove(schema)) {
+            getPrefetchCounter("hits").inc();
+        }
+    }
+
+    protected Counter getPrefetchCounter(String name) {
+        return SharedMetricRegistries.getOrCreate(MetricsService.class.getName())
+                                     .counter(MetricRegistry.name("nuxeo.repositories", repositoryName, "prefetch",
+                                             prefetchProfile, name));
+    }
+
     @Override
     @Deprecated
     public Collection<DataModel> getDataModelsCollection() {
@@ -563,6 +622,8 @@ public class DocumentModelImpl implements DocumentModel, Cloneable {
         DataModel dm = dataModels.get(schemaName);
         if (dm == null) {
             dm = getDataModel(schemaName);
+        } else {
+            countPrefetchHit(schemaName);
         }
         return dm == null ? null : dm.getData(name);
     }
@@ -1295,6 +1356,8 @@ public class DocumentModelImpl implements DocumentModel, Cloneable {
         // dm.sourceId =sourceId;
         // dm.sid = sid;
         // dm.type = type;
+        dm.prefetchProfile = null;
+        dm.unaccessedPrefetchedSchemas = null;
         dm.facets = new HashSet<>(facets); // facets
         // should be
         // clones too -
@@ -1322,6 +1385,7 @@ public class DocumentModelImpl implements DocumentModel, Cloneable {
         if (dataModels != null) {
             dataModels.clear();
         }
+        setPrefetchProfile(null, null);
         isACPLoaded = false;
         acp = null;
         currentLifeCycleState = null;
@@ -1378,6 +1442,7 @@ public class DocumentModelImpl implements DocumentModel, Cloneable {
 
         if ((refreshFlags & (REFRESH_CONTENT | REFRESH_CONTENT_LAZY)) != 0) {
             dataModels.clear();
+            setPrefetchProfile(null, null);
             computeFacetsAndSchemas(refresh.instanceFacets, true);
         }
         if ((refreshFlags & REFRESH_CONTENT) != 0) {
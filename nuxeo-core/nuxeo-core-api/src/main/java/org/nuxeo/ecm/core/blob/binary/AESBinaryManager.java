@@ -50,6 +50,7 @@ import javax.crypto.spec.PBEKeySpec;
 import javax.crypto.spec.SecretKeySpec;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.TeeInputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -328,17 +329,13 @@ public class AESBinaryManager extends LocalBinaryManager {
     @Override
     protected Binary getBinary(InputStream in) throws IOException {
         // write to a tmp file that will be used by the returned Binary
-        // TODO if stream source, avoid copy (no-copy optimization)
         File tmp = File.createTempFile("bin_", ".tmp", tmpDir);
         Framework.trackFile(tmp, tmp);
-        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(tmp))) {
-            IOUtils.copy(in, out);
-        }
-        in.close();
-        // encrypt an digest into final file
+        // in a single pass, write the clear data to our tmp file while encrypting and digesting into final file
         String digest;
-        try (InputStream nin = new BufferedInputStream(new FileInputStream(tmp))) {
-            digest = storeAndDigest(nin); // calls our storeAndDigest
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(tmp));
+                InputStream tin = new TeeInputStream(in, out)) {
+            digest = storeAndDigest(tin); // calls our storeAndDigest
         }
         // return a binary on our tmp file
         return new Binary(tmp, digest, blobProviderId);
@@ -455,7 +452,7 @@ public class AESBinaryManager extends LocalBinaryManager {
 
             // digest and write the encrypted data
             CipherAndDigestOutputStream cipherOut = new CipherAndDigestOutputStream(out, cipher, messageDigest);
-            IOUtils.copy(in, cipherOut);
+            copy(in, cipherOut, null);
             cipherOut.close();
             byte[] digest = cipherOut.getDigest();
             return toHexString(digest);
@@ -523,7 +520,7 @@ public class AESBinaryManager extends LocalBinaryManager {
 
             // read the encrypted data
             try (InputStream cipherIn = new CipherInputStream(in, cipher)) {
-                IOUtils.copy(cipherIn, out);
+                copy(cipherIn, out, null);
             } catch (IOException e) {
                 Throwable cause = e.getCause();
                 if (cause != null && cause instanceof BadPaddingException) {
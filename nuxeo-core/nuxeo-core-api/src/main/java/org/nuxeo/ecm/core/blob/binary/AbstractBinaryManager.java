@@ -30,6 +30,8 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.regex.Pattern;
 
 import org.apache.commons.codec.binary.Hex;
@@ -164,6 +166,20 @@ public abstract class AbstractBinaryManager implements BinaryManager {
 
     public static final int MAX_BUF_SIZE = 64 * 1024; // 64 kB
 
+    /**
+     * Maximum number of idle copy buffers kept in the pool.
+     *
+     * @since 11.1
+     */
+    public static final int BUF_POOL_SIZE = 64;
+
+    /**
+     * Pool of copy buffers shared by all binary managers, so that storing a binary doesn't allocate a new buffer.
+     *
+     * @since 11.1
+     */
+    protected static final Queue<byte[]> BUF_POOL = new ArrayBlockingQueue<>(BUF_POOL_SIZE);
+
     protected String storeAndDigest(InputStream in, OutputStream out) throws IOException {
         MessageDigest digest;
         try {
@@ -171,28 +187,38 @@ public abstract class AbstractBinaryManager implements BinaryManager {
         } catch (NoSuchAlgorithmException e) {
             throw (IOException) new IOException().initCause(e);
         }
+        copy(in, out, digest);
+        out.flush();
+        return Hex.encodeHexString(digest.digest());
+    }
 
-        int size = in.available();
-        if (size == 0) {
-            size = MAX_BUF_SIZE;
-        } else if (size < MIN_BUF_SIZE) {
-            size = MIN_BUF_SIZE;
-        } else if (size > MAX_BUF_SIZE) {
-            size = MAX_BUF_SIZE;
+    /**
+     * Copies an input stream to an output stream using a pooled buffer, while optionally updating a digest, in a single
+     * pass.
+     *
+     * @param digest the digest to update, or {@code null}
+     * @return the number of bytes copied
+     * @since 11.1
+     */
+    protected static long copy(InputStream in, OutputStream out, MessageDigest digest) throws IOException {
+        byte[] buf = BUF_POOL.poll();
+        if (buf == null) {
+            buf = new byte[MAX_BUF_SIZE];
         }
-        byte[] buf = new byte[size];
-
-        /*
-         * Copy and digest.
-         */
-        int n;
-        while ((n = in.read(buf)) != -1) {
-            digest.update(buf, 0, n);
-            out.write(buf, 0, n);
+        try {
+            long count = 0;
+            int n;
+            while ((n = in.read(buf)) != -1) {
+                if (digest != null) {
+                    digest.update(buf, 0, n);
+                }
+                out.write(buf, 0, n);
+                count += n;
+            }
+            return count;
+        } finally {
+            BUF_POOL.offer(buf);
         }
-        out.flush();
-
-        return Hex.encodeHexString(digest.digest());
     }
 
     /** @deprecated since 11.1, use {@link Hex#encodeHexString} directly */
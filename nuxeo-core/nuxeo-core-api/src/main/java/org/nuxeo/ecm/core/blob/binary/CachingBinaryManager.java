@@ -27,12 +27,15 @@ import java.io.OutputStream;
 import java.util.Map;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.nuxeo.common.file.FileCache;
 import org.nuxeo.common.file.LRUFileCache;
 import org.nuxeo.common.utils.SizeUtils;
+import org.nuxeo.ecm.core.api.Blob;
 import org.nuxeo.ecm.core.api.NuxeoException;
+import org.nuxeo.ecm.core.api.impl.blob.FileBlob;
 import org.nuxeo.runtime.api.Framework;
 import org.nuxeo.runtime.trackers.files.FileEventTracker;
 
@@ -129,6 +132,27 @@ public abstract class CachingBinaryManager extends AbstractBinaryManager {
         }
     }
 
+    /**
+     * Sends a temporary {@link FileBlob} whose digest is already known directly to the storage, without copying it to
+     * the cache and digesting it again. The file will be put in the cache when first read.
+     *
+     * @since 11.1
+     */
+    @Override
+    public Binary getBinary(Blob blob) throws IOException {
+        if (!(blob instanceof FileBlob) || !((FileBlob) blob).isTemporary()) {
+            return super.getBinary(blob);
+        }
+        String digest = blob.getDigest();
+        if (StringUtils.isEmpty(digest) || !isValidDigest(digest)) {
+            return super.getBinary(blob);
+        }
+        if (fileCache.getFile(digest) == null) {
+            fileStorage.storeFile(digest, blob.getFile());
+        }
+        return getBinary(digest);
+    }
+
     @Override
     protected Binary getBinary(InputStream in) throws IOException {
         // write the input stream to a temporary file, while computing a digest
@@ -0,0 +1,655 @@
+/*
+ * (C) Copyright 2019 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nuxeo.ecm.core.blob.binary;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.nuxeo.common.utils.SizeUtils;
+import org.nuxeo.ecm.core.api.NuxeoException;
+import org.nuxeo.ecm.core.api.impl.blob.ByteArrayBlob;
+import org.nuxeo.ecm.core.blob.BlobManager;
+import org.nuxeo.ecm.core.blob.BlobProvider;
+import org.nuxeo.runtime.api.Framework;
+
+/**
+ * A binary manager that splits binaries into content-defined chunks, so that near-identical binaries share most of
+ * their storage.
+ * <p>
+ * Chunk boundaries are found with a rolling "gear" hash over the content, which means that an insertion or a deletion
+ * only changes the chunks around it. Chunks are stored by digest in a backing {@link BinaryManager}, configured
+ * through properties prefixed by {@value #CHUNKS_PREFIX} (its class is given by {@value #CHUNKS_CLASS_PROPERTY},
+ * {@link LocalBinaryManager} by default). For each binary, a manifest listing its chunks is stored under the digest of
+ * the whole binary, using the same layout as a {@link LocalBinaryManager}.
+ * <p>
+ * Reading a binary streams its chunks in order, prefetching the next ones in the background. Skipping bytes of the
+ * stream skips whole chunks without fetching them, so that byte ranges only read the chunks they overlap.
+ * <p>
+ * The garbage collector marks the chunks of all the manifests still in use, so a chunk is kept as long as one binary
+ * references it.
+ *
+ * @since 11.1
+ */
+public class ChunkingBinaryManager extends LocalBinaryManager {
+
+    private static final Log log = LogFactory.getLog(ChunkingBinaryManager.class);
+
+    /** Prefix of the properties passed to the backing binary manager storing the chunks. */
+    public static final String CHUNKS_PREFIX = "chunks.";
+
+    /** Class of the backing binary manager storing the chunks. */
+    public static final String CHUNKS_CLASS_PROPERTY = "chunks.class";
+
+    /** Minimum chunk size. */
+    public static final String CHUNK_MIN_SIZE_PROPERTY = "chunk.minsize";
+
+    /** Average chunk size, rounded down to a power of 2. */
+    public static final String CHUNK_AVG_SIZE_PROPERTY = "chunk.avgsize";
+
+    /** Maximum chunk size, chunks held in memory so this should stay reasonable. */
+    public static final String CHUNK_MAX_SIZE_PROPERTY = "chunk.maxsize";
+
+    /** Number of chunks fetched in advance when reading a binary. */
+    public static final String CHUNK_PREFETCH_PROPERTY = "chunk.prefetch";
+
+    /** Number of threads prefetching chunks, for all the binaries read concurrently. */
+    public static final String CHUNK_PREFETCH_THREADS_PROPERTY = "chunk.prefetch.threads";
+
+    public static final String DEFAULT_CHUNK_MIN_SIZE = "256 KB";
+
+    public static final String DEFAULT_CHUNK_AVG_SIZE = "1 MB";
+
+    public static final String DEFAULT_CHUNK_MAX_SIZE = "4 MB";
+
+    public static final int DEFAULT_CHUNK_PREFETCH = 2;
+
+    public static final int DEFAULT_CHUNK_PREFETCH_THREADS = 8;
+
+    /** Maximum number of prefetches waiting for a thread, further ones are fetched by the reader itself. */
+    protected static final int PREFETCH_QUEUE_SIZE = 256;
+
+    /** Directory under the storage base where chunks are stored by the default backing binary manager. */
+    public static final String CHUNKS = "chunks";
+
+    protected static final String MANIFEST_HEADER = "NXCHUNKS 1";
+
+    protected static final long[] GEAR = new long[256];
+
+    static {
+        // fixed seed: chunk boundaries must be stable across restarts
+        Random random = new Random(0x4e7578656f434443L);
+        for (int i = 0; i < GEAR.length; i++) {
+            GEAR[i] = random.nextLong();
+        }
+    }
+
+    protected BinaryManager chunkStore;
+
+    protected int minChunkSize;
+
+    protected long chunkMask;
+
+    protected int maxChunkSize;
+
+    protected int prefetch;
+
+    protected ExecutorService prefetchExecutor;
+
+    @Override
+    public void initialize(String blobProviderId, Map<String, String> properties) throws IOException {
+        super.initialize(blobProviderId, properties);
+        minChunkSize = (int) getSizeProperty(properties, CHUNK_MIN_SIZE_PROPERTY, DEFAULT_CHUNK_MIN_SIZE);
+        long avgChunkSize = Long.highestOneBit(getSizeProperty(properties, CHUNK_AVG_SIZE_PROPERTY,
+                DEFAULT_CHUNK_AVG_SIZE));
+        maxChunkSize = (int) getSizeProperty(properties, CHUNK_MAX_SIZE_PROPERTY, DEFAULT_CHUNK_MAX_SIZE);
+        if (minChunkSize <= 0 || avgChunkSize < minChunkSize || maxChunkSize < avgChunkSize) {
+            throw new NuxeoException("Invalid chunk sizes for blob provider: " + blobProviderId + ", min="
+                    + minChunkSize + " avg=" + avgChunkSize + " max=" + maxChunkSize);
+        }
+        // the boundary condition is met on average every (avg - min) bytes after the min size
+        chunkMask = Long.highestOneBit(avgChunkSize - minChunkSize) - 1;
+        String prefetchStr = properties.get(CHUNK_PREFETCH_PROPERTY);
+        prefetch = StringUtils.isBlank(prefetchStr) ? DEFAULT_CHUNK_PREFETCH : Integer.parseInt(prefetchStr.trim());
+        if (prefetch > 0) {
+            String threadsStr = properties.get(CHUNK_PREFETCH_THREADS_PROPERTY);
+            int threads = StringUtils.isBlank(threadsStr) ? DEFAULT_CHUNK_PREFETCH_THREADS
+                    : Integer.parseInt(threadsStr.trim());
+            AtomicInteger count = new AtomicInteger();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(PREFETCH_QUEUE_SIZE), runnable -> {
+                        String name = "chunk-prefetch-" + blobProviderId + "-" + count.incrementAndGet();
+                        Thread thread = new Thread(runnable, name);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            executor.allowCoreThreadTimeOut(true);
+            prefetchExecutor = executor;
+        }
+        chunkStore = newChunkStore(properties);
+    }
+
+    protected long getSizeProperty(Map<String, String> properties, String key, String defaultValue) {
+        String value = properties.get(key);
+        return SizeUtils.parseSizeInBytes(StringUtils.isBlank(value) ? defaultValue : value.trim());
+    }
+
+    /**
+     * Instantiates and initializes the backing binary manager storing the chunks.
+     * <p>
+     * It is private to this binary manager and not registered as a blob provider, so that it's never garbage collected
+     * independently of the manifests referencing its chunks.
+     */
+    protected BinaryManager newChunkStore(Map<String, String> properties) throws IOException {
+        Map<String, String> chunkProperties = new HashMap<>();
+        for (Entry<String, String> en : properties.entrySet()) {
+            String key = en.getKey();
+            if (key.startsWith(CHUNKS_PREFIX) && !key.equals(CHUNKS_CLASS_PROPERTY)) {
+                chunkProperties.put(key.substring(CHUNKS_PREFIX.length()), en.getValue());
+            }
+        }
+        String className = properties.get(CHUNKS_CLASS_PROPERTY);
+        BinaryManager binaryManager;
+        if (StringUtils.isBlank(className)) {
+            binaryManager = new LocalBinaryManager();
+            if (StringUtils.isBlank(chunkProperties.get(PROP_PATH))) {
+                chunkProperties.put(PROP_PATH, new File(storageDir.getParentFile(), CHUNKS).getAbsolutePath());
+            }
+        } else {
+            try {
+                binaryManager = (BinaryManager) Class.forName(className.trim()).getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | ClassCastException e) {
+                throw new NuxeoException("Cannot instantiate chunk store: " + className, e);
+            }
+        }
+        binaryManager.initialize(blobProviderId + "-" + CHUNKS, chunkProperties);
+        return binaryManager;
+    }
+
+    @Override
+    public void close() {
+        if (prefetchExecutor != null) {
+            prefetchExecutor.shutdownNow();
+        }
+        chunkStore.close();
+        super.close();
+    }
+
+    /**
+     * Gets the backing binary manager storing the chunks.
+     */
+    public BinaryManager getChunkStore() {
+        return chunkStore;
+    }
+
+    @Override
+    protected Binary getBinary(InputStream in) throws IOException {
+        String digest = storeAndDigest(in);
+        return new ChunkedBinary(digest, blobProviderId, this);
+    }
+
+    @Override
+    public Binary getBinary(String digest) {
+        File file = getFileForDigest(digest, false);
+        if (file == null) {
+            // invalid digest
+            return null;
+        }
+        if (!file.exists()) {
+            log.warn("cannot fetch content at " + file.getPath() + " (file does not exist), check your configuration");
+            return null;
+        }
+        return new ChunkedBinary(digest, blobProviderId, this);
+    }
+
+    /**
+     * Splits the stream into chunks stored in the chunk store, and stores the manifest under the digest of the whole
+     * stream.
+     */
+    @Override
+    protected String storeAndDigest(InputStream in) throws IOException {
+        MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance(getDigestAlgorithm());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        List<Chunk> chunks = new ArrayList<>();
+        byte[] chunk = new byte[maxChunkSize];
+        int pos = 0;
+        long hash = 0;
+        byte[] buf = new byte[MAX_BUF_SIZE];
+        try {
+            int n;
+            while ((n = in.read(buf)) != -1) {
+                messageDigest.update(buf, 0, n);
+                for (int i = 0; i < n; i++) {
+                    byte b = buf[i];
+                    chunk[pos++] = b;
+                    hash = (hash << 1) + GEAR[b & 0xff];
+                    if ((pos >= minChunkSize && (hash & chunkMask) == 0) || pos == maxChunkSize) {
+                        chunks.add(storeChunk(chunk, pos));
+                        pos = 0;
+                        hash = 0;
+                    }
+                }
+            }
+            if (pos > 0) {
+                chunks.add(storeChunk(chunk, pos));
+            }
+        } finally {
+            in.close();
+        }
+        String digest = Hex.encodeHexString(messageDigest.digest());
+        File file = getFileForDigest(digest, true);
+        if (!file.exists()) {
+            writeManifest(chunks, file);
+        } else {
+            // update date for the GC
+            touch(file);
+        }
+        return digest;
+    }
+
+    protected Chunk storeChunk(byte[] bytes, int length) throws IOException {
+        Binary binary = chunkStore.getBinary(new ByteArrayBlob(Arrays.copyOf(bytes, length)));
+        return new Chunk(binary.getDigest(), length);
+    }
+
+    protected void writeManifest(List<Chunk> chunks, File file) throws IOException {
+        File tmp = File.createTempFile("manifest_", ".tmp", tmpDir);
+        try {
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(tmp), UTF_8)) {
+                writer.write(MANIFEST_HEADER);
+                writer.write('\n');
+                for (Chunk chunk : chunks) {
+                    writer.write(chunk.digest);
+                    writer.write(' ');
+                    writer.write(Long.toString(chunk.length));
+                    writer.write('\n');
+                }
+            }
+            atomicMove(tmp, file);
+        } finally {
+            tmp.delete();
+        }
+    }
+
+    /**
+     * Reads the manifest of a binary.
+     *
+     * @return the list of chunks, or {@code null} if there is no such binary
+     */
+    public List<Chunk> getChunks(String digest) throws IOException {
+        File file = getFileForDigest(digest, false);
+        if (file == null || !file.exists()) {
+            return null;
+        }
+        List<Chunk> chunks = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), UTF_8))) {
+            String line = reader.readLine();
+            if (!MANIFEST_HEADER.equals(line)) {
+                throw new IOException("Invalid chunk manifest: " + file);
+            }
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                int i = line.indexOf(' ');
+                if (i < 0) {
+                    throw new IOException("Invalid chunk manifest: " + file);
+                }
+                chunks.add(new Chunk(line.substring(0, i), Long.parseLong(line.substring(i + 1))));
+            }
+        }
+        return chunks;
+    }
+
+    /**
+     * Gets a stream on a binary, reading its chunks in order.
+     */
+    public InputStream getStream(String digest) throws IOException {
+        List<Chunk> chunks = getChunks(digest);
+        if (chunks == null) {
+            return null;
+        }
+        return new ChunkedInputStream(chunks);
+    }
+
+    /**
+     * Reassembles a binary into a temporary file, deleted when the given marker object is garbage collected.
+     *
+     * @return the file, or {@code null} if there is no such binary
+     */
+    protected File getTemporaryFile(String digest, Object marker) throws IOException {
+        InputStream stream = getStream(digest);
+        if (stream == null) {
+            return null;
+        }
+        File tmp = File.createTempFile("bin_", ".tmp", tmpDir);
+        Framework.trackFile(tmp, marker);
+        try (InputStream in = stream; OutputStream out = new FileOutputStream(tmp)) {
+            IOUtils.copy(in, out);
+        }
+        return tmp;
+    }
+
+    protected byte[] fetchChunk(String digest) throws IOException {
+        Binary binary = chunkStore.getBinary(digest);
+        InputStream stream = binary == null ? null : binary.getStream();
+        if (stream == null) {
+            throw new IOException("Missing chunk: " + digest + " in blob provider: " + blobProviderId);
+        }
+        try (InputStream in = stream) {
+            return IOUtils.toByteArray(in);
+        }
+    }
+
+    @Override
+    protected void createGarbageCollector() {
+        garbageCollector = new ChunkingBinaryGarbageCollector(this);
+    }
+
+    /**
+     * A chunk of a binary.
+     */
+    public static class Chunk {
+
+        public final String digest;
+
+        public final long length;
+
+        public Chunk(String digest, long length) {
+            this.digest = digest;
+            this.length = length;
+        }
+    }
+
+    /**
+     * Stream over the chunks of a binary, fetching the next chunks in the background.
+     */
+    protected class ChunkedInputStream extends InputStream {
+
+        protected final List<Chunk> chunks;
+
+        /** Index of the next chunk to read, the prefetched chunks follow it. */
+        protected int index;
+
+        protected final Deque<Future<byte[]>> prefetched = new ArrayDeque<>();
+
+        protected InputStream current = new ByteArrayInputStream(new byte[0]);
+
+        protected ChunkedInputStream(List<Chunk> chunks) {
+            this.chunks = chunks;
+            prefetch();
+        }
+
+        protected void prefetch() {
+            while (prefetchExecutor != null && prefetched.size() < prefetch
+                    && index + prefetched.size() < chunks.size()) {
+                String digest = chunks.get(index + prefetched.size()).digest;
+                try {
+                    prefetched.add(prefetchExecutor.submit(() -> fetchChunk(digest)));
+                } catch (RejectedExecutionException e) {
+                    // too many prefetches in progress, the chunk will be fetched when read
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Moves to the next chunk.
+         *
+         * @return {@code false} if there are no more chunks
+         */
+        protected boolean next() throws IOException {
+            if (index >= chunks.size()) {
+                return false;
+            }
+            byte[] bytes;
+            Future<byte[]> future = prefetched.poll();
+            if (future != null) {
+                try {
+                    bytes = future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new NuxeoException(e);
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    }
+                    throw new IOException(cause);
+                }
+            } else {
+                bytes = fetchChunk(chunks.get(index).digest);
+            }
+            index++;
+            prefetch();
+            current = new ByteArrayInputStream(bytes);
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b;
+            while ((b = current.read()) == -1) {
+                if (!next()) {
+                    return -1;
+                }
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            int n;
+            while ((n = current.read(b, off, len)) == -1) {
+                if (!next()) {
+                    return -1;
+                }
+            }
+            return n;
+        }
+
+        /**
+         * Skips the whole chunks covered by the skipped bytes without fetching them.
+         */
+        @Override
+        public long skip(long n) throws IOException {
+            if (n <= 0) {
+                return 0;
+            }
+            long skipped = current.skip(n);
+            boolean skippedChunks = false;
+            while (index < chunks.size() && skipped + chunks.get(index).length <= n) {
+                Future<byte[]> future = prefetched.poll();
+                if (future != null) {
+                    future.cancel(true);
+                }
+                skipped += chunks.get(index).length;
+                index++;
+                skippedChunks = true;
+            }
+            if (skippedChunks) {
+                prefetch();
+            }
+            if (skipped < n && next()) {
+                skipped += current.skip(n - skipped);
+            }
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return current.available();
+        }
+
+        @Override
+        public void close() {
+            prefetched.forEach(future -> future.cancel(true));
+            prefetched.clear();
+        }
+    }
+
+    /**
+     * Binary stored as chunks, whose stream is reassembled from the chunk store.
+     */
+    public static class ChunkedBinary extends Binary {
+
+        private static final long serialVersionUID = 1L;
+
+        // transient to be Serializable
+        protected transient ChunkingBinaryManager cbm;
+
+        public ChunkedBinary(String digest, String blobProviderId, ChunkingBinaryManager cbm) {
+            super(digest, blobProviderId);
+            this.cbm = cbm;
+        }
+
+        // because the class is Serializable, re-acquire the ChunkingBinaryManager
+        protected ChunkingBinaryManager getChunkingBinaryManager() {
+            if (cbm == null) {
+                if (blobProviderId == null) {
+                    throw new UnsupportedOperationException("Cannot find binary manager, no blob provider id");
+                }
+                BlobManager bm = Framework.getService(BlobManager.class);
+                BlobProvider bp = bm.getBlobProvider(blobProviderId);
+                cbm = (ChunkingBinaryManager) bp.getBinaryManager();
+            }
+            return cbm;
+        }
+
+        @Override
+        public InputStream getStream() throws IOException {
+            return getChunkingBinaryManager().getStream(digest);
+        }
+
+        /**
+         * Gets a file with the content of the binary, reassembled from the chunks on first call.
+         * <p>
+         * This reads the whole binary, {@link #getStream} should be preferred when a stream is enough.
+         */
+        @Override
+        public synchronized File getFile() {
+            if (file == null) {
+                try {
+                    file = getChunkingBinaryManager().getTemporaryFile(digest, this);
+                } catch (IOException e) {
+                    throw new NuxeoException(e);
+                }
+            }
+            return file;
+        }
+
+        @Override
+        protected File recomputeFile() {
+            // no backing file, reassembled on demand by getFile
+            return null;
+        }
+    }
+
+    /**
+     * Garbage collector for the manifests, which also marks the chunks of the manifests in use in the chunk store.
+     */
+    public static class ChunkingBinaryGarbageCollector extends DefaultBinaryGarbageCollector {
+
+        protected BinaryGarbageCollector chunkGarbageCollector;
+
+        public ChunkingBinaryGarbageCollector(ChunkingBinaryManager binaryManager) {
+            super(binaryManager);
+        }
+
+        protected ChunkingBinaryManager getChunkingBinaryManager() {
+            return (ChunkingBinaryManager) binaryManager;
+        }
+
+        @Override
+        public void start() {
+            super.start();
+            chunkGarbageCollector = getChunkingBinaryManager().getChunkStore().getGarbageCollector();
+            chunkGarbageCollector.start();
+        }
+
+        @Override
+        public void mark(String digest) {
+            super.mark(digest);
+            List<Chunk> chunks;
+            try {
+                chunks = getChunkingBinaryManager().getChunks(digest);
+            } catch (IOException e) {
+                throw new NuxeoException(e);
+            }
+            if (chunks != null) {
+                chunks.forEach(chunk -> chunkGarbageCollector.mark(chunk.digest));
+            }
+        }
+
+        @Override
+        public void stop(boolean delete) {
+            super.stop(delete);
+            chunkGarbageCollector.stop(delete);
+            BinaryManagerStatus chunkStatus = chunkGarbageCollector.getStatus();
+            // count binaries from the manifests, but sizes from the chunks actually stored
+            status.sizeBinaries = chunkStatus.sizeBinaries;
+            status.sizeBinariesGC = chunkStatus.sizeBinariesGC;
+            status.gcDuration = Math.max(status.gcDuration, chunkStatus.gcDuration);
+        }
+
+        @Override
+        public boolean isInProgress() {
+            return super.isInProgress() || (chunkGarbageCollector != null && chunkGarbageCollector.isInProgress());
+        }
+    }
+
+}
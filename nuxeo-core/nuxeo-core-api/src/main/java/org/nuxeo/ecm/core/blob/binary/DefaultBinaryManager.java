@@ -63,7 +63,7 @@ public class DefaultBinaryManager extends LocalBinaryManager {
      */
     protected String storeAndDigest(FileBlob blob) throws IOException {
         String digest;
-        if (StringUtils.isEmpty(blob.getDigest())) {
+        if (StringUtils.isEmpty(blob.getDigest()) || !isValidDigest(blob.getDigest())) {
             try (InputStream in = blob.getStream()) {
                 digest = storeAndDigest(in, NullOutputStream.NULL_OUTPUT_STREAM);
             }
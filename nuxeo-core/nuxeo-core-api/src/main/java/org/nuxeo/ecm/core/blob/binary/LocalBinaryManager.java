@@ -22,17 +22,17 @@
 package org.nuxeo.ecm.core.blob.binary;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.Map;
 import java.util.regex.Pattern;
 
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -236,10 +236,7 @@ public class LocalBinaryManager extends AbstractBinaryManager {
             // atomic rename.
             File tmp = File.createTempFile(dest.getName(), ".tmp", dest.getParentFile());
             try {
-                try (InputStream in = new FileInputStream(source); //
-                        OutputStream out = new FileOutputStream(tmp)) {
-                    IOUtils.copy(in, out);
-                }
+                Files.copy(source.toPath(), tmp.toPath(), StandardCopyOption.REPLACE_EXISTING);
                 // then do the atomic rename
                 tmp.renameTo(dest);
             } finally {
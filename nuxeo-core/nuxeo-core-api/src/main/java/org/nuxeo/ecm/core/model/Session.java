@@ -33,6 +33,7 @@ import org.nuxeo.ecm.core.api.VersionModel;
 import org.nuxeo.ecm.core.api.lock.LockManager;
 import org.nuxeo.ecm.core.api.security.ACP;
 import org.nuxeo.ecm.core.api.query.QueryFilter;
+import org.nuxeo.ecm.core.schema.PrefetchInfo;
 
 /**
  * Internal Session accessing the low-level storage.
@@ -56,6 +57,17 @@ public interface Session<T extends QueryFilter> {
      */
     PartialList<Document> query(String query, String queryType, T queryFilter, long countUpTo);
 
+    /**
+     * Does a query, fetching together for all the result documents the schemas described by a prefetch profile.
+     *
+     * @param prefetchProfile the prefetch profile, or {@code null} for the default prefetch
+     * @since 11.1
+     */
+    default PartialList<Document> query(String query, String queryType, T queryFilter, long countUpTo,
+            PrefetchInfo prefetchProfile) {
+        return query(query, queryType, queryFilter, countUpTo);
+    }
+
     /**
      * Does a query and fetch the individual results as maps.
      */
@@ -134,6 +146,19 @@ public interface Session<T extends QueryFilter> {
      */
     Document getDocumentByUUID(String uuid) throws DocumentNotFoundException;
 
+    /**
+     * Gets a document given its ID, fetching together the schemas described by a prefetch profile.
+     *
+     * @param uuid the document id
+     * @param prefetchProfile the prefetch profile, or {@code null} for the default prefetch
+     * @return the document
+     * @throws DocumentNotFoundException if the document doesn't exist
+     * @since 11.1
+     */
+    default Document getDocumentByUUID(String uuid, PrefetchInfo prefetchProfile) throws DocumentNotFoundException {
+        return getDocumentByUUID(uuid);
+    }
+
     /**
      * Gets the root document in this repository.
      *
@@ -18,6 +18,7 @@
  */
 package org.nuxeo.ecm.core.blob.binary;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -41,10 +42,14 @@ import java.io.OutputStream;
 import java.security.GeneralSecurityException;
 import java.security.Key;
 import java.security.KeyStore;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Random;
 
 import javax.crypto.KeyGenerator;
 
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.junit.Before;
 import org.junit.Test;
@@ -186,4 +191,36 @@ public class TestAESBinaryManager {
         binaryManager.close();
     }
 
+    @Test
+    public void testAESBinaryManagerLargeBinary() throws Exception {
+        AESBinaryManager binaryManager = new AESBinaryManager();
+        String options = String.format("%s=%s", PARAM_PASSWORD, "mypassword");
+        binaryManager.initialize("repo", Collections.singletonMap(BinaryManager.PROP_KEY, options));
+
+        // bigger than the copy buffer
+        byte[] bytes = new byte[3 * AbstractBinaryManager.MAX_BUF_SIZE + 123];
+        new Random().nextBytes(bytes);
+        String expectedDigest = DigestUtils.md5Hex(bytes);
+
+        // store binary, the returned binary is backed by the clear data
+        Binary binary = binaryManager.getBinary(new ByteArrayInputStream(bytes));
+        assertEquals(expectedDigest, binary.getDigest());
+        try (InputStream stream = binary.getStream()) {
+            assertArrayEquals(bytes, IOUtils.toByteArray(stream));
+        }
+
+        // the stored file is encrypted
+        File file = binaryManager.getFileForDigest(expectedDigest, false);
+        assertTrue(file.exists());
+        assertFalse(Arrays.equals(bytes, FileUtils.readFileToByteArray(file)));
+
+        // get binary
+        binary = binaryManager.getBinary(expectedDigest);
+        try (InputStream stream = binary.getStream()) {
+            assertArrayEquals(bytes, IOUtils.toByteArray(stream));
+        }
+
+        binaryManager.close();
+    }
+
 }
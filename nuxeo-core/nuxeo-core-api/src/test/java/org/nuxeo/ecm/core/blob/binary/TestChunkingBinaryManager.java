@@ -0,0 +1,211 @@
+/*
+ * (C) Copyright 2019 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nuxeo.ecm.core.blob.binary;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.nuxeo.ecm.core.api.impl.blob.ByteArrayBlob;
+import org.nuxeo.ecm.core.blob.binary.ChunkingBinaryManager.Chunk;
+import org.nuxeo.runtime.test.runner.Features;
+import org.nuxeo.runtime.test.runner.FeaturesRunner;
+import org.nuxeo.runtime.test.runner.RuntimeFeature;
+
+@RunWith(FeaturesRunner.class)
+@Features(RuntimeFeature.class)
+public class TestChunkingBinaryManager {
+
+    protected ChunkingBinaryManager binaryManager;
+
+    @Before
+    public void before() throws IOException {
+        Map<String, String> properties = new HashMap<>();
+        properties.put(BinaryManager.PROP_PATH, "chunkedbinaries");
+        properties.put(ChunkingBinaryManager.CHUNK_MIN_SIZE_PROPERTY, "4 KB");
+        properties.put(ChunkingBinaryManager.CHUNK_AVG_SIZE_PROPERTY, "16 KB");
+        properties.put(ChunkingBinaryManager.CHUNK_MAX_SIZE_PROPERTY, "64 KB");
+        binaryManager = new ChunkingBinaryManager();
+        binaryManager.initialize("repo", properties);
+    }
+
+    @After
+    public void after() throws IOException {
+        File base = binaryManager.getStorageDir().getParentFile();
+        binaryManager.close();
+        FileUtils.deleteDirectory(base);
+    }
+
+    protected static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(1234).nextBytes(bytes);
+        return bytes;
+    }
+
+    protected byte[] read(Binary binary) throws IOException {
+        try (InputStream stream = binary.getStream()) {
+            return IOUtils.toByteArray(stream);
+        }
+    }
+
+    protected Set<String> getChunkDigests(String digest) throws IOException {
+        Set<String> digests = new HashSet<>();
+        for (Chunk chunk : binaryManager.getChunks(digest)) {
+            digests.add(chunk.digest);
+        }
+        return digests;
+    }
+
+    @Test
+    public void testStoreAndRead() throws Exception {
+        byte[] bytes = randomBytes(1024 * 1024 + 17);
+        String expectedDigest = DigestUtils.md5Hex(bytes);
+        assertNull(binaryManager.getBinary(expectedDigest));
+
+        Binary binary = binaryManager.getBinary(new ByteArrayBlob(bytes));
+        assertEquals(expectedDigest, binary.getDigest());
+        assertArrayEquals(bytes, read(binary));
+
+        // several chunks, within the configured bounds
+        List<Chunk> chunks = binaryManager.getChunks(expectedDigest);
+        assertTrue(chunks.size() > 1);
+        long length = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            Chunk chunk = chunks.get(i);
+            assertTrue(chunk.length <= 64 * 1024);
+            if (i < chunks.size() - 1) {
+                assertTrue(chunk.length >= 4 * 1024);
+            }
+            length += chunk.length;
+        }
+        assertEquals(bytes.length, length);
+
+        // read again from digest
+        binary = binaryManager.getBinary(expectedDigest);
+        assertNotNull(binary);
+        assertArrayEquals(bytes, read(binary));
+    }
+
+    @Test
+    public void testGetFile() throws Exception {
+        byte[] bytes = randomBytes(200 * 1024);
+        String digest = binaryManager.getBinary(new ByteArrayBlob(bytes)).getDigest();
+        Binary binary = binaryManager.getBinary(digest);
+        File file = binary.getFile();
+        assertNotNull(file);
+        assertArrayEquals(bytes, FileUtils.readFileToByteArray(file));
+        // reassembled only once
+        assertEquals(file, binary.getFile());
+    }
+
+    @Test
+    public void testSkip() throws Exception {
+        byte[] bytes = randomBytes(1024 * 1024 + 17);
+        Binary binary = binaryManager.getBinary(new ByteArrayBlob(bytes));
+        List<Chunk> chunks = binaryManager.getChunks(binary.getDigest());
+        assertTrue(chunks.size() > 2);
+        // skipped chunks must not be fetched: remove the first one from the store
+        Chunk first = chunks.get(0);
+        LocalBinaryManager chunkStore = (LocalBinaryManager) binaryManager.getChunkStore();
+        assertTrue(chunkStore.getFileForDigest(first.digest, false).delete());
+
+        long start = first.length + chunks.get(1).length / 2;
+        int length = 10000;
+        try (InputStream stream = binary.getStream()) {
+            assertEquals(start, stream.skip(start));
+            byte[] range = new byte[length];
+            IOUtils.readFully(stream, range);
+            assertArrayEquals(Arrays.copyOfRange(bytes, (int) start, (int) start + length), range);
+        }
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        Binary binary = binaryManager.getBinary(new ByteArrayBlob(new byte[0]));
+        assertEquals(0, binaryManager.getChunks(binary.getDigest()).size());
+        assertEquals(0, read(binary).length);
+    }
+
+    @Test
+    public void testDeduplication() throws Exception {
+        byte[] bytes = randomBytes(1024 * 1024);
+        // insert a few bytes in the middle
+        byte[] bytes2 = new byte[bytes.length + 10];
+        System.arraycopy(bytes, 0, bytes2, 0, 500_000);
+        System.arraycopy(bytes, 500_000, bytes2, 500_010, bytes.length - 500_000);
+
+        String digest = binaryManager.getBinary(new ByteArrayBlob(bytes)).getDigest();
+        String digest2 = binaryManager.getBinary(new ByteArrayBlob(bytes2)).getDigest();
+        assertArrayEquals(bytes2, read(binaryManager.getBinary(digest2)));
+
+        Set<String> chunks = getChunkDigests(digest);
+        Set<String> chunks2 = getChunkDigests(digest2);
+        Set<String> shared = new HashSet<>(chunks);
+        shared.retainAll(chunks2);
+        // only the chunks around the insertion differ
+        assertTrue(shared.size() + " / " + chunks.size(), shared.size() >= chunks.size() - 4);
+    }
+
+    @Test
+    public void testGC() throws Exception {
+        byte[] bytes = randomBytes(256 * 1024);
+        byte[] bytes2 = new byte[bytes.length];
+        new Random(5678).nextBytes(bytes2);
+        String digest = binaryManager.getBinary(new ByteArrayBlob(bytes)).getDigest();
+        String digest2 = binaryManager.getBinary(new ByteArrayBlob(bytes2)).getDigest();
+
+        // sleep before GC to pass its time threshold
+        Thread.sleep(3 * 1000);
+
+        BinaryGarbageCollector gc = binaryManager.getGarbageCollector();
+        gc.start();
+        gc.mark(digest2);
+        gc.stop(true);
+        BinaryManagerStatus status = gc.getStatus();
+        assertEquals(1, status.numBinaries);
+        assertEquals(1, status.numBinariesGC);
+        assertEquals(bytes2.length, status.sizeBinaries);
+        assertEquals(bytes.length, status.sizeBinariesGC);
+
+        // first binary and its chunks are gone, second is still readable
+        assertNull(binaryManager.getBinary(digest));
+        for (String chunkDigest : getChunkDigests(digest2)) {
+            assertNotNull(binaryManager.getChunkStore().getBinary(chunkDigest));
+        }
+        assertArrayEquals(bytes2, read(binaryManager.getBinary(digest2)));
+    }
+
+}
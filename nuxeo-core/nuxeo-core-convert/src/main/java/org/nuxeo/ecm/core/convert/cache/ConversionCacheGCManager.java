@@ -24,18 +24,18 @@ package org.nuxeo.ecm.core.convert.cache;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
 
+import org.apache.commons.lang3.tuple.Pair;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.nuxeo.ecm.core.convert.service.ConversionServiceImpl;
 
 /**
  * Manages GC processing to clean up disk cache.
+ * <p>
+ * The least recently used entries are evicted first, until the cache size is below its limit.
  *
  * @author tiry
  */
@@ -83,6 +83,11 @@ public class ConversionCacheGCManager {
     public static boolean gcIfNeeded() {
         log.debug("GC Thread awake, see if there is some work to be done");
 
+        SharedConversionCache sharedCache = ConversionCacheHolder.getSharedCache();
+        if (sharedCache != null) {
+            return sharedGCIfNeeded(sharedCache);
+        }
+
         long totalSize = getCacheSizeInKB();
         long limit = getMaxDiskSpaceUsageKB();
 
@@ -105,30 +110,52 @@ public class ConversionCacheGCManager {
         return true;
     }
 
-    public static void doGC(long deltaInKB) {
-
-        Set<String> cacheKeys = ConversionCacheHolder.getCacheKeys();
+    /**
+     * GC of the shared cache, which evicts the least recently used entries cluster-wide.
+     *
+     * @since 11.1
+     */
+    protected static boolean sharedGCIfNeeded(SharedConversionCache sharedCache) {
+        int evicted = sharedCache.doGC(getMaxDiskSpaceUsageKB());
+        gcCalls += 1;
+        if (evicted < 0) {
+            log.debug("No GC needed, go back to sleep for now");
+            return false;
+        }
+        log.debug("GC terminated, evicted " + evicted + " entries");
+        gcRuns += 1;
+        return true;
+    }
 
-        Map<Date, String> sortingMap = new HashMap<>();
+    public static void doGC(long deltaInKB) {
+        SharedConversionCache sharedCache = ConversionCacheHolder.getSharedCache();
+        if (sharedCache != null) {
+            long limit = sharedCache.getStorageSize() / 1024 - deltaInKB;
+            sharedCache.doGC(Math.max(limit, -1));
+            gcRuns += 1;
+            return;
+        }
 
-        for (String key : cacheKeys) {
+        // least recently used first
+        List<Pair<Date, String>> accessTimes = new ArrayList<>();
+        for (String key : ConversionCacheHolder.getCacheKeys()) {
             ConversionCacheEntry cacheEntry = ConversionCacheHolder.getCacheEntry(key);
-            Objects.requireNonNull(cacheEntry, key);
-            sortingMap.put(cacheEntry.getLastAccessedTime(), key);
+            if (cacheEntry != null) {
+                accessTimes.add(Pair.of(cacheEntry.getLastAccessedTime(), key));
+            }
         }
-
-        List<Date> accessTimeList = new ArrayList<>();
-        accessTimeList.addAll(sortingMap.keySet());
-        Collections.sort(accessTimeList);
+        Collections.sort(accessTimes);
 
         long deletedVolume = 0;
-        for (Date accessDate : accessTimeList) {
-            ConversionCacheEntry cacheEntry = ConversionCacheHolder.getCacheEntry(sortingMap.get(accessDate));
-
-            long deletePotential = cacheEntry.getDiskSpaceUsageInKB();
-
-            deletedVolume += deletePotential;
-            ConversionCacheHolder.removeFromCache(sortingMap.get(accessDate));
+        for (Pair<Date, String> accessTime : accessTimes) {
+            String key = accessTime.getRight();
+            ConversionCacheEntry cacheEntry = ConversionCacheHolder.getCacheEntry(key);
+            if (cacheEntry == null) {
+                // removed meanwhile
+                continue;
+            }
+            deletedVolume += cacheEntry.getDiskSpaceUsageInKB();
+            ConversionCacheHolder.removeFromCache(key);
 
             if (deletedVolume > deltaInKB) {
                 break;
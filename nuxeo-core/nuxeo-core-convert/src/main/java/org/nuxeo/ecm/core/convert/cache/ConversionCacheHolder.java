@@ -41,6 +41,9 @@ import org.nuxeo.ecm.core.convert.service.ConversionServiceImpl;
 
 /**
  * Manager for the cache system of the {@link ConversionService}.
+ * <p>
+ * Cache entries are kept on the local disk, unless a {@link SharedConversionCache} is configured, in which case they
+ * are shared with the other nodes of the cluster.
  *
  * @author tiry
  */
@@ -58,6 +61,8 @@ public class ConversionCacheHolder {
 
     public static final AtomicLong CACHE_HITS = new AtomicLong();
 
+    protected static volatile SharedConversionCache sharedCache;
+
     // Utility class.
     private ConversionCacheHolder() {
     }
@@ -67,9 +72,38 @@ public class ConversionCacheHolder {
     }
 
     public static int getNbCacheEntries() {
+        SharedConversionCache shared = sharedCache;
+        if (shared != null) {
+            return (int) shared.getNbEntries();
+        }
         return cache.keySet().size();
     }
 
+    /**
+     * Gets the shared cache used instead of the local one, or {@code null} if the cache is local.
+     *
+     * @since 11.1
+     */
+    public static SharedConversionCache getSharedCache() {
+        return sharedCache;
+    }
+
+    /**
+     * Sets the shared cache to use instead of the local one, or {@code null} to use the local cache.
+     *
+     * @since 11.1
+     */
+    public static void setSharedCache(SharedConversionCache shared) {
+        sharedCache = shared;
+    }
+
+    protected static void incrementCacheHits() {
+        if (CACHE_HITS.incrementAndGet() < 0) {
+            // skip all negative values
+            CACHE_HITS.addAndGet(Long.MIN_VALUE); // back to 0
+        }
+    }
+
     protected static List<String> getSubPathFromKey(String key) {
         List<String> subPath = new ArrayList<>();
 
@@ -108,6 +142,11 @@ public class ConversionCacheHolder {
 
     public static void addToCache(String key, BlobHolder result) {
         Objects.requireNonNull(key);
+        SharedConversionCache shared = sharedCache;
+        if (shared != null) {
+            shared.put(key, result);
+            return;
+        }
         cacheLock.writeLock().lock();
         try {
             doAddToCache(key, result);
@@ -132,6 +171,11 @@ public class ConversionCacheHolder {
     }
 
     public static void removeFromCache(String key) {
+        SharedConversionCache shared = sharedCache;
+        if (shared != null) {
+            shared.remove(key);
+            return;
+        }
         cacheLock.writeLock().lock();
         try {
             doRemoveFromCache(key);
@@ -163,6 +207,14 @@ public class ConversionCacheHolder {
     }
 
     public static BlobHolder getFromCache(String key) {
+        SharedConversionCache shared = sharedCache;
+        if (shared != null) {
+            BlobHolder result = shared.get(key);
+            if (result != null) {
+                incrementCacheHits();
+            }
+            return result;
+        }
         cacheLock.readLock().lock();
         try {
             return doGetFromCache(key);
@@ -174,10 +226,7 @@ public class ConversionCacheHolder {
     protected static BlobHolder doGetFromCache(String key) {
         ConversionCacheEntry cacheEntry = cache.get(key);
         if (cacheEntry != null) {
-            if (CACHE_HITS.incrementAndGet() < 0) {
-                // skip all negative values
-                CACHE_HITS.addAndGet(Long.MIN_VALUE); // back to 0
-            }
+            incrementCacheHits();
             return cacheEntry.restore();
         }
         return null;
@@ -0,0 +1,359 @@
+/*
+ * (C) Copyright 2019 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nuxeo.ecm.core.convert.cache;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.nuxeo.ecm.core.api.Blob;
+import org.nuxeo.ecm.core.api.NuxeoException;
+import org.nuxeo.ecm.core.api.blobholder.BlobHolder;
+import org.nuxeo.ecm.core.blob.BlobInfo;
+import org.nuxeo.ecm.core.blob.BlobManager;
+import org.nuxeo.ecm.core.blob.BlobProvider;
+import org.nuxeo.ecm.core.blob.binary.BinaryGarbageCollector;
+import org.nuxeo.runtime.api.Framework;
+import org.nuxeo.runtime.kv.KeyValueService;
+import org.nuxeo.runtime.kv.KeyValueStore;
+import org.nuxeo.runtime.kv.KeyValueStoreProvider;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Conversion cache shared by all the nodes of a cluster.
+ * <p>
+ * The converted blobs are stored in a transient {@link BlobProvider}, and the cache entries are indexed in a
+ * {@link KeyValueStore} by a digest of their cache key. Each entry records the blob infos of the conversion result,
+ * its size and its last access time, which is used to evict the least recently used entries when the total size of
+ * the cache exceeds its limit.
+ *
+ * @since 11.1
+ */
+public class SharedConversionCache {
+
+    private static final Logger log = LogManager.getLogger(SharedConversionCache.class);
+
+    public static final String DEFAULT_NAME = "conversioncache";
+
+    public static final String DEFAULT_BLOB_PROVIDER = "transient_" + DEFAULT_NAME;
+
+    public static final String DEFAULT_FALLBACK_BLOB_PROVIDER = "default";
+
+    protected static final String ENTRY_PREFIX = "entry:";
+
+    protected static final String ACCESS_PREFIX = "access:";
+
+    protected static final String SIZE_SUFFIX = ".size";
+
+    protected static final String STORAGE_SIZE = "__size__";
+
+    protected static final String GC_LOCK = "__gclock__";
+
+    /** Lock expiration in case the node doing the GC crashes, in seconds. */
+    protected static final long GC_LOCK_TTL = 3600;
+
+    protected static final String KEY = "key";
+
+    protected static final String MIMETYPE = "mimetype";
+
+    protected static final String ENCODING = "encoding";
+
+    protected static final String FILENAME = "filename";
+
+    protected static final String LENGTH = "length";
+
+    protected static final String DIGEST = "digest";
+
+    protected static final TypeReference<List<Map<String, String>>> LIST_MAP_STRING_STRING = new TypeReference<List<Map<String, String>>>() {
+    };
+
+    protected final String keyValueStoreName;
+
+    protected final String blobProviderId;
+
+    protected final String defaultBlobProviderId;
+
+    protected final ObjectMapper mapper = new ObjectMapper();
+
+    public SharedConversionCache(String keyValueStoreName, String blobProviderId, String defaultBlobProviderId) {
+        this.keyValueStoreName = keyValueStoreName;
+        this.blobProviderId = blobProviderId;
+        this.defaultBlobProviderId = defaultBlobProviderId;
+    }
+
+    protected KeyValueStore getKeyValueStore() {
+        return Framework.getService(KeyValueService.class).getKeyValueStore(keyValueStoreName);
+    }
+
+    protected BlobProvider getBlobProvider() {
+        BlobProvider blobProvider = Framework.getService(BlobManager.class)
+                                             .getBlobProviderWithNamespace(blobProviderId, defaultBlobProviderId);
+        if (blobProvider == null) {
+            throw new NuxeoException("No blob provider with id: " + blobProviderId);
+        }
+        if (!blobProvider.isTransient()) {
+            throw new NuxeoException("Blob provider: " + blobProviderId + " used for the conversion cache: "
+                    + keyValueStoreName + " must be configured as transient");
+        }
+        return blobProvider;
+    }
+
+    /**
+     * Cache keys contain the converter parameters and may be arbitrarily long, so they are hashed.
+     */
+    protected String getEntryId(String cacheKey) {
+        return DigestUtils.sha256Hex(cacheKey.getBytes(UTF_8));
+    }
+
+    /**
+     * Gets a cached conversion result, refreshing its last access time.
+     *
+     * @return the cached result, or {@code null} if not cached
+     */
+    public BlobHolder get(String cacheKey) {
+        String id = getEntryId(cacheKey);
+        KeyValueStore kvs = getKeyValueStore();
+        List<Map<String, String>> blobMaps = fromJson(kvs.getString(ENTRY_PREFIX + id));
+        if (blobMaps == null) {
+            return null;
+        }
+        BlobProvider bp = getBlobProvider();
+        List<Blob> blobs = new ArrayList<>(blobMaps.size());
+        try {
+            for (Map<String, String> blobMap : blobMaps) {
+                BlobInfo blobInfo = new BlobInfo();
+                blobInfo.key = blobMap.get(KEY);
+                blobInfo.mimeType = blobMap.get(MIMETYPE);
+                blobInfo.encoding = blobMap.get(ENCODING);
+                blobInfo.filename = blobMap.get(FILENAME);
+                String length = blobMap.get(LENGTH);
+                blobInfo.length = length == null ? null : Long.valueOf(length);
+                blobInfo.digest = blobMap.get(DIGEST);
+                blobs.add(bp.readBlob(blobInfo));
+            }
+        } catch (IOException e) {
+            log.warn("Cannot read cached conversion: {}, ignoring it", cacheKey, e);
+            return null;
+        }
+        kvs.put(ACCESS_PREFIX + id, Long.valueOf(System.currentTimeMillis()));
+        return new SimpleCachableBlobHolder(blobs);
+    }
+
+    /**
+     * Stores a conversion result in the cache.
+     * <p>
+     * If another node already cached the same conversion, the existing entry is kept.
+     *
+     * @return {@code true} if the result was stored
+     */
+    public boolean put(String cacheKey, BlobHolder result) {
+        List<Blob> blobs = result == null ? null : result.getBlobs();
+        if (blobs == null || blobs.isEmpty()) {
+            return false;
+        }
+        String id = getEntryId(cacheKey);
+        KeyValueStore kvs = getKeyValueStore();
+        if (kvs.getString(ENTRY_PREFIX + id) != null) {
+            return false;
+        }
+        BlobProvider bp = getBlobProvider();
+        List<Map<String, String>> blobMaps = new ArrayList<>(blobs.size());
+        long size = 0;
+        try {
+            for (Blob blob : blobs) {
+                long length = blob.getLength();
+                if (length > 0) {
+                    size += length;
+                }
+                Map<String, String> blobMap = new HashMap<>();
+                blobMap.put(KEY, bp.writeBlob(blob));
+                blobMap.put(MIMETYPE, blob.getMimeType());
+                blobMap.put(ENCODING, blob.getEncoding());
+                blobMap.put(FILENAME, blob.getFilename());
+                blobMap.put(LENGTH, String.valueOf(length));
+                blobMap.put(DIGEST, blob.getDigest());
+                blobMaps.add(blobMap);
+            }
+        } catch (IOException e) {
+            log.error("Cannot store conversion result in cache: {}", cacheKey, e);
+            return false;
+        }
+        if (!kvs.compareAndSet(ENTRY_PREFIX + id, null, toJson(blobMaps))) {
+            // concurrent put from another node, its blobs will be garbage collected
+            return false;
+        }
+        // the size is stored next to the access time so that GC doesn't need to read the entries
+        kvs.put(ACCESS_PREFIX + id, Long.valueOf(System.currentTimeMillis()));
+        kvs.put(ACCESS_PREFIX + id + SIZE_SUFFIX, Long.valueOf(size));
+        kvs.addAndGet(STORAGE_SIZE, size);
+        return true;
+    }
+
+    /**
+     * Removes a cached conversion result.
+     */
+    public void remove(String cacheKey) {
+        removeEntry(getEntryId(cacheKey), getKeyValueStore());
+    }
+
+    protected void removeEntry(String id, KeyValueStore kvs) {
+        Long size = kvs.getLong(ACCESS_PREFIX + id + SIZE_SUFFIX);
+        kvs.put(ENTRY_PREFIX + id, (String) null);
+        kvs.put(ACCESS_PREFIX + id, (String) null);
+        kvs.put(ACCESS_PREFIX + id + SIZE_SUFFIX, (String) null);
+        if (size != null) {
+            kvs.addAndGet(STORAGE_SIZE, -size.longValue());
+        }
+    }
+
+    /**
+     * Gets the total size of the cached blobs, in bytes.
+     */
+    public long getStorageSize() {
+        Long size = getKeyValueStore().getLong(STORAGE_SIZE);
+        return size == null ? 0 : size.longValue();
+    }
+
+    /**
+     * Gets the number of cache entries. THIS METHOD IS COSTLY.
+     */
+    public long getNbEntries() {
+        return ((KeyValueStoreProvider) getKeyValueStore()).keyStream(ENTRY_PREFIX).count();
+    }
+
+    /**
+     * Evicts the least recently used entries until the total size of the cache is below the given limit, then deletes
+     * the blobs that are not referenced anymore.
+     * <p>
+     * Only one node of the cluster does the GC at a given time, the other ones return immediately.
+     *
+     * @param maxSizeInKB the cache size limit, a negative value means evicting everything
+     * @return the number of evicted entries, or {@code -1} if no GC was needed or another node is doing it
+     */
+    public int doGC(long maxSizeInKB) {
+        long maxSize = maxSizeInKB < 0 ? -1 : maxSizeInKB * 1024;
+        long size = getStorageSize();
+        if (size <= maxSize) {
+            return -1;
+        }
+        KeyValueStoreProvider kvs = (KeyValueStoreProvider) getKeyValueStore();
+        if (!kvs.compareAndSet(GC_LOCK, null, String.valueOf(System.currentTimeMillis()), GC_LOCK_TTL)) {
+            log.debug("GC of conversion cache: {} already running on another node", keyValueStoreName);
+            return -1;
+        }
+        try {
+            int len = ACCESS_PREFIX.length();
+            List<String> ids = kvs.keyStream(ACCESS_PREFIX)
+                                  .filter(key -> !key.endsWith(SIZE_SUFFIX))
+                                  .map(key -> key.substring(len))
+                                  .collect(Collectors.toList());
+            Map<String, Long> accessTimes = new HashMap<>();
+            for (String id : ids) {
+                Long time = kvs.getLong(ACCESS_PREFIX + id);
+                accessTimes.put(id, time == null ? Long.valueOf(0) : time);
+            }
+            // least recently used first
+            ids.sort(Comparator.comparing(accessTimes::get));
+            int evicted = 0;
+            for (String id : ids) {
+                if (size <= maxSize) {
+                    break;
+                }
+                Long entrySize = kvs.getLong(ACCESS_PREFIX + id + SIZE_SUFFIX);
+                removeEntry(id, kvs);
+                size -= entrySize == null ? 0 : entrySize.longValue();
+                evicted++;
+            }
+            log.debug("Evicted {} entries from conversion cache: {}", evicted, keyValueStoreName);
+            collectBlobs(kvs);
+            return evicted;
+        } finally {
+            kvs.put(GC_LOCK, (String) null);
+        }
+    }
+
+    /**
+     * Deletes the blobs that are not referenced by any cache entry, and recomputes the exact storage size.
+     */
+    protected void collectBlobs(KeyValueStoreProvider kvs) {
+        BinaryGarbageCollector gc = getBlobProvider().getBinaryManager().getGarbageCollector();
+        boolean delete = false;
+        long size = 0;
+        gc.start();
+        try {
+            List<String> keys = kvs.keyStream(ENTRY_PREFIX).collect(Collectors.toList());
+            for (String key : keys) {
+                List<Map<String, String>> blobMaps = fromJson(kvs.getString(key));
+                if (blobMaps == null) {
+                    continue;
+                }
+                for (Map<String, String> blobMap : blobMaps) {
+                    gc.mark(blobMap.get(KEY));
+                    long length = Long.parseLong(blobMap.get(LENGTH));
+                    if (length > 0) {
+                        size += length;
+                    }
+                }
+            }
+            delete = true;
+        } finally {
+            // don't delete if there's an exception, but still stop the GC
+            gc.stop(delete);
+        }
+        kvs.put(STORAGE_SIZE, Long.valueOf(size));
+    }
+
+    /**
+     * Removes all the entries from the cache.
+     */
+    public void clear() {
+        KeyValueStoreProvider kvs = (KeyValueStoreProvider) getKeyValueStore();
+        kvs.clear();
+        collectBlobs(kvs);
+    }
+
+    protected String toJson(List<Map<String, String>> blobMaps) {
+        try {
+            return mapper.writeValueAsString(blobMaps);
+        } catch (IOException e) {
+            throw new NuxeoException(e);
+        }
+    }
+
+    protected List<Map<String, String>> fromJson(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return mapper.readValue(json, LIST_MAP_STRING_STRING);
+        } catch (IOException e) {
+            log.error("Invalid conversion cache entry: {}", json);
+            return null;
+        }
+    }
+
+}
@@ -29,6 +29,7 @@ import org.nuxeo.common.Environment;
 import org.nuxeo.common.xmap.annotation.XNode;
 import org.nuxeo.common.xmap.annotation.XObject;
 import org.nuxeo.ecm.core.api.NuxeoException;
+import org.nuxeo.ecm.core.convert.cache.SharedConversionCache;
 
 /**
  * XMap Descriptor for the {@link org.nuxeo.ecm.core.convert.api.ConversionService} configuration.
@@ -100,6 +101,52 @@ public class GlobalConfigDescriptor implements Serializable {
         return diskCacheSize == null ? DEFAULT_DISK_CACHE_IN_KB : diskCacheSize.intValue();
     }
 
+    /** @since 11.1 */
+    @XNode("sharedCache")
+    protected Boolean sharedCache;
+
+    /**
+     * Whether the conversion cache is shared across the cluster through a key/value store and a blob provider, instead
+     * of being kept on the local disk.
+     *
+     * @since 11.1
+     */
+    public boolean isSharedCache() {
+        return sharedCache != null && sharedCache.booleanValue();
+    }
+
+    /** @since 11.1 */
+    @XNode("sharedCacheKeyValueStore")
+    protected String sharedCacheKeyValueStore;
+
+    /** @since 11.1 */
+    public String getSharedCacheKeyValueStore() {
+        return sharedCacheKeyValueStore == null ? SharedConversionCache.DEFAULT_NAME : sharedCacheKeyValueStore;
+    }
+
+    /** @since 11.1 */
+    @XNode("sharedCacheBlobProvider")
+    protected String sharedCacheBlobProvider;
+
+    /** @since 11.1 */
+    public String getSharedCacheBlobProvider() {
+        return sharedCacheBlobProvider == null ? SharedConversionCache.DEFAULT_BLOB_PROVIDER : sharedCacheBlobProvider;
+    }
+
+    /**
+     * The blob provider from which a namespaced copy is created if the shared cache blob provider doesn't exist.
+     *
+     * @since 11.1
+     */
+    @XNode("sharedCacheDefaultBlobProvider")
+    protected String sharedCacheDefaultBlobProvider;
+
+    /** @since 11.1 */
+    public String getSharedCacheDefaultBlobProvider() {
+        return sharedCacheDefaultBlobProvider == null ? SharedConversionCache.DEFAULT_FALLBACK_BLOB_PROVIDER
+                : sharedCacheDefaultBlobProvider;
+    }
+
     public void update(GlobalConfigDescriptor other) {
         if (other.enableCache != null) {
             enableCache = other.enableCache;
@@ -113,6 +160,18 @@ public class GlobalConfigDescriptor implements Serializable {
         if (other.cachingDirectory != null) {
             cachingDirectory = other.cachingDirectory;
         }
+        if (other.sharedCache != null) {
+            sharedCache = other.sharedCache;
+        }
+        if (other.sharedCacheKeyValueStore != null) {
+            sharedCacheKeyValueStore = other.sharedCacheKeyValueStore;
+        }
+        if (other.sharedCacheBlobProvider != null) {
+            sharedCacheBlobProvider = other.sharedCacheBlobProvider;
+        }
+        if (other.sharedCacheDefaultBlobProvider != null) {
+            sharedCacheDefaultBlobProvider = other.sharedCacheDefaultBlobProvider;
+        }
     }
 
 }
@@ -24,11 +24,17 @@ import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -53,6 +59,7 @@ import org.nuxeo.ecm.core.convert.api.ConverterNotRegistered;
 import org.nuxeo.ecm.core.convert.cache.CacheKeyGenerator;
 import org.nuxeo.ecm.core.convert.cache.ConversionCacheHolder;
 import org.nuxeo.ecm.core.convert.cache.GCTask;
+import org.nuxeo.ecm.core.convert.cache.SharedConversionCache;
 import org.nuxeo.ecm.core.convert.extension.ChainedConverter;
 import org.nuxeo.ecm.core.convert.extension.Converter;
 import org.nuxeo.ecm.core.convert.extension.ConverterDescriptor;
@@ -86,12 +93,25 @@ public class ConversionServiceImpl extends DefaultComponent implements Conversio
      */
     public static final String ENFORCE_SOURCE_MIME_TYPE_CHECK = "nuxeo.convert.enforceSourceMimeTypeCheck";
 
+    /**
+     * Maximum time to wait for an identical conversion in progress, after which the conversion is run directly.
+     *
+     * @since 11.1
+     */
+    public static final String COALESCING_TIMEOUT_PROPERTY = "nuxeo.convert.coalescing.timeout";
+
+    /** @since 11.1 */
+    public static final Duration DEFAULT_COALESCING_TIMEOUT = Duration.ofMinutes(5);
+
     protected final Map<String, ConverterDescriptor> converterDescriptors = new HashMap<>();
 
     protected final MimeTypeTranslationHelper translationHelper = new MimeTypeTranslationHelper();
 
     protected final GlobalConfigDescriptor config = new GlobalConfigDescriptor();
 
+    /** @since 11.1 */
+    protected final Map<String, CompletableFuture<Void>> inflightConversions = new ConcurrentHashMap<>();
+
     protected Thread gcThread;
 
     protected GCTask gcTask;
@@ -335,12 +355,7 @@ public class ConversionServiceImpl extends DefaultComponent implements Conversio
         BlobHolder result = ConversionCacheHolder.getFromCache(cacheKey);
 
         if (result == null) {
-            Converter converter = desc.getConverterInstance();
-            result = converter.convert(blobHolder, parameters);
-
-            if (config.isCacheEnabled()) {
-                ConversionCacheHolder.addToCache(cacheKey, result);
-            }
+            result = convertAndCache(cacheKey, desc, blobHolder, parameters);
         } else if (result.getBlobs() != null && result.getBlobs().size() == 1) {
             // we need to reset the filename if result is a single file from the cache because the name is just a hash
             result.getBlob().setFilename(null);
@@ -354,6 +369,60 @@ public class ConversionServiceImpl extends DefaultComponent implements Conversio
         return result;
     }
 
+    /**
+     * Runs the converter and caches its result.
+     * <p>
+     * When the cache is enabled, identical conversions running concurrently are coalesced: only the first one runs the
+     * converter, the other ones wait for it and then get the result from the cache.
+     *
+     * @since 11.1
+     */
+    protected BlobHolder convertAndCache(String cacheKey, ConverterDescriptor desc, BlobHolder blobHolder,
+            Map<String, Serializable> parameters) {
+        Converter converter = desc.getConverterInstance();
+        if (!config.isCacheEnabled()) {
+            return converter.convert(blobHolder, parameters);
+        }
+        CompletableFuture<Void> conversion = new CompletableFuture<>();
+        CompletableFuture<Void> inflight = inflightConversions.putIfAbsent(cacheKey, conversion);
+        if (inflight != null) {
+            log.debug("Waiting for identical conversion in progress: {}", cacheKey);
+            Duration timeout = Framework.getService(ConfigurationService.class)
+                                        .getDuration(COALESCING_TIMEOUT_PROPERTY, DEFAULT_COALESCING_TIMEOUT);
+            try {
+                inflight.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                log.warn("Identical conversion: {} still in progress after: {}, converting directly", cacheKey,
+                        timeout);
+                return converter.convert(blobHolder, parameters);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ConversionException("Interrupted while waiting for conversion: " + cacheKey, blobHolder, e);
+            } catch (ExecutionException e) {
+                // never completed exceptionally, a failed conversion just leaves nothing in the cache
+                log.debug("Identical conversion: {} failed", cacheKey, e);
+            }
+            BlobHolder result = ConversionCacheHolder.getFromCache(cacheKey);
+            if (result != null) {
+                if (result.getBlobs() != null && result.getBlobs().size() == 1) {
+                    // single file from the cache, the name is just a hash
+                    result.getBlob().setFilename(null);
+                }
+                return result;
+            }
+            // the other conversion failed or its result could not be cached
+            return converter.convert(blobHolder, parameters);
+        }
+        try {
+            BlobHolder result = converter.convert(blobHolder, parameters);
+            ConversionCacheHolder.addToCache(cacheKey, result);
+            return result;
+        } finally {
+            inflightConversions.remove(cacheKey, conversion);
+            conversion.complete(null);
+        }
+    }
+
     /**
      * Returns true if the converter has the given {@code mimeType} as source mime type, false otherwise.
      *
@@ -545,12 +614,17 @@ public class ConversionServiceImpl extends DefaultComponent implements Conversio
 
     @Override
     public void start(ComponentContext context) {
+        if (config.isCacheEnabled() && config.isSharedCache()) {
+            ConversionCacheHolder.setSharedCache(new SharedConversionCache(config.getSharedCacheKeyValueStore(),
+                    config.getSharedCacheBlobProvider(), config.getSharedCacheDefaultBlobProvider()));
+        }
         startGC();
     }
 
     @Override
     public void stop(ComponentContext context) {
         endGC();
+        ConversionCacheHolder.setSharedCache(null);
     }
 
     protected void startGC() {
@@ -0,0 +1,172 @@
+/*
+ * (C) Copyright 2019 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nuxeo.ecm.core.convert.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.inject.Inject;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.nuxeo.ecm.core.api.Blob;
+import org.nuxeo.ecm.core.api.Blobs;
+import org.nuxeo.ecm.core.api.blobholder.BlobHolder;
+import org.nuxeo.ecm.core.api.blobholder.SimpleBlobHolder;
+import org.nuxeo.ecm.core.convert.api.ConversionService;
+import org.nuxeo.ecm.core.convert.cache.CacheKeyGenerator;
+import org.nuxeo.ecm.core.convert.cache.ConversionCacheHolder;
+import org.nuxeo.ecm.core.convert.cache.SharedConversionCache;
+import org.nuxeo.ecm.core.convert.service.ConversionServiceImpl;
+import org.nuxeo.runtime.test.runner.Deploy;
+import org.nuxeo.runtime.test.runner.Features;
+import org.nuxeo.runtime.test.runner.FeaturesRunner;
+
+/**
+ * @since 11.1
+ */
+@RunWith(FeaturesRunner.class)
+@Features(ConvertFeature.class)
+@Deploy("org.nuxeo.runtime.kv")
+@Deploy("org.nuxeo.ecm.core.convert:OSGI-INF/convert-service-config-shared.xml")
+public class TestSharedCache {
+
+    @Inject
+    protected ConversionService cs;
+
+    protected SharedConversionCache sharedCache;
+
+    @Before
+    public void before() {
+        // GC is triggered explicitly by the tests
+        ((ConversionServiceImpl) cs).endGC();
+        sharedCache = ConversionCacheHolder.getSharedCache();
+        assertNotNull(sharedCache);
+        SlowIdentityConverter.INVOCATIONS.set(0);
+    }
+
+    @After
+    public void after() {
+        sharedCache.clear();
+    }
+
+    protected static BlobHolder getBlobHolder(String content) {
+        Blob blob = Blobs.createBlob(content, "text/plain", null, "hello.txt");
+        return new SimpleBlobHolder(blob);
+    }
+
+    @Test
+    public void testSharedCache() throws Exception {
+        String content = StringUtils.repeat('a', 2048);
+        BlobHolder bh = getBlobHolder(content);
+        long cacheHits = ConversionCacheHolder.getCacheHits();
+
+        BlobHolder result = cs.convert("slowIdentity", bh, null);
+        assertEquals(content, result.getBlob().getString());
+        assertEquals(1, ConversionCacheHolder.getNbCacheEntries());
+        assertEquals(2048, sharedCache.getStorageSize());
+
+        // second conversion comes from the cache
+        result = cs.convert("slowIdentity", bh, null);
+        assertEquals(content, result.getBlob().getString());
+        assertEquals(1, SlowIdentityConverter.INVOCATIONS.get());
+        assertEquals(1, ConversionCacheHolder.getCacheHits() - cacheHits);
+
+        // under the limit, nothing to evict
+        assertEquals(-1, sharedCache.doGC(2));
+        assertEquals(1, ConversionCacheHolder.getNbCacheEntries());
+
+        // evict everything
+        assertEquals(1, sharedCache.doGC(1));
+        assertEquals(0, ConversionCacheHolder.getNbCacheEntries());
+        assertEquals(0, sharedCache.getStorageSize());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() throws Exception {
+        BlobHolder bh1 = getBlobHolder(StringUtils.repeat('a', 2048));
+        BlobHolder bh2 = getBlobHolder(StringUtils.repeat('b', 2048));
+        String key1 = CacheKeyGenerator.computeKey("slowIdentity", bh1, null);
+        String key2 = CacheKeyGenerator.computeKey("slowIdentity", bh2, null);
+
+        cs.convert("slowIdentity", bh1, null);
+        Thread.sleep(10);
+        cs.convert("slowIdentity", bh2, null);
+        Thread.sleep(10);
+        // access the first entry again
+        cs.convert("slowIdentity", bh1, null);
+        assertEquals(2, ConversionCacheHolder.getNbCacheEntries());
+
+        // the least recently used entry is evicted
+        assertEquals(1, sharedCache.doGC(3));
+        assertNotNull(sharedCache.get(key1));
+        assertNull(sharedCache.get(key2));
+        assertEquals(2048, sharedCache.getStorageSize());
+    }
+
+    @Test
+    public void testConcurrentConversionsAreCoalesced() throws Exception {
+        String content = StringUtils.repeat('c', 1024);
+        int nbThreads = 5;
+        ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+        try {
+            List<Future<BlobHolder>> futures = new ArrayList<>();
+            for (int i = 0; i < nbThreads; i++) {
+                futures.add(executor.submit(() -> cs.convert("slowIdentity", getBlobHolder(content), null)));
+            }
+            for (Future<BlobHolder> future : futures) {
+                assertEquals(content, future.get().getBlob().getString());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, SlowIdentityConverter.INVOCATIONS.get());
+        assertEquals(1, ConversionCacheHolder.getNbCacheEntries());
+    }
+
+    @Test
+    @Deploy("org.nuxeo.ecm.core.convert:OSGI-INF/test-coalescing-timeout-contrib.xml")
+    public void testCoalescedConversionTimeout() throws Exception {
+        String content = StringUtils.repeat('d', 1024);
+        int nbThreads = 2;
+        ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+        try {
+            List<Future<BlobHolder>> futures = new ArrayList<>();
+            for (int i = 0; i < nbThreads; i++) {
+                futures.add(executor.submit(() -> cs.convert("slowIdentity", getBlobHolder(content), null)));
+            }
+            for (Future<BlobHolder> future : futures) {
+                assertEquals(content, future.get().getBlob().getString());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        // the waiting conversion gave up before the first one completed and converted directly
+        assertEquals(2, SlowIdentityConverter.INVOCATIONS.get());
+        assertEquals(1, ConversionCacheHolder.getNbCacheEntries());
+    }
+
+}
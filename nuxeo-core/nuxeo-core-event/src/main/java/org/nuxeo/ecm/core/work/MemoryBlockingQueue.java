@@ -28,11 +28,13 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 import org.nuxeo.ecm.core.work.api.Work;
+import org.nuxeo.ecm.core.work.api.Work.Priority;
 import org.nuxeo.ecm.core.work.api.WorkQueueMetrics;
 
 /**
@@ -40,6 +42,9 @@ import org.nuxeo.ecm.core.work.api.WorkQueueMetrics;
  * <p>
  * In addition, this implementation also keeps a set of {@link Work} ids in the queue when the queue elements are
  * {@link WorkHolder}s.
+ * <p>
+ * When configured with an interactive weight, the queue has a separate lane for the {@link Priority#BULK bulk} works,
+ * and takes up to that number of interactive works for each bulk work when both lanes have works.
  */
 public class MemoryBlockingQueue extends NuxeoBlockingQueue {
 
@@ -110,6 +115,34 @@ public class MemoryBlockingQueue extends NuxeoBlockingQueue {
 
     protected final BlockingQueue<Runnable> queue;
 
+    /**
+     * The lane of the bulk works, or {@code null} if the queue has a single lane.
+     *
+     * @since 11.1
+     */
+    protected final BlockingQueue<Runnable> bulkQueue;
+
+    /**
+     * @since 11.1
+     */
+    protected final int interactiveWeight;
+
+    /**
+     * The number of elements in both lanes, to wait for an element in any lane.
+     *
+     * @since 11.1
+     */
+    protected final Semaphore available = new Semaphore(0);
+
+    /**
+     * @since 11.1
+     */
+    protected final Object laneLock = new Object();
+
+    // @GuardedBy("laneLock")
+    // number of interactive works taken since the last bulk work
+    protected int interactiveTaken;
+
     protected final Map<String, Work> works = new HashMap<>();
 
     protected final Set<String> scheduledWorks = new HashSet<>();
@@ -129,8 +162,52 @@ public class MemoryBlockingQueue extends NuxeoBlockingQueue {
      * @param capacity the capacity, or -1 for unbounded
      */
     public MemoryBlockingQueue(String id, MemoryWorkQueuing queuing, int capacity) {
+        this(id, queuing, capacity, 0);
+    }
+
+    /**
+     * Creates a {@link BlockingQueue} with a maximum capacity, and with priority lanes if the interactive weight is
+     * greater than 0.
+     *
+     * @param capacity the capacity of each lane, or -1 for unbounded
+     * @param interactiveWeight the number of interactive works taken for each bulk work, or 0 for a single lane
+     * @since 11.1
+     */
+    public MemoryBlockingQueue(String id, MemoryWorkQueuing queuing, int capacity, int interactiveWeight) {
         super(id, queuing);
         queue = new ReentrantLinkedBlockingQueue<>(capacity);
+        bulkQueue = interactiveWeight > 0 ? new ReentrantLinkedBlockingQueue<>(capacity) : null;
+        this.interactiveWeight = interactiveWeight;
+    }
+
+    protected boolean hasPriorityLanes() {
+        return bulkQueue != null;
+    }
+
+    protected BlockingQueue<Runnable> getLane(Runnable r) {
+        if (hasPriorityLanes() && WorkHolder.getWork(r).getPriority() == Priority.BULK) {
+            return bulkQueue;
+        }
+        return queue;
+    }
+
+    /**
+     * Takes an element from the lanes, favoring the interactive lane according to its weight.
+     */
+    protected Runnable pollLanes() {
+        synchronized (laneLock) {
+            Runnable r = null;
+            if (interactiveTaken < interactiveWeight || bulkQueue.isEmpty()) {
+                r = queue.poll();
+            }
+            if (r != null) {
+                interactiveTaken++;
+            } else {
+                r = bulkQueue.poll();
+                interactiveTaken = 0;
+            }
+            return r;
+        }
     }
 
     @Override
@@ -140,23 +217,40 @@ public class MemoryBlockingQueue extends NuxeoBlockingQueue {
 
     @Override
     public int getQueueSize() {
-        return queue.size();
+        return hasPriorityLanes() ? queue.size() + bulkQueue.size() : queue.size();
     }
 
     @Override
     public void putElement(Runnable r) throws InterruptedException {
-        queue.put(r);
+        if (!hasPriorityLanes()) {
+            queue.put(r);
+            return;
+        }
+        getLane(r).put(r);
+        available.release();
     }
 
     @Override
     public Runnable pollElement() {
-        Runnable r = queue.poll();
-        return r;
+        if (!hasPriorityLanes()) {
+            return queue.poll();
+        }
+        return available.tryAcquire() ? pollLanes() : null;
     }
 
     @Override
     public Runnable take() throws InterruptedException {
-        Runnable r = queue.take();
+        Runnable r;
+        if (hasPriorityLanes()) {
+            available.acquire();
+            r = pollLanes();
+            if (r == null) {
+                // canceled meanwhile
+                return null;
+            }
+        } else {
+            r = queue.take();
+        }
         if (anotherWorkIsAlreadyRunning(r)) {
             // reschedule the work so it does not run concurrently
             offer(r);
@@ -183,6 +277,9 @@ public class MemoryBlockingQueue extends NuxeoBlockingQueue {
         if (nanos <= 0) {
             return null;
         }
+        if (hasPriorityLanes()) {
+            return available.tryAcquire(nanos, TimeUnit.NANOSECONDS) ? pollLanes() : null;
+        }
         return queue.poll(nanos, TimeUnit.NANOSECONDS);
     }
 
@@ -212,10 +309,17 @@ public class MemoryBlockingQueue extends NuxeoBlockingQueue {
 
     synchronized WorkQueueMetrics workCanceled(Work work) {
         String id = work.getId();
-        for (Iterator<Runnable> it = queue.iterator(); it.hasNext();) {
+        BlockingQueue<Runnable> lane = queue;
+        if (hasPriorityLanes() && work.getPriority() == Priority.BULK) {
+            lane = bulkQueue;
+        }
+        for (Iterator<Runnable> it = lane.iterator(); it.hasNext();) {
             if (id.equals(WorkHolder.getWork(it.next())
                     .getId())) {
                 it.remove();
+                if (hasPriorityLanes()) {
+                    available.tryAcquire();
+                }
                 scheduledWorks.remove(id);
                 works.remove(id);
                 scheduledCount -= 1;
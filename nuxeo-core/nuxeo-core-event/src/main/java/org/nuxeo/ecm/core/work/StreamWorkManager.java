@@ -26,6 +26,7 @@ import static org.nuxeo.ecm.core.work.BaseOverflowRecordFilter.THRESHOLD_SIZE_OP
 import static org.nuxeo.ecm.core.work.api.WorkManager.Scheduling.CANCEL_SCHEDULED;
 
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -139,6 +140,13 @@ public class StreamWorkManager extends WorkManagerImpl {
      */
     public static final String COMPUTATION_FILTER_PREFIX_KEY = "nuxeo.stream.work.computation.filter.storeKeyPrefix";
 
+    /**
+     * Suffix of the stream, and of the computation, of the bulk lane of a queue having priority lanes.
+     *
+     * @since 11.1
+     */
+    public static final String BULK_LANE_SUFFIX = "-bulk";
+
     protected Topology topology;
 
     protected Topology topologyDisabled;
@@ -198,15 +206,16 @@ public class StreamWorkManager extends WorkManagerImpl {
             return;
         }
         WorkSchedulePath.newInstance(work);
+        String streamName = getStreamName(queueId, work);
         // We don't need to set a codec because appender is initialized with proper codec during processor init
-        LogAppender<Record> appender = logManager.getAppender(queueId);
+        LogAppender<Record> appender = logManager.getAppender(streamName);
         if (appender == null) {
             log.error(String.format("Not scheduled work, unknown category: %s, mapped to %s", work.getCategory(),
-                    queueId));
+                    streamName));
             return;
         }
         String key = work.getPartitionKey();
-        LogOffset offset = streamManager.append(queueId, Record.of(key, WorkComputation.serialize(work)));
+        LogOffset offset = streamManager.append(streamName, Record.of(key, WorkComputation.serialize(work)));
         if (work.isCoalescing()) {
             WorkStateHelper.setLastOffset(work.getId(), offset.offset(), stateTTL);
         }
@@ -215,6 +224,26 @@ public class StreamWorkManager extends WorkManagerImpl {
         }
     }
 
+    /**
+     * Gets the stream where a work is appended: the stream of its queue, or of the bulk lane of its queue.
+     *
+     * @since 11.1
+     */
+    protected String getStreamName(String queueId, Work work) {
+        if (work.getPriority() == Work.Priority.BULK && hasPriorityLanes(queueId)) {
+            return queueId + BULK_LANE_SUFFIX;
+        }
+        return queueId;
+    }
+
+    /**
+     * @since 11.1
+     */
+    protected boolean hasPriorityLanes(String queueId) {
+        WorkQueueDescriptor wqd = getWorkQueueDescriptor(queueId);
+        return wqd != null && wqd.hasPriorityLanes();
+    }
+
     @Override
     public int getApplicationStartedOrder() {
         // start before the WorkManagerImpl
@@ -346,22 +375,59 @@ public class StreamWorkManager extends WorkManagerImpl {
         List<WorkQueueDescriptor> descriptors = getDescriptors(QUEUES_EP);
         // create the single topology with one root per work pool
         Topology.Builder builder = Topology.builder();
-        descriptors.stream().filter(WorkQueueDescriptor::isProcessingEnabled).forEach(d -> builder.addComputation(
-                () -> new WorkComputation(d.getId()), Collections.singletonList("i1:" + d.getId())));
+        descriptors.stream()
+                   .filter(WorkQueueDescriptor::isProcessingEnabled)
+                   .forEach(d -> addComputations(builder, d));
         topology = builder.build();
         // create a topology for the disabled work pools in order to init their input streams
         Topology.Builder builderDisabled = Topology.builder();
         descriptors.stream()
                    .filter(Predicate.not(WorkQueueDescriptor::isProcessingEnabled))
-                   .forEach(d -> builderDisabled.addComputation(() -> new WorkComputation(d.getId()),
-                           Collections.singletonList("i1:" + d.getId())));
+                   .forEach(d -> addComputations(builderDisabled, d));
         topologyDisabled = builderDisabled.build();
         // The retry policy is handled at AbstractWork level, but we want to skip failure
         ComputationPolicy policy = new ComputationPolicyBuilder().continueOnFailure(true).build();
         RecordFilterChain filter = getRecordFilter();
         settings = new Settings(DEFAULT_CONCURRENCY, getPartitions(DEFAULT_CONCURRENCY), getCodec(), policy, filter);
-        descriptors.forEach(item -> settings.setConcurrency(item.getId(), item.getMaxThreads()));
-        descriptors.forEach(item -> settings.setPartitions(item.getId(), getPartitions(item.getMaxThreads())));
+        descriptors.forEach(this::initSettings);
+    }
+
+    /**
+     * Adds the computation of a work pool, and the one of its bulk lane if it has priority lanes.
+     *
+     * @since 11.1
+     */
+    protected void addComputations(Topology.Builder builder, WorkQueueDescriptor d) {
+        String queueId = d.getId();
+        builder.addComputation(() -> new WorkComputation(queueId), Collections.singletonList("i1:" + queueId));
+        if (d.hasPriorityLanes()) {
+            String bulkLane = queueId + BULK_LANE_SUFFIX;
+            builder.addComputation(() -> new WorkComputation(bulkLane, queueId),
+                    Collections.singletonList("i1:" + bulkLane));
+        }
+    }
+
+    /**
+     * Sets the concurrency and partitions of a work pool. When it has priority lanes, the threads are shared between
+     * the lanes according to the interactive weight, the bulk lane having at least one thread.
+     *
+     * @since 11.1
+     */
+    protected void initSettings(WorkQueueDescriptor d) {
+        String queueId = d.getId();
+        int maxThreads = d.getMaxThreads();
+        if (!d.hasPriorityLanes()) {
+            settings.setConcurrency(queueId, maxThreads);
+            settings.setPartitions(queueId, getPartitions(maxThreads));
+            return;
+        }
+        int bulkThreads = Math.max(1, maxThreads / (d.getInteractiveWeight() + 1));
+        int interactiveThreads = Math.max(1, maxThreads - bulkThreads);
+        String bulkLane = queueId + BULK_LANE_SUFFIX;
+        settings.setConcurrency(queueId, interactiveThreads);
+        settings.setPartitions(queueId, getPartitions(interactiveThreads));
+        settings.setConcurrency(bulkLane, bulkThreads);
+        settings.setPartitions(bulkLane, getPartitions(bulkThreads));
     }
 
     protected int getPartitions(int maxThreads) {
@@ -487,11 +553,17 @@ public class StreamWorkManager extends WorkManagerImpl {
     @Override
     public WorkQueueMetrics getMetrics(String queueId) {
         LogLag lag = logManager.getLag(queueId, queueId);
+        int partitions = settings.getPartitions(queueId);
+        if (hasPriorityLanes(queueId)) {
+            String bulkLane = queueId + BULK_LANE_SUFFIX;
+            lag = LogLag.of(Arrays.asList(lag, logManager.getLag(bulkLane, bulkLane)));
+            partitions += settings.getPartitions(bulkLane);
+        }
         long running = 0;
         if (lag.lag() > 0) {
             // we don't have the exact running metric
             // give an approximation that can be higher that actual one because of the over provisioning
-            running = min(lag.lag(), settings.getPartitions(queueId));
+            running = min(lag.lag(), partitions);
         }
         return new WorkQueueMetrics(queueId, lag.lag(), running, lag.lower(), 0);
     }
@@ -36,6 +36,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.nuxeo.common.utils.ExceptionUtils;
 import org.nuxeo.ecm.core.work.api.Work;
+import org.nuxeo.ecm.core.work.api.WorkQueueMetrics;
 import org.nuxeo.lib.stream.computation.AbstractComputation;
 import org.nuxeo.lib.stream.computation.ComputationContext;
 import org.nuxeo.lib.stream.computation.Record;
@@ -59,16 +60,32 @@ public class WorkComputation extends AbstractComputation {
 
     protected final CircularFifoBuffer workIds = new CircularFifoBuffer(IDS_SIZE);
 
+    protected final MetricRegistry registry = SharedMetricRegistries.getOrCreate(MetricsService.class.getName());
+
     protected final Timer workTimer;
 
     protected final long stateTTL;
 
+    /**
+     * @since 11.1
+     */
+    protected final String queueId;
+
     protected Work work;
 
     public WorkComputation(String name) {
+        this(name, name);
+    }
+
+    /**
+     * Creates a computation consuming the works of a queue, or of one of its priority lanes.
+     *
+     * @since 11.1
+     */
+    public WorkComputation(String name, String queueId) {
         super(name, 1, 0);
-        MetricRegistry registry = SharedMetricRegistries.getOrCreate(MetricsService.class.getName());
-        workTimer = registry.timer(MetricRegistry.name("nuxeo", "works", name, "total"));
+        this.queueId = queueId;
+        workTimer = registry.timer(MetricRegistry.name("nuxeo", "works", queueId, "total"));
         stateTTL = Framework.getService(ConfigurationService.class).getLong(STATETTL_KEY, STATETTL_DEFAULT_VALUE);
     }
 
@@ -99,6 +116,7 @@ public class WorkComputation extends AbstractComputation {
                 }
                 // The running state is needed to activate the DLQ mechanism
                 work.setWorkInstanceState(Work.State.RUNNING);
+                updateLatency(work);
                 new WorkHolder(work).run();
                 // if the same work id has not been scheduled again, set the state to null for 'completed'
                 if (storeState && WorkStateHelper.getState(work.getId()) == Work.State.RUNNING) {
@@ -135,6 +153,14 @@ public class WorkComputation extends AbstractComputation {
         }
     }
 
+    protected void updateLatency(Work work) {
+        long schedulingTime = work.getSchedulingTime();
+        if (schedulingTime > 0) {
+            registry.timer(WorkQueueMetrics.getLatencyMetricName(queueId, work.getPriority()))
+                    .update(System.currentTimeMillis() - schedulingTime, TimeUnit.MILLISECONDS);
+        }
+    }
+
     protected void cleanupWorkInFailure(Work work, Exception exception) {
         try {
             work.cleanUp(false, exception);
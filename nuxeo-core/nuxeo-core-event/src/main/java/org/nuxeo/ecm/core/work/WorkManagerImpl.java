@@ -256,6 +256,19 @@ public class WorkManagerImpl extends DefaultComponent implements WorkManager {
         log.info("Deactivated work queue {}", config.id);
     }
 
+    /**
+     * Updates the latency metric of the priority lane of a work about to run.
+     *
+     * @since 11.1
+     */
+    protected void updateLatency(String queueId, Work work) {
+        long schedulingTime = work.getSchedulingTime();
+        if (schedulingTime > 0) {
+            registry.timer(WorkQueueMetrics.getLatencyMetricName(queueId, work.getPriority()))
+                    .update(System.currentTimeMillis() - schedulingTime, TimeUnit.MILLISECONDS);
+        }
+    }
+
     void activateQueueMetrics(String queueId) {
         NuxeoMetricSet queueMetrics = new NuxeoMetricSet("nuxeo", "works", "total", queueId);
         queueMetrics.putGauge(() -> getMetrics(queueId).scheduled, "scheduled");
@@ -698,6 +711,7 @@ public class WorkManagerImpl extends DefaultComponent implements WorkManager {
             queuing.workRunning(queueId, work);
             running.add(work);
             runningCount.inc();
+            updateLatency(queueId, work);
         }
 
         @Override
@@ -77,6 +77,22 @@ public interface Work extends Serializable {
         RUNNING,
     }
 
+    /**
+     * The priority of a work instance, used by the queues having separate lanes for interactive and bulk works.
+     *
+     * @since 11.1
+     */
+    enum Priority {
+        /**
+         * Work instance triggered by a user action, whose result is expected quickly.
+         */
+        INTERACTIVE,
+        /**
+         * Work instance part of a mass operation, like a reindexing or a recomputation.
+         */
+        BULK,
+    }
+
     /**
      * A progress report about a work instance.
      * <p>
@@ -405,4 +421,15 @@ public interface Work extends Serializable {
         return false;
     }
 
+    /**
+     * Gets the priority of this work instance. In a queue having priority lanes, bulk works don't delay the interactive
+     * ones.
+     *
+     * @since 11.1
+     * @see WorkQueueDescriptor#getInteractiveWeight()
+     */
+    default Priority getPriority() {
+        return Priority.INTERACTIVE;
+    }
+
 }
@@ -97,6 +97,32 @@ public class WorkQueueDescriptor implements Descriptor {
         return capacity == null ? DEFAULT_CAPACITY : capacity.intValue();
     }
 
+    /**
+     * When greater than 0, the queue has separate lanes for {@link Work.Priority#INTERACTIVE interactive} and
+     * {@link Work.Priority#BULK bulk} works, and this is the number of interactive works processed for each bulk work
+     * when both lanes have works. By default the queue has a single lane, processed in scheduling order.
+     *
+     * @since 11.1
+     */
+    @XNode("interactiveWeight")
+    public Integer interactiveWeight;
+
+    /**
+     * @since 11.1
+     */
+    public int getInteractiveWeight() {
+        return interactiveWeight == null ? 0 : interactiveWeight.intValue();
+    }
+
+    /**
+     * Whether this queue has separate lanes for interactive and bulk works.
+     *
+     * @since 11.1
+     */
+    public boolean hasPriorityLanes() {
+        return getInteractiveWeight() > 0;
+    }
+
     @Override
     public Descriptor merge(Descriptor o) {
         WorkQueueDescriptor other = (WorkQueueDescriptor) o;
@@ -107,6 +133,7 @@ public class WorkQueueDescriptor implements Descriptor {
         merged.capacity = other.capacity != null ? other.capacity : capacity;
         merged.processing = other.processing != null ? other.processing : processing;
         merged.maxThreads = other.maxThreads != null ? other.maxThreads : maxThreads;
+        merged.interactiveWeight = other.interactiveWeight != null ? other.interactiveWeight : interactiveWeight;
         merged.categories = new HashSet<>(categories);
         merged.categories.addAll(other.categories);
         return merged;
@@ -127,6 +154,10 @@ public class WorkQueueDescriptor implements Descriptor {
         sb.append(getMaxThreads());
         sb.append(" capacity=");
         sb.append(getCapacity());
+        if (hasPriorityLanes()) {
+            sb.append(" interactiveWeight=");
+            sb.append(getInteractiveWeight());
+        }
         sb.append(")");
         return sb.toString();
     }
@@ -123,4 +123,14 @@ public class WorkQueueMetrics implements Serializable {
     public Number getCanceled() {
         return canceled;
     }
+
+    /**
+     * Gets the name of the timer measuring, for the works of the given priority lane, the latency between their
+     * scheduling and their start.
+     *
+     * @since 11.1
+     */
+    public static String getLatencyMetricName(String queueId, Work.Priority priority) {
+        return String.join(".", "nuxeo", "works", queueId, "latency", priority.name().toLowerCase());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,90 @@
+/*
+ * (C) Copyright 2019 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nuxeo.ecm.core.work;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+import org.nuxeo.ecm.core.work.api.Work;
+
+/**
+ * @since 11.1
+ */
+public class TestMemoryBlockingQueue {
+
+    protected static class BulkSleepWork extends SleepWork {
+
+        private static final long serialVersionUID = 1L;
+
+        public BulkSleepWork(String id) {
+            super(0, id);
+        }
+
+        @Override
+        public Work.Priority getPriority() {
+            return Work.Priority.BULK;
+        }
+    }
+
+    protected static Runnable interactive(String id) {
+        return new WorkHolder(new SleepWork(0, id));
+    }
+
+    protected static Runnable bulk(String id) {
+        return new WorkHolder(new BulkSleepWork(id));
+    }
+
+    protected static String poll(MemoryBlockingQueue queue) {
+        Runnable r = queue.pollElement();
+        return r == null ? null : WorkHolder.getWork(r).getId();
+    }
+
+    @Test
+    public void testSingleLane() throws Exception {
+        MemoryBlockingQueue queue = new MemoryBlockingQueue("test", new MemoryWorkQueuing(null), -1);
+        queue.putElement(bulk("b1"));
+        queue.putElement(interactive("i1"));
+        assertEquals(2, queue.getQueueSize());
+        // submission order
+        assertEquals("b1", poll(queue));
+        assertEquals("i1", poll(queue));
+        assertNull(poll(queue));
+    }
+
+    @Test
+    public void testPriorityLanes() throws Exception {
+        MemoryBlockingQueue queue = new MemoryBlockingQueue("test", new MemoryWorkQueuing(null), -1, 2);
+        queue.putElement(bulk("b1"));
+        queue.putElement(bulk("b2"));
+        queue.putElement(bulk("b3"));
+        queue.putElement(interactive("i1"));
+        queue.putElement(interactive("i2"));
+        queue.putElement(interactive("i3"));
+        assertEquals(6, queue.getQueueSize());
+        // two interactive works for each bulk work
+        assertEquals("i1", poll(queue));
+        assertEquals("i2", poll(queue));
+        assertEquals("b1", poll(queue));
+        assertEquals("i3", poll(queue));
+        // the bulk lane is drained when there are no interactive works
+        assertEquals("b2", poll(queue));
+        assertEquals("b3", poll(queue));
+        assertNull(poll(queue));
+        assertEquals(0, queue.getQueueSize());
+    }
+
+}
@@ -30,7 +30,7 @@ public class TestWorkQueuing extends MemoryWorkQueuing {
     @Override
     public MemoryBlockingQueue init(WorkQueueDescriptor config) {
         MemoryBlockingQueue queue =
-         new MemoryBlockingQueue(config.id, this, config.getCapacity()) {
+         new MemoryBlockingQueue(config.id, this, config.getCapacity(), config.getInteractiveWeight()) {
             @Override
             public void putElement(Runnable r) throws InterruptedException {
                 super.putElement(clone(r));
@@ -19,6 +19,8 @@
 package org.nuxeo.ecm.core.io.download;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.servlet.http.HttpServletRequest;
 
@@ -56,17 +58,43 @@ public class DownloadHelper {
      * @return the byte range, or {@code null} if it couldn't be parsed.
      */
     public static ByteRange parseRange(String range, long length) {
-        try {
-            // TODO does no support multiple ranges
-            if (!range.startsWith("bytes=") || range.indexOf(',') >= 0) {
+        if (!range.startsWith("bytes=") || range.indexOf(',') >= 0) {
+            return null;
+        }
+        return parseRangeSpec(range.substring(6), length);
+    }
+
+    /**
+     * Parses a byte range that may contain several comma-separated ranges.
+     *
+     * @param range the byte range as a string
+     * @param length the file length
+     * @return the list of byte ranges, or {@code null} if one of them couldn't be parsed.
+     * @since 11.1
+     */
+    public static List<ByteRange> parseRanges(String range, long length) {
+        if (!range.startsWith("bytes=")) {
+            return null;
+        }
+        List<ByteRange> byteRanges = new ArrayList<>();
+        for (String spec : range.substring(6).split(",")) {
+            ByteRange byteRange = parseRangeSpec(spec, length);
+            if (byteRange == null) {
                 return null;
             }
-            int i = range.indexOf('-', 6);
+            byteRanges.add(byteRange);
+        }
+        return byteRanges;
+    }
+
+    protected static ByteRange parseRangeSpec(String spec, long length) {
+        try {
+            int i = spec.indexOf('-');
             if (i < 0) {
                 return null;
             }
-            String start = range.substring(6, i).trim();
-            String end = range.substring(i + 1).trim();
+            String start = spec.substring(0, i).trim();
+            String end = spec.substring(i + 1).trim();
             long rangeStart = 0;
             long rangeEnd = length - 1;
             if (start.isEmpty()) {
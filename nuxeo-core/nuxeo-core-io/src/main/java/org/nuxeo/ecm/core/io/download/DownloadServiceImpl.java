@@ -19,6 +19,8 @@
  */
 package org.nuxeo.ecm.core.io.download;
 
+import java.io.EOFException;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -27,6 +29,12 @@ import java.io.UncheckedIOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URLEncoder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Enumeration;
@@ -76,6 +84,8 @@ import org.nuxeo.ecm.core.api.model.PropertyNotFoundException;
 import org.nuxeo.ecm.core.blob.BlobManager;
 import org.nuxeo.ecm.core.blob.BlobManager.UsageHint;
 import org.nuxeo.ecm.core.blob.BlobProvider;
+import org.nuxeo.ecm.core.blob.ManagedBlob;
+import org.nuxeo.ecm.core.blob.binary.BinaryManager;
 import org.nuxeo.ecm.core.blob.binary.DefaultBinaryManager;
 import org.nuxeo.ecm.core.event.Event;
 import org.nuxeo.ecm.core.event.EventContext;
@@ -86,10 +96,16 @@ import org.nuxeo.ecm.core.io.NginxConstants;
 import org.nuxeo.ecm.core.transientstore.api.TransientStore;
 import org.nuxeo.ecm.core.transientstore.api.TransientStoreService;
 import org.nuxeo.runtime.api.Framework;
+import org.nuxeo.runtime.metrics.MetricsService;
 import org.nuxeo.runtime.model.ComponentContext;
 import org.nuxeo.runtime.model.DefaultComponent;
 import org.nuxeo.runtime.transaction.TransactionHelper;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SharedMetricRegistries;
+import com.codahale.metrics.Timer;
+
 /**
  * This service allows the download of blobs to a HTTP response.
  *
@@ -119,6 +135,34 @@ public class DownloadServiceImpl extends DefaultComponent implements DownloadSer
 
     private static final String MD5 = "MD5";
 
+    /**
+     * Framework property to disable the use of the servlet container's sendfile support for local blobs.
+     *
+     * @since 11.1
+     */
+    public static final String SENDFILE_ENABLED_PROP = "nuxeo.download.sendfile.enabled";
+
+    /**
+     * Framework property defining the maximum number of ranges accepted in a multi-range request. Requests with more
+     * ranges are served in full.
+     *
+     * @since 11.1
+     */
+    public static final String MAX_RANGES_PROP = "nuxeo.download.ranges.max";
+
+    protected static final int DEFAULT_MAX_RANGES = 16;
+
+    // Tomcat request attributes for sendfile, see org.apache.coyote.Constants
+    protected static final String SENDFILE_SUPPORTED_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+
+    protected static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+
+    protected static final String SENDFILE_FILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+
+    protected static final String SENDFILE_FILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+
+    protected static final String MULTIPART_BOUNDARY = "NUXEO_BYTERANGES_BOUNDARY";
+
     protected enum Action {
         DOWNLOAD, DOWNLOAD_FROM_DOC, INFO, BLOBSTATUS
     }
@@ -127,6 +171,14 @@ public class DownloadServiceImpl extends DefaultComponent implements DownloadSer
 
     protected RedirectResolver redirectResolver;
 
+    protected final MetricRegistry registry = SharedMetricRegistries.getOrCreate(MetricsService.class.getName());
+
+    protected final Counter bytesServed = registry.counter(MetricRegistry.name("nuxeo", "download", "bytes"));
+
+    protected final Counter sendfileCount = registry.counter(MetricRegistry.name("nuxeo", "download", "sendfile"));
+
+    protected final Timer transferTimer = registry.timer(MetricRegistry.name("nuxeo", "download", "transfer"));
+
     @Override
     public void start(ComponentContext context) {
         super.start(context);
@@ -542,9 +594,10 @@ public class DownloadServiceImpl extends DefaultComponent implements DownloadSer
         }
         Boolean inline = context.getInline();
         Consumer<ByteRange> blobTransferer = context.getBlobTransferer();
-        if (blobTransferer == null) {
+        boolean defaultTransferer = blobTransferer == null;
+        if (defaultTransferer) {
             Blob fblob = blob;
-            blobTransferer = byteRange -> transferBlobWithByteRange(fblob, byteRange, response);
+            blobTransferer = byteRange -> transferBlobWithByteRange(fblob, byteRange, request, response);
         }
         Calendar lastModified = context.getLastModified();
         if (lastModified == null && doc != null) {
@@ -576,7 +629,18 @@ public class DownloadServiceImpl extends DefaultComponent implements DownloadSer
 
         try {
             long length = blob.getLength();
-            ByteRange byteRange = getByteRange(request, length);
+            ByteRange byteRange;
+            List<ByteRange> byteRanges = null;
+            if (defaultTransferer) {
+                // multiple ranges are only supported when we do the transfer ourselves
+                byteRanges = getByteRanges(request, length);
+            }
+            if (byteRanges != null && byteRanges.size() > 1) {
+                byteRange = null;
+            } else {
+                byteRanges = null;
+                byteRange = getByteRange(request, length);
+            }
 
             String digest = blob.getDigest();
             String digestAlgorithm = blob.getDigestAlgorithm();
@@ -597,7 +661,7 @@ public class DownloadServiceImpl extends DefaultComponent implements DownloadSer
                     // deprecated per RFC7231 Appendix B
                     // don't do it if there's a byte range because the spec is inconsistent
                     // see https://trac.ietf.org/trac/httpbis/ticket/178
-                    if (byteRange == null && MD5.equalsIgnoreCase(digestAlgorithm)) {
+                    if (byteRange == null && byteRanges == null && MD5.equalsIgnoreCase(digestAlgorithm)) {
                         response.setHeader("Content-MD5", hexToBase64(digest));
                     }
                 }
@@ -668,6 +732,19 @@ public class DownloadServiceImpl extends DefaultComponent implements DownloadSer
             }
 
             response.setHeader("Accept-Ranges", "bytes");
+            if (byteRanges != null) {
+                String mimeType = blob.getMimeType();
+                response.setContentType("multipart/byteranges; boundary=" + MULTIPART_BOUNDARY);
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setContentLengthLong(getMultipartByteRangesLength(byteRanges, mimeType, length));
+                if (byteRanges.get(0).getStart() == 0) {
+                    logDownload(request, doc, xpath, filename, reason, extendedInfos);
+                }
+                if (!isHead(request)) {
+                    transferBlobWithByteRanges(blob, byteRanges, mimeType, response);
+                }
+                return;
+            }
             if (byteRange != null) {
                 response.setHeader("Content-Range",
                         "bytes " + byteRange.getStart() + "-" + byteRange.getEnd() + "/" + length);
@@ -725,6 +802,33 @@ public class DownloadServiceImpl extends DefaultComponent implements DownloadSer
         return byteRange;
     }
 
+    /**
+     * Gets the list of byte ranges requested, or {@code null} if there are none or if they can't be honored.
+     *
+     * @since 11.1
+     */
+    protected List<ByteRange> getByteRanges(HttpServletRequest request, long length) {
+        String range = request.getHeader("Range");
+        if (StringUtils.isBlank(range)) {
+            return null;
+        }
+        List<ByteRange> byteRanges = DownloadHelper.parseRanges(range, length);
+        if (byteRanges == null) {
+            log.debug("Invalid byte range received: {}", range);
+            return null;
+        }
+        int maxRanges = DEFAULT_MAX_RANGES;
+        String maxRangesProp = Framework.getProperty(MAX_RANGES_PROP);
+        if (StringUtils.isNotBlank(maxRangesProp)) {
+            maxRanges = Integer.parseInt(maxRangesProp.trim());
+        }
+        if (byteRanges.size() > maxRanges) {
+            log.debug("Too many byte ranges received: {}", range);
+            return null;
+        }
+        return byteRanges;
+    }
+
     protected Set<String> getWantDigests(HttpServletRequest request) {
         Enumeration<String> values = request.getHeaders("Want-Digest");
         if (values == null) {
@@ -764,23 +868,208 @@ public class DownloadServiceImpl extends DefaultComponent implements DownloadSer
         }
     }
 
+    /**
+     * Transfers the blob to the response, delegating the copy to the servlet container's sendfile support when the blob
+     * is stored as a file by a local binary manager.
+     *
+     * @since 11.1
+     */
+    protected void transferBlobWithByteRange(Blob blob, ByteRange byteRange, HttpServletRequest request,
+            HttpServletResponse response) {
+        if (sendfile(blob, byteRange, request)) {
+            return;
+        }
+        transferBlobWithByteRange(blob, byteRange, response);
+    }
+
+    /**
+     * Asks the servlet container to send the file backing the blob itself, if possible. The container then uses
+     * {@code sendfile} and non-blocking I/O, releasing the request thread before the transfer is done.
+     * <p>
+     * As the file is still read after the request thread returns, only the persistent files of a local binary store
+     * are sent this way, never temporary files which may be deleted by then, see {@link #getLocalStorageFile}.
+     *
+     * @return {@code true} if the container will do the transfer
+     * @since 11.1
+     */
+    protected boolean sendfile(Blob blob, ByteRange byteRange, HttpServletRequest request) {
+        if (!Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTRIBUTE))
+                || Framework.isBooleanPropertyFalse(SENDFILE_ENABLED_PROP)) {
+            return false;
+        }
+        File file = getLocalStorageFile(blob);
+        if (file == null) {
+            return false;
+        }
+        long start = byteRange == null ? 0 : byteRange.getStart();
+        long end = byteRange == null ? file.length() : byteRange.getEnd() + 1; // exclusive
+        request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, file.getAbsolutePath());
+        request.setAttribute(SENDFILE_FILE_START_ATTRIBUTE, Long.valueOf(start));
+        request.setAttribute(SENDFILE_FILE_END_ATTRIBUTE, Long.valueOf(end));
+        sendfileCount.inc();
+        bytesServed.inc(end - start);
+        return true;
+    }
+
+    /**
+     * Gets the file in which a local binary manager stores the blob.
+     * <p>
+     * Only a {@link DefaultBinaryManager} stores the content of the blob as is: the other local binary managers return
+     * temporary files, decrypted or reassembled from chunks, which are costly to create and may be deleted at the end
+     * of the request.
+     *
+     * @return the file, or {@code null} if the blob is not a managed blob stored in the storage directory of a
+     *         {@link DefaultBinaryManager}
+     * @since 11.1
+     */
+    protected File getLocalStorageFile(Blob blob) {
+        BlobProvider blobProvider = Framework.getService(BlobManager.class).getBlobProvider(blob);
+        BinaryManager binaryManager = blobProvider == null ? null : blobProvider.getBinaryManager();
+        if (!(binaryManager instanceof DefaultBinaryManager)) {
+            return null;
+        }
+        File file = blob.getFile();
+        if (file == null || !file.isFile()) {
+            return null;
+        }
+        Path storageDir = ((DefaultBinaryManager) binaryManager).getStorageDir().toPath().toAbsolutePath().normalize();
+        if (!file.toPath().toAbsolutePath().normalize().startsWith(storageDir)) {
+            return null;
+        }
+        return file;
+    }
+
     @Override
     public void transferBlobWithByteRange(Blob blob, ByteRange byteRange, Supplier<OutputStream> outputStreamSupplier) {
-        try (InputStream in = blob.getStream()) {
+        long start = byteRange == null ? 0 : byteRange.getStart();
+        long length = byteRange == null ? -1 : byteRange.getLength();
+        Timer.Context timerContext = transferTimer.time();
+        try {
             @SuppressWarnings("resource")
             OutputStream out = outputStreamSupplier.get(); // not ours to close
             BufferingServletOutputStream.stopBuffering(out);
-            if (byteRange == null) {
-                IOUtils.copy(in, out);
+            long count;
+            // the file of a managed blob outside of a local store may have to be materialized first, stream it instead
+            File file = blob instanceof ManagedBlob ? getLocalStorageFile(blob) : blob.getFile();
+            if (file != null && file.isFile()) {
+                count = transferFile(file, start, length, out);
             } else {
-                IOUtils.copyLarge(in, out, byteRange.getStart(), byteRange.getLength());
+                try (InputStream in = blob.getStream()) {
+                    if (byteRange == null) {
+                        count = IOUtils.copyLarge(in, out);
+                    } else {
+                        skipFully(in, start);
+                        count = IOUtils.copyLarge(in, out, 0, length);
+                    }
+                }
             }
             out.flush();
+            bytesServed.inc(count);
         } catch (IOException e) {
             throw new UncheckedIOException(e);
+        } finally {
+            timerContext.stop();
+        }
+    }
+
+    /**
+     * Skips bytes of a stream using {@link InputStream#skip}, which unlike {@link IOUtils#skipFully} lets the stream
+     * avoid reading the skipped data, for instance the chunks of a chunked binary.
+     *
+     * @since 11.1
+     */
+    protected static void skipFully(InputStream in, long n) throws IOException {
+        while (n > 0) {
+            long skipped = in.skip(n);
+            if (skipped <= 0) {
+                if (in.read() == -1) {
+                    throw new EOFException("Cannot skip " + n + " more bytes");
+                }
+                skipped = 1;
+            }
+            n -= skipped;
         }
     }
 
+    /**
+     * Copies a range of a file to an output stream using {@link FileChannel#transferTo}.
+     * <p>
+     * This is not a zero-copy transfer: the output stream is wrapped by {@link Channels#newChannel(OutputStream)},
+     * which copies the data through its own heap buffer. The zero-copy path is the container's sendfile, used when
+     * available.
+     *
+     * @param length the number of bytes to transfer, or {@code -1} for the rest of the file
+     * @return the number of bytes transferred
+     * @since 11.1
+     */
+    protected long transferFile(File file, long start, long length, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long end = length < 0 ? channel.size() : Math.min(start + length, channel.size());
+            // the channel must not close the underlying stream
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = start;
+            while (position < end) {
+                long n = channel.transferTo(position, Math.min(end - position, DOWNLOAD_BUFFER_SIZE), target);
+                if (n <= 0) {
+                    break;
+                }
+                position += n;
+            }
+            return position - start;
+        }
+    }
+
+    /**
+     * Transfers several ranges of the blob to the response as a {@code multipart/byteranges} body (RFC 7233 4.1).
+     *
+     * @since 11.1
+     */
+    protected void transferBlobWithByteRanges(Blob blob, List<ByteRange> byteRanges, String mimeType,
+            HttpServletResponse response) {
+        try {
+            @SuppressWarnings("resource")
+            OutputStream out = response.getOutputStream(); // not ours to close
+            BufferingServletOutputStream.stopBuffering(out);
+            long length = blob.getLength();
+            for (ByteRange byteRange : byteRanges) {
+                out.write(getMultipartHeader(byteRange, mimeType, length));
+                transferBlobWithByteRange(blob, byteRange, () -> out);
+            }
+            out.write(getMultipartTrailer());
+            response.flushBuffer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    protected long getMultipartByteRangesLength(List<ByteRange> byteRanges, String mimeType, long length) {
+        long contentLength = 0;
+        for (ByteRange byteRange : byteRanges) {
+            contentLength += getMultipartHeader(byteRange, mimeType, length).length + byteRange.getLength();
+        }
+        return contentLength + getMultipartTrailer().length;
+    }
+
+    protected static byte[] getMultipartHeader(ByteRange byteRange, String mimeType, long length) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("\r\n--").append(MULTIPART_BOUNDARY).append("\r\n");
+        if (StringUtils.isNotBlank(mimeType)) {
+            sb.append("Content-Type: ").append(mimeType).append("\r\n");
+        }
+        sb.append("Content-Range: bytes ")
+          .append(byteRange.getStart())
+          .append('-')
+          .append(byteRange.getEnd())
+          .append('/')
+          .append(length)
+          .append("\r\n\r\n");
+        return sb.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    protected static byte[] getMultipartTrailer() {
+        return ("\r\n--" + MULTIPART_BOUNDARY + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
     protected String fixXPath(String xpath) {
         // Hack for Flash Url wich doesn't support ':' char
         return xpath == null ? null : xpath.replace(';', ':');
@@ -29,6 +29,7 @@ import org.bson.Document;
 import org.bson.conversions.Bson;
 import org.nuxeo.ecm.core.api.NuxeoException;
 import org.nuxeo.ecm.core.uidgen.AbstractUIDSequencer;
+import org.nuxeo.ecm.core.uidgen.LongRange;
 import org.nuxeo.ecm.core.uidgen.UIDSequencer;
 import org.nuxeo.runtime.api.Framework;
 import org.nuxeo.runtime.mongodb.MongoDBConnectionService;
@@ -115,6 +116,11 @@ public class MongoDBUIDSequencer extends AbstractUIDSequencer {
         return ret;
     }
 
+    @Override
+    public LongRange getNextRange(String key, int size) {
+        return LongRange.ofLast(incrementBy(key, size), size);
+    }
+
     protected long incrementBy(String key, int value) {
         FindOneAndUpdateOptions options = new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER);
         Bson filter = eq(MongoDBSerializationHelper.MONGODB_ID, key);
@@ -128,11 +134,11 @@ public class MongoDBUIDSequencer extends AbstractUIDSequencer {
                 sequence.put(SEQUENCE_VALUE_FIELD, Long.valueOf(value));
                 getSequencerCollection().insertOne(sequence);
             } catch (MongoWriteException e) {
-                // There was a race condition - just re-run getNextLong
+                // There was a race condition - just re-run the increment
                 if (log.isTraceEnabled()) {
                     log.trace("There was a race condition during '" + key + "' sequence insertion", e);
                 }
-                return getNextLong(key);
+                return incrementBy(key, value);
             }
         }
         return ((Long) MongoDBSerializationHelper.bsonToFieldMap(sequence).get(SEQUENCE_VALUE_FIELD)).longValue();
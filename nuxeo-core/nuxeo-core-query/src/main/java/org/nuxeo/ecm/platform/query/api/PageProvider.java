@@ -78,6 +78,14 @@ public interface PageProvider<T> extends Serializable {
      */
     String SKIP_AGGREGATES_PROP = "skipAggregates";
 
+    /**
+     * Page provider property enabling keyset pagination: pages are fetched after the sort values of the last entry of
+     * the previous page instead of using an offset, and the results are only counted for the first page.
+     *
+     * @since 11.1
+     */
+    String KEYSET_PAGINATION_PROP = "keysetPagination";
+
     /**
      * Returns the provider identifier
      */
@@ -473,4 +481,27 @@ public interface PageProvider<T> extends Serializable {
      * @since 9.3
      */
     long getResultsCountLimit();
+
+    /**
+     * Gets the opaque cursor to pass to {@link #setCurrentPageCursor} to fetch the page following the current one with
+     * keyset pagination.
+     *
+     * @return the cursor, or {@code null} if keyset pagination is not available
+     * @since 11.1
+     */
+    default String getNextPageCursor() {
+        return null;
+    }
+
+    /**
+     * Sets the opaque cursor after which the current page starts, as returned by {@link #getNextPageCursor}. The page
+     * offset is then only used for display.
+     * <p>
+     * Page providers without keyset pagination ignore the cursor and keep fetching the current page by its offset.
+     *
+     * @since 11.1
+     */
+    default void setCurrentPageCursor(String cursor) {
+        // keyset pagination not supported
+    }
 }
@@ -28,6 +28,7 @@ import org.nuxeo.ecm.core.api.NuxeoException;
 import org.nuxeo.ecm.core.redis.RedisAdmin;
 import org.nuxeo.ecm.core.redis.RedisExecutor;
 import org.nuxeo.ecm.core.uidgen.AbstractUIDSequencer;
+import org.nuxeo.ecm.core.uidgen.LongRange;
 import org.nuxeo.runtime.api.Framework;
 
 import redis.clients.jedis.exceptions.JedisException;
@@ -92,4 +93,15 @@ public class RedisUIDSequencer extends AbstractUIDSequencer {
         }
         return ret;
     }
+
+    @Override
+    public LongRange getNextRange(String key, int size) {
+        RedisExecutor executor = Framework.getService(RedisExecutor.class);
+        try {
+            long last = executor.execute(jedis -> jedis.incrBy(namespace + key, size));
+            return LongRange.ofLast(last, size);
+        } catch (JedisException e) {
+            throw new NuxeoException(e);
+        }
+    }
 }
@@ -49,6 +49,8 @@ public class PrefetchInfo implements Serializable {
 
     private static final Log log = LogFactory.getLog(PrefetchInfo.class);
 
+    private final String name;
+
     private final String expr;
 
     /**
@@ -59,10 +61,41 @@ public class PrefetchInfo implements Serializable {
 
     private transient String[] schemas;
 
+    private transient boolean allSchemas;
+
     public PrefetchInfo(String expr) {
+        this(null, expr);
+    }
+
+    /**
+     * Creates the prefetch info of a named prefetch profile.
+     *
+     * @since 11.1
+     */
+    public PrefetchInfo(String name, String expr) {
+        this.name = name;
         this.expr = expr;
     }
 
+    /**
+     * Gets the name of the prefetch profile, or {@code null} for the prefetch of a document type.
+     *
+     * @since 11.1
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Checks if all the schemas of a document are to be prefetched, which is expressed with {@code *}.
+     *
+     * @since 11.1
+     */
+    public boolean isAllSchemas() {
+        parseExpression();
+        return allSchemas;
+    }
+
     public String[] getSchemas() {
         parseExpression();
         return schemas;
@@ -91,6 +124,10 @@ public class PrefetchInfo implements Serializable {
             if (s.isEmpty()) {
                 continue;
             }
+            if ("*".equals(s)) {
+                allSchemas = true;
+                continue;
+            }
             s = canonicalXPath(s);
 
             // maybe a schema?
@@ -111,4 +111,13 @@ public interface SchemaManager extends TypeProvider, PropertyCharacteristicHandl
      */
     boolean getAllowVersionWriteForDublinCore();
 
+    /**
+     * Gets a named prefetch profile, describing the schemas to fetch together when reading documents.
+     *
+     * @param name the profile name
+     * @return the profile, or {@code null} if there is no such profile
+     * @since 11.1
+     */
+    PrefetchInfo getPrefetchProfile(String name);
+
 }
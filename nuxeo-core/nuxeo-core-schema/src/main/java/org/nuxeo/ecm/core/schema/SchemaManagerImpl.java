@@ -101,6 +101,13 @@ public class SchemaManagerImpl implements SchemaManager {
     /** Effective prefetch info. */
     protected PrefetchInfo prefetchInfo;
 
+    /**
+     * Effective prefetch profiles.
+     *
+     * @since 11.1
+     */
+    protected Map<String, PrefetchInfo> prefetchProfiles = new HashMap<>();
+
     /** Effective clearComplexPropertyBeforeSet flag. */
     protected boolean clearComplexPropertyBeforeSet;
 
@@ -222,6 +229,8 @@ public class SchemaManagerImpl implements SchemaManager {
         if (isNotBlank(config.prefetchInfo)) {
             log.info("Registered global prefetch: {}", config.prefetchInfo);
         }
+        config.prefetchProfiles.forEach(
+                (name, expr) -> log.info("Registered prefetch profile: {}: {}", name, expr));
         if (config.clearComplexPropertyBeforeSet != null) {
             log.info("Registered clearComplexPropertyBeforeSet: {}", config.clearComplexPropertyBeforeSet);
         }
@@ -236,6 +245,8 @@ public class SchemaManagerImpl implements SchemaManager {
             if (isNotBlank(config.prefetchInfo)) {
                 log.info("Unregistered global prefetch: {}", config.prefetchInfo);
             }
+            config.prefetchProfiles.forEach(
+                    (name, expr) -> log.info("Unregistered prefetch profile: {}: {}", name, expr));
             if (config.clearComplexPropertyBeforeSet != null) {
                 log.info("Unregistered clearComplexPropertyBeforeSet: {}", config.clearComplexPropertyBeforeSet);
             }
@@ -368,12 +379,14 @@ public class SchemaManagerImpl implements SchemaManager {
 
     protected void recomputeConfiguration() {
         prefetchInfo = null;
+        prefetchProfiles.clear();
         clearComplexPropertyBeforeSet = CLEAR_COMPLEX_PROP_BEFORE_SET_DEFAULT;
         allowVersionWriteForDublinCore = false; // default in the absence of any XML config
         for (TypeConfiguration tc : allConfigurations) {
             if (isNotBlank(tc.prefetchInfo)) {
                 prefetchInfo = new PrefetchInfo(tc.prefetchInfo);
             }
+            tc.prefetchProfiles.forEach((name, expr) -> prefetchProfiles.put(name, new PrefetchInfo(name, expr)));
             if (tc.clearComplexPropertyBeforeSet != null) {
                 clearComplexPropertyBeforeSet = tc.clearComplexPropertyBeforeSet.booleanValue();
             }
@@ -942,6 +955,12 @@ public class SchemaManagerImpl implements SchemaManager {
         return new PropertyDeprecationHandler(removedProperties);
     }
 
+    @Override
+    public PrefetchInfo getPrefetchProfile(String name) {
+        checkDirty();
+        return prefetchProfiles.get(name);
+    }
+
     @Override
     public boolean getClearComplexPropertyBeforeSet() {
         return clearComplexPropertyBeforeSet;
@@ -21,7 +21,11 @@
 
 package org.nuxeo.ecm.core.schema;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.nuxeo.common.xmap.annotation.XNode;
+import org.nuxeo.common.xmap.annotation.XNodeMap;
 import org.nuxeo.common.xmap.annotation.XObject;
 
 /**
@@ -42,10 +46,18 @@ public class TypeConfiguration {
     @XNode("allowVersionWriteForDublinCore")
     protected Boolean allowVersionWriteForDublinCore;
 
+    /**
+     * The expressions of the named prefetch profiles.
+     *
+     * @since 11.1
+     */
+    @XNodeMap(value = "prefetchProfile", key = "@name", type = HashMap.class, componentType = String.class)
+    protected Map<String, String> prefetchProfiles = new HashMap<>();
+
     @Override
     public String toString() {
         return getClass().getSimpleName() + "(prefetchInfo=" + prefetchInfo + ", clearComplexPropertyBeforeSet="
-                + clearComplexPropertyBeforeSet + ')';
+                + clearComplexPropertyBeforeSet + ", prefetchProfiles=" + prefetchProfiles + ')';
     }
 
 }
@@ -416,6 +416,19 @@ public class DBSSession implements Session<QueryFilter> {
 
     protected List<Document> getDocuments(List<String> ids) {
         List<DBSDocumentState> docStates = transaction.getStatesForUpdate(ids);
+        // fetch the proxy targets in bulk too, instead of one at a time when building the documents
+        List<String> targetIds = new ArrayList<>();
+        for (DBSDocumentState docState : docStates) {
+            if (TRUE.equals(docState.get(KEY_IS_PROXY))) {
+                String targetId = (String) docState.get(KEY_PROXY_TARGET_ID);
+                if (targetId != null) {
+                    targetIds.add(targetId);
+                }
+            }
+        }
+        if (!targetIds.isEmpty()) {
+            transaction.getStatesForUpdate(targetIds);
+        }
         List<Document> docs = new ArrayList<>(ids.size());
         for (DBSDocumentState docState : docStates) {
             try {
@@ -55,4 +55,9 @@ public abstract class MonitoredBackend implements RepositoryBackend {
         wrapped.shutdown();
     }
 
+    @Override
+    public boolean isNullSortedFirst(boolean ascending) {
+        return wrapped.isNullSortedFirst(ascending);
+    }
+
 }
@@ -31,6 +31,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
@@ -424,6 +425,13 @@ public class Model {
     /** Map of doctype to prefetched fragments. */
     protected final Map<String, Set<String>> docTypePrefetchedFragments;
 
+    /**
+     * Map of prefetch profile to doctype to prefetched fragments, computed lazily.
+     *
+     * @since 11.1
+     */
+    protected final Map<String, Map<String, Set<String>>> profilePrefetchedFragments = new ConcurrentHashMap<>();
+
     /** Map of schema to child name to type. */
     protected final Map<String, Map<String, String>> schemaComplexChildren;
 
@@ -1023,6 +1031,58 @@ public class Model {
         return docTypePrefetchedFragments.get(typeName);
     }
 
+    /**
+     * Gets the fragments to prefetch for a type according to a prefetch profile.
+     * <p>
+     * These are the fragments of the profile schemas that the type has, and the fragments always prefetched.
+     *
+     * @param typeName the document type
+     * @param prefetchProfile the prefetch profile, or {@code null} for the prefetch of the type
+     * @return the fragments, or {@code null} for an unknown type
+     * @since 11.1
+     */
+    public Set<String> getTypePrefetchedFragments(String typeName, PrefetchInfo prefetchProfile) {
+        if (prefetchProfile == null) {
+            return getTypePrefetchedFragments(typeName);
+        }
+        return profilePrefetchedFragments.computeIfAbsent(prefetchProfile.getName(), k -> new ConcurrentHashMap<>())
+                                         .computeIfAbsent(typeName,
+                                                 k -> computeTypePrefetchedFragments(typeName, prefetchProfile));
+    }
+
+    /**
+     * Clears the fragments computed for the prefetch profiles, which are computed again on next use.
+     * <p>
+     * Called when the schema configuration, and therefore maybe the prefetch profiles, is recomputed.
+     *
+     * @since 11.1
+     */
+    public void clearProfilePrefetchedFragments() {
+        profilePrefetchedFragments.clear();
+    }
+
+    protected Set<String> computeTypePrefetchedFragments(String typeName, PrefetchInfo prefetchProfile) {
+        Set<String> fragmentNames = getTypeFragments(typeName);
+        if (fragmentNames == null || !docTypePrefetchedFragments.containsKey(typeName)) {
+            return null;
+        }
+        Set<String> fragments = new HashSet<>();
+        if (prefetchProfile.isAllSchemas()) {
+            fragments.addAll(fragmentNames);
+            fragments.remove(FULLTEXT_TABLE_NAME);
+        } else {
+            for (String schemaName : prefetchProfile.getSchemas()) {
+                Set<String> schemaFragmentNames = schemaFragments.get(schemaName);
+                if (schemaFragmentNames != null) {
+                    schemaFragmentNames.stream().filter(fragmentNames::contains).forEach(fragments::add);
+                }
+            }
+        }
+        // always prefetch ACLs, versions, misc (for lifecycle)
+        fragments.addAll(getCommonFragmentsPrefetched());
+        return fragments;
+    }
+
     /**
      * Checks if we have a type (doctype or complex type).
      */
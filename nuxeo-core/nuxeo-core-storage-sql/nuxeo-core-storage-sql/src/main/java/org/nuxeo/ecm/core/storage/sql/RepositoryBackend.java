@@ -52,4 +52,13 @@ public interface RepositoryBackend {
      */
     void shutdown();
 
+    /**
+     * Checks if {@code null} values come first when a query sorts in the given direction.
+     *
+     * @since 11.1
+     */
+    default boolean isNullSortedFirst(boolean ascending) {
+        return ascending;
+    }
+
 }
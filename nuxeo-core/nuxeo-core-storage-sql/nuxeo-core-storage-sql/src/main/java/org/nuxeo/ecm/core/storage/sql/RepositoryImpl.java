@@ -35,6 +35,8 @@ import org.apache.commons.logging.LogFactory;
 import org.nuxeo.ecm.core.api.NuxeoException;
 import org.nuxeo.ecm.core.api.repository.FulltextConfiguration;
 import org.nuxeo.ecm.core.model.LockManager;
+import org.nuxeo.ecm.core.schema.SchemaManager;
+import org.nuxeo.ecm.core.schema.SchemaManagerImpl;
 import org.nuxeo.ecm.core.storage.lock.LockManagerService;
 import org.nuxeo.ecm.core.storage.sql.Session.PathResolver;
 import org.nuxeo.ecm.core.storage.sql.jdbc.JDBCBackend;
@@ -88,6 +90,13 @@ public class RepositoryImpl implements Repository {
 
     private Model model;
 
+    /**
+     * Clears what the model computed from the schema configuration when it is recomputed.
+     *
+     * @since 11.1
+     */
+    protected Runnable schemaRecomputeCallback;
+
     /**
      * Transient id for this repository assigned by the server on first connection. This is not persisted.
      */
@@ -254,6 +263,8 @@ public class RepositoryImpl implements Repository {
         backend = createBackend();
         prepareClusterInvalidator(); // sets requiresClusterSQL used by backend init
         model = backend.initialize(this);
+        schemaRecomputeCallback = model::clearProfilePrefetchedFragments;
+        getSchemaManager().registerRecomputeCallback(schemaRecomputeCallback);
         initLockManager();
         initClusterInvalidator();
 
@@ -268,6 +279,13 @@ public class RepositoryImpl implements Repository {
         initRootNode();
     }
 
+    /**
+     * @since 11.1
+     */
+    protected SchemaManagerImpl getSchemaManager() {
+        return (SchemaManagerImpl) Framework.getService(SchemaManager.class);
+    }
+
     protected void initRootNode() {
         try {
             // access a session once so that SessionImpl.computeRootNode can create the root node
@@ -382,6 +400,10 @@ public class RepositoryImpl implements Repository {
     @Override
     public synchronized void close() {
         closeAllSessions();
+        if (schemaRecomputeCallback != null) {
+            getSchemaManager().unregisterRecomputeCallback(schemaRecomputeCallback);
+            schemaRecomputeCallback = null;
+        }
         model = null;
         backend.shutdown();
 
@@ -513,6 +535,11 @@ public class RepositoryImpl implements Repository {
         return model.getFulltextConfiguration();
     }
 
+    @Override
+    public boolean isNullSortedFirst(boolean ascending) {
+        return backend.isNullSortedFirst(ascending);
+    }
+
     /*
      * ----- -----
      */
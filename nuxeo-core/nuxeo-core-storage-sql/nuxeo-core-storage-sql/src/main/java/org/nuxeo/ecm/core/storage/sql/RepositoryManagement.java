@@ -92,4 +92,11 @@ public interface RepositoryManagement {
      */
     FulltextConfiguration getFulltextConfiguration();
 
+    /**
+     * Checks if {@code null} values come first when a query sorts in the given direction.
+     *
+     * @since 11.1
+     */
+    boolean isNullSortedFirst(boolean ascending);
+
 }
@@ -30,6 +30,7 @@ import org.nuxeo.ecm.core.api.PartialList;
 import org.nuxeo.ecm.core.api.ScrollResult;
 import org.nuxeo.ecm.core.model.LockManager;
 import org.nuxeo.ecm.core.query.QueryFilter;
+import org.nuxeo.ecm.core.schema.PrefetchInfo;
 
 /**
  * The session is the main high level access point to data from the underlying database.
@@ -96,6 +97,17 @@ public interface Session extends Connection {
      */
     List<Node> getNodesByIds(Collection<Serializable> ids);
 
+    /**
+     * Gets several nodes given their ids, fetching together the fragments of the schemas described by a prefetch
+     * profile instead of those of the document type prefetch.
+     *
+     * @param ids the ids
+     * @param prefetchProfile the prefetch profile, or {@code null} for the document type prefetch
+     * @return the nodes, in the same order as the ids, with elements being {@code null} if not found
+     * @since 11.1
+     */
+    List<Node> getNodesByIds(Collection<Serializable> ids, PrefetchInfo prefetchProfile);
+
     /**
      * Gets a node given its absolute path, or given an existing node and a relative path.
      *
@@ -59,6 +59,7 @@ import org.nuxeo.ecm.core.model.LockManager;
 import org.nuxeo.ecm.core.query.QueryFilter;
 import org.nuxeo.ecm.core.query.sql.NXQL;
 import org.nuxeo.ecm.core.schema.DocumentType;
+import org.nuxeo.ecm.core.schema.PrefetchInfo;
 import org.nuxeo.ecm.core.schema.SchemaManager;
 import org.nuxeo.ecm.core.storage.FulltextExtractorWork;
 import org.nuxeo.ecm.core.storage.sql.PersistenceContext.PathAndId;
@@ -469,6 +470,16 @@ public class SessionImpl implements Session, XAResource {
     }
 
     public List<Node> getNodesByIds(Collection<Serializable> ids, boolean prefetch) {
+        return getNodesByIds(ids, prefetch, null);
+    }
+
+    /**
+     * Gets several nodes given their ids, prefetching the fragments of the given prefetch profile if not {@code null},
+     * or else those of the document type.
+     *
+     * @since 11.1
+     */
+    protected List<Node> getNodesByIds(Collection<Serializable> ids, boolean prefetch, PrefetchInfo prefetchProfile) {
         // get hier fragments
         List<RowId> hierRowIds = new ArrayList<>(ids.size());
         for (Serializable id : ids) {
@@ -518,7 +529,7 @@ public class SessionImpl implements Session, XAResource {
 
             // get rows to prefetch for hier fragments
             for (Fragment fragment : hierFragments) {
-                findPrefetchedFragments((SimpleFragment) fragment, bulkRowIds, proxyIds);
+                findPrefetchedFragments((SimpleFragment) fragment, bulkRowIds, proxyIds, prefetchProfile);
             }
 
             // proxies
@@ -543,7 +554,7 @@ public class SessionImpl implements Session, XAResource {
             }
             hierFragments = context.getMulti(hierRowIds, true);
             for (Fragment fragment : hierFragments) {
-                findPrefetchedFragments((SimpleFragment) fragment, bulkRowIds, null);
+                findPrefetchedFragments((SimpleFragment) fragment, bulkRowIds, null, prefetchProfile);
             }
 
             // we have everything to be prefetched
@@ -577,6 +588,17 @@ public class SessionImpl implements Session, XAResource {
      */
     protected void findPrefetchedFragments(SimpleFragment hierFragment, List<RowId> bulkRowIds,
             Set<Serializable> proxyIds) {
+        findPrefetchedFragments(hierFragment, bulkRowIds, proxyIds, null);
+    }
+
+    /**
+     * Finds prefetched fragments for a hierarchy fragment according to a prefetch profile, takes note of the ones that
+     * are proxies.
+     *
+     * @since 11.1
+     */
+    protected void findPrefetchedFragments(SimpleFragment hierFragment, List<RowId> bulkRowIds,
+            Set<Serializable> proxyIds, PrefetchInfo prefetchProfile) {
         Serializable id = hierFragment.row.id;
 
         // find type
@@ -589,7 +611,7 @@ public class SessionImpl implements Session, XAResource {
         }
 
         // find table names
-        Set<String> tableNames = model.getTypePrefetchedFragments(typeName);
+        Set<String> tableNames = model.getTypePrefetchedFragments(typeName, prefetchProfile);
         if (tableNames == null) {
             return; // unknown (obsolete) type
         }
@@ -614,6 +636,12 @@ public class SessionImpl implements Session, XAResource {
         return getNodesByIds(ids, true);
     }
 
+    @Override
+    public List<Node> getNodesByIds(Collection<Serializable> ids, PrefetchInfo prefetchProfile) {
+        checkLive();
+        return getNodesByIds(ids, true, prefetchProfile);
+    }
+
     @Override
     public Node getParentNode(Node node) {
         checkLive();
@@ -60,6 +60,7 @@ import org.nuxeo.ecm.core.model.Session;
 import org.nuxeo.ecm.core.query.QueryFilter;
 import org.nuxeo.ecm.core.query.sql.NXQL;
 import org.nuxeo.ecm.core.schema.DocumentType;
+import org.nuxeo.ecm.core.schema.PrefetchInfo;
 import org.nuxeo.ecm.core.schema.SchemaManager;
 import org.nuxeo.ecm.core.storage.sql.ACLRow;
 import org.nuxeo.ecm.core.storage.sql.Model;
@@ -190,6 +191,18 @@ public class SQLSession implements Session<QueryFilter> {
         return doc;
     }
 
+    @Override
+    public Document getDocumentByUUID(String uuid, PrefetchInfo prefetchProfile) throws DocumentNotFoundException {
+        if (prefetchProfile == null) {
+            return getDocumentByUUID(uuid);
+        }
+        List<Document> docs = getDocumentsById(Collections.singletonList(idFromString(uuid)), prefetchProfile);
+        if (docs.isEmpty()) {
+            throw new DocumentNotFoundException(uuid);
+        }
+        return docs.get(0);
+    }
+
     @Override
     public Document resolvePath(String path) throws DocumentNotFoundException {
         if (path.endsWith("/") && path.length() > 1) {
@@ -369,6 +382,12 @@ public class SQLSession implements Session<QueryFilter> {
 
     @Override
     public PartialList<Document> query(String query, String queryType, QueryFilter queryFilter, long countUpTo) {
+        return query(query, queryType, queryFilter, countUpTo, null);
+    }
+
+    @Override
+    public PartialList<Document> query(String query, String queryType, QueryFilter queryFilter, long countUpTo,
+            PrefetchInfo prefetchProfile) {
         // do ORDER BY ecm:path by hand in SQLQueryResult as we can't
         // do it in SQL (and has to do limit/offset as well)
         Boolean orderByPath;
@@ -394,7 +413,7 @@ public class SQLSession implements Session<QueryFilter> {
         PartialList<Serializable> pl = session.query(query, queryType, queryFilter, countUpTo);
 
         // get Documents in bulk, returns a newly-allocated ArrayList
-        List<Document> list = getDocumentsById(pl);
+        List<Document> list = getDocumentsById(pl, prefetchProfile);
 
         // order / limit
         if (orderByPath != null) {
@@ -498,8 +517,18 @@ public class SQLSession implements Session<QueryFilter> {
 
     // called by SQLQueryResult iterator
     protected List<Document> getDocumentsById(List<Serializable> ids) {
+        return getDocumentsById(ids, null);
+    }
+
+    /**
+     * Gets documents in bulk, fetching together the fragments described by a prefetch profile.
+     *
+     * @since 11.1
+     */
+    protected List<Document> getDocumentsById(List<Serializable> ids, PrefetchInfo prefetchProfile) {
         List<Document> docs = new ArrayList<>(ids.size());
-        List<Node> nodes = session.getNodesByIds(ids);
+        List<Node> nodes = prefetchProfile == null ? session.getNodesByIds(ids)
+                : session.getNodesByIds(ids, prefetchProfile);
         for (int index = 0; index < ids.size(); ++index) {
             Node eachNode = nodes.get(index);
             if (eachNode == null) {
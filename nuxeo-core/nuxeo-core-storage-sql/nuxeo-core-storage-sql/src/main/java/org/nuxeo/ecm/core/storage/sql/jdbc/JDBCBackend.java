@@ -158,4 +158,9 @@ public class JDBCBackend implements RepositoryBackend {
         }
     }
 
+    @Override
+    public boolean isNullSortedFirst(boolean ascending) {
+        return sqlInfo.dialect.isNullSortedFirst(ascending);
+    }
+
 }
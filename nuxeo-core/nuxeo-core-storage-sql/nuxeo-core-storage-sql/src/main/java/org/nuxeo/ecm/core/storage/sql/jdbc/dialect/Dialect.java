@@ -1231,6 +1231,28 @@ public abstract class Dialect {
         return null;
     }
 
+    /**
+     * True if the database sorts {@code null} values after the other values in an ascending sort.
+     *
+     * @since 11.1
+     */
+    protected boolean isNullHighest() {
+        return false;
+    }
+
+    /**
+     * Checks if {@code null} values come first in a sort in the given direction, taking into account the
+     * {@code NULLS LAST} added by {@link #getDescending}.
+     *
+     * @since 11.1
+     */
+    public boolean isNullSortedFirst(boolean ascending) {
+        if (ascending) {
+            return !isNullHighest();
+        }
+        return isNullHighest() && !getDescending().contains("NULLS LAST");
+    }
+
     /**
      * Gets the SQL descending sort direction with option to sort nulls last. Use to unify database behavior.
      *
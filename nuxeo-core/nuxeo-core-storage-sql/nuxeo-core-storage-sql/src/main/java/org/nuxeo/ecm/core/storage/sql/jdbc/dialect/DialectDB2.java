@@ -61,6 +61,11 @@ public class DialectDB2 extends Dialect {
         }
     }
 
+    @Override
+    protected boolean isNullHighest() {
+        return true;
+    }
+
     @Override
     public String getCascadeDropConstraintsString() {
         return " CASCADE";
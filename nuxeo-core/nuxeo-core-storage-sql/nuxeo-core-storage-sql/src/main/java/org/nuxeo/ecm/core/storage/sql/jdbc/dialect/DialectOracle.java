@@ -997,6 +997,11 @@ public class DialectOracle extends Dialect {
         return true;
     }
 
+    @Override
+    protected boolean isNullHighest() {
+        return true;
+    }
+
     @Override
     public String getDateCast() {
         // CAST(%s AS DATE) doesn't work, it doesn't compare exactly to DATE
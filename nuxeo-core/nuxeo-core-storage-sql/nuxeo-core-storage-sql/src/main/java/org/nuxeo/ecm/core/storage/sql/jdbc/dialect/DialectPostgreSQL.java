@@ -1332,6 +1332,11 @@ public class DialectPostgreSQL extends Dialect {
         return true;
     }
 
+    @Override
+    protected boolean isNullHighest() {
+        return true;
+    }
+
     @Override
     public String getDateCast() {
         // this is more amenable to being indexed than a CAST
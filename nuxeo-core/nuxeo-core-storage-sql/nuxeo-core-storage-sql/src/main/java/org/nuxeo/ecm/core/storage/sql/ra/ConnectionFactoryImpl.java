@@ -172,6 +172,11 @@ public class ConnectionFactoryImpl implements Repository, org.nuxeo.ecm.core.mod
         return managedConnectionFactory.getFulltextConfiguration();
     }
 
+    @Override
+    public boolean isNullSortedFirst(boolean ascending) {
+        return managedConnectionFactory.isNullSortedFirst(ascending);
+    }
+
     /*
      * ----- org.nuxeo.ecm.core.model.RepositoryManagement -----
      */
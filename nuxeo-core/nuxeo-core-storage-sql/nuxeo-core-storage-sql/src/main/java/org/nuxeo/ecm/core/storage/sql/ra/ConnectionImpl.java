@@ -39,6 +39,7 @@ import org.nuxeo.ecm.core.api.PartialList;
 import org.nuxeo.ecm.core.api.ScrollResult;
 import org.nuxeo.ecm.core.model.LockManager;
 import org.nuxeo.ecm.core.query.QueryFilter;
+import org.nuxeo.ecm.core.schema.PrefetchInfo;
 import org.nuxeo.ecm.core.storage.sql.Mapper;
 import org.nuxeo.ecm.core.storage.sql.Model;
 import org.nuxeo.ecm.core.storage.sql.Node;
@@ -189,6 +190,11 @@ public class ConnectionImpl implements Session {
         return getSession().getNodesByIds(ids);
     }
 
+    @Override
+    public List<Node> getNodesByIds(Collection<Serializable> ids, PrefetchInfo prefetchProfile) {
+        return getSession().getNodesByIds(ids, prefetchProfile);
+    }
+
     @Override
     public Node getNodeByPath(String path, Node node) {
         return getSession().getNodeByPath(path, node);
@@ -233,6 +233,14 @@ public class ManagedConnectionFactoryImpl implements ManagedConnectionFactory, R
         return repository.getFulltextConfiguration();
     }
 
+    @Override
+    public boolean isNullSortedFirst(boolean ascending) {
+        if (repository == null) {
+            return ascending;
+        }
+        return repository.isNullSortedFirst(ascending);
+    }
+
     /*
      * ----- -----
      */
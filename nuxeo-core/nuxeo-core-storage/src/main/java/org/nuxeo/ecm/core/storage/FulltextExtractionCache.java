@@ -0,0 +1,209 @@
+/*
+ * (C) Copyright 2019 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nuxeo.ecm.core.storage;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.nuxeo.ecm.core.api.Blob;
+import org.nuxeo.runtime.api.Framework;
+import org.nuxeo.runtime.kv.KeyValueService;
+import org.nuxeo.runtime.kv.KeyValueStore;
+import org.nuxeo.runtime.metrics.MetricsService;
+import org.nuxeo.runtime.services.config.ConfigurationService;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.RatioGauge;
+import com.codahale.metrics.SharedMetricRegistries;
+
+/**
+ * Cache of the text extracted from blobs by the {@link FulltextExtractorWork}, keyed by converter and blob digest, so
+ * that the same binary shared by several versions, proxies or copies is converted only once.
+ * <p>
+ * The texts are stored compressed in a {@link KeyValueStore}. The cache is disabled by default and is configured with
+ * the following properties:
+ * <ul>
+ * <li>{@value #ENABLED_PROP}: {@code true} to enable the cache,
+ * <li>{@value #KEY_VALUE_STORE_PROP}: the key/value store name (default {@value #DEFAULT_KEY_VALUE_STORE}),
+ * <li>{@value #TTL_PROP}: how long an entry is kept after its last access (default 7 days),
+ * <li>{@value #MAX_SIZE_PROP}: the maximum size of a text to cache, in characters (default 1M); larger texts are not
+ * cached.
+ * </ul>
+ * The number of hits and misses and the hit ratio are exposed as metrics.
+ *
+ * @since 11.1
+ */
+public class FulltextExtractionCache {
+
+    private static final Log log = LogFactory.getLog(FulltextExtractionCache.class);
+
+    public static final String ENABLED_PROP = "nuxeo.fulltext.extraction.cache.enabled";
+
+    public static final String KEY_VALUE_STORE_PROP = "nuxeo.fulltext.extraction.cache.keyValueStore";
+
+    public static final String TTL_PROP = "nuxeo.fulltext.extraction.cache.ttl";
+
+    public static final String MAX_SIZE_PROP = "nuxeo.fulltext.extraction.cache.maxSize";
+
+    public static final String DEFAULT_KEY_VALUE_STORE = "fulltextExtraction";
+
+    protected static final Duration DEFAULT_TTL = Duration.ofDays(7);
+
+    protected static final int DEFAULT_MAX_SIZE = 1024 * 1024;
+
+    protected static final String HIT_NAME = MetricRegistry.name("nuxeo", "fulltext", "extraction", "cache", "hit");
+
+    protected static final String MISS_NAME = MetricRegistry.name("nuxeo", "fulltext", "extraction", "cache", "miss");
+
+    protected static final String HIT_RATIO_NAME = MetricRegistry.name("nuxeo", "fulltext", "extraction", "cache",
+            "hit-ratio");
+
+    protected final KeyValueStore store;
+
+    protected final long ttl;
+
+    protected final int maxSize;
+
+    protected final Counter hits;
+
+    protected final Counter misses;
+
+    protected FulltextExtractionCache(KeyValueStore store, long ttl, int maxSize) {
+        this.store = store;
+        this.ttl = ttl;
+        this.maxSize = maxSize;
+        MetricRegistry registry = SharedMetricRegistries.getOrCreate(MetricsService.class.getName());
+        hits = registry.counter(HIT_NAME);
+        misses = registry.counter(MISS_NAME);
+        registry.gauge(HIT_RATIO_NAME, () -> new RatioGauge() {
+
+            @Override
+            protected Ratio getRatio() {
+                return Ratio.of(hits.getCount(), hits.getCount() + misses.getCount());
+            }
+        });
+    }
+
+    /**
+     * Gets the extraction cache according to the current configuration.
+     *
+     * @return the cache, or {@code null} if it is disabled
+     */
+    public static FulltextExtractionCache getCache() {
+        ConfigurationService configurationService = Framework.getService(ConfigurationService.class);
+        if (configurationService == null || !configurationService.isBooleanTrue(ENABLED_PROP)) {
+            return null;
+        }
+        KeyValueService keyValueService = Framework.getService(KeyValueService.class);
+        if (keyValueService == null) {
+            log.debug("No KeyValueService available, fulltext extraction cache disabled");
+            return null;
+        }
+        String storeName = configurationService.getString(KEY_VALUE_STORE_PROP, DEFAULT_KEY_VALUE_STORE);
+        long ttl = configurationService.getDuration(TTL_PROP, DEFAULT_TTL).getSeconds();
+        int maxSize = configurationService.getInteger(MAX_SIZE_PROP, DEFAULT_MAX_SIZE);
+        return new FulltextExtractionCache(keyValueService.getKeyValueStore(storeName), ttl, maxSize);
+    }
+
+    /**
+     * Computes the cache key for the given converter and blob.
+     *
+     * @return the key, or {@code null} if the blob has no digest
+     */
+    protected String getKey(String converterName, Blob blob) {
+        String digest = blob.getDigest();
+        if (StringUtils.isBlank(digest)) {
+            return null;
+        }
+        String algorithm = blob.getDigestAlgorithm();
+        return converterName + ':' + (algorithm == null ? "" : algorithm) + ':' + digest;
+    }
+
+    /**
+     * Gets the text previously extracted from a blob with the same digest.
+     *
+     * @return the text, or {@code null} if not in the cache
+     */
+    public String get(String converterName, Blob blob) {
+        String key = getKey(converterName, blob);
+        if (key == null) {
+            return null;
+        }
+        byte[] bytes = store.get(key);
+        if (bytes == null) {
+            misses.inc();
+            return null;
+        }
+        String text;
+        try {
+            text = decompress(bytes);
+        } catch (IOException e) {
+            log.warn("Invalid fulltext extraction cache entry: " + key + ": " + e);
+            misses.inc();
+            return null;
+        }
+        hits.inc();
+        // keep recently used entries
+        store.setTTL(key, ttl);
+        return text;
+    }
+
+    /**
+     * Stores the text extracted from a blob, unless it is too large or the blob has no digest.
+     */
+    public void put(String converterName, Blob blob, String text) {
+        if (text.length() > maxSize) {
+            return;
+        }
+        String key = getKey(converterName, blob);
+        if (key == null) {
+            return;
+        }
+        try {
+            store.put(key, compress(text), ttl);
+        } catch (IOException e) {
+            log.warn("Cannot store fulltext extraction cache entry: " + key + ": " + e);
+        }
+    }
+
+    protected static byte[] compress(String text) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(baos)) {
+            out.write(text.getBytes(UTF_8));
+        }
+        return baos.toByteArray();
+    }
+
+    protected static String decompress(byte[] bytes) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return IOUtils.toString(in, UTF_8);
+        }
+    }
+
+}
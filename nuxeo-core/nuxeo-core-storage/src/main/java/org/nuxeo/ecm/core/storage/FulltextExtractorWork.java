@@ -89,6 +89,9 @@ public class FulltextExtractorWork extends AbstractWork {
 
     protected transient List<DocumentRef> docsToUpdate;
 
+    /** @since 11.1 */
+    protected transient FulltextExtractionCache extractionCache;
+
     /** If true, update the simple text from the document. */
     protected final boolean updateSimpleText;
 
@@ -219,6 +222,7 @@ public class FulltextExtractorWork extends AbstractWork {
         // we extract binary text even if fulltext search is disabled,
         // because it is still used to inject into external indexers like Elasticsearch
         BlobsExtractor blobsExtractor = new BlobsExtractor();
+        extractionCache = FulltextExtractionCache.getCache();
         Map<Blob, String> blobsText = new IdentityHashMap<>();
         for (String indexName : fulltextConfiguration.indexNames) {
             if (!fulltextConfiguration.indexesAllBinary.contains(indexName)
@@ -272,9 +276,15 @@ public class FulltextExtractorWork extends AbstractWork {
     }
 
     /**
-     * Converts the blob to text by calling a converter.
+     * Converts the blob to text by calling a converter, unless the text for the same binary is in the extraction cache.
      */
     protected String blobToText(Blob blob) {
+        if (extractionCache != null) {
+            String string = extractionCache.get(ANY2TEXT_CONVERTER, blob);
+            if (string != null) {
+                return string;
+            }
+        }
         try {
             ConversionService conversionService = Framework.getService(ConversionService.class);
             if (conversionService == null) {
@@ -294,6 +304,9 @@ public class FulltextExtractorWork extends AbstractWork {
             if (string.indexOf('\0') >= 0) {
                 string = string.replace("\0", " ");
             }
+            if (extractionCache != null) {
+                extractionCache.put(ANY2TEXT_CONVERTER, blob, string);
+            }
             return string;
         } catch (ConversionException | IOException e) {
             String msg = "Could not extract fulltext of file '" + blob.getFilename() + "' for document: " + docId + ": "
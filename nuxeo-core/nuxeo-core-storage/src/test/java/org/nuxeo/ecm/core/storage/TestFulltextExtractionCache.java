@@ -0,0 +1,82 @@
+/*
+ * (C) Copyright 2019 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nuxeo.ecm.core.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.nuxeo.ecm.core.api.Blob;
+import org.nuxeo.ecm.core.api.Blobs;
+import org.nuxeo.runtime.kv.MemKeyValueStore;
+
+/**
+ * @since 11.1
+ */
+public class TestFulltextExtractionCache {
+
+    protected static final String CONVERTER = "any2text";
+
+    protected FulltextExtractionCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new FulltextExtractionCache(new MemKeyValueStore(), 3600, 100);
+    }
+
+    protected static Blob blob(String digest) {
+        Blob blob = Blobs.createBlob("some content");
+        blob.setDigest(digest);
+        return blob;
+    }
+
+    @Test
+    public void testHitAndMiss() {
+        long hits = cache.hits.getCount();
+        long misses = cache.misses.getCount();
+
+        assertNull(cache.get(CONVERTER, blob("abc")));
+        cache.put(CONVERTER, blob("abc"), "some text");
+        // another blob with the same digest hits the cache
+        assertEquals("some text", cache.get(CONVERTER, blob("abc")));
+        // different digest or converter miss it
+        assertNull(cache.get(CONVERTER, blob("def")));
+        assertNull(cache.get("other", blob("abc")));
+
+        assertEquals(1, cache.hits.getCount() - hits);
+        assertEquals(3, cache.misses.getCount() - misses);
+    }
+
+    @Test
+    public void testNoDigest() {
+        Blob blob = blob(null);
+        cache.put(CONVERTER, blob, "some text");
+        assertNull(cache.get(CONVERTER, blob));
+    }
+
+    @Test
+    public void testMaxSize() {
+        String text = StringUtils.repeat('a', 101);
+        cache.put(CONVERTER, blob("abc"), text);
+        assertNull(cache.get(CONVERTER, blob("abc")));
+        text = StringUtils.repeat('a', 100);
+        cache.put(CONVERTER, blob("abc"), text);
+        assertEquals(text, cache.get(CONVERTER, blob("abc")));
+    }
+
+}
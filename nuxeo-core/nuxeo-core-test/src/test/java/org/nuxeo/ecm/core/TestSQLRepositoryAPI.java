@@ -124,6 +124,7 @@ import org.nuxeo.ecm.core.storage.sql.listeners.DummyBeforeModificationListener;
 import org.nuxeo.ecm.core.test.CoreFeature;
 import org.nuxeo.ecm.core.test.annotations.Granularity;
 import org.nuxeo.ecm.core.test.annotations.RepositoryConfig;
+import org.nuxeo.runtime.metrics.MetricsService;
 import org.nuxeo.runtime.test.runner.ConditionalIgnoreRule;
 import org.nuxeo.runtime.test.runner.ConditionalIgnoreRule.IgnoreWindows;
 import org.nuxeo.runtime.test.runner.Deploy;
@@ -132,6 +133,9 @@ import org.nuxeo.runtime.test.runner.FeaturesRunner;
 import org.nuxeo.runtime.test.runner.TransactionalFeature;
 import org.nuxeo.runtime.transaction.TransactionHelper;
 
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SharedMetricRegistries;
+
 @RunWith(FeaturesRunner.class)
 @Features(CoreFeature.class)
 @RepositoryConfig(cleanup = Granularity.METHOD)
@@ -2980,6 +2984,84 @@ public class TestSQLRepositoryAPI {
         assertEquals("File", docModel.getType());
     }
 
+    @Test
+    public void testCreateDocuments() {
+        List<DocumentModel> docs = new ArrayList<>();
+        docs.add(session.createDocumentModel("/", "folder", "Folder"));
+        for (int i = 0; i < 3; i++) {
+            DocumentModel doc = session.createDocumentModel("/folder", "file" + i, "File");
+            doc.setPropertyValue("dc:title", "title" + i);
+            docs.add(doc);
+        }
+        List<DocumentModel> created = session.createDocuments(docs);
+        session.save();
+
+        assertEquals(4, created.size());
+        assertEquals("/folder", created.get(0).getPathAsString());
+        for (int i = 0; i < 3; i++) {
+            DocumentModel doc = created.get(i + 1);
+            assertNotNull(doc.getId());
+            assertEquals("/folder/file" + i, doc.getPathAsString());
+            assertEquals(created.get(0).getRef(), doc.getParentRef());
+        }
+        DocumentModelList children = session.getChildren(new PathRef("/folder"));
+        assertEquals(3, children.size());
+        assertEquals("title1", session.getDocument(new PathRef("/folder/file1")).getTitle());
+    }
+
+    protected long getPrefetchCount(String profile, String name) {
+        return SharedMetricRegistries.getOrCreate(MetricsService.class.getName())
+                                     .counter(MetricRegistry.name("nuxeo.repositories", session.getRepositoryName(),
+                                             "prefetch", profile, name))
+                                     .getCount();
+    }
+
+    @Test
+    public void testPrefetchProfile() {
+        DocumentModel doc = session.createDocumentModel("/", "doc", "File");
+        doc.setPropertyValue("dc:title", "title");
+        doc = session.createDocument(doc);
+        session.save();
+
+        // unlike the default prefetch, the profile includes the file schema
+        long hits = getPrefetchCount("rest-default", "hits");
+        long misses = getPrefetchCount("rest-default", "misses");
+        DocumentModelList list = session.query("SELECT * FROM File", "NXQL", null, 0, 0, 0, "rest-default");
+        assertEquals(1, list.size());
+        DocumentModelImpl listed = (DocumentModelImpl) list.get(0);
+        assertEquals("rest-default", listed.getPrefetchProfile());
+        assertTrue(listed.isSchemaLoaded("dublincore"));
+        assertTrue(listed.isSchemaLoaded("file"));
+        assertFalse(listed.isSchemaLoaded("uid"));
+        assertEquals("title", listed.getTitle());
+        assertNull(listed.getPropertyValue("file:content"));
+        // each prefetched schema counts as a hit once
+        assertEquals(hits + 2, getPrefetchCount("rest-default", "hits"));
+        assertEquals(misses, getPrefetchCount("rest-default", "misses"));
+        // other schemas are loaded lazily
+        assertNull(listed.getPropertyValue("uid:uid"));
+        assertTrue(listed.isSchemaLoaded("uid"));
+        assertEquals(hits + 2, getPrefetchCount("rest-default", "hits"));
+        assertEquals(misses + 1, getPrefetchCount("rest-default", "misses"));
+
+        DocumentModelImpl indexed = (DocumentModelImpl) session.getDocument(doc.getRef(), "indexing");
+        for (String schema : indexed.getSchemas()) {
+            assertTrue(schema, indexed.isSchemaLoaded(schema));
+        }
+
+        DocumentModelImpl byPath = (DocumentModelImpl) session.getDocument(new PathRef("/doc"), "rest-default");
+        assertEquals("rest-default", byPath.getPrefetchProfile());
+        assertTrue(byPath.isSchemaLoaded("file"));
+        assertFalse(byPath.isSchemaLoaded("uid"));
+
+        try {
+            session.getDocument(doc.getRef(), "nosuchprofile");
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Unknown prefetch profile: nosuchprofile", e.getMessage());
+        }
+    }
+
     @SuppressWarnings({ "unchecked" })
     @Test
     public void testCopyContent() throws Exception {
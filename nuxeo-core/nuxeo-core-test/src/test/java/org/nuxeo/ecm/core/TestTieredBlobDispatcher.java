@@ -0,0 +1,217 @@
+/*
+ * (C) Copyright 2019 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nuxeo.ecm.core;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.nuxeo.ecm.core.api.security.SecurityConstants.SYSTEM_USERNAME;
+
+import java.io.InputStream;
+import java.io.Serializable;
+
+import javax.inject.Inject;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.nuxeo.ecm.core.action.TieredBlobMigrationAction;
+import org.nuxeo.ecm.core.api.Blob;
+import org.nuxeo.ecm.core.api.Blobs;
+import org.nuxeo.ecm.core.api.CoreSession;
+import org.nuxeo.ecm.core.api.DocumentModel;
+import org.nuxeo.ecm.core.blob.DocumentBlobManager;
+import org.nuxeo.ecm.core.blob.ManagedBlob;
+import org.nuxeo.ecm.core.blob.TieredBlobDispatcher;
+import org.nuxeo.ecm.core.blob.TieredBlobMigrationListener;
+import org.nuxeo.ecm.core.bulk.BulkService;
+import org.nuxeo.ecm.core.bulk.CoreBulkFeature;
+import org.nuxeo.ecm.core.bulk.message.BulkCommand;
+import org.nuxeo.ecm.core.event.EventService;
+import org.nuxeo.ecm.core.event.impl.EventContextImpl;
+import org.nuxeo.ecm.core.io.download.DownloadService;
+import org.nuxeo.ecm.core.test.CoreFeature;
+import org.nuxeo.ecm.core.test.annotations.Granularity;
+import org.nuxeo.ecm.core.test.annotations.RepositoryConfig;
+import org.nuxeo.runtime.test.runner.Deploy;
+import org.nuxeo.runtime.test.runner.Features;
+import org.nuxeo.runtime.test.runner.FeaturesRunner;
+import org.nuxeo.runtime.test.runner.TransactionalFeature;
+
+/**
+ * @since 11.1
+ */
+@RunWith(FeaturesRunner.class)
+@Features({ CoreFeature.class, CoreBulkFeature.class })
+@RepositoryConfig(cleanup = Granularity.METHOD)
+@Deploy("org.nuxeo.ecm.core.test.tests:OSGI-INF/test-blob-dispatcher-tiered.xml")
+public class TestTieredBlobDispatcher {
+
+    @Inject
+    protected CoreSession session;
+
+    @Inject
+    protected TransactionalFeature txFeature;
+
+    @Inject
+    protected BulkService bulkService;
+
+    @Inject
+    protected DocumentBlobManager documentBlobManager;
+
+    @Inject
+    protected DownloadService downloadService;
+
+    @Inject
+    protected EventService eventService;
+
+    protected TieredBlobDispatcher getDispatcher() {
+        return (TieredBlobDispatcher) documentBlobManager.getBlobDispatcher();
+    }
+
+    protected DocumentModel createDocument(String content) {
+        DocumentModel doc = session.createDocumentModel("/", "doc", "File");
+        doc.setPropertyValue("file:content", (Serializable) Blobs.createBlob(content, "text/plain"));
+        doc = session.createDocument(doc);
+        txFeature.nextTransaction();
+        return doc;
+    }
+
+    protected ManagedBlob getBlob(DocumentModel doc) {
+        return (ManagedBlob) session.getDocument(doc.getRef()).getPropertyValue("file:content");
+    }
+
+    protected void migrate(DocumentModel doc) {
+        String nxql = String.format("SELECT * FROM Document WHERE ecm:uuid = '%s'", doc.getId());
+        BulkCommand command = new BulkCommand.Builder(TieredBlobMigrationAction.ACTION_NAME, nxql,
+                SYSTEM_USERNAME).repository(session.getRepositoryName()).build();
+        bulkService.submit(command);
+        txFeature.nextTransaction();
+    }
+
+    /**
+     * Runs the migration twice, separated by the idle delay.
+     */
+    protected void migrateAfterIdleDelay(DocumentModel doc) throws InterruptedException {
+        migrate(doc);
+        Thread.sleep(1100);
+        migrate(doc);
+    }
+
+    protected static String read(Blob blob) throws Exception {
+        try (InputStream in = blob.getStream()) {
+            return IOUtils.toString(in, UTF_8);
+        }
+    }
+
+    @Test
+    public void testDemoteAndPromote() throws Exception {
+        DocumentModel doc = createDocument("foo");
+        ManagedBlob blob = getBlob(doc);
+        assertEquals("test:acbd18db4cc2f85cedef654fccc4a4d8", blob.getKey());
+
+        // never accessed but just created, stays in the hot tier during the idle delay
+        migrate(doc);
+        blob = getBlob(doc);
+        assertEquals("test:acbd18db4cc2f85cedef654fccc4a4d8", blob.getKey());
+        migrate(doc);
+        blob = getBlob(doc);
+        assertEquals("test:acbd18db4cc2f85cedef654fccc4a4d8", blob.getKey());
+
+        // idle for the delay, moved to the cold tier
+        Thread.sleep(1100);
+        migrate(doc);
+        blob = getBlob(doc);
+        assertEquals("cold:acbd18db4cc2f85cedef654fccc4a4d8", blob.getKey());
+        assertEquals("foo", read(blob));
+
+        // first access, stays in the cold tier
+        assertEquals(1, getDispatcher().recordAccess(doc, blob));
+        migrate(doc);
+        blob = getBlob(doc);
+        assertEquals("cold:acbd18db4cc2f85cedef654fccc4a4d8", blob.getKey());
+
+        // second access reaches the threshold and schedules the promotion
+        assertEquals(2, getDispatcher().recordAccess(doc, blob));
+        txFeature.nextTransaction();
+        blob = getBlob(doc);
+        assertEquals("test:acbd18db4cc2f85cedef654fccc4a4d8", blob.getKey());
+        assertEquals("foo", read(blob));
+    }
+
+    @Test
+    public void testAccessedBlobStaysHot() throws Exception {
+        DocumentModel doc = createDocument("bar");
+        ManagedBlob blob = getBlob(doc);
+        assertEquals("test:37b51d194a7513e45b56f6524f2d51f2", blob.getKey());
+
+        // download through the download service, recorded by the listener
+        downloadService.logDownload(null, doc, "file:content", "bar", "download", null);
+        assertEquals(1, getDispatcher().getAccessCount(blob));
+
+        migrateAfterIdleDelay(doc);
+        blob = getBlob(doc);
+        assertEquals("test:37b51d194a7513e45b56f6524f2d51f2", blob.getKey());
+    }
+
+    @Test
+    public void testBlobHolderDownloadRecorded() throws Exception {
+        DocumentModel doc = createDocument("quux");
+        ManagedBlob blob = getBlob(doc);
+
+        // most downloads reference the main blob through the blob holder
+        downloadService.logDownload(null, doc, DownloadService.BLOBHOLDER_0, "quux", "download", null);
+        assertEquals(1, getDispatcher().getAccessCount(blob));
+    }
+
+    @Test
+    public void testScheduledMigration() throws Exception {
+        DocumentModel doc = createDocument("qux");
+        ManagedBlob blob = getBlob(doc);
+        assertEquals("test:d85b1213473c2fd7c2045020a6b9c62b", blob.getKey());
+
+        // event sent by the scheduler
+        fireMigrationEvent();
+        Thread.sleep(1100);
+        fireMigrationEvent();
+        blob = getBlob(doc);
+        assertEquals("cold:d85b1213473c2fd7c2045020a6b9c62b", blob.getKey());
+    }
+
+    protected void fireMigrationEvent() {
+        eventService.fireEvent(TieredBlobMigrationListener.EVENT_NAME, new EventContextImpl());
+        // wait for the async listener, then for the bulk command it submitted
+        txFeature.nextTransaction();
+        txFeature.nextTransaction();
+    }
+
+    @Test
+    public void testColdBlobStaysColdOnSave() throws Exception {
+        DocumentModel doc = createDocument("baz");
+        migrateAfterIdleDelay(doc);
+        ManagedBlob blob = getBlob(doc);
+        assertEquals("cold:73feffa4b7f6bb68e44cf984c85f6e88", blob.getKey());
+
+        // updating the document doesn't change the tier of its blob
+        doc = session.getDocument(doc.getRef());
+        doc.setPropertyValue("dc:title", "foo");
+        doc.setPropertyValue("file:content", (Serializable) blob);
+        session.saveDocument(doc);
+        txFeature.nextTransaction();
+        blob = getBlob(doc);
+        assertEquals("cold:73feffa4b7f6bb68e44cf984c85f6e88", blob.getKey());
+    }
+
+}
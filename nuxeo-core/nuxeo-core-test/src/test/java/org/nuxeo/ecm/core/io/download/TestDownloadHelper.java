@@ -21,6 +21,8 @@ package org.nuxeo.ecm.core.io.download;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 
+import java.util.List;
+
 import org.junit.Test;
 import org.nuxeo.ecm.core.io.download.DownloadService.ByteRange;
 
@@ -89,4 +91,19 @@ public class TestDownloadHelper {
         assertNull(DownloadHelper.parseRange("bytes=foo-bar", 12345));
     }
 
+    @Test
+    public void testParseMultipleByteRanges() throws Exception {
+        List<ByteRange> byteRanges = DownloadHelper.parseRanges("bytes=0-123, -45", 12345);
+        assertEquals(2, byteRanges.size());
+        assertEquals(0, byteRanges.get(0).getStart());
+        assertEquals(123, byteRanges.get(0).getEnd());
+        assertEquals(12300, byteRanges.get(1).getStart());
+        assertEquals(12344, byteRanges.get(1).getEnd());
+    }
+
+    @Test
+    public void testParseUnsupportedMultipleByteRanges() throws Exception {
+        assertNull(DownloadHelper.parseRanges("bytes=0-123,foo-bar", 12345));
+    }
+
 }
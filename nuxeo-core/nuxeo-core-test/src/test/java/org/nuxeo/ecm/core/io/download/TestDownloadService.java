@@ -26,11 +26,13 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -70,6 +72,8 @@ import org.nuxeo.ecm.core.api.NuxeoException;
 import org.nuxeo.ecm.core.api.NuxeoPrincipal;
 import org.nuxeo.ecm.core.api.impl.UserPrincipal;
 import org.nuxeo.ecm.core.api.impl.blob.FileBlob;
+import org.nuxeo.ecm.core.blob.BlobManager;
+import org.nuxeo.ecm.core.blob.BlobProvider;
 import org.nuxeo.ecm.core.blob.binary.Binary;
 import org.nuxeo.ecm.core.blob.binary.BinaryBlob;
 import org.nuxeo.ecm.core.blob.binary.DefaultBinaryManager;
@@ -779,6 +783,115 @@ public class TestDownloadService {
         }
     }
 
+    @Test
+    public void testDownloadMultipleByteRanges() throws IOException {
+        Blob blob = Blobs.createBlob("Hello World", "text/plain");
+        blob.setFilename("myFile.txt");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        HttpServletRequest req = mock(HttpServletRequest.class);
+        when(req.getMethod()).thenReturn("GET");
+        when(req.getHeader("Range")).thenReturn("bytes=0-4,6-10");
+
+        HttpServletResponse resp = mock(HttpServletResponse.class);
+        ServletOutputStream sos = new DummyServletOutputStream() {
+            @Override
+            public void write(int b) {
+                out.write(b);
+            }
+        };
+        when(resp.getOutputStream()).thenReturn(sos);
+
+        DownloadContext context = DownloadContext.builder(req, resp).blob(blob).build();
+        downloadService.downloadBlob(context);
+
+        String boundary = DownloadServiceImpl.MULTIPART_BOUNDARY;
+        String expected = "\r\n--" + boundary + "\r\n" //
+                + "Content-Type: text/plain\r\n" //
+                + "Content-Range: bytes 0-4/11\r\n\r\n" //
+                + "Hello" //
+                + "\r\n--" + boundary + "\r\n" //
+                + "Content-Type: text/plain\r\n" //
+                + "Content-Range: bytes 6-10/11\r\n\r\n" //
+                + "World" //
+                + "\r\n--" + boundary + "--\r\n";
+        assertEquals(expected, out.toString("UTF-8"));
+        verify(resp).setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        verify(resp).setContentType("multipart/byteranges; boundary=" + boundary);
+        verify(resp).setContentLengthLong(expected.length());
+    }
+
+    @Test
+    @Deploy("org.nuxeo.ecm.core.api.tests:OSGI-INF/test-default-blob-provider.xml")
+    public void testDownloadWithSendfile() throws IOException {
+        BlobProvider blobProvider = Framework.getService(BlobManager.class).getBlobProvider("repo");
+        Blob source = new FileBlob(new ByteArrayInputStream(CONTENT.getBytes("UTF-8")));
+        Binary binary = blobProvider.getBinaryManager().getBinary(source);
+        String digest = binary.getDigest();
+        Blob blob = new BinaryBlob(binary, digest, "cafe.txt", "text/plain", "utf-8", digest,
+                binary.getFile().length());
+        String path = binary.getFile().getAbsolutePath();
+
+        HttpServletRequest req = mock(HttpServletRequest.class);
+        when(req.getMethod()).thenReturn("GET");
+        when(req.getHeader("Range")).thenReturn("bytes=5-");
+        when(req.getAttribute(DownloadServiceImpl.SENDFILE_SUPPORTED_ATTRIBUTE)).thenReturn(TRUE);
+        HttpServletResponse resp = mock(HttpServletResponse.class);
+        ServletOutputStream sos = new DummyServletOutputStream() {
+            @Override
+            public void write(int b) {
+                throw new NuxeoException("Not supposed to write to response");
+            }
+        };
+        when(resp.getOutputStream()).thenReturn(sos);
+
+        DownloadContext context = DownloadContext.builder(req, resp).blob(blob).build();
+        downloadService.downloadBlob(context);
+
+        // the servlet container does the transfer
+        verify(req).setAttribute(DownloadServiceImpl.SENDFILE_FILENAME_ATTRIBUTE, path);
+        verify(req).setAttribute(DownloadServiceImpl.SENDFILE_FILE_START_ATTRIBUTE, Long.valueOf(5));
+        verify(req).setAttribute(DownloadServiceImpl.SENDFILE_FILE_END_ATTRIBUTE, Long.valueOf(blob.getLength()));
+        verify(resp).setContentLengthLong(blob.getLength() - 5);
+    }
+
+    @Test
+    public void testDownloadTemporaryFileWithoutSendfile() throws IOException {
+        // a temporary file may be deleted before the servlet container is done sending it
+        Blob blob = new FileBlob(new ByteArrayInputStream(CONTENT.getBytes("UTF-8")));
+        blob.setFilename("cafe.txt");
+
+        HttpServletRequest req = mock(HttpServletRequest.class);
+        when(req.getMethod()).thenReturn("GET");
+        when(req.getAttribute(DownloadServiceImpl.SENDFILE_SUPPORTED_ATTRIBUTE)).thenReturn(TRUE);
+        HttpServletResponse resp = mock(HttpServletResponse.class);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ServletOutputStream sos = new DummyServletOutputStream() {
+            @Override
+            public void write(int b) {
+                out.write(b);
+            }
+        };
+        when(resp.getOutputStream()).thenReturn(sos);
+
+        DownloadContext context = DownloadContext.builder(req, resp).blob(blob).build();
+        downloadService.downloadBlob(context);
+
+        assertEquals(CONTENT, out.toString("UTF-8"));
+        verify(req, never()).setAttribute(eq(DownloadServiceImpl.SENDFILE_FILENAME_ATTRIBUTE), any());
+    }
+
+    @Test
+    public void testDownloadFileBlobWithByteRange() throws IOException {
+        Blob blob = new FileBlob(new ByteArrayInputStream(CONTENT.getBytes("UTF-8")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        downloadService.transferBlobWithByteRange(blob, new DownloadService.ByteRange(5, 6), () -> out);
+        assertEquals("is", out.toString("UTF-8"));
+        out.reset();
+        downloadService.transferBlobWithByteRange(blob, null, () -> out);
+        assertEquals(CONTENT, out.toString("UTF-8"));
+    }
+
     @Test
     @Deploy("org.nuxeo.ecm.core.api.tests:OSGI-INF/test-default-blob-provider.xml")
     public void testDownloadWithNginxAccel() throws IOException {
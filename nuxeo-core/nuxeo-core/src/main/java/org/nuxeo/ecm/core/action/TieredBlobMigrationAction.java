@@ -0,0 +1,96 @@
+/*
+ * (C) Copyright 2019 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.nuxeo.ecm.core.action;
+
+import static org.nuxeo.ecm.core.bulk.BulkServiceImpl.STATUS_STREAM;
+import static org.nuxeo.lib.stream.computation.AbstractComputation.INPUT_1;
+import static org.nuxeo.lib.stream.computation.AbstractComputation.OUTPUT_1;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.nuxeo.ecm.core.api.AbstractSession;
+import org.nuxeo.ecm.core.api.CoreSession;
+import org.nuxeo.ecm.core.api.DocumentNotFoundException;
+import org.nuxeo.ecm.core.blob.BlobDispatcher;
+import org.nuxeo.ecm.core.blob.DocumentBlobManager;
+import org.nuxeo.ecm.core.blob.TieredBlobDispatcher;
+import org.nuxeo.ecm.core.bulk.action.computation.AbstractBulkComputation;
+import org.nuxeo.ecm.core.model.Document;
+import org.nuxeo.ecm.core.model.Session;
+import org.nuxeo.lib.stream.computation.Topology;
+import org.nuxeo.runtime.api.Framework;
+import org.nuxeo.runtime.stream.StreamProcessorTopology;
+
+/**
+ * Bulk Action moving the blobs of documents between the hot and cold tiers of a {@link TieredBlobDispatcher},
+ * according to their access counts.
+ * <p>
+ * The blob keys are updated directly at storage level, in the transaction of the batch, without touching the document
+ * metadata.
+ *
+ * @since 11.1
+ */
+public class TieredBlobMigrationAction implements StreamProcessorTopology {
+
+    public static final String ACTION_NAME = "tieredBlobMigration";
+
+    @Override
+    public Topology getTopology(Map<String, String> options) {
+        return Topology.builder()
+                       .addComputation(TieredBlobMigrationComputation::new,
+                               Arrays.asList(INPUT_1 + ":" + ACTION_NAME, OUTPUT_1 + ":" + STATUS_STREAM))
+                       .build();
+    }
+
+    public static class TieredBlobMigrationComputation extends AbstractBulkComputation {
+
+        private static final Logger log = LogManager.getLogger(TieredBlobMigrationComputation.class);
+
+        public TieredBlobMigrationComputation() {
+            super(ACTION_NAME);
+        }
+
+        @Override
+        protected void compute(CoreSession session, List<String> ids, Map<String, Serializable> properties) {
+            BlobDispatcher blobDispatcher = Framework.getService(DocumentBlobManager.class).getBlobDispatcher();
+            if (!(blobDispatcher instanceof TieredBlobDispatcher)) {
+                log.warn("No tiered blob dispatcher configured, ignoring migration of: {} documents", ids.size());
+                return;
+            }
+            TieredBlobDispatcher dispatcher = (TieredBlobDispatcher) blobDispatcher;
+            Session internalSession = ((AbstractSession) session).getSession();
+            for (String id : ids) {
+                try {
+                    Document doc = internalSession.getDocumentByUUID(id);
+                    doc.visitBlobs(accessor -> {
+                        if (dispatcher.migrate(doc, accessor)) {
+                            log.debug("Migrated blob: {} of document: {}", accessor::getXPath, () -> id);
+                        }
+                    });
+                } catch (DocumentNotFoundException e) {
+                    // document has been deleted meanwhile
+                }
+            }
+            session.save();
+        }
+    }
+}
@@ -94,6 +94,7 @@ import org.nuxeo.ecm.core.query.sql.NXQL;
 import org.nuxeo.ecm.core.query.sql.model.SQLQuery.Transformer;
 import org.nuxeo.ecm.core.schema.DocumentType;
 import org.nuxeo.ecm.core.schema.FacetNames;
+import org.nuxeo.ecm.core.schema.PrefetchInfo;
 import org.nuxeo.ecm.core.schema.SchemaManager;
 import org.nuxeo.ecm.core.schema.types.CompositeType;
 import org.nuxeo.ecm.core.schema.types.Schema;
@@ -302,6 +303,15 @@ public abstract class AbstractSession implements CoreSession, Serializable {
     }
 
     protected Document resolveReference(DocumentRef docRef) {
+        return resolveReference(docRef, null);
+    }
+
+    /**
+     * Resolves a reference, fetching together the schemas described by a prefetch profile.
+     *
+     * @since 11.1
+     */
+    protected Document resolveReference(DocumentRef docRef, PrefetchInfo prefetchProfile) {
         if (docRef == null) {
             throw new IllegalArgumentException("null docRref");
         }
@@ -312,11 +322,16 @@ public abstract class AbstractSession implements CoreSession, Serializable {
         int type = docRef.type();
         switch (type) {
         case DocumentRef.ID:
-            return getSession().getDocumentByUUID((String) ref);
+            return getSession().getDocumentByUUID((String) ref, prefetchProfile);
         case DocumentRef.PATH:
-            return getSession().resolvePath((String) ref);
+            Document doc = getSession().resolvePath((String) ref);
+            if (prefetchProfile == null) {
+                return doc;
+            }
+            // the storage fetches the schemas of a profile by id
+            return getSession().getDocumentByUUID(doc.getUUID(), prefetchProfile);
         case DocumentRef.INSTANCE:
-            return getSession().getDocumentByUUID(((DocumentModel) ref).getId());
+            return getSession().getDocumentByUUID(((DocumentModel) ref).getId(), prefetchProfile);
         default:
             throw new IllegalArgumentException("Invalid type: " + type);
         }
@@ -332,6 +347,40 @@ public abstract class AbstractSession implements CoreSession, Serializable {
         return DocumentModelFactory.createDocumentModel(doc, getSessionId(), null);
     }
 
+    /**
+     * Gets the document model for the given core document, populated with the schemas of a prefetch profile.
+     *
+     * @param doc the document
+     * @param prefetchProfile the prefetch profile, or {@code null} for the default prefetch
+     * @return the document model
+     * @since 11.1
+     */
+    protected DocumentModel readModel(Document doc, PrefetchInfo prefetchProfile) {
+        if (prefetchProfile == null) {
+            return readModel(doc);
+        }
+        return DocumentModelFactory.createDocumentModel(doc, getSessionId(), null, prefetchProfile);
+    }
+
+    /**
+     * Gets a prefetch profile given its name.
+     *
+     * @param name the prefetch profile name, or {@code null}
+     * @return the prefetch profile, or {@code null} if the name is {@code null}
+     * @throws IllegalArgumentException if there is no such prefetch profile
+     * @since 11.1
+     */
+    protected PrefetchInfo getPrefetchProfile(String name) {
+        if (name == null) {
+            return null;
+        }
+        PrefetchInfo prefetchProfile = Framework.getService(SchemaManager.class).getPrefetchProfile(name);
+        if (prefetchProfile == null) {
+            throw new IllegalArgumentException("Unknown prefetch profile: " + name);
+        }
+        return prefetchProfile;
+    }
+
     /**
      * Gets the document model for the given core document, preserving the contextData.
      *
@@ -641,6 +690,15 @@ public abstract class AbstractSession implements CoreSession, Serializable {
 
     @Override
     public DocumentModel createDocument(DocumentModel docModel) {
+        return createDocument(docModel, null);
+    }
+
+    /**
+     * Creates a document, reusing and filling the given folders resolved and checked for permissions, if any.
+     *
+     * @since 11.1
+     */
+    protected DocumentModel createDocument(DocumentModel docModel, Map<DocumentRef, Document> folders) {
 
         // start by removing disallowed characters
         CharacterFilteringService charFilteringService = Framework.getService(CharacterFilteringService.class);
@@ -661,7 +719,7 @@ public abstract class AbstractSession implements CoreSession, Serializable {
         String childName = docModel.getName();
         Map<String, Serializable> options = getContextMapEventInfo(docModel);
 
-        Document folder = fillCreateOptions(parentRef, childName, options);
+        Document folder = fillCreateOptions(parentRef, childName, options, folders);
 
         // get initial life cycle state info
         String initialLifecycleState = null;
@@ -720,6 +778,16 @@ public abstract class AbstractSession implements CoreSession, Serializable {
 
     protected Document fillCreateOptions(DocumentRef parentRef, String childName, Map<String, Serializable> options)
             throws DocumentSecurityException {
+        return fillCreateOptions(parentRef, childName, options, null);
+    }
+
+    /**
+     * @param folders the folders already resolved and checked for permissions, filled with the one resolved, or
+     *            {@code null}
+     * @since 11.1
+     */
+    protected Document fillCreateOptions(DocumentRef parentRef, String childName, Map<String, Serializable> options,
+            Map<DocumentRef, Document> folders) throws DocumentSecurityException {
         Document folder;
         if (parentRef == null || EMPTY_PATH.equals(parentRef)) {
             folder = getSession().getNullDocument();
@@ -728,8 +796,14 @@ public abstract class AbstractSession implements CoreSession, Serializable {
             options.put(CoreEventConstants.DESTINATION_NAME, childName);
             options.put(CoreEventConstants.DESTINATION_EXISTS, false);
         } else {
-            folder = resolveReference(parentRef);
-            checkPermission(folder, ADD_CHILDREN);
+            folder = folders == null ? null : folders.get(parentRef);
+            if (folder == null) {
+                folder = resolveReference(parentRef);
+                checkPermission(folder, ADD_CHILDREN);
+                if (folders != null) {
+                    folders.put(parentRef, folder);
+                }
+            }
             options.put(CoreEventConstants.DESTINATION_REF, parentRef);
             options.put(CoreEventConstants.DESTINATION_PATH, folder.getPath());
             options.put(CoreEventConstants.DESTINATION_NAME, childName);
@@ -801,11 +875,15 @@ public abstract class AbstractSession implements CoreSession, Serializable {
 
     @Override
     public DocumentModel[] createDocument(DocumentModel[] docModels) {
-        DocumentModel[] models = new DocumentModel[docModels.length];
-        int i = 0;
-        // TODO: optimize this (do not call at each iteration createDocument())
+        return createDocuments(Arrays.asList(docModels)).toArray(new DocumentModel[docModels.length]);
+    }
+
+    @Override
+    public List<DocumentModel> createDocuments(List<DocumentModel> docModels) {
+        Map<DocumentRef, Document> folders = new HashMap<>();
+        List<DocumentModel> models = new ArrayList<>(docModels.size());
         for (DocumentModel docModel : docModels) {
-            models[i++] = createDocument(docModel);
+            models.add(createDocument(docModel, folders));
         }
         return models;
     }
@@ -919,6 +997,14 @@ public abstract class AbstractSession implements CoreSession, Serializable {
         return readModel(doc);
     }
 
+    @Override
+    public DocumentModel getDocument(DocumentRef docRef, String prefetchProfile) {
+        PrefetchInfo prefetchInfo = getPrefetchProfile(prefetchProfile);
+        Document doc = resolveReference(docRef, prefetchInfo);
+        checkPermission(doc, READ);
+        return readModel(doc, prefetchInfo);
+    }
+
     @Override
     public DocumentModelList getDocuments(DocumentRef[] docRefs) {
         List<DocumentModel> docs = new ArrayList<>(docRefs.length);
@@ -1134,6 +1220,13 @@ public abstract class AbstractSession implements CoreSession, Serializable {
     @Override
     public DocumentModelList query(String query, String queryType, Filter filter, long limit, long offset,
             long countUpTo) {
+        return query(query, queryType, filter, limit, offset, countUpTo, null);
+    }
+
+    @Override
+    public DocumentModelList query(String query, String queryType, Filter filter, long limit, long offset,
+            long countUpTo, String prefetchProfile) {
+        PrefetchInfo prefetchInfo = getPrefetchProfile(prefetchProfile);
         SecurityService securityService = getSecurityService();
         NuxeoPrincipal principal = getPrincipal();
         try {
@@ -1151,12 +1244,13 @@ public abstract class AbstractSession implements CoreSession, Serializable {
                     postFilter ? 0 : offset);
 
             // get document list with total size
-            PartialList<Document> pl = getSession().query(query, queryType, queryFilter, postFilter ? -1 : countUpTo);
+            PartialList<Document> pl = getSession().query(query, queryType, queryFilter, postFilter ? -1 : countUpTo,
+                    prefetchInfo);
             // convert to DocumentModelList
             DocumentModelListImpl dms = new DocumentModelListImpl(pl.size());
             dms.setTotalSize(pl.totalSize());
             for (Document doc : pl) {
-                dms.add(readModel(doc));
+                dms.add(readModel(doc, prefetchInfo));
             }
 
             if (!postFilter) {
@@ -64,6 +64,21 @@ public class DocumentModelFactory {
      * @return the new document model
      */
     public static DocumentModelImpl createDocumentModel(Document doc, String sid, String[] schemas) {
+        return createDocumentModel(doc, sid, schemas, null);
+    }
+
+    /**
+     * Creates a document model for an existing document, populated with the schemas of a prefetch profile.
+     *
+     * @param doc the document
+     * @param sid the session id for this document
+     * @param schemas the schemas to prefetch (deprecated), or {@code null}
+     * @param prefetchProfile the prefetch profile, or {@code null} for the default prefetch of the document type
+     * @return the new document model
+     * @since 11.1
+     */
+    public static DocumentModelImpl createDocumentModel(Document doc, String sid, String[] schemas,
+            PrefetchInfo prefetchProfile) {
 
         DocumentType type = doc.getType();
         if (type == null) {
@@ -110,6 +125,9 @@ public class DocumentModelFactory {
 
         // populate datamodels
         List<String> loadSchemas = new LinkedList<>();
+        if (prefetchProfile != null) {
+            schemas = prefetchProfile.isAllSchemas() ? docModel.getSchemas() : prefetchProfile.getSchemas();
+        }
         if (schemas == null) {
             PrefetchInfo prefetchInfo = type.getPrefetchInfo();
             if (prefetchInfo != null) {
@@ -129,6 +147,9 @@ public class DocumentModelFactory {
             Schema schema = schemaManager.getSchema(schemaName);
             docModel.addDataModel(createDataModel(doc, schema));
         }
+        if (prefetchProfile != null) {
+            docModel.setPrefetchProfile(prefetchProfile.getName(), loadSchemas);
+        }
 
         // prefetch lifecycle state
         try {
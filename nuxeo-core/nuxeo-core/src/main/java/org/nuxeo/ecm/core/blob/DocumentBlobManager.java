@@ -113,4 +113,12 @@ public interface DocumentBlobManager {
      */
     void markReferencedBinary(String key, String repositoryName);
 
+    /**
+     * Gets the {@link BlobDispatcher} currently used to dispatch blobs to blob providers.
+     *
+     * @return the blob dispatcher
+     * @since 11.1
+     */
+    BlobDispatcher getBlobDispatcher();
+
 }
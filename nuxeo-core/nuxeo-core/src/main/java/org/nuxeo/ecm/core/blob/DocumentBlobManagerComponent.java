@@ -93,7 +93,8 @@ public class DocumentBlobManagerComponent extends DefaultComponent implements Do
         blobDispatcherDescriptorsRegistry.remove(descr);
     }
 
-    protected BlobDispatcher getBlobDispatcher() {
+    @Override
+    public BlobDispatcher getBlobDispatcher() {
         BlobDispatcherDescriptor descr = blobDispatcherDescriptorsRegistry.peekLast();
         if (descr == null) {
             return DEFAULT_BLOB_DISPATCHER;
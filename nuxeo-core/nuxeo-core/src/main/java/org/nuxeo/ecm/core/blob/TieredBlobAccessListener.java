@@ -0,0 +1,120 @@
+/*
+ * (C) Copyright 2019 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nuxeo.ecm.core.blob;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.nuxeo.ecm.core.api.Blob;
+import org.nuxeo.ecm.core.api.DocumentModel;
+import org.nuxeo.ecm.core.api.PropertyException;
+import org.nuxeo.ecm.core.api.blobholder.BlobHolder;
+import org.nuxeo.ecm.core.event.Event;
+import org.nuxeo.ecm.core.event.EventContext;
+import org.nuxeo.ecm.core.event.EventListener;
+import org.nuxeo.ecm.core.event.impl.DocumentEventContext;
+import org.nuxeo.runtime.api.Framework;
+
+/**
+ * Listener recording blob downloads for the {@link TieredBlobDispatcher}.
+ *
+ * @since 11.1
+ */
+public class TieredBlobAccessListener implements EventListener {
+
+    private static final Log log = LogFactory.getLog(TieredBlobAccessListener.class);
+
+    /** Same as DownloadService.EVENT_NAME. */
+    public static final String DOWNLOAD_EVENT = "download";
+
+    protected static final String EXTENDED_INFOS = "extendedInfos";
+
+    protected static final String BLOB_XPATH = "blobXPath";
+
+    /** Same as DownloadService.BLOBHOLDER_PREFIX. */
+    protected static final String BLOBHOLDER_PREFIX = "blobholder:";
+
+    @Override
+    public void handleEvent(Event event) {
+        if (!DOWNLOAD_EVENT.equals(event.getName())) {
+            return;
+        }
+        BlobDispatcher blobDispatcher = Framework.getService(DocumentBlobManager.class).getBlobDispatcher();
+        if (!(blobDispatcher instanceof TieredBlobDispatcher)) {
+            return;
+        }
+        EventContext ctx = event.getContext();
+        if (!(ctx instanceof DocumentEventContext)) {
+            return;
+        }
+        DocumentModel doc = ((DocumentEventContext) ctx).getSourceDocument();
+        String xpath = getBlobXPath(ctx);
+        if (doc == null || xpath == null) {
+            return;
+        }
+        Blob blob;
+        try {
+            blob = getBlob(doc, xpath);
+        } catch (PropertyException e) {
+            log.debug("Cannot get downloaded blob: " + xpath + " of document: " + doc.getId(), e);
+            return;
+        }
+        if (blob instanceof ManagedBlob) {
+            ((TieredBlobDispatcher) blobDispatcher).recordAccess(doc, (ManagedBlob) blob);
+        }
+    }
+
+    /**
+     * Gets the downloaded blob, resolving the {@code blobholder:N} xpaths used by most downloads through the
+     * {@link BlobHolder} of the document.
+     */
+    protected Blob getBlob(DocumentModel doc, String xpath) {
+        if (xpath.startsWith(BLOBHOLDER_PREFIX)) {
+            BlobHolder bh = doc.getAdapter(BlobHolder.class);
+            if (bh == null) {
+                return null;
+            }
+            int index;
+            try {
+                index = Integer.parseInt(xpath.substring(BLOBHOLDER_PREFIX.length()));
+            } catch (NumberFormatException e) {
+                log.debug("Invalid blob holder xpath: " + xpath);
+                return null;
+            }
+            if (index == 0) {
+                return bh.getBlob();
+            }
+            List<Blob> blobs = bh.getBlobs();
+            return blobs != null && index < blobs.size() ? blobs.get(index) : null;
+        }
+        Serializable value = doc.getPropertyValue(xpath);
+        return value instanceof Blob ? (Blob) value : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    protected String getBlobXPath(EventContext ctx) {
+        Serializable extendedInfos = ctx.getProperty(EXTENDED_INFOS);
+        if (!(extendedInfos instanceof Map)) {
+            return null;
+        }
+        Object xpath = ((Map<String, Serializable>) extendedInfos).get(BLOB_XPATH);
+        return xpath instanceof String ? (String) xpath : null;
+    }
+
+}
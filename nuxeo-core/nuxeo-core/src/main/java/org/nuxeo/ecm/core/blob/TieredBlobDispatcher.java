@@ -0,0 +1,330 @@
+/*
+ * (C) Copyright 2019 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nuxeo.ecm.core.blob;
+
+import static org.nuxeo.ecm.core.api.security.SecurityConstants.SYSTEM_USERNAME;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.nuxeo.ecm.core.action.TieredBlobMigrationAction;
+import org.nuxeo.ecm.core.api.Blob;
+import org.nuxeo.ecm.core.api.DocumentModel;
+import org.nuxeo.ecm.core.api.NuxeoException;
+import org.nuxeo.ecm.core.bulk.BulkService;
+import org.nuxeo.ecm.core.bulk.message.BulkCommand;
+import org.nuxeo.ecm.core.model.Document;
+import org.nuxeo.ecm.core.model.Document.BlobAccessor;
+import org.nuxeo.runtime.api.Framework;
+import org.nuxeo.runtime.kv.KeyValueService;
+import org.nuxeo.runtime.kv.KeyValueStore;
+
+/**
+ * Blob dispatcher storing blobs in a hot or a cold tier depending on how often they are accessed.
+ * <p>
+ * New blobs are always dispatched to the hot tier, using the same rules as the {@link DefaultBlobDispatcher}. Blob
+ * downloads are counted in a key/value store, the count expiring when the blob hasn't been accessed for a given
+ * window. Blobs of the hot tier without any access during that window are moved to the cold tier by the
+ * {@link TieredBlobMigrationAction} bulk action, once they have been seen idle by the migration for a given delay, and
+ * blobs of the cold tier accessed repeatedly are moved back to the hot tier, either by the same bulk action or the next
+ * time the document is saved. The migration of all the documents is scheduled daily by the
+ * {@link TieredBlobMigrationListener}.
+ * <p>
+ * The following properties are available in addition to the {@link DefaultBlobDispatcher} ones:
+ * <ul>
+ * <li>{@code tier.cold}: the blob provider of the cold tier (required),
+ * <li>{@code tier.keyValueStore}: the key/value store holding the access counts (default {@code tieredblob}),
+ * <li>{@code tier.accessWindow}: the access counting window, in seconds (default 30 days),
+ * <li>{@code tier.idleDelay}: the delay during which a blob of the hot tier must stay idle before being moved to the
+ * cold tier, in seconds (default the access window),
+ * <li>{@code tier.promoteThreshold}: the number of accesses after which a cold blob is moved back to the hot tier
+ * (default 3).
+ * </ul>
+ *
+ * <pre>
+ * &lt;property name="default">hot&lt;/property>
+ * &lt;property name="tier.cold">cold&lt;/property>
+ * &lt;property name="tier.promoteThreshold">5&lt;/property>
+ * </pre>
+ *
+ * @since 11.1
+ */
+public class TieredBlobDispatcher extends DefaultBlobDispatcher {
+
+    private static final Log log = LogFactory.getLog(TieredBlobDispatcher.class);
+
+    protected static final String TIER_PREFIX = "tier.";
+
+    public static final String COLD_PROVIDER_PROP = "tier.cold";
+
+    public static final String KEY_VALUE_STORE_PROP = "tier.keyValueStore";
+
+    public static final String DEFAULT_KEY_VALUE_STORE = "tieredblob";
+
+    public static final String ACCESS_WINDOW_PROP = "tier.accessWindow";
+
+    public static final long DEFAULT_ACCESS_WINDOW = 30L * 24 * 3600; // 30 days
+
+    public static final String IDLE_DELAY_PROP = "tier.idleDelay";
+
+    public static final String PROMOTE_THRESHOLD_PROP = "tier.promoteThreshold";
+
+    public static final long DEFAULT_PROMOTE_THRESHOLD = 3;
+
+    /** Prefix of the keys holding the time since when a blob of the hot tier is idle. */
+    protected static final String IDLE_KEY_PREFIX = "idle:";
+
+    protected static final String SELECT_DOCUMENT = "SELECT * FROM Document WHERE ecm:uuid = '%s'";
+
+    protected String coldProviderId;
+
+    protected String keyValueStoreName;
+
+    protected long accessWindow;
+
+    protected long idleDelay;
+
+    protected long promoteThreshold;
+
+    protected Set<String> tieredProviderIds;
+
+    @Override
+    public void initialize(Map<String, String> properties) {
+        Map<String, String> rulesProperties = new LinkedHashMap<>();
+        Map<String, String> tierProperties = new LinkedHashMap<>();
+        for (Entry<String, String> en : properties.entrySet()) {
+            if (en.getKey().startsWith(TIER_PREFIX)) {
+                tierProperties.put(en.getKey(), en.getValue());
+            } else {
+                rulesProperties.put(en.getKey(), en.getValue());
+            }
+        }
+        super.initialize(rulesProperties);
+        coldProviderId = StringUtils.trimToNull(tierProperties.get(COLD_PROVIDER_PROP));
+        if (coldProviderId == null) {
+            log.error("Invalid tiered dispatcher configuration, missing " + COLD_PROVIDER_PROP
+                    + ", tiering will be disabled");
+        }
+        keyValueStoreName = StringUtils.defaultIfBlank(tierProperties.get(KEY_VALUE_STORE_PROP),
+                DEFAULT_KEY_VALUE_STORE);
+        accessWindow = getLongProperty(tierProperties, ACCESS_WINDOW_PROP, DEFAULT_ACCESS_WINDOW);
+        idleDelay = getLongProperty(tierProperties, IDLE_DELAY_PROP, accessWindow);
+        promoteThreshold = getLongProperty(tierProperties, PROMOTE_THRESHOLD_PROP, DEFAULT_PROMOTE_THRESHOLD);
+    }
+
+    protected static long getLongProperty(Map<String, String> properties, String name, long defaultValue) {
+        String value = properties.get(name);
+        if (StringUtils.isBlank(value)) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            log.error("Invalid tiered dispatcher configuration for " + name + ": " + value + ", using default: "
+                    + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    @Override
+    public Collection<String> getBlobProviderIds() {
+        if (coldProviderId == null) {
+            return super.getBlobProviderIds();
+        }
+        if (tieredProviderIds == null) {
+            Set<String> ids = new LinkedHashSet<>(super.getBlobProviderIds());
+            ids.add(coldProviderId);
+            tieredProviderIds = ids;
+        }
+        return tieredProviderIds;
+    }
+
+    @Override
+    public BlobDispatch getBlobProvider(Document doc, Blob blob, String xpath) {
+        if (isColdTier(blob) && !shouldPromote((ManagedBlob) blob)) {
+            // cold blobs stay in the cold tier until accessed often enough
+            return new BlobDispatch(coldProviderId, true);
+        }
+        return super.getBlobProvider(doc, blob, xpath);
+    }
+
+    @Override
+    protected void checkBlob(Document doc, BlobAccessor accessor) {
+        if (isColdTier(accessor.getBlob())) {
+            // dispatch rules only apply to the hot tier
+            return;
+        }
+        super.checkBlob(doc, accessor);
+    }
+
+    /**
+     * Checks if the given blob is stored in the cold tier.
+     */
+    public boolean isColdTier(Blob blob) {
+        return coldProviderId != null && blob instanceof ManagedBlob
+                && coldProviderId.equals(((ManagedBlob) blob).getProviderId());
+    }
+
+    /**
+     * Checks if the given blob is stored in the hot tier.
+     */
+    public boolean isHotTier(Blob blob) {
+        if (coldProviderId == null || !(blob instanceof ManagedBlob)) {
+            return false;
+        }
+        String providerId = ((ManagedBlob) blob).getProviderId();
+        return !coldProviderId.equals(providerId) && getBlobProviderIds().contains(providerId);
+    }
+
+    protected boolean shouldPromote(ManagedBlob blob) {
+        return getAccessCount(blob) >= promoteThreshold;
+    }
+
+    protected KeyValueStore getKeyValueStore() {
+        return Framework.getService(KeyValueService.class).getKeyValueStore(keyValueStoreName);
+    }
+
+    /**
+     * Gets the key under which accesses are counted, which doesn't depend on the tier the blob is in.
+     */
+    protected String getAccessKey(ManagedBlob blob) {
+        String key = blob.getKey();
+        int colon = key.indexOf(':');
+        return colon < 0 ? key : key.substring(colon + 1);
+    }
+
+    protected String getIdleKey(ManagedBlob blob) {
+        return IDLE_KEY_PREFIX + getAccessKey(blob);
+    }
+
+    /**
+     * Checks if a blob of the hot tier has been idle for the idle delay.
+     * <p>
+     * The first check of an idle blob starts its idle period, so that a blob is never moved to the cold tier by the
+     * first migration seeing it, whatever its age.
+     */
+    protected boolean isIdle(ManagedBlob blob) {
+        String key = getIdleKey(blob);
+        KeyValueStore kv = getKeyValueStore();
+        long now = System.currentTimeMillis();
+        Long idleSince = kv.getLong(key);
+        if (idleSince == null) {
+            // kept long enough to be seen by a migration after the idle delay
+            kv.put(key, Long.valueOf(now), idleDelay + accessWindow);
+            return false;
+        }
+        return now - idleSince.longValue() >= idleDelay * 1000;
+    }
+
+    /**
+     * Gets the number of accesses to the given blob during the current access window.
+     */
+    public long getAccessCount(ManagedBlob blob) {
+        Long count = getKeyValueStore().getLong(getAccessKey(blob));
+        return count == null ? 0 : count.longValue();
+    }
+
+    /**
+     * Records an access to a blob of the given document.
+     * <p>
+     * When a blob of the cold tier reaches the promotion threshold, a bulk command is submitted to move it back to the
+     * hot tier.
+     *
+     * @param doc the document holding the blob
+     * @param blob the accessed blob
+     * @return the number of accesses to the blob during the current access window
+     */
+    public long recordAccess(DocumentModel doc, ManagedBlob blob) {
+        if (!isColdTier(blob) && !isHotTier(blob)) {
+            return 0;
+        }
+        String key = getAccessKey(blob);
+        KeyValueStore kv = getKeyValueStore();
+        long count = kv.addAndGet(key, 1);
+        kv.setTTL(key, accessWindow);
+        if (count == 1) {
+            // accessed again, a new idle period will start
+            kv.put(getIdleKey(blob), (Long) null);
+        }
+        if (count == promoteThreshold && isColdTier(blob)) {
+            String nxql = String.format(SELECT_DOCUMENT, doc.getId());
+            BulkCommand command = new BulkCommand.Builder(TieredBlobMigrationAction.ACTION_NAME, nxql,
+                    SYSTEM_USERNAME).repository(doc.getRepositoryName()).build();
+            String commandId = Framework.getService(BulkService.class).submit(command);
+            if (log.isDebugEnabled()) {
+                log.debug("Promoting blob: " + key + " of document: " + doc.getId() + ", command: " + commandId);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Moves the blob visited by the accessor to the tier matching its access count, if needed.
+     *
+     * @param doc the document holding the blob
+     * @param accessor the blob accessor
+     * @return {@code true} if the blob was moved to another tier
+     */
+    public boolean migrate(Document doc, BlobAccessor accessor) {
+        Blob blob = accessor.getBlob();
+        if (isColdTier(blob)) {
+            if (!shouldPromote((ManagedBlob) blob)) {
+                return false;
+            }
+            // re-dispatching the blob writes it to the hot tier
+            getKeyValueStore().put(getIdleKey((ManagedBlob) blob), (Long) null);
+            accessor.setBlob(blob);
+            return true;
+        } else if (isHotTier(blob)) {
+            ManagedBlob managedBlob = (ManagedBlob) blob;
+            if (getAccessCount(managedBlob) > 0 || !isIdle(managedBlob)) {
+                return false;
+            }
+            getKeyValueStore().put(getIdleKey(managedBlob), (Long) null);
+            accessor.setBlob(writeColdBlob(managedBlob));
+            return true;
+        }
+        return false;
+    }
+
+    protected Blob writeColdBlob(ManagedBlob blob) {
+        BlobProvider blobProvider = Framework.getService(BlobManager.class).getBlobProvider(coldProviderId);
+        if (blobProvider == null) {
+            throw new NuxeoException("No registered blob provider with id: " + coldProviderId);
+        }
+        try {
+            BlobInfo blobInfo = new BlobInfo();
+            blobInfo.key = coldProviderId + ':' + blobProvider.writeBlob(blob);
+            blobInfo.filename = blob.getFilename();
+            blobInfo.mimeType = blob.getMimeType();
+            blobInfo.encoding = blob.getEncoding();
+            blobInfo.digest = blob.getDigest();
+            blobInfo.length = blob.getLength() == -1 ? null : Long.valueOf(blob.getLength());
+            return blobProvider.readBlob(blobInfo);
+        } catch (IOException e) {
+            throw new NuxeoException(e);
+        }
+    }
+
+}
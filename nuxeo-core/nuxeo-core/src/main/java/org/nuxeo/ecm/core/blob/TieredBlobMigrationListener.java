@@ -0,0 +1,64 @@
+/*
+ * (C) Copyright 2019 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nuxeo.ecm.core.blob;
+
+import static org.nuxeo.ecm.core.api.security.SecurityConstants.SYSTEM_USERNAME;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.nuxeo.ecm.core.action.TieredBlobMigrationAction;
+import org.nuxeo.ecm.core.api.repository.RepositoryManager;
+import org.nuxeo.ecm.core.bulk.BulkService;
+import org.nuxeo.ecm.core.bulk.message.BulkCommand;
+import org.nuxeo.ecm.core.event.EventBundle;
+import org.nuxeo.ecm.core.event.PostCommitEventListener;
+import org.nuxeo.runtime.api.Framework;
+
+/**
+ * Asynchronous listener submitting the {@link TieredBlobMigrationAction} on all the documents of each repository when
+ * a {@link TieredBlobDispatcher} is configured. Designed to be called periodically by a scheduler.
+ *
+ * @since 11.1
+ */
+public class TieredBlobMigrationListener implements PostCommitEventListener {
+
+    private static final Log log = LogFactory.getLog(TieredBlobMigrationListener.class);
+
+    public static final String EVENT_NAME = "tieredBlobMigration";
+
+    /** Versions keep their blobs where they are, only live documents are tiered. */
+    protected static final String SELECT_ALL = "SELECT * FROM Document WHERE ecm:isProxy = 0 AND ecm:isVersion = 0";
+
+    @Override
+    public void handleEvent(EventBundle events) {
+        if (!events.containsEventName(EVENT_NAME)) {
+            return;
+        }
+        BlobDispatcher blobDispatcher = Framework.getService(DocumentBlobManager.class).getBlobDispatcher();
+        if (!(blobDispatcher instanceof TieredBlobDispatcher)) {
+            return;
+        }
+        BulkService bulkService = Framework.getService(BulkService.class);
+        for (String repositoryName : Framework.getService(RepositoryManager.class).getRepositoryNames()) {
+            BulkCommand command = new BulkCommand.Builder(TieredBlobMigrationAction.ACTION_NAME, SELECT_ALL,
+                    SYSTEM_USERNAME).repository(repositoryName).build();
+            String commandId = bulkService.submit(command);
+            log.debug("Submitted tiered blob migration of repository: " + repositoryName + ", command: "
+                    + commandId);
+        }
+    }
+
+}
@@ -50,4 +50,17 @@ public interface Repository {
      */
     FulltextConfiguration getFulltextConfiguration();
 
+    /**
+     * Checks if {@code null} values come before the other values when a query sorts on a property.
+     * <p>
+     * By default {@code null} values are the lowest values: they come first in an ascending sort and last in a
+     * descending sort.
+     *
+     * @param ascending the direction of the sort
+     * @since 11.1
+     */
+    default boolean isNullSortedFirst(boolean ascending) {
+        return ascending;
+    }
+
 }
@@ -87,4 +87,9 @@ public class KeyValueStoreUIDSequencer extends AbstractUIDSequencer {
         }
         return ret;
     }
+
+    @Override
+    public LongRange getNextRange(String key, int size) {
+        return LongRange.ofLast(getStore().addAndGet(getKey(key), size), size);
+    }
 }
@@ -0,0 +1,78 @@
+/*
+ * (C) Copyright 2019 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nuxeo.ecm.core.uidgen;
+
+/**
+ * An immutable range of consecutive ids, from {@link #getFirst} to {@link #getLast} inclusive.
+ *
+ * @since 11.1
+ */
+public final class LongRange {
+
+    private final long first;
+
+    private final long last;
+
+    public LongRange(long first, long last) {
+        if (last < first) {
+            throw new IllegalArgumentException("Invalid range: " + first + "-" + last);
+        }
+        this.first = first;
+        this.last = last;
+    }
+
+    /**
+     * Gets the range of {@code size} ids ending with {@code last}.
+     */
+    public static LongRange ofLast(long last, int size) {
+        return new LongRange(last - size + 1, last);
+    }
+
+    public long getFirst() {
+        return first;
+    }
+
+    public long getLast() {
+        return last;
+    }
+
+    public long size() {
+        return last - first + 1;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof LongRange)) {
+            return false;
+        }
+        LongRange other = (LongRange) obj;
+        return first == other.first && last == other.last;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(first) * 31 + Long.hashCode(last);
+    }
+
+    @Override
+    public String toString() {
+        return "[" + first + "-" + last + "]";
+    }
+
+}
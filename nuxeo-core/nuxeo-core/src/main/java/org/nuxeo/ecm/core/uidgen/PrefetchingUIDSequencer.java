@@ -0,0 +1,247 @@
+/*
+ * (C) Copyright 2019 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nuxeo.ecm.core.uidgen;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * UID Sequencer wrapping another sequencer and reserving blocks of sequences from it, which are then handed out from
+ * memory without contention.
+ * <p>
+ * The next block of a sequence is reserved asynchronously when half of the current block has been used, so that
+ * callers rarely wait for the underlying sequencer.
+ * <p>
+ * Sequences are still unique across a cluster, but they are not strictly increasing anymore between nodes, and
+ * sequences reserved but not used before a shutdown are lost.
+ *
+ * @since 11.1
+ */
+public class PrefetchingUIDSequencer extends AbstractUIDSequencer {
+
+    private static final Log log = LogFactory.getLog(PrefetchingUIDSequencer.class);
+
+    protected final UIDSequencer sequencer;
+
+    protected final int blockSize;
+
+    protected final ConcurrentHashMap<String, Sequence> sequences = new ConcurrentHashMap<>();
+
+    protected volatile ExecutorService executor;
+
+    /**
+     * A block of sequences being handed out.
+     */
+    protected static class Block {
+
+        protected final AtomicLong next;
+
+        protected final long last;
+
+        protected final long refill;
+
+        protected Block(LongRange range) {
+            next = new AtomicLong(range.getFirst());
+            last = range.getLast();
+            refill = range.getFirst() + range.size() / 2;
+        }
+    }
+
+    /**
+     * The state of a sequence: the current block and the next reserved range, if any.
+     */
+    protected class Sequence {
+
+        protected final String key;
+
+        protected volatile Block block;
+
+        protected CompletableFuture<LongRange> nextRange;
+
+        protected Sequence(String key) {
+            this.key = key;
+        }
+
+        protected synchronized void prefetch() {
+            ExecutorService exec = executor;
+            if (nextRange != null || exec == null) {
+                return;
+            }
+            try {
+                nextRange = CompletableFuture.supplyAsync(() -> sequencer.getNextRange(key, blockSize), exec);
+            } catch (RejectedExecutionException e) {
+                // disposed, the next block will be reserved synchronously
+            }
+        }
+
+        protected synchronized void cancel() {
+            if (nextRange != null) {
+                nextRange.cancel(false);
+                nextRange = null;
+            }
+        }
+
+        protected synchronized void nextBlock(Block exhausted) {
+            if (block != exhausted) {
+                // another thread already switched to a new block
+                return;
+            }
+            LongRange range = null;
+            if (nextRange != null) {
+                try {
+                    range = nextRange.join();
+                } catch (CancellationException | CompletionException e) {
+                    log.warn("Failed to prefetch sequence: " + key + " of sequencer: " + getName() + ", retrying",
+                            e.getCause());
+                }
+                nextRange = null;
+            }
+            if (range == null) {
+                range = sequencer.getNextRange(key, blockSize);
+            }
+            block = new Block(range);
+        }
+    }
+
+    public PrefetchingUIDSequencer(UIDSequencer sequencer, int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Invalid block size: " + blockSize);
+        }
+        this.sequencer = sequencer;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Gets the wrapped sequencer.
+     */
+    public UIDSequencer getSequencer() {
+        return sequencer;
+    }
+
+    @Override
+    public void setName(String name) {
+        super.setName(name);
+        sequencer.setName(name);
+    }
+
+    @Override
+    public synchronized void init() {
+        sequencer.init();
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "Nuxeo-UIDSequencer-Prefetch-" + getName());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @Override
+    public synchronized void dispose() {
+        sequences.values().forEach(Sequence::cancel);
+        sequences.clear();
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        sequencer.dispose();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Blocks already reserved for this sequence are dropped. This is not meant to be called while sequences are
+     * concurrently requested for the same key.
+     */
+    @Override
+    public void initSequence(String key, long id) {
+        sequencer.initSequence(key, id);
+        Sequence sequence = sequences.remove(key);
+        if (sequence != null) {
+            sequence.cancel();
+        }
+    }
+
+    @Override
+    public long getNextLong(String key) {
+        Sequence sequence = sequences.computeIfAbsent(key, Sequence::new);
+        for (;;) {
+            Block block = sequence.block;
+            if (block != null) {
+                long id = block.next.getAndIncrement();
+                if (id <= block.last) {
+                    if (id == block.refill) {
+                        sequence.prefetch();
+                    }
+                    return id;
+                }
+            }
+            sequence.nextBlock(block);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Ranges larger than half a block are directly reserved from the wrapped sequencer, smaller ones are taken from the
+     * current block when it has enough sequences left, otherwise the returned range may be smaller than requested.
+     */
+    @Override
+    public LongRange getNextRange(String key, int size) {
+        if (size > blockSize / 2) {
+            return sequencer.getNextRange(key, size);
+        }
+        Sequence sequence = sequences.computeIfAbsent(key, Sequence::new);
+        for (;;) {
+            Block block = sequence.block;
+            if (block != null) {
+                long first = block.next.getAndAdd(size);
+                if (first <= block.last) {
+                    long last = Math.min(first + size - 1, block.last);
+                    if (first <= block.refill && block.refill <= last) {
+                        sequence.prefetch();
+                    }
+                    return new LongRange(first, last);
+                }
+            }
+            sequence.nextBlock(block);
+        }
+    }
+
+    @Override
+    public List<Long> getNextBlock(String key, int size) {
+        List<Long> ret = new ArrayList<>(size);
+        while (ret.size() < size) {
+            LongRange range = getNextRange(key, size - ret.size());
+            for (long id = range.getFirst(); id <= range.getLast(); id++) {
+                ret.add(id);
+            }
+        }
+        return ret;
+    }
+
+}
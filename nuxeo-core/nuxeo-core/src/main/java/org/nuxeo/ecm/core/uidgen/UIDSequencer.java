@@ -95,6 +95,22 @@ public interface UIDSequencer {
         return ret;
     }
 
+    /**
+     * Reserves a range of consecutive sequences.
+     * <p>
+     * Sequencers that cannot atomically reserve consecutive sequences may return a smaller range, down to a single
+     * sequence, which is what the default implementation does.
+     *
+     * @param key the sequence key
+     * @param size the requested range size
+     * @return a range of at most {@code size} sequences
+     * @since 11.1
+     */
+    default LongRange getNextRange(String key, int size) {
+        long id = getNextLong(key);
+        return new LongRange(id, id);
+    }
+
     /**
      * Cleanup callback
      *
@@ -39,6 +39,15 @@ public class UIDSequencerProviderDescriptor {
     @XNode("@enabled")
     protected boolean enabled = true;
 
+    /**
+     * The number of sequences reserved at once and handed out from memory, or 0 to disable prefetching.
+     *
+     * @since 11.1
+     * @see PrefetchingUIDSequencer
+     */
+    @XNode("@prefetchSize")
+    protected int prefetchSize;
+
     public boolean isEnabled() {
         return enabled;
     }
@@ -46,7 +55,11 @@ public class UIDSequencerProviderDescriptor {
     public UIDSequencer getSequencer() throws Exception {
 
         if (sequencerClass != null) {
-            return sequencerClass.getDeclaredConstructor().newInstance();
+            UIDSequencer sequencer = sequencerClass.getDeclaredConstructor().newInstance();
+            if (prefetchSize > 0) {
+                return new PrefetchingUIDSequencer(sequencer, prefetchSize);
+            }
+            return sequencer;
         }
 
         return null;
@@ -59,6 +72,13 @@ public class UIDSequencerProviderDescriptor {
         return name;
     }
 
+    /**
+     * @since 11.1
+     */
+    public int getPrefetchSize() {
+        return prefetchSize;
+    }
+
     public boolean isIsdefault() {
         return isdefault;
     }
@@ -0,0 +1,129 @@
+/*
+ * (C) Copyright 2019 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nuxeo.ecm.core.uidgen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.nuxeo.runtime.api.Framework;
+import org.nuxeo.runtime.kv.KeyValueService;
+import org.nuxeo.runtime.kv.KeyValueStore;
+import org.nuxeo.runtime.test.runner.Deploy;
+import org.nuxeo.runtime.test.runner.Features;
+import org.nuxeo.runtime.test.runner.FeaturesRunner;
+import org.nuxeo.runtime.test.runner.RuntimeFeature;
+
+/**
+ * @since 11.1
+ */
+@RunWith(FeaturesRunner.class)
+@Features(RuntimeFeature.class)
+@Deploy("org.nuxeo.runtime.kv")
+@Deploy("org.nuxeo.ecm.core:OSGI-INF/uidgenerator-service.xml")
+@Deploy("org.nuxeo.ecm.core:OSGI-INF/uidgenerator-keyvalue-config.xml")
+@Deploy("org.nuxeo.ecm.core.tests:OSGI-INF/test-prefetching-uidseq.xml")
+public class TestPrefetchingUIDSequencer {
+
+    @Inject
+    protected UIDGeneratorService service;
+
+    @Test
+    public void testRegistration() {
+        UIDSequencer seq = service.getSequencer();
+        assertTrue(seq.getClass().getName(), seq instanceof PrefetchingUIDSequencer);
+        UIDSequencer wrapped = ((PrefetchingUIDSequencer) seq).getSequencer();
+        assertTrue(wrapped.getClass().getName(), wrapped instanceof KeyValueStoreUIDSequencer);
+        assertEquals("prefetched", wrapped.getName());
+        seq = service.getSequencer("direct");
+        assertTrue(seq.getClass().getName(), seq instanceof KeyValueStoreUIDSequencer);
+    }
+
+    @Test
+    public void testSequencer() {
+        UIDSequencer seq = service.getSequencer();
+        String key = "foo";
+        seq.initSequence(key, 0L);
+        for (int i = 1; i <= 25; i++) {
+            assertEquals(i, seq.getNextLong(key));
+        }
+        // the underlying sequence has been reserved by blocks, the third one being used
+        KeyValueStore store = Framework.getService(KeyValueService.class)
+                                       .getKeyValueStore(KeyValueStoreUIDSequencer.DEFAULT_STORE_NAME);
+        assertEquals(Long.valueOf(30), store.getLong("prefetched.foo"));
+    }
+
+    @Test
+    public void testInitSequence() {
+        UIDSequencer seq = service.getSequencer();
+        String key = "bar";
+        seq.initSequence(key, 0L);
+        assertEquals(1, seq.getNextLong(key));
+        seq.initSequence(key, 100L);
+        assertEquals(101, seq.getNextLong(key));
+        assertEquals(102, seq.getNextLong(key));
+    }
+
+    @Test
+    public void testRangeAndBlock() {
+        UIDSequencer seq = service.getSequencer();
+        String key = "range";
+        seq.initSequence(key, 0L);
+        assertEquals(new LongRange(1, 3), seq.getNextRange(key, 3));
+        assertEquals(4, seq.getNextLong(key));
+        // larger than half a block, reserved directly
+        LongRange range = seq.getNextRange(key, 8);
+        assertEquals(8, range.size());
+        assertTrue(range.toString(), range.getFirst() > 10);
+
+        List<Long> block = seq.getNextBlock(key, 25);
+        assertEquals(25, block.size());
+        assertEquals(25, new HashSet<>(block).size());
+    }
+
+    @Test
+    public void testConcurrency() throws Exception {
+        UIDSequencer seq = service.getSequencer();
+        int n = 10000;
+        int poolSize = 5;
+
+        String key = "mt";
+        seq.initSequence(key, 0L);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ThreadPoolExecutor tpe = new ThreadPoolExecutor(poolSize, poolSize, 500L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(n + 1));
+        for (int i = 0; i < n; i++) {
+            tpe.submit(() -> ids.add(Long.valueOf(seq.getNextLong(key))));
+        }
+        tpe.shutdown();
+        boolean finish = tpe.awaitTermination(20, TimeUnit.SECONDS);
+        assertTrue("timeout", finish);
+        // all ids are distinct
+        assertEquals(n, ids.size());
+    }
+
+}
@@ -18,6 +18,9 @@
  */
 package org.nuxeo.ecm.automation.core.impl;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Arrays;
@@ -28,6 +31,7 @@ import org.apache.commons.logging.LogFactory;
 import org.nuxeo.ecm.automation.OperationContext;
 import org.nuxeo.ecm.automation.OperationException;
 import org.nuxeo.ecm.automation.OperationType;
+import org.nuxeo.ecm.automation.TypeAdapter;
 import org.nuxeo.ecm.automation.core.annotations.OperationMethod;
 import org.nuxeo.ecm.automation.core.util.BlobList;
 import org.nuxeo.ecm.core.api.AsyncService;
@@ -58,6 +62,13 @@ public class InvokableMethod implements Comparable<InvokableMethod> {
 
     protected Method method;
 
+    /**
+     * The method as a handle taking the target and the input, if any, as {@link Object}s.
+     *
+     * @since 11.1
+     */
+    protected MethodHandle handle;
+
     protected Class<?> produce;
 
     protected Class<?> consume;
@@ -86,6 +97,7 @@ public class InvokableMethod implements Comparable<InvokableMethod> {
         }
         consume = p.length == 0 ? Void.TYPE : p[0];
         asyncService = anno.asyncService();
+        handle = createHandle(method);
     }
 
     public InvokableMethod(OperationType op, Method method) {
@@ -118,6 +130,23 @@ public class InvokableMethod implements Comparable<InvokableMethod> {
         } else {
             consume = p.length == 0 ? Void.TYPE : p[0];
         }
+        handle = createHandle(method);
+    }
+
+    /**
+     * Creates a handle for the method, so that it is invoked without the reflection overhead.
+     *
+     * @return the handle, or {@code null} if the method is not accessible and must be invoked through reflection
+     * @since 11.1
+     */
+    protected static MethodHandle createHandle(Method method) {
+        try {
+            MethodHandle mh = MethodHandles.publicLookup().unreflect(method);
+            return mh.asType(MethodType.genericMethodType(mh.type().parameterCount()));
+        } catch (IllegalAccessException e) {
+            log.debug("Using reflection to invoke: " + method + ": " + e);
+            return null;
+        }
     }
 
     public boolean isIterable() {
@@ -161,23 +190,86 @@ public class InvokableMethod implements Comparable<InvokableMethod> {
 
     protected Object doInvoke(OperationContext ctx, Map<String, Object> args)
             throws OperationException, ReflectiveOperationException {
+        return doInvoke(ctx, args, null, null);
+    }
+
+    /**
+     * Invokes the method, using the given pre-resolved adapter if the input is exactly of the given class.
+     *
+     * @since 11.1
+     */
+    protected Object doInvoke(OperationContext ctx, Map<String, Object> args, Class<?> inputClass,
+            TypeAdapter inputAdapter) throws OperationException, ReflectiveOperationException {
         Object target = op.newInstance(ctx, args);
         Object input = ctx.getInput();
         if (consume == Void.TYPE) {
             // preserve last output for void methods
-            Object out = method.invoke(target);
+            Object out = invokeMethod(target);
             return produce == Void.TYPE ? input : out;
         }
-        if (input == null || !consume.isAssignableFrom(input.getClass())) {
+        if (input != null && input.getClass() == inputClass) {
+            input = inputAdapter.getAdaptedValue(ctx, input);
+        } else if (input == null || !consume.isAssignableFrom(input.getClass())) {
             // try to adapt
             input = op.getService().getAdaptedValue(ctx, input, consume);
         }
-        return method.invoke(target, input);
+        return invokeMethod(target, input);
+    }
+
+    /**
+     * Invokes the method, wrapping any exception it throws in an {@link InvocationTargetException} like reflection.
+     *
+     * @since 11.1
+     */
+    protected Object invokeMethod(Object target, Object... params) throws ReflectiveOperationException {
+        if (handle == null) {
+            return method.invoke(target, params);
+        }
+        try {
+            if (params.length == 0) {
+                return (Object) handle.invokeExact(target);
+            } else {
+                return (Object) handle.invokeExact(target, params[0]);
+            }
+        } catch (Throwable t) { // NOSONAR
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    /**
+     * Resolves the type adapter needed to pass an input of the given class to the method, so that it can be reused for
+     * each invocation with an input of this exact class.
+     *
+     * @return the adapter, or {@code null} if none is needed or the input must be adapted at invocation time
+     * @since 11.1
+     */
+    public TypeAdapter resolveInputAdapter(Class<?> inputClass) {
+        if (isIterable() || inputClass == null || inputClass.isPrimitive() || consume == Void.TYPE
+                || consume.isAssignableFrom(inputClass) || consume.isPrimitive() || consume.isArray()
+                || consume.isAssignableFrom(Void.class) || OperationContext.class.isAssignableFrom(consume)) {
+            // no adaptation, or a special one done by AutomationService.getAdaptedValue
+            return null;
+        }
+        return op.getService().getTypeAdapter(inputClass, consume);
     }
 
     public Object invoke(OperationContext ctx, Map<String, Object> args) throws OperationException {
+        return invoke(ctx, args, null, null);
+    }
+
+    /**
+     * Invokes the method, using the given adapter, resolved by {@link #resolveInputAdapter}, if the input is exactly
+     * of the given class.
+     *
+     * @since 11.1
+     */
+    public Object invoke(OperationContext ctx, Map<String, Object> args, Class<?> inputClass,
+            TypeAdapter inputAdapter) throws OperationException {
         try {
-            return doInvoke(ctx, args);
+            if (inputAdapter == null) {
+                return doInvoke(ctx, args);
+            }
+            return doInvoke(ctx, args, inputClass, inputAdapter);
         } catch (InvocationTargetException e) {
             Throwable t = e.getTargetException();
             if (t instanceof OperationException) {
@@ -29,6 +29,7 @@ import org.nuxeo.ecm.automation.OperationException;
 import org.nuxeo.ecm.automation.OperationNotFoundException;
 import org.nuxeo.ecm.automation.OperationParameters;
 import org.nuxeo.ecm.automation.OperationType;
+import org.nuxeo.ecm.automation.TypeAdapter;
 import org.nuxeo.ecm.automation.core.scripting.Expression;
 
 import com.google.common.cache.CacheBuilder;
@@ -140,6 +141,14 @@ public class OperationChainCompiler {
 
         protected OperationMethod next;
 
+        /**
+         * The type adapter for the last seen input class, resolved when the chain is compiled and when the input class
+         * changes.
+         *
+         * @since 11.1
+         */
+        protected volatile InputAdapter inputAdapter;
+
         protected OperationMethod(OperationParameters params, OperationMethod prev) throws OperationNotFoundException {
             typeof = service.getOperation(params.id());
             this.params = params;
@@ -148,7 +157,8 @@ public class OperationChainCompiler {
 
         protected Object invoke(OperationContext context) throws OperationException {
             context.getCallback().onOperationEnter(context, typeof, method, params.map());
-            Object output = method.invoke(context, params.map());
+            InputAdapter adapter = getInputAdapter(context.getInput());
+            Object output = method.invoke(context, params.map(), adapter.inputClass, adapter.adapter);
             if (output instanceof Expression) {
                 output = ((Expression) output).eval(context);
             }
@@ -160,6 +170,21 @@ public class OperationChainCompiler {
             return output;
         }
 
+        protected InputAdapter getInputAdapter(Object input) {
+            Class<?> inputClass = input == null ? null : input.getClass();
+            InputAdapter adapter = inputAdapter;
+            if (adapter == null || adapter.inputClass != inputClass) {
+                adapter = resolveInputAdapter(inputClass);
+            }
+            return adapter;
+        }
+
+        protected InputAdapter resolveInputAdapter(Class<?> inputClass) {
+            InputAdapter adapter = new InputAdapter(inputClass, method.resolveInputAdapter(inputClass));
+            inputAdapter = adapter;
+            return adapter;
+        }
+
         /**
          * Compute the best matching path to perform the chain of operations. The path is computed using a backtracking
          * algorithm.
@@ -175,6 +200,7 @@ public class OperationChainCompiler {
             }
             if (next == null) {
                 method = methods[0];
+                resolveInputAdapter(in);
                 return;
             }
             for (InvokableMethod m : methods) {
@@ -185,6 +211,7 @@ public class OperationChainCompiler {
                 try {
                     next.solve(nextIn);
                     method = m;
+                    resolveInputAdapter(in);
                     return;
                 } catch (InvalidChainException cause) {
                     // continue solving
@@ -196,6 +223,23 @@ public class OperationChainCompiler {
         }
     }
 
+    /**
+     * A type adapter for an input class, {@code null} if none is needed.
+     *
+     * @since 11.1
+     */
+    protected static class InputAdapter {
+
+        protected final Class<?> inputClass;
+
+        protected final TypeAdapter adapter;
+
+        protected InputAdapter(Class<?> inputClass, TypeAdapter adapter) {
+            this.inputClass = inputClass;
+            this.adapter = adapter;
+        }
+    }
+
     protected class CompiledChainImpl implements CompiledChain {
 
         protected final ChainTypeImpl typeof;
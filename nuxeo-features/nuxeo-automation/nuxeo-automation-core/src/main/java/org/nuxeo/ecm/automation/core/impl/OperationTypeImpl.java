@@ -18,6 +18,9 @@
  */
 package org.nuxeo.ecm.automation.core.impl;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.net.URL;
@@ -27,10 +30,13 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.nuxeo.ecm.automation.AutomationService;
 import org.nuxeo.ecm.automation.OperationContext;
 import org.nuxeo.ecm.automation.OperationDocumentation;
@@ -56,6 +62,8 @@ import org.nuxeo.ecm.platform.forms.layout.api.WidgetDefinition;
  */
 public class OperationTypeImpl implements OperationType {
 
+    private static final Log log = LogFactory.getLog(OperationTypeImpl.class);
+
     /**
      * The service that registered the operation
      */
@@ -93,6 +101,20 @@ public class OperationTypeImpl implements OperationType {
      */
     protected List<Field> injectableFields;
 
+    /**
+     * The no-arg constructor as a handle returning an {@link Object}, or {@code null} to use reflection.
+     *
+     * @since 11.1
+     */
+    protected MethodHandle constructor;
+
+    /**
+     * The setters of the parameters and injectable fields, as handles taking {@link Object}s.
+     *
+     * @since 11.1
+     */
+    protected Map<Field, MethodHandle> setters;
+
     /**
      * The input type of a chain/operation. If set, the following input types {"document", "documents", "blob", "blobs"}
      * for all 'run method(s)' will handled. Other values will be adapted as java.lang.Object. If not set, Automation
@@ -133,8 +155,10 @@ public class OperationTypeImpl implements OperationType {
         params = new HashMap<>();
         methods = new ArrayList<>();
         injectableFields = new ArrayList<>();
+        setters = new IdentityHashMap<>();
         initMethods();
         initFields();
+        initConstructor();
     }
 
     static class Match implements Comparable<Match> {
@@ -209,20 +233,53 @@ public class OperationTypeImpl implements OperationType {
             if (param != null) {
                 field.setAccessible(true);
                 params.put(param.name(), field);
+                initSetter(field);
             } else if (field.isAnnotationPresent(Context.class)) {
                 field.setAccessible(true);
                 injectableFields.add(field);
+                initSetter(field);
             }
         }
     }
 
+    /**
+     * @since 11.1
+     */
+    protected void initSetter(Field field) {
+        try {
+            MethodHandle setter = MethodHandles.lookup().unreflectSetter(field);
+            setters.put(field, setter.asType(MethodType.methodType(void.class, Object.class, Object.class)));
+        } catch (IllegalAccessException e) {
+            log.debug("Using reflection to inject: " + field + ": " + e);
+        }
+    }
+
+    /**
+     * @since 11.1
+     */
+    protected void initConstructor() {
+        try {
+            constructor = MethodHandles.publicLookup()
+                                       .findConstructor(type, MethodType.methodType(void.class))
+                                       .asType(MethodType.methodType(Object.class));
+        } catch (ReflectiveOperationException e) {
+            log.debug("Using reflection to instantiate: " + type + ": " + e);
+        }
+    }
+
     @Override
     public Object newInstance(OperationContext ctx, Map<String, Object> args) throws OperationException {
         Object obj;
         try {
-            obj = type.getDeclaredConstructor().newInstance();
-        } catch (ReflectiveOperationException e) {
-            throw new OperationException(e);
+            if (constructor == null) {
+                obj = type.getDeclaredConstructor().newInstance();
+            } else {
+                obj = (Object) constructor.invokeExact();
+            }
+        } catch (Error e) { // NOSONAR
+            throw e;
+        } catch (Throwable t) { // NOSONAR
+            throw new OperationException(t);
         }
         inject(ctx, args, obj);
         return obj;
@@ -241,13 +298,15 @@ public class OperationTypeImpl implements OperationType {
 
     public void inject(OperationContext ctx, Map<String, ?> args, Object target) throws OperationException {
         for (Map.Entry<String, Field> entry : params.entrySet()) {
+            Field field = entry.getValue();
+            Param param = field.getAnnotation(Param.class);
             Object obj = resolveObject(ctx, entry.getKey(), args);
             if (obj == null) {
                 // We did not resolve object according to its param name, let's
                 // check with potential alias
-                String[] entryAliases = entry.getValue().getAnnotation(Param.class).alias();
+                String[] entryAliases = param.alias();
                 if (entryAliases != null) {
-                    for (String alias : entry.getValue().getAnnotation(Param.class).alias()) {
+                    for (String alias : entryAliases) {
                         obj = resolveObject(ctx, alias, args);
                         if (obj != null) {
                             break;
@@ -256,31 +315,40 @@ public class OperationTypeImpl implements OperationType {
                 }
             }
             if (obj == null) {
-                if (entry.getValue().getAnnotation(Param.class).required()) {
+                if (param.required()) {
                     throw new OperationException("Failed to inject parameter '" + entry.getKey()
                             + "'. Seems it is missing from the context. Operation: " + getId());
                 } // else do nothing
             } else {
-                Field field = entry.getValue();
                 Class<?> cl = obj.getClass();
                 if (!field.getType().isAssignableFrom(cl)) {
                     // try to adapt
                     obj = service.getAdaptedValue(ctx, obj, field.getType());
                 }
-                try {
-                    field.set(target, obj);
-                } catch (ReflectiveOperationException e) {
-                    throw new OperationException(e);
-                }
+                setField(field, target, obj);
             }
         }
         for (Field field : injectableFields) {
             Object obj = ctx.getAdapter(field.getType());
-            try {
-                field.set(target, obj);
-            } catch (ReflectiveOperationException e) {
-                throw new OperationException(e);
+            setField(field, target, obj);
+        }
+    }
+
+    /**
+     * @since 11.1
+     */
+    protected void setField(Field field, Object target, Object value) throws OperationException {
+        MethodHandle setter = setters.get(field);
+        try {
+            if (setter == null) {
+                field.set(target, value);
+            } else {
+                setter.invokeExact(target, value);
             }
+        } catch (RuntimeException | Error e) { // NOSONAR
+            throw e;
+        } catch (Throwable t) { // NOSONAR
+            throw new OperationException(t);
         }
     }
 
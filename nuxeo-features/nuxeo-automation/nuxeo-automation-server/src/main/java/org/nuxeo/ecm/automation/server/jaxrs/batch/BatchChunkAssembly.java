@@ -0,0 +1,253 @@
+/*
+ * (C) Copyright 2019 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nuxeo.ecm.automation.server.jaxrs.batch;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.nuxeo.ecm.core.api.Blob;
+import org.nuxeo.ecm.core.api.Blobs;
+import org.nuxeo.ecm.core.api.impl.blob.FileBlob;
+import org.nuxeo.ecm.core.api.repository.Repository;
+import org.nuxeo.ecm.core.api.repository.RepositoryManager;
+import org.nuxeo.ecm.core.blob.BlobManager;
+import org.nuxeo.ecm.core.blob.BlobProvider;
+import org.nuxeo.ecm.core.blob.binary.AbstractBinaryManager;
+import org.nuxeo.ecm.core.blob.binary.BinaryManager;
+import org.nuxeo.runtime.api.Framework;
+
+/**
+ * Node-local assembly of the chunks of a {@link BatchFileEntry} into a single temporary file.
+ * <p>
+ * Chunks are appended as soon as they are contiguous with the already assembled ones, while computing the digest of
+ * the whole file with the algorithm of the default repository's binary manager. Once all the chunks are appended, the
+ * file is handed off as a temporary blob with its digest set, which the binary manager can store without copying or
+ * digesting it again.
+ * <p>
+ * An assembly is only started on the node receiving the first chunk. If the following chunks are received by another
+ * node, the file is concatenated as before when the blob is requested. The same happens if an already appended chunk
+ * is received again with a different content: the assembly is then discarded.
+ *
+ * @since 11.1
+ */
+public class BatchChunkAssembly {
+
+    private static final Log log = LogFactory.getLog(BatchChunkAssembly.class);
+
+    /**
+     * Assemblies that have not received a chunk for this long are considered abandoned and discarded.
+     */
+    protected static final long ABANDONED_DELAY = TimeUnit.DAYS.toMillis(1);
+
+    protected static final Map<String, BatchChunkAssembly> ASSEMBLIES = new ConcurrentHashMap<>();
+
+    protected final FileBlob blob;
+
+    protected final MessageDigest digest;
+
+    protected int nextIndex;
+
+    /**
+     * The offset in the assembled file of each appended chunk.
+     */
+    protected final List<Long> chunkOffsets = new ArrayList<>();
+
+    protected long length;
+
+    protected boolean failed;
+
+    protected volatile long lastUpdated;
+
+    protected BatchChunkAssembly() throws IOException {
+        String algorithm = getDigestAlgorithm();
+        try {
+            digest = MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        blob = (FileBlob) Blobs.createBlobWithExtension(null);
+        lastUpdated = System.currentTimeMillis();
+    }
+
+    /**
+     * Starts the assembly of the chunks of the given file entry.
+     */
+    public static BatchChunkAssembly start(String fileEntryKey) throws IOException {
+        discardAbandoned();
+        BatchChunkAssembly assembly = new BatchChunkAssembly();
+        BatchChunkAssembly previous = ASSEMBLIES.put(fileEntryKey, assembly);
+        if (previous != null) {
+            previous.discard();
+        }
+        return assembly;
+    }
+
+    /**
+     * Gets the assembly of the chunks of the given file entry.
+     *
+     * @return the assembly, or {@code null} if there is no assembly in progress on this node
+     */
+    public static BatchChunkAssembly get(String fileEntryKey) {
+        return ASSEMBLIES.get(fileEntryKey);
+    }
+
+    /**
+     * Discards the assembly of the chunks of the given file entry, if any.
+     */
+    public static void remove(String fileEntryKey) {
+        BatchChunkAssembly assembly = ASSEMBLIES.remove(fileEntryKey);
+        if (assembly != null) {
+            assembly.discard();
+        }
+    }
+
+    protected static void discardAbandoned() {
+        long limit = System.currentTimeMillis() - ABANDONED_DELAY;
+        ASSEMBLIES.entrySet().removeIf(entry -> {
+            if (entry.getValue().lastUpdated >= limit) {
+                return false;
+            }
+            log.debug(String.format("Discarding abandoned chunk assembly %s", entry.getKey()));
+            entry.getValue().discard();
+            return true;
+        });
+    }
+
+    /**
+     * Gets the digest algorithm of the binary manager of the default repository.
+     */
+    protected static String getDigestAlgorithm() {
+        RepositoryManager repositoryManager = Framework.getService(RepositoryManager.class);
+        BlobManager blobManager = Framework.getService(BlobManager.class);
+        if (repositoryManager != null && blobManager != null) {
+            Repository repository = repositoryManager.getDefaultRepository();
+            BlobProvider blobProvider = repository == null ? null : blobManager.getBlobProvider(repository.getName());
+            BinaryManager binaryManager = blobProvider == null ? null : blobProvider.getBinaryManager();
+            if (binaryManager != null) {
+                return binaryManager.getDigestAlgorithm();
+            }
+        }
+        return AbstractBinaryManager.DEFAULT_DIGEST;
+    }
+
+    /**
+     * Gets the index of the next chunk to append.
+     */
+    public synchronized int getNextIndex() {
+        return nextIndex;
+    }
+
+    /**
+     * Appends the chunk with the given index, which must be the next one.
+     * <p>
+     * If the chunk was already appended, it is compared with the appended one, and the assembly is discarded if they
+     * differ.
+     *
+     * @return {@code true} if the chunk was appended, {@code false} if it's not the next one or if a previous append
+     *         failed
+     */
+    public synchronized boolean append(int index, Blob chunk) {
+        if (failed) {
+            return false;
+        }
+        if (index < nextIndex) {
+            if (!isAppended(index, chunk)) {
+                log.warn(String.format("Chunk %d of %s was received again with a different content, "
+                        + "falling back to concatenation on completion", index, blob.getFile()));
+                discard();
+            }
+            return false;
+        }
+        if (index != nextIndex) {
+            return false;
+        }
+        long count;
+        try (InputStream in = new DigestInputStream(chunk.getStream(), digest);
+                OutputStream out = new FileOutputStream(blob.getFile(), true)) {
+            count = IOUtils.copyLarge(in, out);
+        } catch (IOException e) {
+            log.warn(String.format("Cannot append chunk %d to %s, falling back to concatenation on completion: %s",
+                    index, blob.getFile(), e));
+            failed = true;
+            return false;
+        }
+        chunkOffsets.add(Long.valueOf(length));
+        length += count;
+        nextIndex++;
+        lastUpdated = System.currentTimeMillis();
+        return true;
+    }
+
+    /**
+     * Checks if the given chunk has the same length and content as the appended chunk with the same index.
+     */
+    protected boolean isAppended(int index, Blob chunk) {
+        long offset = chunkOffsets.get(index).longValue();
+        long end = index + 1 < nextIndex ? chunkOffsets.get(index + 1).longValue() : length;
+        long chunkLength = chunk.getLength();
+        if (chunkLength >= 0 && chunkLength != end - offset) {
+            return false;
+        }
+        try (InputStream appended = new FileInputStream(blob.getFile()); InputStream in = chunk.getStream()) {
+            IOUtils.skipFully(appended, offset);
+            return IOUtils.contentEquals(new BoundedInputStream(appended, end - offset), in);
+        } catch (IOException e) {
+            log.debug(String.format("Cannot compare chunk %d with %s: %s", index, blob.getFile(), e));
+            return false;
+        }
+    }
+
+    /**
+     * Gets the assembled blob, with its digest set.
+     *
+     * @param chunkCount the expected number of chunks
+     * @return the blob, or {@code null} if not all the chunks have been appended
+     */
+    public synchronized Blob getBlob(int chunkCount) {
+        if (failed || nextIndex != chunkCount) {
+            return null;
+        }
+        if (blob.getDigest() == null) {
+            blob.setDigest(Hex.encodeHexString(digest.digest()));
+        }
+        return blob;
+    }
+
+    protected synchronized void discard() {
+        failed = true;
+        // once stored by the binary manager the file may have been moved to its final location
+        if (blob.isTemporary() && blob.getFile().exists()) {
+            blob.getFile().delete();
+        }
+    }
+
+}
@@ -203,6 +203,15 @@ public class BatchFileEntry {
             if (chunkedBlob != null) {
                 return chunkedBlob;
             }
+            // Then check if the chunks have been assembled as they arrived on this node
+            BatchChunkAssembly assembly = BatchChunkAssembly.get(key);
+            Blob assembledBlob = assembly == null ? null : assembly.getBlob(getChunkCount());
+            if (assembledBlob != null) {
+                assembledBlob.setMimeType(getMimeType());
+                assembledBlob.setFilename(getFileName());
+                chunkedBlob = assembledBlob;
+                return chunkedBlob;
+            }
             File tmpChunkedFile = null;
             try {
                 Map<Integer, String> chunks = getChunks();
@@ -281,11 +290,45 @@ public class BatchFileEntry {
         String chunkEntryKey = key + "_" + index;
         transientStore.putBlobs(chunkEntryKey, Collections.singletonList(blob));
         transientStore.putParameter(key, String.valueOf(index), chunkEntryKey);
+        assembleChunks(index);
 
         return chunkEntryKey;
     }
 
+    /**
+     * Appends the chunks that are now contiguous to the node-local assembly of this file entry, starting the assembly
+     * when the first chunk is received.
+     *
+     * @since 11.1
+     * @see BatchChunkAssembly
+     */
+    protected void assembleChunks(int index) {
+        BatchChunkAssembly assembly = BatchChunkAssembly.get(key);
+        if (assembly == null) {
+            if (index != 0) {
+                // the first chunk was received by another node
+                return;
+            }
+            try {
+                assembly = BatchChunkAssembly.start(key);
+            } catch (IOException e) {
+                log.warn(String.format("Cannot start chunk assembly for file entry %s: %s", key, e));
+                return;
+            }
+        }
+        int chunkCount = getChunkCount();
+        for (int i = assembly.getNextIndex(); i < chunkCount; i++) {
+            String chunkEntryKey = (String) transientStore.getParameter(key, String.valueOf(i));
+            Blob chunk = chunkEntryKey == null ? null : getChunk(transientStore, chunkEntryKey);
+            if (chunk == null || !assembly.append(i, chunk)) {
+                // not contiguous yet, or appended concurrently
+                break;
+            }
+        }
+    }
+
     public void beforeRemove() {
+        BatchChunkAssembly.remove(key);
         String tmpChunkedFilePath = (String) transientStore.getParameter(key, "tmpChunkedFilePath");
         if (tmpChunkedFilePath != null) {
             File tmpChunkedFile = new File(tmpChunkedFilePath);
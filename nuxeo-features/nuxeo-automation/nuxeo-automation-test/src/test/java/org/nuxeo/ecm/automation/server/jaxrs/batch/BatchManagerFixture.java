@@ -20,9 +20,11 @@
  */
 package org.nuxeo.ecm.automation.server.jaxrs.batch;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -37,6 +39,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.collections.ListUtils;
 import org.junit.Assert;
 import org.junit.Test;
@@ -255,6 +258,59 @@ public class BatchManagerFixture {
         assertEquals(0, tsm.getStorageSize());
     }
 
+    @Test
+    public void testAddChunkStreamAssembled() throws IOException {
+        BatchManager bm = Framework.getService(BatchManager.class);
+        String batchId = bm.initBatch();
+
+        String fileContent = "Some content made of 3 chunks";
+        long fileSize = fileContent.getBytes(UTF_8).length;
+        bm.addBlob(batchId, "0", Blobs.createBlob("Some conten"), 3, 0, "doc.txt", "text/plain", fileSize);
+        // not contiguous, assembled when the missing chunk arrives
+        bm.addBlob(batchId, "0", Blobs.createBlob("f 3 chunks"), 3, 2, "doc.txt", "text/plain", fileSize);
+        bm.addBlob(batchId, "0", Blobs.createBlob("t made o"), 3, 1, "doc.txt", "text/plain", fileSize);
+
+        // the assembled file is handed off with its digest already computed
+        Blob blob = bm.getBlob(batchId, "0");
+        assertEquals("doc.txt", blob.getFilename());
+        assertEquals("text/plain", blob.getMimeType());
+        assertEquals(fileContent, blob.getString());
+        assertEquals(DigestUtils.md5Hex(fileContent), blob.getDigest());
+        File file = blob.getFile();
+        assertTrue(file.exists());
+
+        bm.clean(batchId);
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void testChunkAssemblyReceivingAppendedChunkAgain() throws IOException {
+        String key = "testChunkAssembly";
+        BatchChunkAssembly assembly = BatchChunkAssembly.start(key);
+        try {
+            assertTrue(assembly.append(0, Blobs.createBlob("Some ")));
+            assertTrue(assembly.append(1, Blobs.createBlob("content")));
+            // same content, not appended twice
+            assertFalse(assembly.append(0, Blobs.createBlob("Some ")));
+            assertFalse(assembly.append(1, Blobs.createBlob("content")));
+            assertEquals("Some content", assembly.getBlob(2).getString());
+        } finally {
+            BatchChunkAssembly.remove(key);
+        }
+
+        assembly = BatchChunkAssembly.start(key);
+        try {
+            assertTrue(assembly.append(0, Blobs.createBlob("Some ")));
+            assertTrue(assembly.append(1, Blobs.createBlob("content")));
+            // same length, different content: the assembly is discarded
+            assertFalse(assembly.append(0, Blobs.createBlob("Same ")));
+            assertNull(assembly.getBlob(2));
+            assertFalse(assembly.append(2, Blobs.createBlob("!")));
+        } finally {
+            BatchChunkAssembly.remove(key);
+        }
+    }
+
     @Test
     public void testBatchCleanup() throws IOException {
         BatchManager bm = Framework.getService(BatchManager.class);
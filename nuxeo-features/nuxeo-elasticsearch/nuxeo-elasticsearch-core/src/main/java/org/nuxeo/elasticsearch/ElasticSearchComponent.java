@@ -57,6 +57,7 @@ import org.nuxeo.elasticsearch.api.ElasticSearchIndexing;
 import org.nuxeo.elasticsearch.api.ElasticSearchService;
 import org.nuxeo.elasticsearch.api.EsResult;
 import org.nuxeo.elasticsearch.api.EsScrollResult;
+import org.nuxeo.elasticsearch.bulk.SubtreeIndexingCoalescer;
 import org.nuxeo.elasticsearch.commands.IndexingCommand;
 import org.nuxeo.elasticsearch.config.ESHintQueryBuilderDescriptor;
 import org.nuxeo.elasticsearch.config.ElasticSearchClientConfig;
@@ -68,6 +69,7 @@ import org.nuxeo.elasticsearch.core.ElasticSearchIndexingImpl;
 import org.nuxeo.elasticsearch.core.ElasticSearchServiceImpl;
 import org.nuxeo.elasticsearch.io.JsonESDocumentWriter;
 import org.nuxeo.elasticsearch.query.NxQueryBuilder;
+import org.nuxeo.elasticsearch.query.NxqlQueryConverter;
 import org.nuxeo.elasticsearch.work.IndexingWorker;
 import org.nuxeo.elasticsearch.work.ScrollingIndexingWorker;
 import org.nuxeo.runtime.api.Framework;
@@ -166,6 +168,7 @@ public class ElasticSearchComponent extends DefaultComponent
         case EP_HINTS:
             ESHintQueryBuilderDescriptor esHintDescriptor = (ESHintQueryBuilderDescriptor) contribution;
             register(EP_HINTS, esHintDescriptor);
+            NxqlQueryConverter.clearCache();
             break;
         default:
             throw new IllegalStateException("Invalid EP: " + extensionPoint);
@@ -178,6 +181,7 @@ public class ElasticSearchComponent extends DefaultComponent
             log.info("Elasticsearch service is disabled");
             return;
         }
+        NxqlQueryConverter.clearCache();
         esa = new ElasticSearchAdminImpl(embeddedServerConfig, clientConfig, indexConfig, getDescriptors(EP_HINTS));
         esi = new ElasticSearchIndexingImpl(esa, jsonESDocumentWriter);
         ess = new ElasticSearchServiceImpl(esa);
@@ -193,6 +197,7 @@ public class ElasticSearchComponent extends DefaultComponent
             return;
         }
         try {
+            SubtreeIndexingCoalescer.shutdown();
             shutdownListenerThreadPool();
         } finally {
             try {
@@ -337,7 +342,8 @@ public class ElasticSearchComponent extends DefaultComponent
 
     @Override
     public boolean isIndexingInProgress() {
-        return (runIndexingWorkerCount.get() > 0) || (getPendingWorkerCount() > 0) || (getRunningWorkerCount() > 0);
+        return (runIndexingWorkerCount.get() > 0) || (getPendingWorkerCount() > 0) || (getRunningWorkerCount() > 0)
+                || SubtreeIndexingCoalescer.hasIndexingInProgress();
     }
 
     @Override
@@ -348,6 +354,9 @@ public class ElasticSearchComponent extends DefaultComponent
             do {
                 completed = wm.awaitCompletion(INDEXING_QUEUE_ID, 300, TimeUnit.SECONDS);
             } while (!completed);
+            while (SubtreeIndexingCoalescer.hasIndexingInProgress()) {
+                Thread.sleep(100);
+            }
             return true;
         });
     }
@@ -513,6 +522,11 @@ public class ElasticSearchComponent extends DefaultComponent
         return esi.source(doc);
     }
 
+    @Override
+    public BytesReference aclSource(DocumentModel doc) throws IOException {
+        return esi.aclSource(doc);
+    }
+
     // ES Search ===============================================================
     @Override
     public DocumentModelList query(NxQueryBuilder queryBuilder) {
@@ -121,12 +121,32 @@ public final class ElasticSearchConstants {
 
     public static final String INDEX_BULK_MAX_SIZE_PROPERTY = "elasticsearch.index.bulkMaxSize";
 
+    /**
+     * When {@code true}, a document modification only sends the modified properties to Elasticsearch, and the binary
+     * fulltext only when it changed, instead of the full document.
+     * <p>
+     * The modified properties are the dirty ones when the {@code beforeDocumentModification} event reaches the
+     * Elasticsearch inline listener, of priority 500. Properties changed on this event by synchronous listeners of
+     * greater priority, which run after it, are not sent: such listeners must not be used with this property.
+     *
+     * @since 11.1
+     */
+    public static final String INDEX_PARTIAL_UPDATE_PROPERTY = "elasticsearch.index.partialUpdate.enabled";
+
     public static final String DISABLE_AUTO_INDEXING = "disableAutoIndexing";
 
     public static final String ES_SYNC_INDEXING_FLAG = "ESSyncIndexing";
 
     public static final String REINDEX_USING_CHILDREN_TRAVERSAL_PROPERTY = "elasticsearch.reindex.useChildrenTraversal";
 
+    /**
+     * The duration during which the reindexing of the subtrees of documents whose permissions changed or which were
+     * moved is coalesced, for instance {@code PT2S}. When not set, each subtree is reindexed by its own worker.
+     *
+     * @since 11.1
+     */
+    public static final String REINDEX_CASCADE_WINDOW_PROPERTY = "elasticsearch.reindex.cascadeWindow";
+
     /** @since 7.4 */
     public static final String INDEXING_QUEUE_ID = "elasticSearchIndexing";
 
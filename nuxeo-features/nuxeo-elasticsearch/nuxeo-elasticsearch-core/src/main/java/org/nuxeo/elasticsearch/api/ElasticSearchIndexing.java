@@ -102,4 +102,11 @@ public interface ElasticSearchIndexing {
      * @since 10.3
      */
     BytesReference source(DocumentModel doc) throws IOException;
+
+    /**
+     * Returns the partial JSON Elasticsearch source holding only the ACL of a document.
+     *
+     * @since 11.1
+     */
+    BytesReference aclSource(DocumentModel doc) throws IOException;
 }
@@ -181,7 +181,13 @@ public class BulkIndexComputation extends AbstractComputation implements BulkPro
         }
         MutableBoolean inError = new MutableBoolean(false);
         Arrays.stream(response.getItems()).filter(BulkItemResponse::isFailed).forEach(item -> {
-            if (item.getFailure().getStatus() != RestStatus.CONFLICT) {
+            if (item.getOpType() == DocWriteRequest.OpType.UPDATE
+                    && item.getFailure().getStatus() == RestStatus.NOT_FOUND) {
+                // partial update of a document not indexed yet, its pending indexing will be complete
+                if (log.isDebugEnabled()) {
+                    log.debug("Skipping update of a missing document: " + item.getFailureMessage());
+                }
+            } else if (item.getFailure().getStatus() != RestStatus.CONFLICT) {
                 log.warn("Failure in bulk indexing: " + item.getFailureMessage());
                 inError.setTrue();
             } else if (log.isDebugEnabled()) {
@@ -55,6 +55,13 @@ public class IndexAction implements StreamProcessorTopology {
 
     public static final String REFRESH_INDEX_PARAM = "refresh";
 
+    /**
+     * When {@code true}, only the ACL of the already indexed documents is updated.
+     *
+     * @since 11.1
+     */
+    public static final String ACL_ONLY_PARAM = "aclOnly";
+
     @Override
     public Topology getTopology(Map<String, String> options) {
         int esBulkSize = getOptionAsInteger(options, ES_BULK_SIZE_OPTION, ES_BULK_SIZE_DEFAULT);
@@ -18,9 +18,11 @@
  */
 package org.nuxeo.elasticsearch.bulk;
 
+import static org.nuxeo.elasticsearch.bulk.IndexAction.ACL_ONLY_PARAM;
 import static org.nuxeo.elasticsearch.bulk.IndexAction.INDEX_UPDATE_ALIAS_PARAM;
 import static org.nuxeo.elasticsearch.bulk.IndexAction.REFRESH_INDEX_PARAM;
 
+import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.nuxeo.ecm.core.bulk.BulkCodecs;
@@ -62,9 +64,9 @@ public class IndexCompletionComputation extends AbstractComputation {
         BulkStatus status = codec.decode(record.getData());
         if (IndexAction.ACTION_NAME.equals(status.getAction())
                 && BulkStatus.State.COMPLETED.equals(status.getState())) {
-            logIndexing(status);
             BulkService bulkService = Framework.getService(BulkService.class);
             BulkCommand command = bulkService.getCommand(status.getId());
+            logIndexing(status, command);
             if (command != null) {
                 refreshIndexIfNeeded(command);
                 updateAliasIfNeeded(command);
@@ -93,12 +95,22 @@ public class IndexCompletionComputation extends AbstractComputation {
         }
     }
 
-    protected void logIndexing(BulkStatus status) {
+    /**
+     * Logs the completion of an explicit reindexing as a warning, and of a subtree reindexing submitted by the
+     * {@link SubtreeIndexingCoalescer} as a debug message.
+     *
+     * @since 11.1
+     */
+    protected void logIndexing(BulkStatus status, BulkCommand command) {
+        Level level = command != null && command.getParam(ACL_ONLY_PARAM) != null ? Level.DEBUG : Level.WARN;
+        if (!log.isEnabled(level)) {
+            return;
+        }
         long elapsed = status.getCompletedTime().toEpochMilli() - status.getSubmitTime().toEpochMilli();
         long wait = status.getScrollStartTime().toEpochMilli() - status.getSubmitTime().toEpochMilli();
         long scroll = status.getScrollEndTime().toEpochMilli() - status.getScrollStartTime().toEpochMilli();
         double rate = 1000.0 * status.getTotal() / (elapsed);
-        log.warn("Index command: {} completed: {} in {}", status.getId(), status.getTotal(),
+        log.log(level, "Index command: {} completed: {} in {}", status.getId(), status.getTotal(),
                 String.format("%.2fs (wait: %.2fs, scroll: %.2fs) rate: %.2f docs/s", elapsed / 1000.0, wait / 1000.0,
                         scroll / 1000.0, rate));
     }
@@ -20,6 +20,7 @@
 package org.nuxeo.elasticsearch.bulk;
 
 import static org.nuxeo.elasticsearch.ElasticSearchConstants.DOC_TYPE;
+import static org.nuxeo.elasticsearch.bulk.IndexAction.ACL_ONLY_PARAM;
 import static org.nuxeo.elasticsearch.bulk.IndexAction.ACTION_NAME;
 
 import java.io.IOException;
@@ -30,8 +31,10 @@ import java.util.Map;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.elasticsearch.action.DocWriteRequest;
 import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.xcontent.XContentType;
@@ -87,11 +90,17 @@ public class IndexRequestComputation extends AbstractBulkComputation {
         String indexName = getIndexName(session, properties);
         DocumentModelList docs = loadDocuments(session, documentIds);
         ElasticSearchIndexing esi = Framework.getService(ElasticSearchIndexing.class);
+        boolean aclOnly = Boolean.TRUE.equals(properties.get(ACL_ONLY_PARAM));
         for (DocumentModel doc : docs) {
             try {
-                append(new IndexRequest(indexName, DOC_TYPE, doc.getId()).source(esi.source(doc), XContentType.JSON)
-                                                                         .versionType(VersionType.EXTERNAL)
-                                                                         .version(now));
+                if (aclOnly) {
+                    // the update API doesn't support external versioning
+                    append(new UpdateRequest(indexName, DOC_TYPE, doc.getId()).doc(
+                            BytesReference.toBytes(esi.aclSource(doc)), XContentType.JSON));
+                } else {
+                    append(new IndexRequest(indexName, DOC_TYPE, doc.getId()).source(esi.source(doc),
+                            XContentType.JSON).versionType(VersionType.EXTERNAL).version(now));
+                }
             } catch (IOException e) {
                 throw new NuxeoException("Cannot build source for document: " + doc.getId(), e);
             }
@@ -99,18 +108,29 @@ public class IndexRequestComputation extends AbstractBulkComputation {
     }
 
     protected void append(IndexRequest indexRequest) {
-        if (bulkRequest.estimatedSizeInBytes() + indexRequest.source().length() > MAX_RECORD_SIZE) {
+        append(indexRequest, indexRequest.source().length());
+    }
+
+    /**
+     * @since 11.1
+     */
+    protected void append(UpdateRequest updateRequest) {
+        append(updateRequest, updateRequest.doc().source().length());
+    }
+
+    protected void append(DocWriteRequest<?> request, int size) {
+        if (bulkRequest.estimatedSizeInBytes() + size > MAX_RECORD_SIZE) {
             if (bulkRequest.numberOfActions() > 0) {
                 // Create multiple elastic bulk requests when we exceed the record size
                 bulkRequests.add(bulkRequest);
                 bulkRequest = new BulkRequest();
             }
-            if (indexRequest.source().length() > MAX_RECORD_SIZE) {
+            if (size > MAX_RECORD_SIZE) {
                 log.warn(String.format("Indexing request for doc: %s, is too large: %d, max record size: %d",
-                        indexRequest.id(), indexRequest.source().length(), MAX_RECORD_SIZE));
+                        request.id(), size, MAX_RECORD_SIZE));
             }
         }
-        bulkRequest.add(indexRequest);
+        bulkRequest.add(request);
     }
 
     @Override
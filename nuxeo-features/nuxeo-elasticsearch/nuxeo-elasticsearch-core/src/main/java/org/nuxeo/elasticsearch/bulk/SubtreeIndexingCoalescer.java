@@ -0,0 +1,365 @@
+/*
+ * (C) Copyright 2019 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nuxeo.elasticsearch.bulk;
+
+import static org.nuxeo.ecm.core.api.security.SecurityConstants.SYSTEM_USERNAME;
+import static org.nuxeo.elasticsearch.ElasticSearchConstants.REINDEX_CASCADE_WINDOW_PROPERTY;
+import static org.nuxeo.elasticsearch.bulk.IndexAction.ACL_ONLY_PARAM;
+import static org.nuxeo.elasticsearch.bulk.IndexAction.ACTION_NAME;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.nuxeo.ecm.core.bulk.BulkService;
+import org.nuxeo.ecm.core.bulk.message.BulkCommand;
+import org.nuxeo.ecm.core.bulk.message.BulkStatus;
+import org.nuxeo.runtime.api.Framework;
+import org.nuxeo.runtime.kv.KeyValueService;
+import org.nuxeo.runtime.kv.KeyValueStore;
+import org.nuxeo.runtime.kv.KeyValueStoreProvider;
+
+/**
+ * Coalesces the reindexing of the subtrees of the documents whose permissions changed or which were moved.
+ * <p>
+ * The subtrees to reindex are kept per root path during a time window, a subtree already covered by a pending
+ * ancestor being skipped. At the end of the window each remaining subtree is reindexed by a bulk {@link IndexAction}
+ * command, which only updates the ACL of the indexed documents when only permissions changed.
+ * <p>
+ * The pending subtrees are also written to the {@value #KV_STORE_NAME} key/value store until they are submitted, so that
+ * the subtrees of a node that died during the window are submitted when a coalescer is started again, see
+ * {@link #recover()}. As this store is shared by the cluster, a subtree may then be reindexed twice, which is harmless.
+ * The pending subtrees are also submitted when the Elasticsearch component stops, see {@link #shutdown()}. Once
+ * submitted, bulk commands are persisted by the {@link BulkService}.
+ *
+ * @since 11.1
+ */
+public class SubtreeIndexingCoalescer {
+
+    private static final Logger log = LogManager.getLogger(SubtreeIndexingCoalescer.class);
+
+    public static final String KV_STORE_NAME = "elasticsearchSubtreeIndexing";
+
+    protected static final String KEY_SEPARATOR = ":";
+
+    protected static volatile SubtreeIndexingCoalescer instance;
+
+    protected final long windowMillis;
+
+    /** Pending subtrees per repository, keyed by root path. */
+    protected final Map<String, NavigableMap<String, Subtree>> pending = new HashMap<>();
+
+    protected ScheduledExecutorService executor;
+
+    protected boolean scheduled;
+
+    /** The submitted bulk commands that are not known to be completed yet. */
+    protected final Set<String> submittedCommands = ConcurrentHashMap.newKeySet();
+
+    public SubtreeIndexingCoalescer(long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * Checks if the reindexing of subtrees is coalesced.
+     */
+    public static boolean isEnabled() {
+        return Framework.getProperty(REINDEX_CASCADE_WINDOW_PROPERTY) != null;
+    }
+
+    /**
+     * Gets the coalescer of this node.
+     */
+    public static SubtreeIndexingCoalescer getInstance() {
+        SubtreeIndexingCoalescer coalescer = instance;
+        if (coalescer == null) {
+            synchronized (SubtreeIndexingCoalescer.class) {
+                coalescer = instance;
+                if (coalescer == null) {
+                    long windowMillis = Duration.parse(Framework.getProperty(REINDEX_CASCADE_WINDOW_PROPERTY))
+                                                .toMillis();
+                    coalescer = new SubtreeIndexingCoalescer(windowMillis);
+                    coalescer.recover();
+                    instance = coalescer;
+                }
+            }
+        }
+        return coalescer;
+    }
+
+    /**
+     * Checks if there are subtrees waiting for the end of the window, or submitted subtrees not reindexed yet.
+     */
+    public static boolean hasIndexingInProgress() {
+        SubtreeIndexingCoalescer coalescer = instance;
+        return coalescer != null && coalescer.isIndexingInProgress();
+    }
+
+    /**
+     * Submits the pending subtrees of the coalescer of this node, if any, and stops it.
+     */
+    public static void shutdown() {
+        SubtreeIndexingCoalescer coalescer;
+        synchronized (SubtreeIndexingCoalescer.class) {
+            coalescer = instance;
+            instance = null;
+        }
+        if (coalescer != null) {
+            coalescer.close();
+        }
+    }
+
+    /**
+     * Adds the subtree of a document to reindex, not including the document itself.
+     *
+     * @param aclOnly {@code true} if only the permissions of the documents changed
+     * @return {@code false} if the subtree is already covered by a pending one
+     */
+    public boolean add(String repositoryName, String rootId, String rootPath, boolean aclOnly) {
+        Subtree displaced = null;
+        Subtree added = new Subtree(repositoryName, rootId, rootPath, aclOnly);
+        synchronized (this) {
+            NavigableMap<String, Subtree> subtrees = pending.computeIfAbsent(repositoryName, k -> new TreeMap<>());
+            for (int i = rootPath.indexOf('/', 1); i > 0; i = rootPath.indexOf('/', i + 1)) {
+                Subtree ancestor = subtrees.get(rootPath.substring(0, i));
+                if (ancestor != null && ancestor.covers(aclOnly)) {
+                    log.debug("Skipping subtree of: {} covered by: {}", rootPath, ancestor);
+                    return false;
+                }
+            }
+            Subtree existing = subtrees.get(rootPath);
+            if (existing != null) {
+                if (!existing.rootId.equals(rootId)) {
+                    // another document took this path, don't merge with it
+                    displaced = existing;
+                } else if (existing.covers(aclOnly)) {
+                    return false;
+                }
+            }
+            // pending descendants covered by the new subtree
+            Iterator<Subtree> descendants = subtrees.subMap(rootPath + '/', true, rootPath + (char) ('/' + 1), false)
+                                                    .values()
+                                                    .iterator();
+            while (descendants.hasNext()) {
+                Subtree descendant = descendants.next();
+                if (descendant.coveredBy(aclOnly)) {
+                    descendants.remove();
+                    unpersist(descendant);
+                }
+            }
+            subtrees.put(rootPath, added);
+            persist(added);
+            if (!scheduled) {
+                scheduled = true;
+                getExecutor().schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (displaced != null) {
+            // its stored entry was replaced by the added one
+            submit(displaced);
+        }
+        return true;
+    }
+
+    /**
+     * Adds the subtrees persisted by the coalescers that did not submit them, usually because their node died.
+     */
+    public void recover() {
+        KeyValueStoreProvider store = (KeyValueStoreProvider) getKeyValueStore();
+        List<String> keys = store.keyStream().collect(Collectors.toList());
+        keys.forEach(key -> {
+            String value = store.getString(key);
+            int i = key.indexOf(KEY_SEPARATOR);
+            int j = value == null ? -1 : value.indexOf(KEY_SEPARATOR);
+            if (i < 0 || j < 0) {
+                return;
+            }
+            Subtree subtree = new Subtree(key.substring(0, i), value.substring(0, j), key.substring(i + 1),
+                    Boolean.parseBoolean(value.substring(j + 1)));
+            log.debug("Recovering pending subtree: {}", subtree);
+            add(subtree.repositoryName, subtree.rootId, subtree.rootPath, subtree.aclOnly);
+        });
+    }
+
+    protected KeyValueStore getKeyValueStore() {
+        return Framework.getService(KeyValueService.class).getKeyValueStore(KV_STORE_NAME);
+    }
+
+    protected void persist(Subtree subtree) {
+        getKeyValueStore().put(subtree.getKey(), subtree.getValue());
+    }
+
+    /**
+     * Removes a subtree from the store, unless it was replaced by another one for the same path.
+     */
+    protected void unpersist(Subtree subtree) {
+        getKeyValueStore().compareAndSet(subtree.getKey(), subtree.getValue(), null);
+    }
+
+    public synchronized int getPendingCount() {
+        return pending.values().stream().mapToInt(Map::size).sum();
+    }
+
+    /**
+     * Checks if there are subtrees waiting for the end of the window, or submitted subtrees whose bulk command is not
+     * completed yet.
+     */
+    public boolean isIndexingInProgress() {
+        if (getPendingCount() > 0) {
+            return true;
+        }
+        if (submittedCommands.isEmpty()) {
+            return false;
+        }
+        BulkService bulkService = Framework.getService(BulkService.class);
+        submittedCommands.removeIf(commandId -> isDone(bulkService.getStatus(commandId)));
+        return !submittedCommands.isEmpty();
+    }
+
+    protected boolean isDone(BulkStatus status) {
+        switch (status.getState()) {
+        case COMPLETED:
+        case ABORTED:
+        case UNKNOWN:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    protected synchronized ScheduledExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "esSubtreeIndexing");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * Submits the reindexing of the pending subtrees.
+     */
+    public void flush() {
+        List<Subtree> subtrees = new ArrayList<>();
+        synchronized (this) {
+            scheduled = false;
+            pending.values().forEach(map -> subtrees.addAll(map.values()));
+            pending.clear();
+        }
+        subtrees.forEach(subtree -> {
+            submit(subtree);
+            unpersist(subtree);
+        });
+    }
+
+    /**
+     * Submits the pending subtrees and shuts the executor down.
+     */
+    protected void close() {
+        ScheduledExecutorService exec;
+        synchronized (this) {
+            exec = executor;
+            executor = null;
+        }
+        if (exec != null) {
+            exec.shutdownNow();
+        }
+        flush();
+    }
+
+    protected void submit(Subtree subtree) {
+        String nxql = String.format("SELECT ecm:uuid FROM Document WHERE ecm:ancestorId = '%s'", subtree.rootId);
+        BulkCommand command = new BulkCommand.Builder(ACTION_NAME, nxql, SYSTEM_USERNAME).repository(
+                subtree.repositoryName).param(ACL_ONLY_PARAM, Boolean.valueOf(subtree.aclOnly)).build();
+        try {
+            String commandId = Framework.getService(BulkService.class).submit(command);
+            submittedCommands.add(commandId);
+            log.debug("Submitted command: {} to reindex: {}", commandId, subtree);
+        } catch (RuntimeException e) {
+            log.error("Cannot submit the reindexing of: {}", subtree, e);
+        }
+    }
+
+    protected static class Subtree {
+
+        protected final String repositoryName;
+
+        protected final String rootId;
+
+        protected final String rootPath;
+
+        protected final boolean aclOnly;
+
+        protected Subtree(String repositoryName, String rootId, String rootPath, boolean aclOnly) {
+            this.repositoryName = repositoryName;
+            this.rootId = rootId;
+            this.rootPath = rootPath;
+            this.aclOnly = aclOnly;
+        }
+
+        public String getRootPath() {
+            return rootPath;
+        }
+
+        public boolean isAclOnly() {
+            return aclOnly;
+        }
+
+        protected String getKey() {
+            return repositoryName + KEY_SEPARATOR + rootPath;
+        }
+
+        protected String getValue() {
+            return rootId + KEY_SEPARATOR + aclOnly;
+        }
+
+        /**
+         * Checks if this subtree reindexing covers a descendant one.
+         */
+        protected boolean covers(boolean descendantAclOnly) {
+            return !aclOnly || descendantAclOnly;
+        }
+
+        /**
+         * Checks if this subtree reindexing is covered by an ancestor one.
+         */
+        protected boolean coveredBy(boolean ancestorAclOnly) {
+            return !ancestorAclOnly || aclOnly;
+        }
+
+        @Override
+        public String toString() {
+            return getClass().getSimpleName() + "(" + repositoryName + "," + rootPath + "," + rootId
+                    + (aclOnly ? ",aclOnly" : "") + ")";
+        }
+    }
+
+}
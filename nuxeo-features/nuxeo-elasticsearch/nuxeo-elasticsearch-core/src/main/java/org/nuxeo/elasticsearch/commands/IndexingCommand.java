@@ -24,9 +24,12 @@ import java.io.PrintWriter;
 import java.io.Serializable;
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.logging.Log;
@@ -36,6 +39,7 @@ import org.nuxeo.ecm.core.api.CoreSessionService;
 import org.nuxeo.ecm.core.api.DocumentModel;
 import org.nuxeo.ecm.core.api.DocumentRef;
 import org.nuxeo.ecm.core.api.IdRef;
+import org.nuxeo.elasticsearch.ElasticSearchConstants;
 import org.nuxeo.runtime.api.Framework;
 
 import com.fasterxml.jackson.core.JsonFactory;
@@ -76,6 +80,8 @@ public class IndexingCommand implements Serializable {
 
     protected List<String> schemas;
 
+    protected Set<String> dirtyProperties;
+
     protected long order;
 
     protected transient String sessionId;
@@ -177,6 +183,7 @@ public class IndexingCommand implements Serializable {
     public boolean merge(IndexingCommand other) {
         if (canBeMerged(other)) {
             merge(other.sync, other.recurse);
+            mergeDirtyProperties(other.dirtyProperties);
             return true;
         }
         return false;
@@ -187,6 +194,18 @@ public class IndexingCommand implements Serializable {
         this.recurse = this.recurse || recurse;
     }
 
+    /**
+     * @since 11.1
+     */
+    protected void mergeDirtyProperties(Set<String> properties) {
+        if (dirtyProperties == null || properties == null) {
+            // one of the commands updates the full document
+            dirtyProperties = null;
+        } else {
+            dirtyProperties.addAll(properties);
+        }
+    }
+
     protected boolean canBeMerged(IndexingCommand other) {
         if (type != other.type) {
             return false;
@@ -231,6 +250,13 @@ public class IndexingCommand implements Serializable {
         jsonGen.writeBooleanField("recurse", recurse);
         jsonGen.writeBooleanField("sync", sync);
         jsonGen.writeNumberField("order", getOrder());
+        if (dirtyProperties != null) {
+            jsonGen.writeArrayFieldStart("dirty");
+            for (String property : dirtyProperties) {
+                jsonGen.writeString(property);
+            }
+            jsonGen.writeEndArray();
+        }
         jsonGen.writeEndObject();
     }
 
@@ -273,6 +299,9 @@ public class IndexingCommand implements Serializable {
                 cmd.recurse = value.booleanValue();
             } else if ("sync".equals(key)) {
                 cmd.sync = value.booleanValue();
+            } else if ("dirty".equals(key)) {
+                cmd.dirtyProperties = new TreeSet<>();
+                value.forEach(property -> cmd.dirtyProperties.add(property.textValue()));
             }
         }
         if (cmd.targetDocumentId == null) {
@@ -292,6 +321,13 @@ public class IndexingCommand implements Serializable {
         return targetDocumentId;
     }
 
+    /**
+     * @since 11.1
+     */
+    public String getPath() {
+        return path;
+    }
+
     public IndexingCommand clone(DocumentModel newDoc) {
         return new IndexingCommand(newDoc, type, sync, recurse);
     }
@@ -313,6 +349,36 @@ public class IndexingCommand implements Serializable {
         }
     }
 
+    /**
+     * Restricts an update to the given dirty properties, the system properties of the document being always updated.
+     * The binary fulltext is only updated if {@link ElasticSearchConstants#BINARYTEXT_FIELD} is one of the properties.
+     *
+     * @param properties the dirty top-level properties, as {@code schema:name}
+     * @since 11.1
+     */
+    public void setDirtyProperties(Collection<String> properties) {
+        dirtyProperties = new TreeSet<>(properties);
+    }
+
+    /**
+     * Gets the dirty properties of an update.
+     *
+     * @return the dirty properties, or {@code null} if the full document must be indexed
+     * @since 11.1
+     */
+    public Set<String> getDirtyProperties() {
+        return dirtyProperties;
+    }
+
+    /**
+     * Checks if the command only updates some properties of an already indexed document.
+     *
+     * @since 11.1
+     */
+    public boolean isPartialUpdate() {
+        return type == Type.UPDATE && dirtyProperties != null;
+    }
+
     @Override
     public String toString() {
         try {
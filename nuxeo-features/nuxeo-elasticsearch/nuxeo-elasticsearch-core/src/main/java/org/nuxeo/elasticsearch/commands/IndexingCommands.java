@@ -20,6 +20,7 @@
 package org.nuxeo.elasticsearch.commands;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -55,6 +56,18 @@ public class IndexingCommands {
         add(cmd);
     }
 
+    /**
+     * Adds a command restricted to the given dirty properties.
+     *
+     * @see IndexingCommand#setDirtyProperties(Collection)
+     * @since 11.1
+     */
+    public void add(Type type, boolean sync, boolean recurse, Collection<String> dirtyProperties) {
+        IndexingCommand cmd = new IndexingCommand(targetDocument, type, sync, recurse);
+        cmd.setDirtyProperties(dirtyProperties);
+        add(cmd);
+    }
+
     protected IndexingCommand find(Type command) {
         for (IndexingCommand cmd : commands) {
             if (cmd.type == command) {
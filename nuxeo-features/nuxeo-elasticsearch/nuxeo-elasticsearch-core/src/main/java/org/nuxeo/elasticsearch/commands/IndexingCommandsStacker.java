@@ -37,7 +37,11 @@ import static org.nuxeo.ecm.core.api.event.DocumentEventTypes.DOCUMENT_TAG_UPDAT
 import static org.nuxeo.ecm.core.api.trash.TrashService.DOCUMENT_TRASHED;
 import static org.nuxeo.ecm.core.api.trash.TrashService.DOCUMENT_UNTRASHED;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -46,7 +50,13 @@ import org.nuxeo.ecm.core.api.DocumentModel;
 import org.nuxeo.ecm.core.api.DocumentModelList;
 import org.nuxeo.ecm.core.api.IdRef;
 import org.nuxeo.ecm.core.api.LifeCycleConstants;
+import org.nuxeo.ecm.core.api.event.CoreEventConstants;
+import org.nuxeo.ecm.core.api.model.DocumentPart;
+import org.nuxeo.ecm.core.api.model.Property;
 import org.nuxeo.ecm.core.event.impl.DocumentEventContext;
+import org.nuxeo.ecm.core.schema.TypeConstants;
+import org.nuxeo.ecm.core.schema.types.ComplexType;
+import org.nuxeo.ecm.core.schema.types.ListType;
 import org.nuxeo.elasticsearch.ElasticSearchConstants;
 import org.nuxeo.elasticsearch.commands.IndexingCommand.Type;
 import org.nuxeo.runtime.api.Framework;
@@ -97,7 +107,62 @@ public abstract class IndexingCommandsStacker {
             return;
         }
         boolean sync = isSynchronous(docCtx, doc);
-        stackCommand(doc, eventId, sync);
+        stackCommand(doc, eventId, sync, getDirtyProperties(doc, docCtx, eventId));
+    }
+
+    /**
+     * Gets the properties changed by a modification event, to only send them to Elasticsearch.
+     * <p>
+     * The properties changed on {@code beforeDocumentModification} by the listeners running after this one are not
+     * captured, see {@link ElasticSearchConstants#INDEX_PARTIAL_UPDATE_PROPERTY}.
+     *
+     * @return the dirty properties, or {@code null} if the full document must be indexed
+     * @since 11.1
+     */
+    protected Set<String> getDirtyProperties(DocumentModel doc, DocumentEventContext docCtx, String eventId) {
+        if (!Framework.isBooleanPropertyTrue(ElasticSearchConstants.INDEX_PARTIAL_UPDATE_PROPERTY)) {
+            return null;
+        }
+        if (BINARYTEXT_UPDATED.equals(eventId)) {
+            return Collections.singleton(ElasticSearchConstants.BINARYTEXT_FIELD);
+        }
+        if (!BEFORE_DOC_UPDATE.equals(eventId)) {
+            return null;
+        }
+        DocumentModel previous = (DocumentModel) docCtx.getProperty(CoreEventConstants.PREVIOUS_DOCUMENT_MODEL);
+        if (previous == null || !new HashSet<>(Arrays.asList(previous.getSchemas())).equals(
+                new HashSet<>(Arrays.asList(doc.getSchemas())))) {
+            // facets were added or removed, the fields of their schemas must be indexed or removed too
+            return null;
+        }
+        Set<String> properties = new HashSet<>();
+        for (String schema : doc.getDataModels().keySet()) {
+            DocumentPart part = doc.getPart(schema);
+            if (part == null || !part.isDirty()) {
+                continue;
+            }
+            for (Property property : part.getChildren()) {
+                if (property.isDirty()) {
+                    properties.add(schema + ':' + property.getField().getName().getLocalName());
+                    if (hasBlob(property.getType())) {
+                        properties.add(ElasticSearchConstants.BINARYTEXT_FIELD);
+                    }
+                }
+            }
+        }
+        // nothing dirty, the document may have been changed by other means
+        return properties.isEmpty() ? null : properties;
+    }
+
+    protected static boolean hasBlob(org.nuxeo.ecm.core.schema.types.Type type) {
+        if (type.isListType()) {
+            return hasBlob(((ListType) type).getFieldType());
+        }
+        if (type.isComplexType()) {
+            return TypeConstants.isContentType(type)
+                    || ((ComplexType) type).getFields().stream().anyMatch(field -> hasBlob(field.getType()));
+        }
+        return false;
     }
 
     protected boolean isSynchronous(DocumentEventContext docCtx, DocumentModel doc) {
@@ -117,6 +182,14 @@ public abstract class IndexingCommandsStacker {
     }
 
     protected void stackCommand(DocumentModel doc, String eventId, boolean sync) {
+        stackCommand(doc, eventId, sync, null);
+    }
+
+    /**
+     * @param dirtyProperties the properties changed by a modification, or {@code null} to index the full document
+     * @since 11.1
+     */
+    protected void stackCommand(DocumentModel doc, String eventId, boolean sync, Set<String> dirtyProperties) {
         IndexingCommands cmds = getOrCreateCommands(doc);
         Type type;
         boolean recurse = false;
@@ -179,6 +252,8 @@ public abstract class IndexingCommandsStacker {
             // split into 2 commands one sync and an async recurse
             cmds.add(type, true, false);
             cmds.add(type, false, true);
+        } else if (type == Type.UPDATE && !recurse && dirtyProperties != null) {
+            cmds.add(type, sync, false, dirtyProperties);
         } else {
             cmds.add(type, sync, recurse);
         }
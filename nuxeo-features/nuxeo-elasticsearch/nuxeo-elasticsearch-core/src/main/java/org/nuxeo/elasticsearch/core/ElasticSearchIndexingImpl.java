@@ -20,18 +20,22 @@
 
 package org.nuxeo.elasticsearch.core;
 
+import static org.nuxeo.elasticsearch.ElasticSearchConstants.BINARYTEXT_FIELD;
 import static org.nuxeo.elasticsearch.ElasticSearchConstants.CHILDREN_FIELD;
 import static org.nuxeo.elasticsearch.ElasticSearchConstants.DOC_TYPE;
 import static org.nuxeo.elasticsearch.ElasticSearchConstants.INDEX_BULK_MAX_SIZE_PROPERTY;
 import static org.nuxeo.elasticsearch.ElasticSearchConstants.PATH_FIELD;
 
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.elasticsearch.action.DocWriteRequest.OpType;
 import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
@@ -42,6 +46,7 @@ import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.search.SearchScrollRequest;
+import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.unit.TimeValue;
@@ -164,6 +169,8 @@ public class ElasticSearchIndexingImpl implements ElasticSearchIndexing {
     void processBulkIndexCommands(List<IndexingCommand> cmds) {
         BulkRequest bulkRequest = new BulkRequest();
         Set<String> docIds = new HashSet<>(cmds.size());
+        Map<String, Set<String>> partialUpdates = getPartialUpdates(cmds);
+        Map<String, IndexingCommand> updateCmds = new HashMap<>();
         int bulkSize = 0;
         final int maxBulkSize = getMaxBulkSize();
         for (IndexingCommand cmd : cmds) {
@@ -175,10 +182,20 @@ public class ElasticSearchIndexingImpl implements ElasticSearchIndexing {
                 continue;
             }
             try {
-                IndexRequest idxRequest = buildEsIndexingRequest(cmd);
-                if (idxRequest != null) {
-                    bulkSize += idxRequest.source().length();
-                    bulkRequest.add(idxRequest);
+                Set<String> dirtyProperties = partialUpdates.get(cmd.getTargetDocumentId());
+                if (dirtyProperties != null) {
+                    UpdateRequest updateRequest = buildEsUpdateRequest(cmd, dirtyProperties);
+                    if (updateRequest != null) {
+                        bulkSize += updateRequest.doc().source().length();
+                        bulkRequest.add(updateRequest);
+                        updateCmds.put(cmd.getTargetDocumentId(), cmd);
+                    }
+                } else {
+                    IndexRequest idxRequest = buildEsIndexingRequest(cmd);
+                    if (idxRequest != null) {
+                        bulkSize += idxRequest.source().length();
+                        bulkRequest.add(idxRequest);
+                    }
                 }
             } catch (BlobNotFoundException be) {
                 log.info("Ignore indexing command in bulk, blob does not exists anymore: " + cmd);
@@ -191,12 +208,71 @@ public class ElasticSearchIndexingImpl implements ElasticSearchIndexing {
             }
             if (bulkSize > maxBulkSize) {
                 log.warn("Max bulk size reached " + bulkSize + ", sending bulk command");
-                sendBulkCommand(bulkRequest, bulkSize);
+                indexMissingDocuments(sendBulkCommand(bulkRequest, bulkSize), updateCmds);
                 bulkRequest = new BulkRequest();
+                updateCmds.clear();
                 bulkSize = 0;
             }
         }
-        sendBulkCommand(bulkRequest, bulkSize);
+        indexMissingDocuments(sendBulkCommand(bulkRequest, bulkSize), updateCmds);
+    }
+
+    /**
+     * Returns the dirty properties of the documents that can be partially updated. A document having any command
+     * which is not a partial update is fully indexed.
+     *
+     * @since 11.1
+     */
+    Map<String, Set<String>> getPartialUpdates(List<IndexingCommand> cmds) {
+        Map<String, Set<String>> partialUpdates = new HashMap<>();
+        Set<String> fullDocIds = new HashSet<>();
+        for (IndexingCommand cmd : cmds) {
+            if (cmd.getType() == Type.DELETE || cmd.getType() == Type.UPDATE_DIRECT_CHILDREN) {
+                continue;
+            }
+            String docId = cmd.getTargetDocumentId();
+            if (!cmd.isPartialUpdate() || fullDocIds.contains(docId)) {
+                fullDocIds.add(docId);
+                partialUpdates.remove(docId);
+            } else {
+                partialUpdates.computeIfAbsent(docId, k -> new HashSet<>()).addAll(cmd.getDirtyProperties());
+            }
+        }
+        return partialUpdates;
+    }
+
+    /**
+     * Fully indexes the documents whose partial update failed because they are not in the index, or because they
+     * were indexed again since their version was read.
+     *
+     * @since 11.1
+     */
+    void indexMissingDocuments(BulkResponse response, Map<String, IndexingCommand> updateCmds) {
+        if (response == null || !response.hasFailures() || updateCmds.isEmpty()) {
+            return;
+        }
+        for (BulkItemResponse item : response.getItems()) {
+            if (isFailedUpdate(item) && updateCmds.containsKey(item.getId())) {
+                IndexingCommand cmd = updateCmds.get(item.getId());
+                if (log.isDebugEnabled()) {
+                    log.debug("Partial update failed with status " + item.getFailure().getStatus()
+                            + ", indexing the full document: " + cmd);
+                }
+                processIndexCommand(cmd);
+            }
+        }
+    }
+
+    /**
+     * Checks if a partial update failed because the document is not in the index, or because its version changed.
+     * The full document is then indexed, as the full indexing handles the external version.
+     *
+     * @since 11.1
+     */
+    boolean isFailedUpdate(BulkItemResponse item) {
+        return item.isFailed() && item.getOpType() == OpType.UPDATE
+                && (item.getFailure().getStatus() == RestStatus.NOT_FOUND
+                        || item.getFailure().getStatus() == RestStatus.CONFLICT);
     }
 
     int getMaxBulkSize() {
@@ -204,7 +280,7 @@ public class ElasticSearchIndexingImpl implements ElasticSearchIndexing {
         return Integer.parseInt(value);
     }
 
-    void sendBulkCommand(BulkRequest bulkRequest, int bulkSize) {
+    BulkResponse sendBulkCommand(BulkRequest bulkRequest, int bulkSize) {
         if (bulkRequest.numberOfActions() > 0) {
             if (log.isDebugEnabled()) {
                 logDebugMessageTruncated(String.format(
@@ -215,7 +291,9 @@ public class ElasticSearchIndexingImpl implements ElasticSearchIndexing {
             if (response.hasFailures()) {
                 logBulkFailure(response);
             }
+            return response;
         }
+        return null;
     }
 
     void logBulkFailure(BulkResponse response) {
@@ -223,7 +301,7 @@ public class ElasticSearchIndexingImpl implements ElasticSearchIndexing {
         StringBuilder sb = new StringBuilder();
         sb.append("Ignore indexing of some docs more recent versions has already been indexed");
         for (BulkItemResponse item : response.getItems()) {
-            if (item.isFailed()) {
+            if (item.isFailed() && !isFailedUpdate(item)) {
                 if (item.getFailure().getStatus() == RestStatus.CONFLICT) {
                     sb.append("\n  ").append(item.getFailureMessage());
                 } else {
@@ -266,7 +344,11 @@ public class ElasticSearchIndexingImpl implements ElasticSearchIndexing {
             }
         } else {
             try (Context ignored = indexTimer.time()) {
-                processIndexCommand(cmd);
+                if (cmd.isPartialUpdate()) {
+                    processUpdateCommand(cmd);
+                } else {
+                    processIndexCommand(cmd);
+                }
             }
         }
         refreshIfNeeded(cmd);
@@ -303,6 +385,46 @@ public class ElasticSearchIndexingImpl implements ElasticSearchIndexing {
         }
     }
 
+    /**
+     * @since 11.1
+     */
+    void processUpdateCommand(IndexingCommand cmd) {
+        UpdateRequest request;
+        try {
+            request = buildEsUpdateRequest(cmd, cmd.getDirtyProperties());
+        } catch (DocumentNotFoundException e) {
+            request = null;
+        } catch (IllegalStateException e) {
+            log.error("Fail to create request for indexing command: " + cmd, e);
+            return;
+        }
+        if (request == null) {
+            log.info("Cancel partial update command because target document does not exists anymore"
+                    + " or is already indexed: " + cmd);
+            return;
+        }
+        if (log.isDebugEnabled()) {
+            logDebugMessageTruncated(String.format(
+                    "Update request: curl -XPOST 'http://localhost:9200/%s/%s/%s/_update' -d '%s'",
+                    getWriteIndexForRepository(cmd.getRepositoryName()), DOC_TYPE, cmd.getTargetDocumentId(),
+                    request.toString()), MAX_CURL_LINE);
+        }
+        // go through a bulk request to get the failure instead of an exception
+        BulkResponse response = esa.getClient().bulk(new BulkRequest().add(request));
+        if (response.hasFailures()) {
+            BulkItemResponse item = response.getItems()[0];
+            if (isFailedUpdate(item)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Partial update failed with status " + item.getFailure().getStatus()
+                            + ", indexing the full document: " + cmd);
+                }
+                processIndexCommand(cmd);
+            } else {
+                logBulkFailure(response);
+            }
+        }
+    }
+
     void logDebugMessageTruncated(String msg, int maxSize) {
         if (log.isTraceEnabled() || msg.length() < maxSize) {
             // in trace mode we output the full message
@@ -422,6 +544,60 @@ public class ElasticSearchIndexingImpl implements ElasticSearchIndexing {
         }
     }
 
+    /**
+     * Return the partial update request or null if the doc does not exists anymore, or if a more recent version of
+     * the doc is already indexed.
+     * <p>
+     * The update API doesn't support external versioning, so with external versioning the version of the indexed doc
+     * is read first: the update is skipped if it is not older than the command, otherwise the update is conditioned
+     * on this version and fails with a conflict if the doc is indexed again meanwhile.
+     *
+     * @throws java.lang.IllegalStateException if the command is not attached to a session
+     * @since 11.1
+     */
+    UpdateRequest buildEsUpdateRequest(IndexingCommand cmd, Set<String> dirtyProperties) {
+        DocumentModel doc = cmd.getTargetDocument();
+        if (doc == null) {
+            return null;
+        }
+        Set<String> properties = new HashSet<>(dirtyProperties);
+        boolean fulltext = properties.remove(BINARYTEXT_FIELD);
+        String indexName = getWriteIndexForRepository(cmd.getRepositoryName());
+        UpdateRequest request;
+        try {
+            request = new UpdateRequest(indexName, DOC_TYPE, cmd.getTargetDocumentId()).doc(
+                    BytesReference.toBytes(updateSource(doc, properties, fulltext)), XContentType.JSON);
+        } catch (IOException e) {
+            throw new NuxeoException("Unable to create update request for Document " + cmd.getTargetDocumentId(), e);
+        }
+        if (useExternalVersion && cmd.getOrder() > 0) {
+            long version = getIndexedVersion(indexName, cmd.getTargetDocumentId());
+            if (version >= cmd.getOrder()) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Ignore partial update of doc " + cmd.getTargetDocumentId()
+                            + " a more recent version has already been indexed: " + version);
+                }
+                return null;
+            }
+            if (version >= 0) {
+                request.version(version);
+            }
+        }
+        return request;
+    }
+
+    /**
+     * Gets the version of a doc in the index, or -1 if the doc is not in the index.
+     *
+     * @since 11.1
+     */
+    long getIndexedVersion(String indexName, String docId) {
+        GetRequest request = new GetRequest(indexName, DOC_TYPE, docId).fetchSourceContext(
+                FetchSourceContext.DO_NOT_FETCH_SOURCE);
+        GetResponse ret = esa.getClient().get(request);
+        return ret.isExists() ? ret.getVersion() : -1;
+    }
+
     protected String getWriteIndexForRepository(String repository) {
         return esa.getWriteIndexName(esa.getIndexNameForRepository(repository));
     }
@@ -434,4 +610,27 @@ public class ElasticSearchIndexingImpl implements ElasticSearchIndexing {
             return out.bytes();
         }
     }
+
+    @Override
+    public BytesReference aclSource(DocumentModel doc) throws IOException {
+        BytesStreamOutput out = new BytesStreamOutput();
+        try (JsonGenerator jsonGen = JSON_FACTORY.createGenerator(out)) {
+            jsonESDocumentWriter.writeESDocumentAcl(jsonGen, doc);
+            return out.bytes();
+        }
+    }
+
+    /**
+     * Returns the partial source updating the given properties of an indexed document.
+     *
+     * @since 11.1
+     */
+    protected BytesReference updateSource(DocumentModel doc, Set<String> properties, boolean fulltext)
+            throws IOException {
+        BytesStreamOutput out = new BytesStreamOutput();
+        try (JsonGenerator jsonGen = JSON_FACTORY.createGenerator(out)) {
+            jsonESDocumentWriter.writeESDocumentUpdate(jsonGen, doc, properties, fulltext);
+            return out.bytes();
+        }
+    }
 }
@@ -62,6 +62,14 @@ public class JsonESDocumentWriter {
      * @since 7.2
      */
     protected void writeSystemProperties(JsonGenerator jg, DocumentModel doc) throws IOException {
+        writeSystemProperties(jg, doc, true);
+    }
+
+    /**
+     * @param fulltext whether to write the binary fulltext
+     * @since 11.1
+     */
+    protected void writeSystemProperties(JsonGenerator jg, DocumentModel doc, boolean fulltext) throws IOException {
         String docId = doc.getId();
         CoreSession session = doc.getCoreSession();
         jg.writeStringField("ecm:repository", doc.getRepositoryName());
@@ -115,7 +123,18 @@ public class JsonESDocumentWriter {
         if (pos != null) {
             jg.writeNumberField("ecm:pos", pos.longValue());
         }
-        // Add a positive ACL only
+        writeAcl(jg, doc);
+        if (fulltext) {
+            writeBinaryFulltext(jg, doc);
+        }
+    }
+
+    /**
+     * Writes a positive ACL only.
+     *
+     * @since 11.1
+     */
+    protected void writeAcl(JsonGenerator jg, DocumentModel doc) throws IOException {
         SecurityService securityService = Framework.getService(SecurityService.class);
         List<String> browsePermissions = new ArrayList<>(Arrays.asList(securityService.getPermissionsToCheck(BROWSE)));
         ACP acp = doc.getACP();
@@ -138,6 +157,12 @@ public class JsonESDocumentWriter {
         }
 
         jg.writeEndArray();
+    }
+
+    /**
+     * @since 11.1
+     */
+    protected void writeBinaryFulltext(JsonGenerator jg, DocumentModel doc) throws IOException {
         Map<String, String> bmap = doc.getBinaryFulltext();
         if (bmap != null && !bmap.isEmpty()) {
             for (Map.Entry<String, String> item : bmap.entrySet()) {
@@ -183,18 +208,61 @@ public class JsonESDocumentWriter {
         jg.flush();
     }
 
-    protected static void writeProperties(JsonGenerator jg, DocumentModel doc, String schema, ServletRequest request)
-            throws IOException {
-        Collection<Property> properties = doc.getPropertyObjects(schema);
-        if (properties.isEmpty()) {
-            return;
+    /**
+     * Writes a partial document to update an already indexed document: the system properties and the given properties
+     * only. Null and empty values are written so that they replace the indexed ones.
+     *
+     * @param properties the top-level properties to write, as {@code schema:name}
+     * @param fulltext whether to write the binary fulltext
+     * @since 11.1
+     */
+    public void writeESDocumentUpdate(JsonGenerator jg, DocumentModel doc, Collection<String> properties,
+            boolean fulltext) throws IOException {
+        jg.writeStartObject();
+        writeSystemProperties(jg, doc, fulltext);
+        for (String property : properties) {
+            int i = property.indexOf(':');
+            String schema = property.substring(0, i);
+            Property p = doc.getPropertyObject(schema, property.substring(i + 1));
+            if (p != null) {
+                String prefix = getPrefix(schema);
+                JSONPropertyWriter.create().writeNull(true).writeEmpty(true).prefix(prefix).writeProperty(jg, p);
+            }
         }
+        jg.writeEndObject();
+        jg.flush();
+    }
+
+    /**
+     * Writes a partial document holding only the ACL, to update an already indexed document after a permission change
+     * on one of its ancestors.
+     *
+     * @since 11.1
+     */
+    public void writeESDocumentAcl(JsonGenerator jg, DocumentModel doc) throws IOException {
+        jg.writeStartObject();
+        writeAcl(jg, doc);
+        jg.writeEndObject();
+        jg.flush();
+    }
 
+    protected static String getPrefix(String schema) {
         SchemaManager schemaManager = Framework.getService(SchemaManager.class);
         String prefix = schemaManager.getSchema(schema).getNamespace().prefix;
         if (prefix == null || prefix.length() == 0) {
             prefix = schema;
         }
+        return prefix;
+    }
+
+    protected static void writeProperties(JsonGenerator jg, DocumentModel doc, String schema, ServletRequest request)
+            throws IOException {
+        Collection<Property> properties = doc.getPropertyObjects(schema);
+        if (properties.isEmpty()) {
+            return;
+        }
+
+        String prefix = getPrefix(schema);
         JSONPropertyWriter writer = JSONPropertyWriter.create().writeNull(false).writeEmpty(false).prefix(prefix);
 
         if (request != null) {
@@ -21,6 +21,7 @@ package org.nuxeo.elasticsearch.provider;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Calendar;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,6 +29,7 @@ import java.util.Map;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.aggregations.Aggregation;
 import org.nuxeo.ecm.core.api.CoreSession;
 import org.nuxeo.ecm.core.api.DocumentModel;
@@ -37,6 +39,7 @@ import org.nuxeo.ecm.core.query.QueryParseException;
 import org.nuxeo.ecm.platform.query.api.Aggregate;
 import org.nuxeo.ecm.platform.query.api.AggregateDefinition;
 import org.nuxeo.ecm.platform.query.api.Bucket;
+import org.nuxeo.ecm.platform.query.api.PageProviderCursor;
 import org.nuxeo.ecm.platform.query.nxql.CoreQueryDocumentPageProvider;
 import org.nuxeo.elasticsearch.aggregate.AggregateEsBase;
 import org.nuxeo.elasticsearch.aggregate.AggregateFactory;
@@ -96,10 +99,16 @@ public class ElasticSearchNxqlPageProvider extends CoreQueryDocumentPageProvider
         // Build and execute the ES query
         ElasticSearchService ess = Framework.getService(ElasticSearchService.class);
         try {
+            PageProviderCursor cursor = getKeysetCursor();
             NxQueryBuilder nxQuery = new NxQueryBuilder(getCoreSession()).nxql(query)
-                                                                         .offset((int) getCurrentPageOffset())
+                                                                         .offset(cursor == null
+                                                                                 ? (int) getCurrentPageOffset()
+                                                                                 : 0)
                                                                          .limit(getLimit())
                                                                          .addAggregates(buildAggregates());
+            if (cursor != null) {
+                nxQuery.searchAfter(getSearchAfter(cursor));
+            }
             if (searchOnAllRepositories()) {
                 nxQuery.searchOnAllRepositories();
             }
@@ -116,8 +125,16 @@ public class ElasticSearchNxqlPageProvider extends CoreQueryDocumentPageProvider
             for (Aggregate<Bucket> agg : ret.getAggregates()) {
                 currentAggregates.put(agg.getId(), agg);
             }
-            setResultsCount(dmList.totalSize());
+            if (cursor == null) {
+                setResultsCount(dmList.totalSize());
+            } else if (getResultsCount() < 0) {
+                // with keyset pagination, the hits are only counted for the first page
+                setResultsCount(UNKNOWN_SIZE_AFTER_QUERY);
+            }
             currentPageDocuments = dmList;
+            if (keysetSortInfos != null && dmList.size() >= getLimit()) {
+                setNextPageCursor(getCursor(ret));
+            }
         } catch (QueryParseException e) {
             error = e;
             errorMessage = e.getMessage();
@@ -130,6 +147,50 @@ public class ElasticSearchNxqlPageProvider extends CoreQueryDocumentPageProvider
         return currentPageDocuments;
     }
 
+    /**
+     * Any column can be used: search_after resumes from the hit sort values, where Elasticsearch already encodes the
+     * missing values in their sort position.
+     *
+     * @since 11.1
+     */
+    @Override
+    protected boolean isKeysetSortColumn(String column) {
+        return true;
+    }
+
+    /**
+     * Gets the Elasticsearch sort values after which the current page starts.
+     *
+     * @since 11.1
+     */
+    protected Object[] getSearchAfter(PageProviderCursor cursor) {
+        return cursor.getValues()
+                     .stream()
+                     .map(value -> value instanceof Calendar ? ((Calendar) value).getTimeInMillis() : value)
+                     .toArray();
+    }
+
+    /**
+     * Gets the keyset pagination cursor holding the sort values of the last hit.
+     *
+     * @since 11.1
+     */
+    protected String getCursor(EsResult result) {
+        SearchHit[] hits = result.getElasticsearchResponse().getHits().getHits();
+        if (hits.length == 0) {
+            return null;
+        }
+        List<Serializable> values = new ArrayList<>();
+        for (Object value : hits[hits.length - 1].getSortValues()) {
+            if (!(value instanceof Serializable)) {
+                return null;
+            }
+            values.add((Serializable) value);
+        }
+        PageProviderCursor cursor = PageProviderCursor.of(values);
+        return cursor == null ? null : cursor.encode();
+    }
+
     protected int getLimit() {
         int ret = (int) getMinMaxPageSize();
         if (ret == 0) {
@@ -237,7 +298,8 @@ public class ElasticSearchNxqlPageProvider extends CoreQueryDocumentPageProvider
 
     @Override
     public boolean isNextPageAvailable() {
-        if ((getCurrentPageOffset() + 2 * getPageSize()) <= getMaxResultWindow()) {
+        // the next page fetched with keyset pagination is not limited by the max result window
+        if ((getCurrentPageOffset() + 2 * getPageSize()) <= getMaxResultWindow() || getNextPageCursor() != null) {
             return super.isNextPageAvailable();
         }
         return false;
@@ -103,6 +103,11 @@ public class NxQueryBuilder {
 
     protected boolean useUnrestrictedSession;
 
+    /**
+     * @since 11.1
+     */
+    protected Object[] searchAfter;
+
     public NxQueryBuilder(CoreSession coreSession) {
         session = coreSession;
         repositories.add(coreSession.getRepositoryName());
@@ -137,6 +142,17 @@ public class NxQueryBuilder {
         return this;
     }
 
+    /**
+     * Returns the documents sorting after the given sort values, as returned by the last hit of a previous search,
+     * instead of skipping an offset. The total number of hits is then not computed.
+     *
+     * @since 11.1
+     */
+    public NxQueryBuilder searchAfter(Object[] sortValues) {
+        searchAfter = sortValues;
+        return this;
+    }
+
     public NxQueryBuilder addSort(SortInfo sortInfo) {
         sortInfos.add(sortInfo);
         return this;
@@ -375,6 +391,10 @@ public class NxQueryBuilder {
     public void updateRequest(SearchSourceBuilder request) {
         // Set limits
         request.from(getOffset()).size(getLimit());
+        if (searchAfter != null) {
+            request.searchAfter(searchAfter);
+            request.trackTotalHits(false);
+        }
         // Build query with security checks
         request.query(makeQuery());
         // Add sort
@@ -81,6 +81,15 @@ import org.nuxeo.ecm.core.storage.sql.jdbc.NXQLQueryMaker;
 import org.nuxeo.elasticsearch.api.ElasticSearchAdmin;
 import org.nuxeo.elasticsearch.hint.MoreLikeThisESHintQueryBuilder;
 import org.nuxeo.runtime.api.Framework;
+import org.nuxeo.runtime.metrics.MetricsService;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SharedMetricRegistries;
+import com.codahale.metrics.Timer;
+import com.codahale.metrics.Timer.Context;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 /**
  * Helper class that holds the conversion logic. Conversion is based on the existing NXQL Parser, we are just using a
@@ -112,14 +121,57 @@ public final class NxqlQueryConverter {
     @Deprecated
     protected static final int MORE_LIKE_THIS_MAX_QUERY_TERMS = MoreLikeThisESHintQueryBuilder.MORE_LIKE_THIS_MAX_QUERY_TERMS;
 
+    /**
+     * Maximum number of parsed queries kept in cache.
+     *
+     * @since 11.1
+     */
+    protected static final int PARSED_QUERIES_CACHE_SIZE = 1000;
+
+    /**
+     * Parsed queries by complete NXQL, the parsed queries are only read by the conversion.
+     *
+     * @since 11.1
+     */
+    protected static final Cache<String, SQLQuery> PARSED_QUERIES = CacheBuilder.newBuilder()
+                                                                                .maximumSize(PARSED_QUERIES_CACHE_SIZE)
+                                                                                .build();
+
+    protected static final MetricRegistry registry = SharedMetricRegistries.getOrCreate(
+            MetricsService.class.getName());
+
+    protected static final Timer convertTimer = registry.timer(
+            MetricRegistry.name("nuxeo", "elasticsearch", "query", "convert"));
+
+    protected static final Counter parseCacheHits = registry.counter(
+            MetricRegistry.name("nuxeo", "elasticsearch", "query", "parseCache", "hits"));
+
+    protected static final Counter parseCacheMisses = registry.counter(
+            MetricRegistry.name("nuxeo", "elasticsearch", "query", "parseCache", "misses"));
+
     private NxqlQueryConverter() {
     }
 
+    /**
+     * Clears the cache of parsed queries, to be called when the contributions used by the conversion change.
+     *
+     * @since 11.1
+     */
+    public static void clearCache() {
+        PARSED_QUERIES.invalidateAll();
+    }
+
     public static QueryBuilder toESQueryBuilder(final String nxql) {
         return toESQueryBuilder(nxql, null);
     }
 
     public static QueryBuilder toESQueryBuilder(final String nxql, final CoreSession session) {
+        try (Context stopWatch = convertTimer.time()) {
+            return convert(nxql, session);
+        }
+    }
+
+    protected static QueryBuilder convert(final String nxql, final CoreSession session) {
         final LinkedList<ExpressionBuilder> builders = new LinkedList<>();
         SQLQuery nxqlQuery = getSqlQuery(nxql);
         if (session != null) {
@@ -226,13 +278,19 @@ public final class NxqlQueryConverter {
 
     protected static SQLQuery getSqlQuery(String nxql) {
         String query = completeQueryWithSelect(nxql);
-        SQLQuery nxqlQuery;
+        SQLQuery nxqlQuery = PARSED_QUERIES.getIfPresent(query);
+        if (nxqlQuery != null) {
+            parseCacheHits.inc();
+            return nxqlQuery;
+        }
+        parseCacheMisses.inc();
         try {
             nxqlQuery = SQLQueryParser.parse(new StringReader(query));
         } catch (QueryParseException e) {
             e.addInfo("Query: " + query);
             throw e;
         }
+        PARSED_QUERIES.put(query, nxqlQuery);
         return nxqlQuery;
     }
 
@@ -66,6 +66,11 @@ public class BucketIndexingWorker extends BaseIndexingWorker implements Work {
         return " ElasticSearch bucket indexer size " + documentCount;
     }
 
+    @Override
+    public Work.Priority getPriority() {
+        return Work.Priority.BULK;
+    }
+
     @Override
     protected void doWork() {
         ElasticSearchIndexing esi = Framework.getService(ElasticSearchIndexing.class);
@@ -28,6 +28,7 @@ import org.nuxeo.ecm.core.work.api.Work;
 import org.nuxeo.ecm.core.work.api.WorkManager;
 import org.nuxeo.elasticsearch.Timestamp;
 import org.nuxeo.elasticsearch.api.ElasticSearchIndexing;
+import org.nuxeo.elasticsearch.bulk.SubtreeIndexingCoalescer;
 import org.nuxeo.elasticsearch.commands.IndexingCommand;
 import org.nuxeo.elasticsearch.commands.IndexingCommand.Type;
 import org.nuxeo.runtime.api.Framework;
@@ -73,12 +74,30 @@ public class IndexingWorker extends AbstractIndexingWorker implements Work {
         esi.indexNonRecursive(cmds);
         WorkManager wm = Framework.getService(WorkManager.class);
         for (IndexingCommand cmd : cmds) {
-            if (needRecurse(cmd)) {
+            if (needRecurse(cmd) && !coalesce(cmd)) {
                 wm.schedule(getWorker(cmd));
             }
         }
     }
 
+    /**
+     * Hands the reindexing of the subtree of an updated document to the coalescer when enabled.
+     *
+     * @return {@code true} if the coalescer takes care of the subtree
+     * @since 11.1
+     */
+    protected boolean coalesce(IndexingCommand cmd) {
+        Type type = cmd.getType();
+        if ((type != Type.UPDATE && type != Type.UPDATE_SECURITY) || cmd.getPath() == null
+                || !SubtreeIndexingCoalescer.isEnabled()) {
+            return false;
+        }
+        SubtreeIndexingCoalescer.getInstance()
+                                .add(cmd.getRepositoryName(), cmd.getTargetDocumentId(), cmd.getPath(),
+                                        type == Type.UPDATE_SECURITY);
+        return true;
+    }
+
     private Work getWorker(IndexingCommand cmd) {
         Work ret;
         if (cmd.getType() == Type.UPDATE_DIRECT_CHILDREN) {
@@ -69,6 +69,11 @@ public class ScrollingIndexingWorker extends BaseIndexingWorker implements Work
         return "Elasticsearch scrolling indexer: " + nxql + ", processed " + documentCount;
     }
 
+    @Override
+    public Work.Priority getPriority() {
+        return Work.Priority.BULK;
+    }
+
     @Override
     protected void doWork() {
         String jobName = getSchedulePath().getPath();
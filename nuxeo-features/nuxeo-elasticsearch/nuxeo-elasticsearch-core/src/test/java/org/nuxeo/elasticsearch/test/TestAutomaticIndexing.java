@@ -20,15 +20,21 @@
 package org.nuxeo.elasticsearch.test;
 
 import static org.junit.Assume.assumeTrue;
+import static org.nuxeo.elasticsearch.ElasticSearchConstants.BINARYTEXT_FIELD;
+import static org.nuxeo.elasticsearch.ElasticSearchConstants.DOC_TYPE;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.Collections;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 
+import org.elasticsearch.action.get.GetRequest;
+import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.search.SearchType;
@@ -71,11 +77,13 @@ import org.nuxeo.ecm.core.test.CoreFeature;
 import org.nuxeo.ecm.core.work.api.WorkManager;
 import org.nuxeo.ecm.platform.tag.FacetedTagService;
 import org.nuxeo.ecm.platform.tag.TagService;
+import org.nuxeo.elasticsearch.ElasticSearchConstants;
 import org.nuxeo.elasticsearch.api.ElasticSearchAdmin;
 import org.nuxeo.elasticsearch.api.ElasticSearchIndexing;
 import org.nuxeo.elasticsearch.api.ElasticSearchService;
 import org.nuxeo.elasticsearch.listener.ElasticSearchInlineListener;
 import org.nuxeo.elasticsearch.query.NxQueryBuilder;
+import org.nuxeo.runtime.api.Framework;
 import org.nuxeo.runtime.test.runner.ConsoleLogLevelThreshold;
 import org.nuxeo.runtime.test.runner.Deploy;
 import org.nuxeo.runtime.test.runner.Features;
@@ -403,6 +411,53 @@ public class TestAutomaticIndexing {
         Assert.assertEquals(1, ret.totalSize());
     }
 
+    @Test
+    public void shouldIndexPartialUpdate() throws Exception {
+        // same as production: the partial update must handle the external version of the indexed document
+        Assert.assertTrue(esa.useExternalVersion());
+        Framework.getProperties().put(ElasticSearchConstants.INDEX_PARTIAL_UPDATE_PROPERTY, "true");
+        try {
+            startTransaction();
+            activateSynchronousMode();
+            DocumentModel doc = session.createDocumentModel("/", "myFile", "File");
+            doc.setPropertyValue("dc:title", "TestMe");
+            doc.setPropertyValue("dc:nature", "A");
+            doc.setPropertyValue("dc:description", "foo");
+            doc.getAdapter(BlobHolder.class).setBlob(new StringBlob("You know for search"));
+            doc = session.createDocument(doc);
+            TransactionHelper.commitOrRollbackTransaction();
+            waitForCompletion();
+
+            // change the indexed title and fulltext behind Nuxeo's back: a full index request would restore them
+            GetResponse indexed = esa.getClient().get(new GetRequest(IDX_NAME, DOC_TYPE, doc.getId()));
+            Map<String, Object> source = indexed.getSourceAsMap();
+            source.put("dc:title", "Untouched");
+            source.put(BINARYTEXT_FIELD, "untouched");
+            esa.getClient()
+               .index(new IndexRequest(esa.getWriteIndexName(IDX_NAME), DOC_TYPE, doc.getId()).source(source));
+            esa.refresh();
+
+            startTransaction();
+            doc = session.getDocument(doc.getRef());
+            doc.setPropertyValue("dc:nature", "B");
+            doc.setPropertyValue("dc:description", null);
+            session.saveDocument(doc);
+            TransactionHelper.commitOrRollbackTransaction();
+            waitForCompletion();
+
+            startTransaction();
+            Assert.assertEquals(1, search(QueryBuilders.matchQuery("dc:nature", "B")).getHits().getTotalHits());
+            Assert.assertEquals(0, search(QueryBuilders.matchQuery("dc:description", "foo")).getHits().getTotalHits());
+            // only the modified properties were sent, with a partial update request
+            Assert.assertEquals(1, search(QueryBuilders.matchQuery("dc:title", "Untouched")).getHits().getTotalHits());
+            Assert.assertEquals(0, search(QueryBuilders.matchQuery("dc:title", "TestMe")).getHits().getTotalHits());
+            QueryBuilder binaryText = QueryBuilders.matchQuery(BINARYTEXT_FIELD, "untouched");
+            Assert.assertEquals(1, search(binaryText).getHits().getTotalHits());
+        } finally {
+            Framework.getProperties().remove(ElasticSearchConstants.INDEX_PARTIAL_UPDATE_PROPERTY);
+        }
+    }
+
     protected String createBigString(int length, char c) {
         return new String(new char[length]).replace('\0', c);
     }
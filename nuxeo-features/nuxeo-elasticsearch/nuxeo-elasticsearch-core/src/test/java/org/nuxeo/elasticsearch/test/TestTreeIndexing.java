@@ -19,6 +19,9 @@
 package org.nuxeo.elasticsearch.test;
 
 import static org.junit.Assume.assumeTrue;
+import static org.nuxeo.ecm.core.api.security.SecurityConstants.SYSTEM_USERNAME;
+import static org.nuxeo.elasticsearch.ElasticSearchConstants.ACL_FIELD;
+import static org.nuxeo.elasticsearch.ElasticSearchConstants.DOC_TYPE;
 
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
@@ -29,6 +32,8 @@ import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.get.GetRequest;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.search.SearchType;
@@ -54,9 +59,13 @@ import org.nuxeo.ecm.core.api.security.SecurityConstants;
 import org.nuxeo.ecm.core.api.security.impl.ACPImpl;
 import org.nuxeo.ecm.core.api.trash.TrashService;
 import org.nuxeo.ecm.core.bulk.BulkService;
+import org.nuxeo.ecm.core.bulk.message.BulkStatus;
 import org.nuxeo.ecm.core.work.api.WorkManager;
+import org.nuxeo.elasticsearch.ElasticSearchConstants;
 import org.nuxeo.elasticsearch.api.ElasticSearchAdmin;
 import org.nuxeo.elasticsearch.api.ElasticSearchService;
+import org.nuxeo.elasticsearch.bulk.IndexAction;
+import org.nuxeo.elasticsearch.bulk.SubtreeIndexingCoalescer;
 import org.nuxeo.elasticsearch.listener.ElasticSearchInlineListener;
 import org.nuxeo.elasticsearch.query.NxQueryBuilder;
 import org.nuxeo.runtime.api.Framework;
@@ -296,6 +305,59 @@ public class TestTreeIndexing {
         }
     }
 
+    @Test
+    public void shouldCoalesceSubTreeSecurityReindexing() throws Exception {
+        Framework.getProperties().put(ElasticSearchConstants.REINDEX_CASCADE_WINDOW_PROPERTY, "PT2S");
+        try {
+            buildAndIndexTree();
+
+            // a descendant missing from the index, its ACL update must not recreate a partial document
+            DocumentModel missing = session.getDocument(
+                    new PathRef("/folder0/folder1/folder2/folder3/folder4/folder5/folder6/folder7/folder8/folder9"));
+            esa.getClient().delete(new DeleteRequest(esa.getWriteIndexName(IDX_NAME), DOC_TYPE, missing.getId()));
+
+            DocumentRef ref = new PathRef("/folder0/folder1/folder2");
+            ACP acp = new ACPImpl();
+            ACL acl = ACPImpl.newACL(ACL.LOCAL_ACL);
+            acl.add(new ACE("toto", SecurityConstants.READ, true));
+            acp.addACL(acl);
+            session.setACP(ref, acp, true);
+
+            // a descendant subtree covered by the previous one
+            ref = new PathRef("/folder0/folder1/folder2/folder3/folder4");
+            acp = new ACPImpl();
+            acl = ACPImpl.newACL(ACL.LOCAL_ACL);
+            acl.add(new ACE("tata", SecurityConstants.READ, true));
+            acp.addACL(acl);
+            session.setACP(ref, acp, true);
+
+            TransactionHelper.commitOrRollbackTransaction();
+            workManager.awaitCompletion(20, TimeUnit.SECONDS);
+            Assert.assertEquals(1, SubtreeIndexingCoalescer.getInstance().getPendingCount());
+            Assert.assertTrue(esa.isIndexingInProgress());
+
+            waitForCompletion();
+            Assert.assertFalse(esa.isIndexingInProgress());
+
+            startTransaction();
+            SearchResponse searchResponse = search(QueryBuilders.termQuery(ACL_FIELD, "toto"));
+            Assert.assertEquals(7, searchResponse.getHits().getTotalHits());
+            searchResponse = search(QueryBuilders.termQuery(ACL_FIELD, "tata"));
+            Assert.assertEquals(5, searchResponse.getHits().getTotalHits());
+            Assert.assertFalse(esa.getClient()
+                                  .get(new GetRequest(esa.getWriteIndexName(IDX_NAME), DOC_TYPE, missing.getId()))
+                                  .isExists());
+            for (BulkStatus status : bulk.getStatuses(SYSTEM_USERNAME)) {
+                if (IndexAction.ACTION_NAME.equals(status.getAction())) {
+                    Assert.assertFalse(status.getErrorMessage(), status.hasError());
+                }
+            }
+        } finally {
+            Framework.getProperties().remove(ElasticSearchConstants.REINDEX_CASCADE_WINDOW_PROPERTY);
+            SubtreeIndexingCoalescer.shutdown();
+        }
+    }
+
     @Test
     public void shouldDenyAccessOnUnsupportedACL() throws Exception {
         assumeTrue(session.isNegativeAclAllowed());
@@ -0,0 +1,144 @@
+/*
+ * (C) Copyright 2019 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nuxeo.elasticsearch.test.bulk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.nuxeo.elasticsearch.bulk.SubtreeIndexingCoalescer;
+import org.nuxeo.runtime.kv.KeyValueStore;
+import org.nuxeo.runtime.kv.KeyValueStoreProvider;
+import org.nuxeo.runtime.kv.MemKeyValueStore;
+
+/**
+ * @since 11.1
+ */
+public class TestSubtreeIndexingCoalescer {
+
+    /**
+     * Records the submitted subtrees instead of submitting bulk commands.
+     */
+    protected static class RecordingCoalescer extends SubtreeIndexingCoalescer {
+
+        protected final List<String> submitted = new ArrayList<>();
+
+        protected final KeyValueStore store;
+
+        public RecordingCoalescer() {
+            this(new MemKeyValueStore());
+        }
+
+        public RecordingCoalescer(KeyValueStore store) {
+            super(60_000);
+            this.store = store;
+        }
+
+        @Override
+        protected KeyValueStore getKeyValueStore() {
+            return store;
+        }
+
+        @Override
+        protected synchronized void submit(Subtree subtree) {
+            submitted.add(subtree.getRootPath() + (subtree.isAclOnly() ? ":acl" : ""));
+        }
+    }
+
+    @Test
+    public void testCoveredByAncestor() {
+        RecordingCoalescer coalescer = new RecordingCoalescer();
+        assertTrue(coalescer.add("test", "id1", "/a", false));
+        assertFalse(coalescer.add("test", "id2", "/a/b", false));
+        assertFalse(coalescer.add("test", "id2", "/a/b", true));
+        // not a descendant
+        assertTrue(coalescer.add("test", "id3", "/ab", true));
+        // other repository
+        assertTrue(coalescer.add("other", "id2", "/a/b", true));
+        assertEquals(3, coalescer.getPendingCount());
+
+        coalescer.flush();
+        assertEquals(0, coalescer.getPendingCount());
+        assertEquals(Arrays.asList("/a", "/a/b:acl", "/ab:acl"),
+                coalescer.submitted.stream().sorted().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testAclOnlyDoesNotCoverFull() {
+        RecordingCoalescer coalescer = new RecordingCoalescer();
+        assertTrue(coalescer.add("test", "id1", "/a", true));
+        assertFalse(coalescer.add("test", "id2", "/a/b", true));
+        assertTrue(coalescer.add("test", "id2", "/a/b", false));
+        assertEquals(2, coalescer.getPendingCount());
+        // same document, full reindexing replaces the acl only one
+        assertFalse(coalescer.add("test", "id1", "/a", true));
+        assertTrue(coalescer.add("test", "id1", "/a", false));
+        assertEquals(1, coalescer.getPendingCount());
+    }
+
+    @Test
+    public void testAncestorRemovesDescendants() {
+        RecordingCoalescer coalescer = new RecordingCoalescer();
+        assertTrue(coalescer.add("test", "id2", "/a/b", false));
+        assertTrue(coalescer.add("test", "id3", "/a/c/d", true));
+        assertTrue(coalescer.add("test", "id4", "/a-b", false));
+        assertEquals(3, coalescer.getPendingCount());
+        // acl only ancestor only removes the acl only descendants
+        assertTrue(coalescer.add("test", "id1", "/a", true));
+        assertEquals(3, coalescer.getPendingCount());
+        assertTrue(coalescer.add("test", "id1", "/a", false));
+        assertEquals(2, coalescer.getPendingCount());
+
+        coalescer.flush();
+        assertEquals(Arrays.asList("/a", "/a-b"),
+                coalescer.submitted.stream().sorted().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testPathTakenByAnotherDocument() {
+        RecordingCoalescer coalescer = new RecordingCoalescer();
+        assertTrue(coalescer.add("test", "id1", "/a", false));
+        // id1 moved away and id2 moved to its previous path
+        assertTrue(coalescer.add("test", "id2", "/a", false));
+        assertEquals(Arrays.asList("/a"), coalescer.submitted);
+        assertEquals(1, coalescer.getPendingCount());
+        assertEquals("id2:false", coalescer.store.getString("test:/a"));
+    }
+
+    @Test
+    public void testRecoverPendingSubtrees() {
+        RecordingCoalescer coalescer = new RecordingCoalescer();
+        assertTrue(coalescer.add("test", "id1", "/a", true));
+        assertTrue(coalescer.add("test", "id2", "/a/b", false));
+        assertTrue(coalescer.add("other", "id3", "/c", false));
+
+        // the first coalescer dies without submitting its pending subtrees
+        RecordingCoalescer recovering = new RecordingCoalescer(coalescer.store);
+        recovering.recover();
+        assertEquals(3, recovering.getPendingCount());
+        recovering.flush();
+        assertEquals(Arrays.asList("/a/b", "/a:acl", "/c"),
+                recovering.submitted.stream().sorted().collect(Collectors.toList()));
+        assertEquals(0, ((KeyValueStoreProvider) recovering.store).keyStream().count());
+    }
+
+}
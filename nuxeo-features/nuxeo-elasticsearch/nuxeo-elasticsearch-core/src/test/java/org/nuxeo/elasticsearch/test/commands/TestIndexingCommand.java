@@ -18,6 +18,9 @@
  */
 package org.nuxeo.elasticsearch.test.commands;
 
+import java.util.Arrays;
+import java.util.Collections;
+
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
@@ -103,6 +106,28 @@ public class TestIndexingCommand {
         Assert.assertTrue(cmd2.isRecurse());
     }
 
+    @Test
+    public void testDirtyProperties() throws Exception {
+        DocumentModel doc = new MockDocumentModel("foo");
+        IndexingCommand cmd = new IndexingCommand(doc, Type.UPDATE, false, false);
+        Assert.assertFalse(cmd.isPartialUpdate());
+        cmd.setDirtyProperties(Collections.singleton("dublincore:title"));
+        Assert.assertTrue(cmd.isPartialUpdate());
+        IndexingCommand cmd2 = IndexingCommand.fromJSON(cmd.toJSON());
+        Assert.assertEquals(cmd.getDirtyProperties(), cmd2.getDirtyProperties());
+
+        // partial updates are merged
+        IndexingCommand other = new IndexingCommand(doc, Type.UPDATE, false, false);
+        other.setDirtyProperties(Arrays.asList("dublincore:nature", "ecm:binarytext"));
+        Assert.assertTrue(cmd.merge(other));
+        Assert.assertEquals(3, cmd.getDirtyProperties().size());
+
+        // a full update wins
+        Assert.assertTrue(cmd.merge(new IndexingCommand(doc, Type.UPDATE, false, false)));
+        Assert.assertFalse(cmd.isPartialUpdate());
+        Assert.assertNull(cmd.getDirtyProperties());
+    }
+
     @Test
     public void testInvalidJson() throws Exception {
         DocumentModel doc = new MockDocumentModel("foo");
@@ -47,11 +47,16 @@ import org.nuxeo.elasticsearch.query.NxQueryBuilder;
 import org.nuxeo.elasticsearch.query.NxqlQueryConverter;
 import org.nuxeo.elasticsearch.test.RepositoryElasticSearchFeature;
 import org.nuxeo.runtime.api.Framework;
+import org.nuxeo.runtime.metrics.MetricsService;
 import org.nuxeo.runtime.test.runner.Deploy;
 import org.nuxeo.runtime.test.runner.Features;
 import org.nuxeo.runtime.test.runner.FeaturesRunner;
 import org.nuxeo.runtime.transaction.TransactionHelper;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SharedMetricRegistries;
+
 /**
  * Test that NXQL can be used to generate ES queries
  *
@@ -229,6 +234,25 @@ public class TestNxqlConversion {
                 "}", es);
     }
 
+    @Test
+    public void testConverterParseCache() {
+        Counter hits = SharedMetricRegistries.getOrCreate(MetricsService.class.getName())
+                                             .counter(MetricRegistry.name("nuxeo", "elasticsearch", "query",
+                                                     "parseCache", "hits"));
+        String nxql = "select * from Document where dc:title = 'parse cache' order by dc:created";
+        String es = NxqlQueryConverter.toESQueryBuilder(nxql).toString();
+        long count = hits.getCount();
+        assertEquals(es, NxqlQueryConverter.toESQueryBuilder(nxql).toString());
+        assertEquals(1, NxqlQueryConverter.getSortInfo(nxql).size());
+        assertEquals(count + 2, hits.getCount());
+        // different literal, different query
+        String other = NxqlQueryConverter.toESQueryBuilder(nxql.replace("parse cache", "other")).toString();
+        Assert.assertNotEquals(es, other);
+        NxqlQueryConverter.clearCache();
+        assertEquals(es, NxqlQueryConverter.toESQueryBuilder(nxql).toString());
+        assertEquals(count + 2, hits.getCount());
+    }
+
     @Test
     public void testConverterEQUALS() {
         String es = NxqlQueryConverter.toESQueryBuilder("select * from Document where f1=1").toString();
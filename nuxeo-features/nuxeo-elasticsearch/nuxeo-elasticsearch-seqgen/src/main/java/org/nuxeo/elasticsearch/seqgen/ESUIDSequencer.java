@@ -30,6 +30,7 @@ import org.elasticsearch.index.VersionType;
 import org.nuxeo.ecm.core.api.ConcurrentUpdateException;
 import org.nuxeo.ecm.core.api.NuxeoException;
 import org.nuxeo.ecm.core.uidgen.AbstractUIDSequencer;
+import org.nuxeo.ecm.core.uidgen.LongRange;
 import org.nuxeo.ecm.core.uidgen.UIDSequencer;
 import org.nuxeo.elasticsearch.ElasticSearchConstants;
 import org.nuxeo.elasticsearch.api.ESClient;
@@ -115,6 +116,12 @@ public class ESUIDSequencer extends AbstractUIDSequencer {
         return ret;
     }
 
+    @Override
+    public LongRange getNextRange(String key, int size) {
+        long first = size == 1 ? getNextLong(key) : getNextBlockWithRetry(key, size);
+        return new LongRange(first, first + size - 1);
+    }
+
     protected long getNextBlockWithRetry(String key, int blockSize) {
         long ret;
         for (int i = 0; i < MAX_RETRY; i++) {
@@ -0,0 +1,234 @@
+/*
+ * (C) Copyright 2019 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nuxeo.ecm.platform.audit.impl;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.avro.reflect.Nullable;
+import org.nuxeo.ecm.core.api.Blob;
+import org.nuxeo.ecm.core.api.NuxeoException;
+import org.nuxeo.ecm.core.api.impl.blob.ByteArrayBlob;
+import org.nuxeo.ecm.platform.audit.api.AuditLogger;
+import org.nuxeo.ecm.platform.audit.api.ExtendedInfo;
+import org.nuxeo.ecm.platform.audit.api.LogEntry;
+
+/**
+ * Compact representation of a {@link LogEntry} written to the audit stream with an Avro codec.
+ * <p>
+ * The schema of this class is registered in the Avro schema store when the codec is created.
+ *
+ * @since 11.1
+ */
+public class AvroLogEntry {
+
+    protected long id;
+
+    @Nullable
+    protected String principalName;
+
+    @Nullable
+    protected String eventId;
+
+    @Nullable
+    protected Long eventDate;
+
+    @Nullable
+    protected Long logDate;
+
+    @Nullable
+    protected String docUUID;
+
+    @Nullable
+    protected String docType;
+
+    @Nullable
+    protected String docPath;
+
+    @Nullable
+    protected String category;
+
+    @Nullable
+    protected String comment;
+
+    @Nullable
+    protected String docLifeCycle;
+
+    @Nullable
+    protected String repositoryId;
+
+    protected Map<String, AvroExtendedInfo> extended = new HashMap<>();
+
+    protected AvroLogEntry() {
+        // Empty constructor for Avro decoder
+    }
+
+    public AvroLogEntry(LogEntry entry) {
+        id = entry.getId();
+        principalName = entry.getPrincipalName();
+        eventId = entry.getEventId();
+        eventDate = toMillis(entry.getEventDate());
+        logDate = toMillis(entry.getLogDate());
+        docUUID = entry.getDocUUID();
+        docType = entry.getDocType();
+        docPath = entry.getDocPath();
+        category = entry.getCategory();
+        comment = entry.getComment();
+        docLifeCycle = entry.getDocLifeCycle();
+        repositoryId = entry.getRepositoryId();
+        Map<String, ExtendedInfo> infos = entry.getExtendedInfos();
+        if (infos != null) {
+            infos.forEach((key, info) -> {
+                Serializable value = info == null ? null : info.getSerializableValue();
+                if (value != null) {
+                    extended.put(key, new AvroExtendedInfo(value));
+                }
+            });
+        }
+    }
+
+    /**
+     * Converts back to a log entry, creating the extended infos with the given logger.
+     */
+    public LogEntry toLogEntry(AuditLogger logger) {
+        LogEntryImpl entry = new LogEntryImpl();
+        entry.setId(id);
+        entry.setPrincipalName(principalName);
+        entry.setEventId(eventId);
+        entry.setEventDate(toDate(eventDate));
+        entry.setLogDate(toDate(logDate));
+        entry.setDocUUID(docUUID);
+        entry.setDocType(docType);
+        entry.setDocPath(docPath);
+        entry.setCategory(category);
+        entry.setComment(comment);
+        entry.setDocLifeCycle(docLifeCycle);
+        entry.setRepositoryId(repositoryId);
+        Map<String, ExtendedInfo> infos = new HashMap<>();
+        extended.forEach((key, info) -> infos.put(key, logger.newExtendedInfo(info.getValue())));
+        entry.setExtendedInfos(infos);
+        return entry;
+    }
+
+    protected static Long toMillis(Date date) {
+        return date == null ? null : Long.valueOf(date.getTime());
+    }
+
+    protected static Date toDate(Long millis) {
+        return millis == null ? null : new Date(millis.longValue());
+    }
+
+    /**
+     * An extended info value, stored in the field matching its type.
+     * <p>
+     * Values are never stored as serialized Java objects: blobs are stored as their content and metadata, and values
+     * of any other unsupported type are stored as their string representation.
+     */
+    public static class AvroExtendedInfo {
+
+        public enum Type {
+            STRING, LONG, DOUBLE, BOOLEAN, DATE, BLOB
+        }
+
+        protected Type type;
+
+        @Nullable
+        protected String stringValue;
+
+        @Nullable
+        protected Long longValue;
+
+        @Nullable
+        protected Double doubleValue;
+
+        @Nullable
+        protected Boolean booleanValue;
+
+        @Nullable
+        protected byte[] bytesValue;
+
+        @Nullable
+        protected String mimeType;
+
+        @Nullable
+        protected String encoding;
+
+        @Nullable
+        protected String filename;
+
+        protected AvroExtendedInfo() {
+            // Empty constructor for Avro decoder
+        }
+
+        public AvroExtendedInfo(Serializable value) {
+            if (value instanceof String) {
+                type = Type.STRING;
+                stringValue = (String) value;
+            } else if (value instanceof Long || value instanceof Integer || value instanceof Short) {
+                type = Type.LONG;
+                longValue = Long.valueOf(((Number) value).longValue());
+            } else if (value instanceof Double || value instanceof Float) {
+                type = Type.DOUBLE;
+                doubleValue = Double.valueOf(((Number) value).doubleValue());
+            } else if (value instanceof Boolean) {
+                type = Type.BOOLEAN;
+                booleanValue = (Boolean) value;
+            } else if (value instanceof Date) {
+                type = Type.DATE;
+                longValue = Long.valueOf(((Date) value).getTime());
+            } else if (value instanceof Blob) {
+                Blob blob = (Blob) value;
+                type = Type.BLOB;
+                try {
+                    bytesValue = blob.getByteArray();
+                } catch (IOException e) {
+                    throw new NuxeoException("Unable to read blob extended info", e);
+                }
+                mimeType = blob.getMimeType();
+                encoding = blob.getEncoding();
+                filename = blob.getFilename();
+            } else {
+                type = Type.STRING;
+                stringValue = value.toString();
+            }
+        }
+
+        public Serializable getValue() {
+            switch (type) {
+            case STRING:
+                return stringValue;
+            case LONG:
+                return longValue;
+            case DOUBLE:
+                return doubleValue;
+            case BOOLEAN:
+                return booleanValue;
+            case DATE:
+                return new Date(longValue.longValue());
+            case BLOB:
+                ByteArrayBlob blob = new ByteArrayBlob(bytesValue, mimeType, encoding);
+                blob.setFilename(filename);
+                return blob;
+            default:
+                throw new IllegalStateException("Unknown type: " + type);
+            }
+        }
+    }
+
+}
@@ -19,24 +19,33 @@
 package org.nuxeo.ecm.platform.audit.impl;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.nuxeo.ecm.platform.audit.listener.StreamAuditEventListener.AUDIT_ENTRY_CODEC_PROP;
+import static org.nuxeo.ecm.platform.audit.listener.StreamAuditEventListener.ENTRY_CODEC_FLAG;
+import static org.nuxeo.ecm.platform.audit.listener.StreamAuditEventListener.JSON_ENTRY_CODEC;
 import static org.nuxeo.ecm.platform.audit.listener.StreamAuditEventListener.STREAM_NAME;
 
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.nuxeo.ecm.core.api.NuxeoException;
+import org.nuxeo.ecm.core.io.registry.MarshallerHelper;
+import org.nuxeo.ecm.core.io.registry.context.RenderingContext;
 import org.nuxeo.ecm.platform.audit.api.AuditLogger;
 import org.nuxeo.ecm.platform.audit.api.LogEntry;
+import org.nuxeo.ecm.platform.audit.listener.StreamAuditEventListener;
+import org.nuxeo.lib.stream.codec.Codec;
 import org.nuxeo.lib.stream.computation.AbstractBatchComputation;
 import org.nuxeo.lib.stream.computation.ComputationContext;
 import org.nuxeo.lib.stream.computation.Record;
 import org.nuxeo.lib.stream.computation.Topology;
+import org.nuxeo.lib.stream.computation.Watermark;
 import org.nuxeo.runtime.api.Framework;
 import org.nuxeo.runtime.stream.StreamProcessorTopology;
 
@@ -44,6 +53,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
  * Computation that consumes a stream of log entries and write them to the audit backend.
+ * <p>
+ * When {@value #WRITTEN_STREAM_ENABLED_PROP} is {@code true}, the entries are then appended with their audit id to the
+ * {@value #WRITTEN_STREAM_NAME} stream, so that consumers can follow the audit without polling it.
  *
  * @since 9.3
  */
@@ -52,8 +64,24 @@ public class StreamAuditWriter implements StreamProcessorTopology {
 
     public static final String COMPUTATION_NAME = "AuditLogWriter";
 
+    /**
+     * @since 11.1
+     */
+    public static final String WRITTEN_STREAM_ENABLED_PROP = "nuxeo.stream.audit.written.enabled";
+
+    /**
+     * @since 11.1
+     */
+    public static final String WRITTEN_STREAM_NAME = "auditWritten";
+
     @Override
     public Topology getTopology(Map<String, String> options) {
+        if (Framework.isBooleanPropertyTrue(WRITTEN_STREAM_ENABLED_PROP)) {
+            return Topology.builder()
+                           .addComputation(() -> new AuditLogWriterComputation(COMPUTATION_NAME, 1),
+                                   Arrays.asList("i1:" + STREAM_NAME, "o1:" + WRITTEN_STREAM_NAME))
+                           .build();
+        }
         return Topology.builder()
                        .addComputation(
                                () -> new AuditLogWriterComputation(COMPUTATION_NAME),
@@ -63,21 +91,96 @@ public class StreamAuditWriter implements StreamProcessorTopology {
 
     public static class AuditLogWriterComputation extends AbstractBatchComputation {
 
+        /** @since 11.1 */
+        protected final ObjectMapper mapper = new ObjectMapper();
+
+        /** @since 11.1 */
+        protected Codec<AvroLogEntry> codec;
+
         public AuditLogWriterComputation(String name) {
-            super(name, 1, 0);
+            this(name, 0);
+        }
+
+        /**
+         * @param nbOutputStreams 1 to append the written entries to an output stream
+         * @since 11.1
+         */
+        public AuditLogWriterComputation(String name, int nbOutputStreams) {
+            super(name, 1, nbOutputStreams);
+        }
+
+        @Override
+        public void init(ComputationContext context) {
+            super.init(context);
+            codec = StreamAuditEventListener.getEntryCodec();
         }
 
         @Override
         public void batchProcess(ComputationContext context, String inputStreamName, List<Record> records) {
+            AuditLogger logger = Framework.getService(AuditLogger.class);
             List<LogEntry> logEntries = new ArrayList<>(records.size());
             for (Record record : records) {
                 try {
-                    logEntries.add(getLogEntryFromJson(record.getData()));
+                    logEntries.add(getLogEntry(logger, record));
                 } catch (NuxeoException e) {
                     log.error("Discard invalid record: " + record, e);
                 }
             }
             writeEntriesToAudit(logEntries);
+            if (!metadata.outputStreams().isEmpty()) {
+                produceWrittenEntries(context, logEntries);
+            }
+        }
+
+        /**
+         * Appends the written entries, now holding their audit id, to the output stream.
+         *
+         * @since 11.1
+         */
+        protected void produceWrittenEntries(ComputationContext context, List<LogEntry> logEntries) {
+            for (LogEntry entry : logEntries) {
+                if (entry.getId() <= 0) {
+                    // id not assigned by the backend
+                    continue;
+                }
+                byte[] data;
+                EnumSet<Record.Flag> flags = EnumSet.of(Record.Flag.DEFAULT);
+                if (codec == null) {
+                    try {
+                        data = MarshallerHelper.objectToJson(entry, RenderingContext.CtxBuilder.get())
+                                               .getBytes(UTF_8);
+                    } catch (IOException e) {
+                        log.warn("Unable to translate written entry into json, id: " + entry.getId(), e);
+                        continue;
+                    }
+                } else {
+                    data = codec.encode(new AvroLogEntry(entry));
+                    flags.add(ENTRY_CODEC_FLAG);
+                }
+                context.produceRecord(OUTPUT_1,
+                        new Record(String.valueOf(entry.getId()), data, Watermark.ofNow().getValue(), flags));
+            }
+        }
+
+        /**
+         * Decodes a log entry, written either as JSON or, when the record has the
+         * {@link StreamAuditEventListener#ENTRY_CODEC_FLAG}, with the configured codec.
+         *
+         * @since 11.1
+         */
+        protected LogEntry getLogEntry(AuditLogger logger, Record record) {
+            if (!record.getFlags().contains(ENTRY_CODEC_FLAG)) {
+                return getLogEntryFromJson(record.getData());
+            }
+            if (codec == null) {
+                throw new NuxeoException("Cannot decode logEntry written with a codec, " + AUDIT_ENTRY_CODEC_PROP
+                        + " is: " + JSON_ENTRY_CODEC);
+            }
+            try {
+                return codec.decode(record.getData()).toLogEntry(logger);
+            } catch (IllegalArgumentException e) {
+                throw new NuxeoException("Invalid " + codec.getName() + " logEntry", e);
+            }
         }
 
         @Override
@@ -100,7 +203,6 @@ public class StreamAuditWriter implements StreamProcessorTopology {
             String json = "";
             try {
                 json = new String(data, UTF_8);
-                ObjectMapper mapper = new ObjectMapper();
                 return mapper.readValue(json, LogEntryImpl.class);
             } catch (IOException e) {
                 throw new NuxeoException("Invalid json logEntry" + json, e);
@@ -22,6 +22,7 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 
 import javax.naming.NamingException;
@@ -32,6 +33,7 @@ import javax.transaction.SystemException;
 import javax.transaction.TransactionManager;
 
 import org.apache.commons.logging.Log;
+import org.apache.commons.lang3.tuple.Pair;
 import org.apache.commons.logging.LogFactory;
 import org.nuxeo.ecm.core.event.Event;
 import org.nuxeo.ecm.core.event.EventListener;
@@ -39,16 +41,19 @@ import org.nuxeo.ecm.core.io.registry.MarshallerHelper;
 import org.nuxeo.ecm.core.io.registry.context.RenderingContext;
 import org.nuxeo.ecm.platform.audit.api.AuditLogger;
 import org.nuxeo.ecm.platform.audit.api.LogEntry;
+import org.nuxeo.ecm.platform.audit.impl.AvroLogEntry;
+import org.nuxeo.lib.stream.codec.Codec;
 import org.nuxeo.lib.stream.computation.Record;
 import org.nuxeo.lib.stream.computation.Watermark;
 import org.nuxeo.lib.stream.log.LogAppender;
 import org.nuxeo.lib.stream.log.LogManager;
 import org.nuxeo.runtime.api.Framework;
+import org.nuxeo.runtime.codec.CodecService;
 import org.nuxeo.runtime.stream.StreamService;
 import org.nuxeo.runtime.transaction.TransactionHelper;
 
 /**
- * An events collector that write log entries as json record into a stream.
+ * An events collector that write log entries as json or Avro records into a stream.
  *
  * @since 9.3
  */
@@ -67,6 +72,30 @@ public class StreamAuditEventListener implements EventListener, Synchronization
 
     public static final String STREAM_NAME = "audit";
 
+    /**
+     * Property to choose how log entries are encoded in the records, either {@value #JSON_ENTRY_CODEC} or the name of
+     * a codec from the {@link CodecService}, for instance {@code avro}. The audit writer reads the records written with
+     * a previous encoding.
+     *
+     * @since 11.1
+     */
+    public static final String AUDIT_ENTRY_CODEC_PROP = "nuxeo.stream.audit.entry.codec";
+
+    /**
+     * @since 11.1
+     */
+    public static final String JSON_ENTRY_CODEC = "json";
+
+    /**
+     * Flag of the records holding a log entry encoded with a codec instead of JSON.
+     *
+     * @since 11.1
+     */
+    public static final Record.Flag ENTRY_CODEC_FLAG = Record.Flag.USER1;
+
+    /** The codec name and the codec resolved from the configuration, cached as a pair. */
+    protected static volatile Pair<String, Codec<AvroLogEntry>> entryCodec;
+
     @Override
     public void handleEvent(Event event) {
         AuditLogger logger = Framework.getService(AuditLogger.class);
@@ -120,17 +149,53 @@ public class StreamAuditEventListener implements EventListener, Synchronization
             return;
         }
         LogAppender<Record> appender = getLogManager().getAppender(STREAM_NAME);
-        entries.get().forEach(entry -> writeEntry(appender, entry));
+        Codec<AvroLogEntry> codec = getEntryCodec();
+        entries.get().forEach(entry -> writeEntry(appender, codec, entry));
+    }
+
+    /**
+     * Gets the codec used to encode log entries, or {@code null} to encode them as JSON.
+     *
+     * @since 11.1
+     */
+    public static Codec<AvroLogEntry> getEntryCodec() {
+        String codecName = Framework.getProperty(AUDIT_ENTRY_CODEC_PROP, JSON_ENTRY_CODEC);
+        if (JSON_ENTRY_CODEC.equals(codecName)) {
+            return null;
+        }
+        Pair<String, Codec<AvroLogEntry>> cached = entryCodec;
+        if (cached == null || !codecName.equals(cached.getKey())) {
+            Codec<AvroLogEntry> codec = Framework.getService(CodecService.class)
+                                                 .getCodec(codecName, AvroLogEntry.class);
+            cached = Pair.of(codecName, codec);
+            entryCodec = cached;
+        }
+        return cached.getValue();
     }
 
     protected void writeEntry(LogAppender<Record> appender, LogEntry entry) {
-        String json = asJson(entry);
-        if (json == null) {
-            return;
+        writeEntry(appender, null, entry);
+    }
+
+    /**
+     * @since 11.1
+     */
+    protected void writeEntry(LogAppender<Record> appender, Codec<AvroLogEntry> codec, LogEntry entry) {
+        byte[] data;
+        EnumSet<Record.Flag> flags = EnumSet.of(Record.Flag.DEFAULT);
+        if (codec == null) {
+            String json = asJson(entry);
+            if (json == null) {
+                return;
+            }
+            data = json.getBytes(UTF_8);
+        } else {
+            data = codec.encode(new AvroLogEntry(entry));
+            flags.add(ENTRY_CODEC_FLAG);
         }
         long timestamp = getTimestampForEntry(entry);
-        appender.append(0, new Record(String.valueOf(entry.getId()), json.getBytes(UTF_8),
-                Watermark.ofTimestamp(timestamp).getValue()));
+        appender.append(0,
+                new Record(String.valueOf(entry.getId()), data, Watermark.ofTimestamp(timestamp).getValue(), flags));
     }
 
     protected long getTimestampForEntry(LogEntry entry) {
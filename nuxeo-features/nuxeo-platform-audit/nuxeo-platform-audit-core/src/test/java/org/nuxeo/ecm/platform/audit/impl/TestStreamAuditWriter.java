@@ -0,0 +1,106 @@
+/*
+ * (C) Copyright 2019 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nuxeo.ecm.platform.audit.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.nuxeo.ecm.platform.audit.listener.StreamAuditEventListener.ENTRY_CODEC_FLAG;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.nuxeo.ecm.core.api.NuxeoException;
+import org.nuxeo.ecm.core.io.registry.MarshallerHelper;
+import org.nuxeo.ecm.core.io.registry.context.RenderingContext;
+import org.nuxeo.ecm.platform.audit.AuditFeature;
+import org.nuxeo.ecm.platform.audit.api.AuditLogger;
+import org.nuxeo.ecm.platform.audit.api.ExtendedInfo;
+import org.nuxeo.ecm.platform.audit.api.LogEntry;
+import org.nuxeo.ecm.platform.audit.impl.StreamAuditWriter.AuditLogWriterComputation;
+import org.nuxeo.lib.stream.codec.AvroMessageCodec;
+import org.nuxeo.lib.stream.computation.Record;
+import org.nuxeo.lib.stream.computation.Watermark;
+import org.nuxeo.runtime.test.runner.Features;
+import org.nuxeo.runtime.test.runner.FeaturesRunner;
+
+/**
+ * @since 11.1
+ */
+@RunWith(FeaturesRunner.class)
+@Features(AuditFeature.class)
+public class TestStreamAuditWriter {
+
+    @Inject
+    protected AuditLogger logger;
+
+    protected static LogEntry newEntry(long id) {
+        LogEntry entry = new LogEntryImpl();
+        entry.setId(id);
+        entry.setEventId("event" + id);
+        entry.setDocUUID("doc" + id);
+        Map<String, ExtendedInfo> infos = new HashMap<>();
+        infos.put("info", new ExtendedInfoImpl.StringInfo("value" + id));
+        entry.setExtendedInfos(infos);
+        return entry;
+    }
+
+    protected static Record jsonRecord(LogEntry entry) throws Exception {
+        byte[] data = MarshallerHelper.objectToJson(entry, RenderingContext.CtxBuilder.get()).getBytes(UTF_8);
+        return Record.of(String.valueOf(entry.getId()), data);
+    }
+
+    protected static Record codecRecord(AvroMessageCodec<AvroLogEntry> codec, LogEntry entry) {
+        byte[] data = codec.encode(new AvroLogEntry(entry));
+        return new Record(String.valueOf(entry.getId()), data, Watermark.ofNow().getValue(),
+                EnumSet.of(Record.Flag.DEFAULT, ENTRY_CODEC_FLAG));
+    }
+
+    @Test
+    public void testDecodeMixedRecords() throws Exception {
+        AvroMessageCodec<AvroLogEntry> codec = new AvroMessageCodec<>(AvroLogEntry.class);
+        AuditLogWriterComputation computation = new AuditLogWriterComputation("test");
+        computation.codec = codec;
+
+        List<Record> records = new ArrayList<>();
+        for (long id = 1; id <= 6; id++) {
+            records.add(id % 2 == 0 ? codecRecord(codec, newEntry(id)) : jsonRecord(newEntry(id)));
+        }
+        for (int i = 0; i < records.size(); i++) {
+            long id = i + 1;
+            LogEntry entry = computation.getLogEntry(logger, records.get(i));
+            assertEquals(id, entry.getId());
+            assertEquals("event" + id, entry.getEventId());
+            assertEquals("doc" + id, entry.getDocUUID());
+            assertEquals("value" + id, entry.getExtendedInfos().get("info").getSerializableValue());
+        }
+    }
+
+    @Test(expected = NuxeoException.class)
+    public void testCodecRecordWithoutCodec() throws Exception {
+        AvroMessageCodec<AvroLogEntry> codec = new AvroMessageCodec<>(AvroLogEntry.class);
+        // configured for JSON
+        AuditLogWriterComputation computation = new AuditLogWriterComputation("test");
+        computation.getLogEntry(logger, codecRecord(codec, newEntry(1)));
+    }
+
+}
@@ -30,6 +30,8 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -42,10 +44,15 @@ import org.nuxeo.ecm.core.api.Blob;
 import org.nuxeo.ecm.core.api.Blobs;
 import org.nuxeo.ecm.core.api.impl.blob.StringBlob;
 import org.nuxeo.ecm.platform.audit.AuditFeature;
+import org.nuxeo.ecm.platform.audit.api.AuditLogger;
 import org.nuxeo.ecm.platform.audit.api.ExtendedInfo;
 import org.nuxeo.ecm.platform.audit.api.LogEntry;
+import org.nuxeo.ecm.platform.audit.impl.AvroLogEntry;
 import org.nuxeo.ecm.platform.audit.impl.ExtendedInfoImpl;
 import org.nuxeo.ecm.platform.audit.impl.LogEntryImpl;
+import org.nuxeo.lib.stream.codec.AvroMessageCodec;
+import org.nuxeo.lib.stream.codec.Codec;
+import org.nuxeo.runtime.api.Framework;
 import org.nuxeo.runtime.test.runner.Features;
 import org.nuxeo.runtime.test.runner.FeaturesRunner;
 
@@ -73,6 +80,8 @@ public class LogEntrySerializationTest {
 
     protected static final String BLOB_INFO = "blobInfo";
 
+    protected static final String OTHER_INFO = "otherInfo";
+
     @Test
     public void testLogEntrySerialization() throws Exception {
 
@@ -178,4 +187,49 @@ public class LogEntrySerializationTest {
         assertTrue(infos.get(BLOB_INFO) instanceof ExtendedInfoImpl.BlobInfo);
         assertEquals("I'm a blob!", ((StringBlob) infos.get(BLOB_INFO).getSerializableValue()).getString());
     }
+
+    @Test
+    public void testAvroLogEntryRoundTrip() throws Exception {
+        LogEntry entry = new LogEntryImpl();
+        entry.setId(1L);
+        entry.setEventId("documentModified");
+        entry.setPrincipalName("bob");
+        entry.setDocUUID("1234");
+        entry.setEventDate(Date.from(Instant.parse("2012-01-01T00:00:00.000Z")));
+        Map<String, ExtendedInfo> extendedInfo = new HashMap<>();
+        extendedInfo.put(STRING_INFO, new ExtendedInfoImpl.StringInfo("this is an info"));
+        extendedInfo.put(LONG_INFO, new ExtendedInfoImpl.LongInfo(2L));
+        extendedInfo.put(DOUBLE_INFO, new ExtendedInfoImpl.DoubleInfo(2.0));
+        extendedInfo.put(BOOL_INFO, new ExtendedInfoImpl.BooleanInfo(true));
+        extendedInfo.put(DATE_INFO, new ExtendedInfoImpl.DateInfo(entry.getEventDate()));
+        StringBlob blob = new StringBlob("I'm a blob!");
+        blob.setFilename("blob.txt");
+        extendedInfo.put(BLOB_INFO, new ExtendedInfoImpl.BlobInfo(blob));
+        // not a supported type, stored as a string
+        extendedInfo.put(OTHER_INFO, new ExtendedInfoImpl.BlobInfo(new ArrayList<>(Arrays.asList("a", "b"))));
+        entry.setExtendedInfos(extendedInfo);
+
+        Codec<AvroLogEntry> codec = new AvroMessageCodec<>(AvroLogEntry.class);
+        byte[] data = codec.encode(new AvroLogEntry(entry));
+        LogEntry decoded = codec.decode(data).toLogEntry(Framework.getService(AuditLogger.class));
+
+        assertEquals(1L, decoded.getId());
+        assertEquals("documentModified", decoded.getEventId());
+        assertEquals("bob", decoded.getPrincipalName());
+        assertEquals("1234", decoded.getDocUUID());
+        assertEquals(entry.getEventDate(), decoded.getEventDate());
+        assertEquals(null, decoded.getLogDate());
+
+        Map<String, ExtendedInfo> infos = decoded.getExtendedInfos();
+        assertEquals("this is an info", infos.get(STRING_INFO).getSerializableValue());
+        assertEquals(2L, infos.get(LONG_INFO).getSerializableValue());
+        assertEquals(2.0, infos.get(DOUBLE_INFO).getSerializableValue());
+        assertEquals(true, infos.get(BOOL_INFO).getSerializableValue());
+        assertEquals(entry.getEventDate(), infos.get(DATE_INFO).getSerializableValue());
+        Blob decodedBlob = (Blob) infos.get(BLOB_INFO).getSerializableValue();
+        assertEquals("I'm a blob!", decodedBlob.getString());
+        assertEquals("text/plain", decodedBlob.getMimeType());
+        assertEquals("blob.txt", decodedBlob.getFilename());
+        assertEquals("[a, b]", infos.get(OTHER_INFO).getSerializableValue());
+    }
 }
@@ -54,6 +54,14 @@ public class ImagingConvertConstants {
 
     public static final String JPEG_CONVERSATION_FORMAT = "jpg";
 
+    /**
+     * Configuration parameter enabling the generation of all the resized picture views from a single decoding of the
+     * original picture.
+     *
+     * @since 11.1
+     */
+    public static final String MULTI_SIZE_GENERATION = "multiSizeGeneration";
+
     private ImagingConvertConstants() {
     }
 
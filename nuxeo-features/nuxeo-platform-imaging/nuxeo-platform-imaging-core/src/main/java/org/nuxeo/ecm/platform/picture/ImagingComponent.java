@@ -21,6 +21,7 @@ package org.nuxeo.ecm.platform.picture;
 
 import static org.nuxeo.ecm.platform.picture.api.ImagingConvertConstants.CONVERSION_FORMAT;
 import static org.nuxeo.ecm.platform.picture.api.ImagingConvertConstants.JPEG_CONVERSATION_FORMAT;
+import static org.nuxeo.ecm.platform.picture.api.ImagingConvertConstants.MULTI_SIZE_GENERATION;
 import static org.nuxeo.ecm.platform.picture.api.ImagingConvertConstants.OPTION_RESIZE_DEPTH;
 import static org.nuxeo.ecm.platform.picture.api.ImagingConvertConstants.OPTION_RESIZE_HEIGHT;
 import static org.nuxeo.ecm.platform.picture.api.ImagingConvertConstants.OPTION_RESIZE_WIDTH;
@@ -32,9 +33,19 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
@@ -64,15 +75,22 @@ import org.nuxeo.ecm.platform.picture.api.ImagingService;
 import org.nuxeo.ecm.platform.picture.api.PictureConversion;
 import org.nuxeo.ecm.platform.picture.api.PictureView;
 import org.nuxeo.ecm.platform.picture.api.PictureViewImpl;
+import org.nuxeo.ecm.platform.picture.core.im.IMImageUtils;
 import org.nuxeo.ecm.platform.picture.core.libraryselector.LibrarySelector;
 import org.nuxeo.ecm.platform.picture.magick.utils.ImageIdentifier;
 import org.nuxeo.ecm.platform.picture.magick.utils.ImageResizer;
+import org.nuxeo.ecm.platform.picture.magick.utils.MultiImageResizer;
 import org.nuxeo.runtime.api.Framework;
+import org.nuxeo.runtime.metrics.MetricsService;
 import org.nuxeo.runtime.model.ComponentContext;
 import org.nuxeo.runtime.model.ComponentInstance;
 import org.nuxeo.runtime.model.DefaultComponent;
 import org.nuxeo.runtime.transaction.TransactionHelper;
 
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SharedMetricRegistries;
+import com.codahale.metrics.Timer;
+
 public class ImagingComponent extends DefaultComponent implements ImagingService {
 
     private static final Logger log = LogManager.getLogger(ImagingComponent.class);
@@ -81,6 +99,29 @@ public class ImagingComponent extends DefaultComponent implements ImagingService
 
     public static final String PICTURE_CONVERSIONS_EP = "pictureConversions";
 
+    /**
+     * The chain resizing the picture, whose conversions can be generated from a single decoding of the picture.
+     *
+     * @since 11.1
+     */
+    public static final String RESIZE_CHAIN = "Image.Blob.Resize";
+
+    /**
+     * Property for the number of threads creating the views generated by the multi-size command.
+     *
+     * @since 11.1
+     */
+    public static final String MULTI_SIZE_THREADS_PROPERTY = "nuxeo.picture.views.multiSizeGeneration.threads";
+
+    protected static final int DEFAULT_MULTI_SIZE_THREADS = 4;
+
+    protected static final String METRICS_PREFIX = "nuxeo.picture.views";
+
+    /** @since 11.1 */
+    protected ExecutorService multiSizeExecutor;
+
+    protected final MetricRegistry registry = SharedMetricRegistries.getOrCreate(MetricsService.class.getName());
+
     protected Map<String, String> configurationParameters = new HashMap<>();
 
     protected PictureConversionRegistry pictureConversionRegistry = new PictureConversionRegistry();
@@ -247,8 +288,14 @@ public class ImagingComponent extends DefaultComponent implements ImagingService
         if (imageInfo == null) {
             imageInfo = getImageInfo(blob);
         }
+        Map<String, PictureView> resizedViews = computeResizedViews(blob, pictureConversions, imageInfo, convert);
         List<PictureView> views = new ArrayList<>();
         for (PictureConversion pictureConversion : pictureConversions) {
+            PictureView resizedView = resizedViews.get(pictureConversion.getId());
+            if (resizedView != null) {
+                views.add(resizedView);
+                continue;
+            }
             try {
                 views.add(computeView(blob, pictureConversion, imageInfo, convert));
             } catch (NuxeoException e) {
@@ -279,32 +326,47 @@ public class ImagingComponent extends DefaultComponent implements ImagingService
 
     protected PictureView computeView(DocumentModel doc, Blob blob, PictureConversion pictureConversion,
             ImageInfo imageInfo) {
+        try (Timer.Context ignored = getViewTimer(pictureConversion).time()) {
+            Point size = getViewSize(pictureConversion, imageInfo);
 
-        String title = pictureConversion.getId();
+            // Use the registered conversion format
+            String conversionFormat = getConfigurationValue(CONVERSION_FORMAT, JPEG_CONVERSATION_FORMAT);
 
-        Map<String, Serializable> pictureViewMap = new HashMap<>();
-        pictureViewMap.put(PictureView.FIELD_TITLE, title);
-        pictureViewMap.put(PictureView.FIELD_DESCRIPTION, pictureConversion.getDescription());
-        pictureViewMap.put(PictureView.FIELD_TAG, pictureConversion.getTag());
+            Blob viewBlob = callPictureConversionChain(doc, blob, pictureConversion, imageInfo, size,
+                    conversionFormat);
+            return createView(blob, pictureConversion, size, viewBlob);
+        }
+    }
 
+    /**
+     * Computes the size of a view: if the picture template have a max size then use it for the new size computation,
+     * else the current size will be used.
+     *
+     * @since 11.1
+     */
+    protected Point getViewSize(PictureConversion pictureConversion, ImageInfo imageInfo) {
         Point size = new Point(imageInfo.getWidth(), imageInfo.getHeight());
-
-        /*
-         * If the picture template have a max size then use it for the new size computation, else take the current size
-         * will be used.
-         */
         if (pictureConversion.getMaxSize() != null) {
             size = ImageResizer.scaleToMax(size.x, size.y, pictureConversion.getMaxSize());
         }
+        return size;
+    }
 
+    /**
+     * Creates a view from its converted blob.
+     *
+     * @since 11.1
+     */
+    protected PictureView createView(Blob blob, PictureConversion pictureConversion, Point size, Blob viewBlob) {
+        String title = pictureConversion.getId();
+
+        Map<String, Serializable> pictureViewMap = new HashMap<>();
+        pictureViewMap.put(PictureView.FIELD_TITLE, title);
+        pictureViewMap.put(PictureView.FIELD_DESCRIPTION, pictureConversion.getDescription());
+        pictureViewMap.put(PictureView.FIELD_TAG, pictureConversion.getTag());
         pictureViewMap.put(PictureView.FIELD_WIDTH, size.x);
         pictureViewMap.put(PictureView.FIELD_HEIGHT, size.y);
 
-        // Use the registered conversion format
-        String conversionFormat = getConfigurationValue(CONVERSION_FORMAT, JPEG_CONVERSATION_FORMAT);
-
-        Blob viewBlob = callPictureConversionChain(doc, blob, pictureConversion, imageInfo, size, conversionFormat);
-
         // If the extension of the generated binary is empty, it's fetched from the mimetype
         String extension = FilenameUtils.getExtension(viewBlob.getFilename());
         if (StringUtils.isEmpty(extension)) {
@@ -325,6 +387,107 @@ public class ImagingComponent extends DefaultComponent implements ImagingService
         return new PictureViewImpl(pictureViewMap);
     }
 
+    protected Timer getViewTimer(PictureConversion pictureConversion) {
+        return registry.timer(MetricRegistry.name(METRICS_PREFIX, pictureConversion.getId()));
+    }
+
+    /**
+     * Checks if the resized views are generated from a single decoding of the original picture.
+     *
+     * @since 11.1
+     */
+    protected boolean isMultiSizeGeneration() {
+        return Boolean.parseBoolean(getConfigurationValue(MULTI_SIZE_GENERATION, "false"));
+    }
+
+    /**
+     * Computes in a single ImageMagick command the views of the given conversions that only resize the picture, if
+     * the multi-size generation is enabled.
+     * <p>
+     * The post-processing of each generated view is done in parallel by a bounded pool of
+     * {@value #MULTI_SIZE_THREADS_PROPERTY} threads. The {@code multiSize} timer measures the shared command, the timer
+     * of each view only its post-processing. If the command fails, no view is returned and the views are computed one
+     * by one as usual.
+     *
+     * @return the computed views by conversion id
+     * @since 11.1
+     */
+    protected Map<String, PictureView> computeResizedViews(Blob blob, List<PictureConversion> pictureConversions,
+            ImageInfo imageInfo, boolean convert) {
+        if (!convert || imageInfo == null || !isMultiSizeGeneration()) {
+            return Collections.emptyMap();
+        }
+        List<PictureConversion> conversions = pictureConversions.stream()
+                                                                .filter(pc -> RESIZE_CHAIN.equals(pc.getChainId()))
+                                                                .collect(Collectors.toList());
+        if (conversions.size() < 2 || !(getLibrarySelectorService().getImageUtils() instanceof IMImageUtils)
+                || !MultiImageResizer.isAvailable()) {
+            return Collections.emptyMap();
+        }
+        String conversionFormat = getConfigurationValue(CONVERSION_FORMAT, JPEG_CONVERSATION_FORMAT);
+        String ext = FilenameUtils.getExtension(blob.getFilename());
+        if (StringUtils.isEmpty(ext)) {
+            ext = StringUtils.defaultIfEmpty(imageInfo.getFormat(), "tmp").toLowerCase();
+        }
+        long start = System.nanoTime();
+        Map<PictureConversion, File> files = new LinkedHashMap<>();
+        boolean txWasActive = false;
+        try (CloseableFile source = blob.getCloseableFile("." + ext)) {
+            Map<String, Point> outputs = new LinkedHashMap<>();
+            for (PictureConversion conversion : conversions) {
+                File file = Framework.createTempFile("nuxeoImageTarget", "." + conversionFormat);
+                files.put(conversion, file);
+                outputs.put(file.getAbsolutePath(), getViewSize(conversion, imageInfo));
+            }
+            // don't keep the transaction open during the conversion, like for the conversion chains
+            if (TransactionHelper.isTransactionActive()) {
+                txWasActive = true;
+                TransactionHelper.commitOrRollbackTransaction();
+            }
+            MultiImageResizer.resize(source.getFile().getAbsolutePath(), conversionFormat, imageInfo.getDepth(),
+                    outputs);
+        } catch (CommandNotAvailable | CommandException | IOException e) {
+            log.warn("Unable to compute resized views in a single pass, computing them one by one", e);
+            files.values().forEach(FileUtils::deleteQuietly);
+            return Collections.emptyMap();
+        } finally {
+            if (txWasActive && !TransactionHelper.isTransactionActiveOrMarkedRollback()) {
+                TransactionHelper.startTransaction();
+            }
+        }
+        registry.timer(MetricRegistry.name(METRICS_PREFIX, "multiSize"))
+                .update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        String viewBaseName = FilenameUtils.getBaseName(blob.getFilename());
+        Map<String, CompletableFuture<PictureView>> futures = new LinkedHashMap<>();
+        files.forEach((conversion, file) -> futures.put(conversion.getId(), CompletableFuture.supplyAsync(() -> {
+            // the shared command is timed separately
+            long viewStart = System.nanoTime();
+            Blob viewBlob;
+            try {
+                viewBlob = Blobs.createBlob(file);
+            } catch (IOException e) {
+                throw new NuxeoException(e);
+            }
+            viewBlob.setFilename(viewBaseName + "." + conversionFormat);
+            Framework.trackFile(file, viewBlob);
+            PictureView view = createView(blob, conversion, getViewSize(conversion, imageInfo), viewBlob);
+            getViewTimer(conversion).update(System.nanoTime() - viewStart, TimeUnit.NANOSECONDS);
+            return view;
+        }, multiSizeExecutor)));
+        Map<String, PictureView> views = new HashMap<>();
+        futures.forEach((id, future) -> {
+            try {
+                views.put(id, future.join());
+            } catch (CompletionException e) {
+                // computed again one by one
+                log.warn("Unable to compute view: {} exception message: {}", id, e.getCause().getMessage());
+                log.debug(e, e);
+            }
+        });
+        return views;
+    }
+
     protected Blob callPictureConversionChain(DocumentModel doc, Blob blob, PictureConversion pictureConversion,
             ImageInfo imageInfo, Point size, String conversionFormat) {
         String chainId = pictureConversion.getChainId();
@@ -373,19 +536,28 @@ public class ImagingComponent extends DefaultComponent implements ImagingService
 
     @Override
     public List<PictureView> computeViewsFor(DocumentModel doc, Blob blob, ImageInfo imageInfo, boolean convert) {
-        List<PictureConversion> pictureConversions = getPictureConversions();
+        List<PictureConversion> pictureConversions = new ArrayList<>();
+        for (PictureConversion pictureConversion : getPictureConversions()) {
+            if (canApplyPictureConversion(pictureConversion, doc)) {
+                pictureConversions.add(pictureConversion);
+            }
+        }
         List<PictureView> pictureViews = new ArrayList<>(pictureConversions.size());
+        Map<String, PictureView> resizedViews = computeResizedViews(blob, pictureConversions, imageInfo, convert);
 
         for (PictureConversion pictureConversion : pictureConversions) {
-            if (canApplyPictureConversion(pictureConversion, doc)) {
-                try {
-                    PictureView pictureView = computeView(doc, blob, pictureConversion, imageInfo, convert);
-                    pictureViews.add(pictureView);
-                } catch (NuxeoException e) {
-                    log.warn("Unable to compute view: {} for document: {} exception message: {}",
-                            pictureConversion::getId, doc::toString, e::getMessage);
-                    log.debug(e, e);
-                }
+            PictureView resizedView = resizedViews.get(pictureConversion.getId());
+            if (resizedView != null) {
+                pictureViews.add(resizedView);
+                continue;
+            }
+            try {
+                PictureView pictureView = computeView(doc, blob, pictureConversion, imageInfo, convert);
+                pictureViews.add(pictureView);
+            } catch (NuxeoException e) {
+                log.warn("Unable to compute view: {} for document: {} exception message: {}",
+                        pictureConversion::getId, doc::toString, e::getMessage);
+                log.debug(e, e);
             }
         }
 
@@ -463,10 +635,20 @@ public class ImagingComponent extends DefaultComponent implements ImagingService
     @Override
     public void activate(ComponentContext context) {
         pictureMigrationHandler.install();
+        int nbThreads = Integer.parseInt(
+                Framework.getProperty(MULTI_SIZE_THREADS_PROPERTY, String.valueOf(DEFAULT_MULTI_SIZE_THREADS)));
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(nbThreads, nbThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                r -> new Thread(r, "Nuxeo-PictureViews-" + threadNumber.incrementAndGet()));
+        executor.allowCoreThreadTimeOut(true);
+        multiSizeExecutor = executor;
     }
 
     @Override
     public void deactivate(ComponentContext context) {
         pictureMigrationHandler.uninstall();
+        multiSizeExecutor.shutdownNow();
+        multiSizeExecutor = null;
     }
 }
@@ -0,0 +1,98 @@
+/*
+ * (C) Copyright 2019 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nuxeo.ecm.platform.picture.magick.utils;
+
+import static org.nuxeo.ecm.platform.picture.api.ImagingConvertConstants.JPEG_CONVERSATION_FORMAT;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.nuxeo.ecm.platform.commandline.executor.api.CmdParameters;
+import org.nuxeo.ecm.platform.commandline.executor.api.CommandException;
+import org.nuxeo.ecm.platform.commandline.executor.api.CommandLineExecutorService;
+import org.nuxeo.ecm.platform.commandline.executor.api.CommandNotAvailable;
+import org.nuxeo.ecm.platform.commandline.executor.api.ExecResult;
+import org.nuxeo.ecm.platform.picture.magick.MagickExecutor;
+import org.nuxeo.runtime.api.Framework;
+
+/**
+ * Unit command to resize an image to several sizes using ImageMagick, decoding the source image only once.
+ * <p>
+ * Each size is produced from a clone of the decoded image, so the cost of reading a large source is paid once for all
+ * the outputs instead of once per output.
+ *
+ * @since 11.1
+ */
+public class MultiImageResizer extends MagickExecutor {
+
+    public static final String COMMAND_NAME = "multiResizer";
+
+    /**
+     * Checks if the command used to resize to several sizes is available.
+     */
+    public static boolean isAvailable() {
+        CommandLineExecutorService cles = Framework.getService(CommandLineExecutorService.class);
+        return cles.getCommandAvailability(COMMAND_NAME).isAvailable();
+    }
+
+    /**
+     * Resizes an image to several sizes.
+     *
+     * @param inputFile the source image
+     * @param format the format of the outputs, the source is flattened on a white background for JPEG
+     * @param targetDepth the depth of the outputs, or -1 to use the depth of the source
+     * @param outputs the output files and their target size
+     */
+    public static void resize(String inputFile, String format, int targetDepth, Map<String, Point> outputs)
+            throws CommandNotAvailable, CommandException {
+        if (targetDepth == -1) {
+            targetDepth = ImageIdentifier.getInfo(inputFile).getDepth();
+        }
+        boolean jpeg = JPEG_CONVERSATION_FORMAT.equals(format);
+        List<String> operations = new ArrayList<>();
+        if (jpeg) {
+            // manage jpeg default background
+            operations.add("-background");
+            operations.add("white");
+            operations.add("-flatten");
+        }
+        outputs.forEach((outputFile, size) -> {
+            if (jpeg) {
+                size = ImageResizer.scaleToMax(size.x, size.y, ImageResizer.MAX_JEPG_DIMENSION);
+            }
+            operations.add("(");
+            operations.add("+clone");
+            operations.add("-resize");
+            operations.add(size.x + "x" + size.y);
+            operations.add("-write");
+            operations.add(outputFile);
+            operations.add("+delete");
+            operations.add(")");
+        });
+        CommandLineExecutorService cles = Framework.getService(CommandLineExecutorService.class);
+        CmdParameters params = cles.getDefaultCmdParameters();
+        params.addNamedParameter("inputFilePath", inputFile);
+        params.addNamedParameter("targetDepth", String.valueOf(targetDepth));
+        params.addNamedParameter("resizeOperations", operations);
+        ExecResult res = cles.execCommand(COMMAND_NAME, params);
+        if (!res.isSuccessful()) {
+            throw res.getError();
+        }
+    }
+
+}
@@ -25,6 +25,7 @@ import org.nuxeo.ecm.core.api.DocumentModel;
 import org.nuxeo.ecm.core.api.DocumentModelList;
 import org.nuxeo.ecm.core.api.blobholder.BlobHolder;
 import org.nuxeo.ecm.core.work.AbstractWork;
+import org.nuxeo.ecm.core.work.api.Work;
 
 /**
  * @deprecated since 11.1 use {@link RecomputeViewsAction} instead
@@ -48,6 +49,11 @@ public class ImagingRecomputeWork extends AbstractWork {
         return "Picture Views Recomputation";
     }
 
+    @Override
+    public Work.Priority getPriority() {
+        return Work.Priority.BULK;
+    }
+
     @Override
     public void work() {
         setProgress(Progress.PROGRESS_INDETERMINATE);
@@ -24,7 +24,10 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.awt.Point;
 import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.apache.commons.io.FilenameUtils;
 import org.apache.pdfbox.pdmodel.PDDocument;
@@ -38,6 +41,7 @@ import org.nuxeo.ecm.platform.picture.magick.utils.ImageCropper;
 import org.nuxeo.ecm.platform.picture.magick.utils.ImageCropperAndResizer;
 import org.nuxeo.ecm.platform.picture.magick.utils.ImageIdentifier;
 import org.nuxeo.ecm.platform.picture.magick.utils.ImageResizer;
+import org.nuxeo.ecm.platform.picture.magick.utils.MultiImageResizer;
 import org.nuxeo.runtime.api.Framework;
 import org.nuxeo.runtime.test.runner.Deploy;
 import org.nuxeo.runtime.test.runner.Features;
@@ -80,6 +84,29 @@ public class TestMagickExecutors {
         out.delete();
     }
 
+    @Test
+    public void testMultiResizer() throws Exception {
+        File small = Framework.createTempFile(TMP_FILE_PREFIX, ".test_small.jpg");
+        File medium = Framework.createTempFile(TMP_FILE_PREFIX, ".test_medium.jpg");
+        File file = FileUtils.getResourceFileFromContext("images/test.jpg");
+
+        Map<String, Point> outputs = new LinkedHashMap<>();
+        outputs.put(small.getAbsolutePath(), new Point(20, 20));
+        outputs.put(medium.getAbsolutePath(), new Point(100, 100));
+        MultiImageResizer.resize(file.getAbsolutePath(), "jpg", 8, outputs);
+
+        ImageInfo info = ImageIdentifier.getInfo(small.getAbsolutePath());
+        assertEquals("JPEG", info.getFormat());
+        assertTrue(info.getWidth() <= 20);
+        assertTrue(info.getHeight() <= 20);
+        info = ImageIdentifier.getInfo(medium.getAbsolutePath());
+        assertTrue(info.getWidth() <= 100);
+        assertTrue(info.getHeight() <= 100);
+        assertTrue(info.getWidth() == 100 || info.getHeight() == 100);
+        small.delete();
+        medium.delete();
+    }
+
     @Test
     public void testCropper() throws Exception {
         File out = Framework.createTempFile(TMP_FILE_PREFIX, ".test_crop.jpg");
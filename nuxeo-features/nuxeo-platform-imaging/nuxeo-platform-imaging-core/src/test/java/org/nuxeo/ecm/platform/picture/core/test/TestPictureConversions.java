@@ -24,6 +24,8 @@ import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+import static org.nuxeo.ecm.platform.picture.api.ImagingConvertConstants.MULTI_SIZE_GENERATION;
 
 import java.io.IOException;
 import java.io.Serializable;
@@ -48,11 +50,17 @@ import org.nuxeo.ecm.platform.picture.api.ImagingService;
 import org.nuxeo.ecm.platform.picture.api.PictureConversion;
 import org.nuxeo.ecm.platform.picture.api.PictureView;
 import org.nuxeo.ecm.platform.picture.api.adapters.MultiviewPicture;
+import org.nuxeo.ecm.platform.picture.magick.utils.MultiImageResizer;
+import org.nuxeo.runtime.metrics.MetricsService;
 import org.nuxeo.runtime.test.runner.Deploy;
 import org.nuxeo.runtime.test.runner.Features;
 import org.nuxeo.runtime.test.runner.FeaturesRunner;
 import org.nuxeo.runtime.test.runner.TransactionalFeature;
 
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SharedMetricRegistries;
+import com.codahale.metrics.Timer;
+
 /**
  * Test the {@link org.nuxeo.ecm.platform.picture.api.PictureConversion} contributions.
  *
@@ -214,6 +222,43 @@ public class TestPictureConversions {
         }
     }
 
+    /**
+     * @since 11.1
+     */
+    @Test
+    public void testMultiSizeGeneration() throws IOException {
+        assumeTrue("ImageMagick is not available", MultiImageResizer.isAvailable());
+        Blob blob = Blobs.createBlob(FileUtils.getResourceFileFromContext("images/test.jpg"), "image/jpeg", null,
+                "test.jpg");
+        List<PictureConversion> pictureConversions = imagingService.getPictureConversions();
+        List<PictureView> expectedViews = imagingService.computeViewsFor(blob, pictureConversions, true);
+
+        Timer timer = SharedMetricRegistries.getOrCreate(MetricsService.class.getName())
+                                            .timer(MetricRegistry.name("nuxeo.picture.views", "multiSize"));
+        long count = timer.getCount();
+        imagingService.setConfigurationValue(MULTI_SIZE_GENERATION, "true");
+        List<PictureView> views;
+        try {
+            views = imagingService.computeViewsFor(blob, pictureConversions, true);
+        } finally {
+            imagingService.setConfigurationValue(MULTI_SIZE_GENERATION, "false");
+        }
+        // the resized views were generated by a single command
+        assertEquals(count + 1, timer.getCount());
+
+        assertEquals(expectedViews.size(), views.size());
+        for (int i = 0; i < views.size(); i++) {
+            PictureView expected = expectedViews.get(i);
+            PictureView view = views.get(i);
+            assertEquals(expected.getTitle(), view.getTitle());
+            assertEquals(expected.getWidth(), view.getWidth());
+            assertEquals(expected.getHeight(), view.getHeight());
+            assertEquals(expected.getFilename(), view.getFilename());
+            assertEquals(view.getTitle(), expected.getImageInfo().getWidth(), view.getImageInfo().getWidth());
+            assertEquals(view.getTitle(), expected.getImageInfo().getHeight(), view.getImageInfo().getHeight());
+        }
+    }
+
     protected Blob getCatBlob() throws IOException {
         return Blobs.createBlob(FileUtils.getResourceFileFromContext("images/cat.gif"), "image/gif", null, "cat.gif");
     }
@@ -22,6 +22,7 @@ import org.nuxeo.ecm.core.api.DocumentModel;
 import org.nuxeo.ecm.core.api.DocumentModelList;
 import org.nuxeo.ecm.core.api.blobholder.BlobHolder;
 import org.nuxeo.ecm.core.work.AbstractWork;
+import org.nuxeo.ecm.core.work.api.Work;
 import org.nuxeo.ecm.platform.thumbnail.ThumbnailConstants;
 
 /**
@@ -49,6 +50,11 @@ public class ThumbnailRecomputeWork extends AbstractWork {
         return "Thumbnails Recomputation";
     }
 
+    @Override
+    public Work.Priority getPriority() {
+        return Work.Priority.BULK;
+    }
+
     @Override
     public void work() {
         setProgress(Progress.PROGRESS_INDETERMINATE);
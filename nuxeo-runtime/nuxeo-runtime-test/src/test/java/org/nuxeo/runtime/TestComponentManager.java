@@ -23,6 +23,9 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.nuxeo.runtime.api.Framework;
 import org.nuxeo.runtime.model.ComponentManager;
+import org.nuxeo.runtime.model.ComponentName;
+import org.nuxeo.runtime.model.RegistrationInfo;
+import org.nuxeo.runtime.model.impl.ComponentManagerImpl;
 import org.nuxeo.runtime.test.runner.Features;
 import org.nuxeo.runtime.test.runner.FeaturesRunner;
 import org.nuxeo.runtime.test.runner.RuntimeFeature;
@@ -56,6 +59,24 @@ public class TestComponentManager {
         listener.assertCounters(3, 3, 3, 3);
     }
 
+    @Test
+    public void testParallelStart() throws Exception {
+        ComponentManager mgr = Framework.getRuntime().getComponentManager();
+        Framework.getProperties().setProperty(ComponentManagerImpl.PARALLEL_START_PROP, "true");
+        try {
+            mgr.restart(false);
+            Assert.assertTrue(mgr.isStarted());
+            Assert.assertTrue(mgr.getStartFailureRegistrations().isEmpty());
+            for (ComponentName name : mgr.getResolvedRegistrations()) {
+                RegistrationInfo ri = mgr.getRegistrationInfo(name);
+                Assert.assertTrue(name.toString(), ri.isStarted());
+            }
+        } finally {
+            Framework.getProperties().remove(ComponentManagerImpl.PARALLEL_START_PROP);
+            mgr.restart(false);
+        }
+    }
+
     protected static class EventsInfo {
 
         public int beforeStop = 0;
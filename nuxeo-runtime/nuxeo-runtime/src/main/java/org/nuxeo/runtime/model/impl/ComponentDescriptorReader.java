@@ -35,10 +35,21 @@ import org.nuxeo.runtime.model.RuntimeContext;
  */
 public class ComponentDescriptorReader {
 
+    /**
+     * The descriptor metadata is the same for all the runtime contexts, so it's scanned only once.
+     *
+     * @since 11.1
+     */
+    private static final XMap XMAP = createXMap();
+
     private final XMap xmap;
 
     public ComponentDescriptorReader() {
-        xmap = new XMap();
+        xmap = XMAP;
+    }
+
+    protected static XMap createXMap() {
+        XMap xmap = new XMap();
         xmap.setValueFactory(ComponentName.class, new XValueFactory() {
             @Override
             public Object deserialize(Context context, String value) {
@@ -68,6 +79,7 @@ public class ComponentDescriptorReader {
             }
         });
         xmap.register(RegistrationInfoImpl.class);
+        return xmap;
     }
 
     public RegistrationInfoImpl read(RuntimeContext ctx, InputStream in) throws IOException {
@@ -30,10 +30,14 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
@@ -42,6 +46,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -67,6 +72,20 @@ public class ComponentManagerImpl implements ComponentManager {
 
     private static final Logger log = LogManager.getLogger(ComponentManagerImpl.class);
 
+    /**
+     * Property to enable the parallel start of components.
+     *
+     * @since 11.1
+     */
+    public static final String PARALLEL_START_PROP = "org.nuxeo.runtime.component.parallelStart";
+
+    /**
+     * Property for the number of threads used to start components in parallel, defaults to the number of processors.
+     *
+     * @since 11.1
+     */
+    public static final String PARALLEL_START_THREADS_PROP = "org.nuxeo.runtime.component.parallelStart.threads";
+
     // must use an ordered Set to avoid loosing the order of the pending
     // extensions
     protected final ConcurrentMap<ComponentName, Set<Extension>> pendingExtensions;
@@ -682,14 +701,19 @@ public class ComponentManagerImpl implements ComponentManager {
      * @since 9.2
      */
     protected void startComponents(List<RegistrationInfo> ris, boolean isResume) {
-        log.info("Start components (isResume={})", isResume);
-        Watch watch = new Watch();
+        boolean parallel = Framework.isBooleanPropertyTrue(PARALLEL_START_PROP);
+        log.info("Start components (isResume={}, parallel={})", isResume, parallel);
+        Watch watch = parallel ? new Watch(new ConcurrentHashMap<>()) : new Watch();
         watch.start();
         listeners.beforeStart(isResume);
-        for (RegistrationInfo ri : ris) {
-            watch.start(ri.getName().getName());
-            startComponent(ri);
-            watch.stop(ri.getName().getName());
+        if (parallel) {
+            startComponentsInParallel(ris, watch);
+        } else {
+            for (RegistrationInfo ri : ris) {
+                watch.start(ri.getName().getName());
+                startComponent(ri);
+                watch.stop(ri.getName().getName());
+            }
         }
         this.started = ris;
         listeners.afterStart(isResume);
@@ -699,6 +723,100 @@ public class ComponentManagerImpl implements ComponentManager {
         writeDevMetrics(watch, "start");
     }
 
+    /**
+     * Starts the given components, sorted according to the start order, on a bounded pool of threads.
+     * <p>
+     * Components with the same start order form a wave, and a wave is started only once the previous one is done, so
+     * that the start order is still honored. Within a wave, a component is started only once the components it requires
+     * are started, the other ones are started concurrently.
+     *
+     * @since 11.1
+     */
+    protected void startComponentsInParallel(List<RegistrationInfo> ris, Watch watch) {
+        int nbThreads = getParallelStartThreads();
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(nbThreads, r -> {
+            Thread thread = new Thread(r, "Nuxeo-Component-Start-" + threadNumber.incrementAndGet());
+            thread.setContextClassLoader(classLoader);
+            return thread;
+        });
+        try {
+            int i = 0;
+            while (i < ris.size()) {
+                int order = ris.get(i).getApplicationStartedOrder();
+                List<RegistrationInfo> wave = new ArrayList<>();
+                for (; i < ris.size() && ris.get(i).getApplicationStartedOrder() == order; i++) {
+                    wave.add(ris.get(i));
+                }
+                startWave(wave, watch, executor);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    protected void startWave(List<RegistrationInfo> wave, Watch watch, ExecutorService executor) {
+        Map<ComponentName, CompletableFuture<Void>> done = new LinkedHashMap<>();
+        for (RegistrationInfo ri : wave) {
+            done.put(ri.getName(), new CompletableFuture<>());
+        }
+        for (RegistrationInfo ri : wave) {
+            Set<ComponentName> required = ri.getRequiredComponents();
+            CompletableFuture<?>[] requirements = required == null ? new CompletableFuture<?>[0]
+                    : required.stream()
+                              .map(registry::getComponent)
+                              .filter(Objects::nonNull)
+                              .map(r -> done.get(r.getName()))
+                              .filter(Objects::nonNull)
+                              .toArray(CompletableFuture<?>[]::new);
+            String name = ri.getName().getName();
+            CompletableFuture.allOf(requirements).thenRunAsync(() -> {
+                watch.start(name);
+                try {
+                    startComponent(ri);
+                } finally {
+                    watch.stop(name);
+                }
+            }, executor).whenComplete((v, e) -> {
+                if (e == null) {
+                    done.get(ri.getName()).complete(null);
+                } else {
+                    done.get(ri.getName()).completeExceptionally(e);
+                }
+            });
+        }
+        try {
+            CompletableFuture.allOf(done.values().toArray(new CompletableFuture<?>[0])).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while starting components", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            while (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException("Errors caught while starting components", cause);
+        }
+    }
+
+    protected int getParallelStartThreads() {
+        String threads = Framework.getProperty(PARALLEL_START_THREADS_PROP);
+        if (threads != null) {
+            try {
+                return Math.max(1, Integer.parseInt(threads.trim()));
+            } catch (NumberFormatException e) {
+                log.warn("Invalid value for {}: {}", PARALLEL_START_THREADS_PROP, threads);
+            }
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+
     /**
      * Starts the given {@link RegistrationInfo}. This step will start the component.
      *
@@ -0,0 +1,123 @@
+/*
+ * (C) Copyright 2019 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nuxeo.runtime.model.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+import org.nuxeo.runtime.Version;
+import org.nuxeo.runtime.model.ComponentName;
+
+/**
+ * @since 11.1
+ */
+public class TestComponentDescriptorReader {
+
+    protected static final int NB_READS = 200;
+
+    protected static byte[] getDescriptor(String name) throws IOException {
+        try (InputStream in = TestComponentDescriptorReader.class.getClassLoader().getResourceAsStream(name)) {
+            return IOUtils.toByteArray(in);
+        }
+    }
+
+    protected static RegistrationInfoImpl read(byte[] descriptor) throws IOException {
+        // each runtime context has its own reader, all of them share the same XMap
+        return new DefaultRuntimeContext(null).createRegistrationInfo(new ByteArrayInputStream(descriptor));
+    }
+
+    protected static void checkComp1(RegistrationInfoImpl ri) {
+        assertEquals(new ComponentName("reader.comp1"), ri.getName());
+        assertEquals(Version.parseString("1.0.0"), ri.getVersion());
+        assertEquals("First component.", ri.getDocumentation().trim());
+        assertEquals("org.nuxeo.runtime.model.impl.ReaderComp1", ri.getImplementation());
+        assertEquals(1, ri.getExtensionPoints().length);
+        ExtensionPointImpl xp = (ExtensionPointImpl) ri.getExtensionPoints()[0];
+        assertEquals("xp1", xp.getName());
+        assertArrayEquals(new Class<?>[] { String.class }, xp.getContributions());
+        assertEquals(1, ri.getExtensions().length);
+        assertEquals(new ComponentName("reader.comp2"), ri.getExtensions()[0].getTargetComponent());
+        assertEquals("xp2", ri.getExtensions()[0].getExtensionPoint());
+    }
+
+    protected static void checkComp2(RegistrationInfoImpl ri) {
+        assertEquals(new ComponentName("reader.comp2"), ri.getName());
+        assertEquals(Version.parseString("2.0.0"), ri.getVersion());
+        assertEquals(Arrays.asList(new ComponentName("reader.comp1")), new ArrayList<>(ri.getRequiredComponents()));
+        assertEquals(2, ri.getExtensionPoints().length);
+        assertArrayEquals(new Class<?>[] { Integer.class },
+                ((ExtensionPointImpl) ri.getExtensionPoints()[0]).getContributions());
+        assertArrayEquals(new Class<?>[] { Long.class },
+                ((ExtensionPointImpl) ri.getExtensionPoints()[1]).getContributions());
+        assertEquals(2, ri.getExtensions().length);
+        for (int i = 0; i < 2; i++) {
+            assertEquals(new ComponentName("reader.comp1"), ri.getExtensions()[i].getTargetComponent());
+            assertEquals("xp1", ri.getExtensions()[i].getExtensionPoint());
+        }
+    }
+
+    @Test
+    public void testRead() throws Exception {
+        checkComp1(read(getDescriptor("ReaderComp1.xml")));
+        checkComp2(read(getDescriptor("ReaderComp2.xml")));
+    }
+
+    @Test
+    public void testConcurrentRead() throws Exception {
+        byte[] comp1 = getDescriptor("ReaderComp1.xml");
+        byte[] comp2 = getDescriptor("ReaderComp2.xml");
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> future1 = executor.submit(readAndCheck(barrier, () -> checkComp1(read(comp1))));
+            Future<?> future2 = executor.submit(readAndCheck(barrier, () -> checkComp2(read(comp2))));
+            // rethrows the assertion errors of the threads
+            future1.get();
+            future2.get();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    protected interface ReadCheck {
+        void run() throws Exception;
+    }
+
+    protected static Callable<Void> readAndCheck(CyclicBarrier barrier, ReadCheck check) {
+        return () -> {
+            barrier.await();
+            for (int i = 0; i < NB_READS; i++) {
+                check.run();
+            }
+            return null;
+        };
+    }
+
+}
@@ -26,6 +26,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -42,6 +43,11 @@ import org.nuxeo.runtime.api.Framework;
  * <p>
  * It fills the {@code -env:userInstallation} argument with a temporary folder to correctly isolate the {@code soffice}
  * processes so multiple instances can be run simultaneously.
+ * <p>
+ * When the {@link LibreOfficeWorkerPool} is enabled, the {@code -env:userInstallation} argument is instead the one of
+ * a long-lived {@link LibreOfficeWorker}, to which the conversion is dispatched. The {@code soffice} command is still
+ * run, but only to forward the conversion to the worker. If no worker is available, the conversion falls back to a
+ * one-shot {@code soffice} process.
  *
  * @since 10.10
  */
@@ -51,10 +57,41 @@ public class LibreOfficeConverter extends CommandLineConverter {
 
     private static final Logger log = LogManager.getLogger(LibreOfficeConverter.class);
 
+    /** Parameter holding the user installation of the worker the conversion is dispatched to. */
+    protected static final String WORKER_USER_INSTALLATION_PATH_KEY = "workerUserInstallation";
+
+    @Override
+    public BlobHolder convert(BlobHolder blobHolder, Map<String, Serializable> parameters) throws ConversionException {
+        LibreOfficeWorkerPool pool = Framework.getService(LibreOfficeWorkerPool.class);
+        if (pool == null || !pool.isEnabled()) {
+            return super.convert(blobHolder, parameters);
+        }
+        LibreOfficeWorker worker = pool.acquire();
+        if (worker == null) {
+            return super.convert(blobHolder, parameters);
+        }
+        long t0 = System.nanoTime();
+        try {
+            Map<String, Serializable> workerParameters = parameters == null ? new HashMap<>()
+                    : new HashMap<>(parameters);
+            workerParameters.put(WORKER_USER_INSTALLATION_PATH_KEY, worker.getUserInstallationURI());
+            return super.convert(blobHolder, workerParameters);
+        } finally {
+            pool.release(worker, System.nanoTime() - t0);
+        }
+    }
+
     @Override
     protected Map<String, String> getCmdStringParameters(BlobHolder blobHolder, Map<String, Serializable> parameters) {
         Map<String, String> cmdStringParameters = super.getCmdStringParameters(blobHolder, parameters);
 
+        String workerUserInstallation = cmdStringParameters.remove(WORKER_USER_INSTALLATION_PATH_KEY);
+        if (workerUserInstallation != null) {
+            // dispatch to the worker running with this user installation
+            cmdStringParameters.put(USER_INSTALLATION_PATH_KEY, workerUserInstallation);
+            return cmdStringParameters;
+        }
+
         // create a temporary folder for the user installation env
         try {
             Path tempDirectoryPath = Framework.createTempDirectory(null);
@@ -72,14 +109,19 @@ public class LibreOfficeConverter extends CommandLineConverter {
         try {
             return super.buildResult(cmdOutput, cmdParams);
         } finally {
-            // delete the temp folder
+            // delete the temp folder, but keep the one of a worker
             String userInstallationPath = cmdParams.getParameter(USER_INSTALLATION_PATH_KEY);
-            if (userInstallationPath != null) {
+            if (userInstallationPath != null && !isWorkerUserInstallation(userInstallationPath)) {
                 deleteTempDirectory(userInstallationPath);
             }
         }
     }
 
+    protected boolean isWorkerUserInstallation(String userInstallationPath) {
+        LibreOfficeWorkerPool pool = Framework.getService(LibreOfficeWorkerPool.class);
+        return pool != null && pool.isWorkerUserInstallation(userInstallationPath);
+    }
+
     private void deleteTempDirectory(String tempFileURI) {
         try {
             // tempFileURI is an URI (file:///tmp/foo)
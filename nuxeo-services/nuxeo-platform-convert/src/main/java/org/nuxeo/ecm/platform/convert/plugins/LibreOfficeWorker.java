@@ -0,0 +1,217 @@
+/*
+ * (C) Copyright 2019 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nuxeo.ecm.platform.convert.plugins;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A long-lived headless LibreOffice process with its own user installation.
+ * <p>
+ * A conversion is dispatched to a worker by running a {@code soffice} command with the worker's user installation:
+ * LibreOffice forwards the arguments of that command to the running process through its single-instance pipe, and the
+ * document is loaded and converted by the running process. The conversions dispatched to a worker don't pay for the
+ * creation of a user installation nor for the initialization of the office, but a short-lived {@code soffice} client
+ * process is still started for each of them.
+ *
+ * @since 11.1
+ */
+public class LibreOfficeWorker {
+
+    private static final Logger log = LogManager.getLogger(LibreOfficeWorker.class);
+
+    /** File written by LibreOffice once the user installation is initialized. */
+    protected static final String READY_FILE = "user/registrymodifications.xcu";
+
+    protected static final long READY_POLL_MILLIS = 100;
+
+    protected final int id;
+
+    protected final String command;
+
+    protected final Path userInstallation;
+
+    protected final String userInstallationURI;
+
+    protected Process process;
+
+    protected int conversions;
+
+    /** Time at which the current conversion started, or 0 if idle. */
+    protected volatile long busySince;
+
+    public LibreOfficeWorker(int id, String command, Path userInstallation) {
+        this.id = id;
+        this.command = command;
+        this.userInstallation = userInstallation;
+        userInstallationURI = userInstallation.toUri().toString();
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Gets the user installation URI to pass to the {@code soffice} commands dispatched to this worker.
+     */
+    public String getUserInstallationURI() {
+        return userInstallationURI;
+    }
+
+    public int getConversions() {
+        return conversions;
+    }
+
+    /**
+     * Starts the LibreOffice process and waits until it's ready to accept conversions.
+     *
+     * @throws IOException if the process cannot be started or is not ready in time
+     */
+    public synchronized void start(Duration startTimeout) throws IOException {
+        Files.createDirectories(userInstallation);
+        // no --accept: conversions are forwarded through the single-instance pipe of the user installation
+        List<String> cmd = Arrays.asList(command, "--headless", "--invisible", "--nologo", "--nodefault",
+                "--norestore", "-env:UserInstallation=" + getUserInstallationURI());
+        ProcessBuilder processBuilder = new ProcessBuilder(cmd);
+        processBuilder.redirectErrorStream(true);
+        processBuilder.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+        log.debug("Starting LibreOffice worker: {}", () -> String.join(" ", cmd));
+        process = processBuilder.start();
+        conversions = 0;
+        long deadline = System.currentTimeMillis() + startTimeout.toMillis();
+        Path readyFile = userInstallation.resolve(READY_FILE);
+        while (!Files.exists(readyFile)) {
+            if (!process.isAlive()) {
+                throw new IOException("LibreOffice worker " + id + " exited with status: " + process.exitValue());
+            }
+            if (System.currentTimeMillis() > deadline) {
+                kill();
+                throw new IOException("LibreOffice worker " + id + " not ready after: " + startTimeout);
+            }
+            try {
+                Thread.sleep(READY_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                kill();
+                throw new IOException("Interrupted while starting LibreOffice worker " + id, e);
+            }
+        }
+        log.debug("LibreOffice worker: {} started with pid: {}", () -> id, process::pid);
+    }
+
+    public synchronized boolean isAlive() {
+        return process != null && process.isAlive();
+    }
+
+    /**
+     * Kills the LibreOffice process, and any {@code soffice} command currently dispatching a conversion to it.
+     */
+    public synchronized void kill() {
+        String uri = userInstallationURI;
+        ProcessHandle.current().descendants().filter(ph -> {
+            Optional<String[]> args = ph.info().arguments();
+            return args.isPresent() && Arrays.stream(args.get()).anyMatch(arg -> arg.contains(uri));
+        }).forEach(ProcessHandle::destroyForcibly);
+        if (process != null) {
+            process.destroyForcibly();
+            process = null;
+        }
+    }
+
+    /**
+     * Kills the LibreOffice process and deletes its user installation.
+     */
+    public synchronized void dispose() {
+        kill();
+        FileUtils.deleteQuietly(userInstallation.toFile());
+    }
+
+    protected void conversionStarted() {
+        busySince = System.currentTimeMillis();
+    }
+
+    protected void conversionDone() {
+        busySince = 0;
+        conversions++;
+    }
+
+    /**
+     * Gets the duration of the current conversion, in milliseconds, or 0 if idle.
+     */
+    public long getBusyTime() {
+        long since = busySince;
+        return since == 0 ? 0 : System.currentTimeMillis() - since;
+    }
+
+    /**
+     * Gets the resident memory of the LibreOffice process, in bytes, or -1 if it cannot be determined.
+     * <p>
+     * The started {@code soffice} command is usually a launcher running the office itself ({@code soffice.bin}) as a
+     * child process, so the memory of all the descendants of the started process is included.
+     * <p>
+     * Only available on systems exposing {@code /proc}.
+     */
+    public synchronized long getResidentMemory() {
+        if (process == null) {
+            return -1;
+        }
+        long[] memories = Stream.concat(Stream.of(process.toHandle()), process.descendants())
+                                .mapToLong(ph -> getResidentMemory(ph.pid()))
+                                .filter(memory -> memory >= 0)
+                                .toArray();
+        return memories.length == 0 ? -1 : LongStream.of(memories).sum();
+    }
+
+    /**
+     * Gets the resident memory of a process, in bytes, or -1 if it cannot be determined.
+     */
+    protected long getResidentMemory(long pid) {
+        File status = new File("/proc/" + pid + "/status");
+        if (!status.exists()) {
+            return -1;
+        }
+        try {
+            for (String line : Files.readAllLines(status.toPath())) {
+                if (line.startsWith("VmRSS:")) {
+                    // VmRSS:     123456 kB
+                    String kb = line.substring(6).trim().split("\\s+")[0];
+                    return Long.parseLong(kb) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            log.debug("Cannot read memory of process: {} of LibreOffice worker: {}", pid, id, e);
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" + id + "," + userInstallation + ")";
+    }
+
+}
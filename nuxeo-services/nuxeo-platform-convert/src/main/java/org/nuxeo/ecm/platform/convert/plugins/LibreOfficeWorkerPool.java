@@ -0,0 +1,300 @@
+/*
+ * (C) Copyright 2019 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nuxeo.ecm.platform.convert.plugins;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.nuxeo.runtime.api.Framework;
+import org.nuxeo.runtime.metrics.MetricsService;
+import org.nuxeo.runtime.model.ComponentContext;
+import org.nuxeo.runtime.model.DefaultComponent;
+import org.nuxeo.runtime.services.config.ConfigurationService;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SharedMetricRegistries;
+import com.codahale.metrics.Timer;
+
+/**
+ * Pool of long-lived {@link LibreOfficeWorker}s used by the {@link LibreOfficeConverter}.
+ * <p>
+ * The pool is disabled by default, in which case the converter starts a new {@code soffice} process for each
+ * conversion. It is configured with the following properties:
+ * <ul>
+ * <li>{@value #POOL_SIZE_PROP}: the number of workers, 0 to disable the pool (default 0),
+ * <li>{@value #COMMAND_PROP}: the LibreOffice command (default {@code soffice}),
+ * <li>{@value #ACQUIRE_TIMEOUT_PROP}: how long to wait for an idle worker before falling back to a one-shot
+ * conversion (default 30s),
+ * <li>{@value #CONVERSION_TIMEOUT_PROP}: after which a conversion is considered hung and its worker restarted
+ * (default 5m),
+ * <li>{@value #START_TIMEOUT_PROP}: how long to wait for a worker to be ready (default 1m),
+ * <li>{@value #MAX_CONVERSIONS_PROP}: the number of conversions after which a worker is restarted (default 200),
+ * <li>{@value #MAX_MEMORY_PROP}: the resident memory, in MB, above which a worker is restarted (default 1024).
+ * </ul>
+ * The queue depth, the number of idle workers, the wait and conversion latencies, the restarts and the fallbacks to
+ * one-shot conversions are exposed as metrics.
+ *
+ * @since 11.1
+ */
+public class LibreOfficeWorkerPool extends DefaultComponent {
+
+    private static final Logger log = LogManager.getLogger(LibreOfficeWorkerPool.class);
+
+    public static final String POOL_SIZE_PROP = "nuxeo.convert.soffice.pool.size";
+
+    public static final String COMMAND_PROP = "nuxeo.convert.soffice.pool.command";
+
+    public static final String ACQUIRE_TIMEOUT_PROP = "nuxeo.convert.soffice.pool.acquireTimeout";
+
+    public static final String CONVERSION_TIMEOUT_PROP = "nuxeo.convert.soffice.pool.conversionTimeout";
+
+    public static final String START_TIMEOUT_PROP = "nuxeo.convert.soffice.pool.startTimeout";
+
+    public static final String MAX_CONVERSIONS_PROP = "nuxeo.convert.soffice.pool.maxConversions";
+
+    public static final String MAX_MEMORY_PROP = "nuxeo.convert.soffice.pool.maxMemoryMB";
+
+    protected static final long WATCHDOG_PERIOD_SECONDS = 5;
+
+    protected static final String METRICS_PREFIX = "nuxeo.convert.soffice.pool";
+
+    protected final MetricRegistry registry = SharedMetricRegistries.getOrCreate(MetricsService.class.getName());
+
+    protected final AtomicInteger waiting = new AtomicInteger();
+
+    protected List<LibreOfficeWorker> workers;
+
+    protected BlockingQueue<LibreOfficeWorker> idleWorkers;
+
+    protected ScheduledExecutorService watchdog;
+
+    protected Path baseDir;
+
+    protected String command;
+
+    protected Duration acquireTimeout;
+
+    protected Duration conversionTimeout;
+
+    protected Duration startTimeout;
+
+    protected int maxConversions;
+
+    protected long maxMemory;
+
+    protected Timer waitTimer;
+
+    protected Timer conversionTimer;
+
+    protected Counter restartCount;
+
+    protected Counter fallbackCount;
+
+    @Override
+    public void start(ComponentContext context) {
+        ConfigurationService configurationService = Framework.getService(ConfigurationService.class);
+        int size = configurationService.getInteger(POOL_SIZE_PROP, 0);
+        if (size <= 0) {
+            return;
+        }
+        command = configurationService.getString(COMMAND_PROP, "soffice");
+        acquireTimeout = configurationService.getDuration(ACQUIRE_TIMEOUT_PROP, Duration.ofSeconds(30));
+        conversionTimeout = configurationService.getDuration(CONVERSION_TIMEOUT_PROP, Duration.ofMinutes(5));
+        startTimeout = configurationService.getDuration(START_TIMEOUT_PROP, Duration.ofMinutes(1));
+        maxConversions = configurationService.getInteger(MAX_CONVERSIONS_PROP, 200);
+        maxMemory = configurationService.getLong(MAX_MEMORY_PROP, 1024) * 1024 * 1024;
+        try {
+            baseDir = Framework.createTempDirectory("soffice-workers");
+        } catch (IOException e) {
+            log.error("Cannot create LibreOffice workers directory, using one-shot conversions", e);
+            return;
+        }
+        registerMetrics();
+        workers = new ArrayList<>(size);
+        idleWorkers = new LinkedBlockingQueue<>();
+        for (int i = 0; i < size; i++) {
+            LibreOfficeWorker worker = new LibreOfficeWorker(i, command, baseDir.resolve("worker-" + i));
+            workers.add(worker);
+            idleWorkers.add(worker);
+        }
+        watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "Nuxeo-LibreOffice-Watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watchdog.scheduleWithFixedDelay(this::checkWorkers, WATCHDOG_PERIOD_SECONDS, WATCHDOG_PERIOD_SECONDS,
+                TimeUnit.SECONDS);
+        log.info("Started pool of {} LibreOffice workers", size);
+    }
+
+    @Override
+    public void stop(ComponentContext context) throws InterruptedException {
+        if (workers == null) {
+            return;
+        }
+        watchdog.shutdownNow();
+        watchdog.awaitTermination(WATCHDOG_PERIOD_SECONDS, TimeUnit.SECONDS);
+        workers.forEach(LibreOfficeWorker::dispose);
+        FileUtils.deleteQuietly(baseDir.toFile());
+        unregisterMetrics();
+        workers = null;
+        idleWorkers = null;
+        watchdog = null;
+    }
+
+    protected void registerMetrics() {
+        registry.remove(METRICS_PREFIX + ".queue");
+        registry.register(METRICS_PREFIX + ".queue", (Gauge<Integer>) waiting::get);
+        registry.remove(METRICS_PREFIX + ".idle");
+        registry.register(METRICS_PREFIX + ".idle", (Gauge<Integer>) () -> {
+            BlockingQueue<LibreOfficeWorker> idle = idleWorkers;
+            return idle == null ? 0 : idle.size();
+        });
+        waitTimer = registry.timer(MetricRegistry.name(METRICS_PREFIX, "wait"));
+        conversionTimer = registry.timer(MetricRegistry.name(METRICS_PREFIX, "conversion"));
+        restartCount = registry.counter(MetricRegistry.name(METRICS_PREFIX, "restarts"));
+        fallbackCount = registry.counter(MetricRegistry.name(METRICS_PREFIX, "fallbacks"));
+    }
+
+    protected void unregisterMetrics() {
+        registry.remove(METRICS_PREFIX + ".queue");
+        registry.remove(METRICS_PREFIX + ".idle");
+    }
+
+    /**
+     * Checks if the pool is enabled.
+     */
+    public boolean isEnabled() {
+        return workers != null;
+    }
+
+    /**
+     * Checks if the given user installation URI is the one of a worker.
+     */
+    public boolean isWorkerUserInstallation(String userInstallationURI) {
+        List<LibreOfficeWorker> list = workers;
+        return list != null && list.stream().anyMatch(w -> w.getUserInstallationURI().equals(userInstallationURI));
+    }
+
+    /**
+     * Acquires a ready worker, waiting for one to be idle if needed.
+     *
+     * @return a worker, or {@code null} if none could be acquired and the conversion must fall back to a one-shot
+     *         process
+     */
+    public LibreOfficeWorker acquire() {
+        BlockingQueue<LibreOfficeWorker> idle = idleWorkers;
+        if (idle == null) {
+            return null;
+        }
+        LibreOfficeWorker worker;
+        waiting.incrementAndGet();
+        try (Timer.Context ignored = waitTimer.time()) {
+            worker = idle.poll(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            worker = null;
+        } finally {
+            waiting.decrementAndGet();
+        }
+        if (worker == null) {
+            log.debug("No idle LibreOffice worker after: {}, falling back to one-shot conversion", acquireTimeout);
+            fallbackCount.inc();
+            return null;
+        }
+        if (!worker.isAlive()) {
+            try {
+                if (worker.getConversions() > 0) {
+                    // the worker crashed or was killed since its last conversion
+                    restartCount.inc();
+                }
+                worker.start(startTimeout);
+            } catch (IOException e) {
+                log.warn("Cannot start LibreOffice worker: {}, falling back to one-shot conversion", worker, e);
+                worker.kill();
+                idle.add(worker);
+                fallbackCount.inc();
+                return null;
+            }
+        }
+        worker.conversionStarted();
+        return worker;
+    }
+
+    /**
+     * Releases a worker after a conversion, restarting it if it crashed or needs to be recycled.
+     *
+     * @param worker the worker
+     * @param elapsed the conversion duration, in nanoseconds
+     */
+    public void release(LibreOfficeWorker worker, long elapsed) {
+        worker.conversionDone();
+        conversionTimer.update(elapsed, TimeUnit.NANOSECONDS);
+        if (!worker.isAlive()) {
+            log.warn("LibreOffice worker: {} died during conversion", worker);
+            // restarted on next acquire
+        } else if (worker.getConversions() >= maxConversions) {
+            log.debug("Recycling LibreOffice worker: {} after {} conversions", worker, worker.getConversions());
+            recycle(worker);
+        } else if (maxMemory > 0 && worker.getResidentMemory() > maxMemory) {
+            log.debug("Recycling LibreOffice worker: {} using {} bytes", worker, worker.getResidentMemory());
+            recycle(worker);
+        }
+        BlockingQueue<LibreOfficeWorker> idle = idleWorkers;
+        if (idle != null) {
+            idle.add(worker);
+        } else {
+            // pool stopped meanwhile
+            worker.dispose();
+        }
+    }
+
+    protected void recycle(LibreOfficeWorker worker) {
+        // killed workers are restarted lazily on next acquire, with a fresh count
+        worker.kill();
+        worker.conversions = 0;
+        restartCount.inc();
+    }
+
+    /**
+     * Kills the workers whose current conversion takes longer than the conversion timeout, which makes the conversion
+     * fail.
+     */
+    protected void checkWorkers() {
+        long timeout = conversionTimeout.toMillis();
+        for (LibreOfficeWorker worker : workers) {
+            if (worker.getBusyTime() > timeout) {
+                log.warn("LibreOffice worker: {} hung for more than: {}, killing it", worker, conversionTimeout);
+                worker.kill();
+            }
+        }
+    }
+
+}
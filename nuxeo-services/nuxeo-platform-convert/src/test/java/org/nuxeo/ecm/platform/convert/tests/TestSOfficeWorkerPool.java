@@ -0,0 +1,104 @@
+/*
+ * (C) Copyright 2019 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nuxeo.ecm.platform.convert.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.Serializable;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.inject.Inject;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.nuxeo.ecm.core.api.blobholder.BlobHolder;
+import org.nuxeo.ecm.platform.convert.plugins.LibreOfficeWorker;
+import org.nuxeo.ecm.platform.convert.plugins.LibreOfficeWorkerPool;
+import org.nuxeo.runtime.metrics.MetricsService;
+import org.nuxeo.runtime.test.runner.Deploy;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SharedMetricRegistries;
+
+/**
+ * @since 11.1
+ */
+@Deploy("org.nuxeo.ecm.platform.convert:OSGI-INF/test-soffice-worker-pool-contrib.xml")
+@Deploy("org.nuxeo.ecm.platform.convert:OSGI-INF/test-text2pdf-contrib.xml")
+public class TestSOfficeWorkerPool extends TestSOfficeConverter {
+
+    @Inject
+    protected LibreOfficeWorkerPool pool;
+
+    protected BlobHolder convert(int run) throws Exception {
+        BlobHolder bh = getBlobFromPath("test-docs/hello.txt");
+        Map<String, Serializable> parameters = new HashMap<>();
+        // avoid hitting the conversion cache
+        parameters.put("run", String.valueOf(run));
+        return cs.convert("text2pdfForTest", bh, parameters);
+    }
+
+    @Test
+    public void testConversionsUseWorker() throws Exception {
+        checkConverterAvailability("any2pdf");
+        checkCommandAvailability("soffice");
+        assertTrue(pool.isEnabled());
+
+        MetricRegistry registry = SharedMetricRegistries.getOrCreate(MetricsService.class.getName());
+        long count = registry.timer("nuxeo.convert.soffice.pool.conversion").getCount();
+
+        for (int i = 0; i < 3; i++) {
+            checkPDFDocument(convert(i));
+
+            // the worker user installation is kept for the next conversions
+            String userInstallationUri = LibreOfficeConverterForTest.USER_INSTALLATION_URI;
+            assertTrue(pool.isWorkerUserInstallation(userInstallationUri));
+            assertTrue(Files.exists(Paths.get(new URI(userInstallationUri))));
+        }
+        assertEquals(3, registry.timer("nuxeo.convert.soffice.pool.conversion").getCount() - count);
+        assertEquals(0, registry.counter("nuxeo.convert.soffice.pool.fallbacks").getCount());
+    }
+
+    @Test
+    public void testResidentMemoryIncludesOffice() throws Exception {
+        checkConverterAvailability("any2pdf");
+        checkCommandAvailability("soffice");
+        assumeTrue("No /proc on this system", Files.isDirectory(Paths.get("/proc/self")));
+
+        LibreOfficeWorker worker = pool.acquire();
+        assertNotNull(worker);
+        try {
+            // the started launcher alone uses a few MB, the office itself is counted through its descendants
+            assertTrue(worker.getResidentMemory() > 32 * 1024 * 1024);
+        } finally {
+            pool.release(worker, 0);
+        }
+    }
+
+    @Override
+    @Test
+    @Ignore("The user installation folder of a worker is kept for its next conversions")
+    public void testUserInstallationFolderRemoval() {
+    }
+
+}
@@ -129,6 +129,20 @@ public abstract class AbstractPageProvider<T> implements PageProvider<T> {
 
     protected PageProviderChangedListener pageProviderChangedListener;
 
+    /**
+     * Keyset pagination cursors after which the pages already computed are followed, by offset of the next page.
+     *
+     * @since 11.1
+     */
+    protected Map<Long, String> pageCursors = new HashMap<>();
+
+    /**
+     * Keyset pagination cursor explicitly set for the current page.
+     *
+     * @since 11.1
+     */
+    protected String currentPageCursor;
+
     /**
      * Returns the list of current page items.
      * <p>
@@ -198,6 +212,7 @@ public abstract class AbstractPageProvider<T> implements PageProvider<T> {
     @Override
     public void setCurrentPageOffset(long offset) {
         this.offset = offset;
+        currentPageCursor = null;
     }
 
     @Override
@@ -512,6 +527,8 @@ public abstract class AbstractPageProvider<T> implements PageProvider<T> {
     public void refresh() {
         setResultsCount(UNKNOWN_SIZE);
         setCurrentHigherNonEmptyPageIndex(-1);
+        pageCursors.clear();
+        currentPageCursor = null;
         currentSelectPage = null;
         errorMessage = null;
         error = null;
@@ -1102,6 +1119,55 @@ public abstract class AbstractPageProvider<T> implements PageProvider<T> {
         return 0;
     }
 
+    /**
+     * Checks if keyset pagination is enabled through the {@value #KEYSET_PAGINATION_PROP} property.
+     *
+     * @since 11.1
+     */
+    protected boolean isKeysetPagination() {
+        return properties != null && getBooleanProperty(KEYSET_PAGINATION_PROP, false);
+    }
+
+    /**
+     * Gets the keyset pagination cursor after which the current page starts, either set explicitly or computed when
+     * fetching the previous page.
+     *
+     * @return the cursor, or {@code null} if the current page has to be fetched using its offset
+     * @since 11.1
+     */
+    protected String getCurrentPageCursor() {
+        if (currentPageCursor != null) {
+            return currentPageCursor;
+        }
+        return pageCursors.get(Long.valueOf(getCurrentPageOffset()));
+    }
+
+    @Override
+    public void setCurrentPageCursor(String cursor) {
+        currentPageCursor = cursor;
+        pageChanged();
+    }
+
+    @Override
+    public String getNextPageCursor() {
+        if (!isKeysetPagination() || getPageSize() == 0) {
+            return null;
+        }
+        return pageCursors.get(Long.valueOf(getCurrentPageOffset() + getPageSize()));
+    }
+
+    /**
+     * Sets the keyset pagination cursor after which the page following the current one starts. To be called by
+     * implementations when fetching a full page.
+     *
+     * @since 11.1
+     */
+    protected void setNextPageCursor(String cursor) {
+        if (cursor != null && getPageSize() != 0) {
+            pageCursors.put(Long.valueOf(getCurrentPageOffset() + getPageSize()), cursor);
+        }
+    }
+
     @Override
     public boolean isSkipAggregates() {
         return (boolean) getProperties().getOrDefault(SKIP_AGGREGATES_PROP, false);
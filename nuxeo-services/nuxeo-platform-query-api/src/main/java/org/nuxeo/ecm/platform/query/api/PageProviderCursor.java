@@ -0,0 +1,176 @@
+/*
+ * (C) Copyright 2019 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nuxeo.ecm.platform.query.api;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static javax.servlet.http.HttpServletResponse.SC_BAD_REQUEST;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.TimeZone;
+
+import org.nuxeo.ecm.core.api.NuxeoException;
+
+/**
+ * Opaque cursor used by keyset pagination, holding the sort values of the last entry of a page, the last value being
+ * the entry id.
+ * <p>
+ * The next page is the one whose entries sort strictly after these values. Only strings, integers, floating-point
+ * numbers, booleans, dates and {@code null} are supported.
+ *
+ * @since 11.1
+ */
+public class PageProviderCursor implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    protected static final char STRING = 's';
+
+    protected static final char LONG = 'l';
+
+    protected static final char DOUBLE = 'd';
+
+    protected static final char BOOLEAN = 'b';
+
+    protected static final char DATE = 't';
+
+    protected static final char NULL = 'n';
+
+    protected static final String SEPARATOR = ".";
+
+    protected final List<Serializable> values;
+
+    protected PageProviderCursor(List<Serializable> values) {
+        this.values = Collections.unmodifiableList(values);
+    }
+
+    /**
+     * Creates a cursor from the given sort values.
+     *
+     * @return the cursor, or {@code null} if one of the values is of an unsupported type
+     */
+    public static PageProviderCursor of(List<? extends Serializable> values) {
+        List<Serializable> list = new ArrayList<>(values.size());
+        for (Serializable value : values) {
+            if (value instanceof Integer || value instanceof Short) {
+                value = Long.valueOf(((Number) value).longValue());
+            } else if (value instanceof Float) {
+                value = Double.valueOf(((Number) value).doubleValue());
+            } else if (value instanceof Date) {
+                Calendar cal = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+                cal.setTime((Date) value);
+                value = cal;
+            } else if (value != null && !(value instanceof String || value instanceof Long
+                    || value instanceof Double || value instanceof Boolean || value instanceof Calendar)) {
+                return null;
+            }
+            list.add(value);
+        }
+        return list.isEmpty() ? null : new PageProviderCursor(list);
+    }
+
+    /**
+     * Decodes a cursor previously returned by {@link #encode}.
+     *
+     * @throws NuxeoException if the cursor is invalid
+     */
+    public static PageProviderCursor decode(String cursor) {
+        List<Serializable> list = new ArrayList<>();
+        try {
+            for (String token : cursor.split("\\" + SEPARATOR)) {
+                String string = new String(Base64.getUrlDecoder().decode(token.substring(1)), UTF_8);
+                switch (token.charAt(0)) {
+                case STRING:
+                    list.add(string);
+                    break;
+                case LONG:
+                    list.add(Long.valueOf(string));
+                    break;
+                case DOUBLE:
+                    list.add(Double.valueOf(string));
+                    break;
+                case BOOLEAN:
+                    list.add(Boolean.valueOf(string));
+                    break;
+                case NULL:
+                    list.add(null);
+                    break;
+                case DATE:
+                    Calendar cal = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+                    cal.setTimeInMillis(Long.parseLong(string));
+                    list.add(cal);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown type: " + token.charAt(0));
+                }
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new NuxeoException("Invalid page provider cursor: " + cursor, e, SC_BAD_REQUEST);
+        }
+        return new PageProviderCursor(list);
+    }
+
+    /**
+     * Encodes this cursor as an URL-safe string.
+     */
+    public String encode() {
+        List<String> tokens = new ArrayList<>(values.size());
+        for (Serializable value : values) {
+            char type;
+            String string;
+            if (value == null) {
+                type = NULL;
+                string = "";
+            } else if (value instanceof String) {
+                type = STRING;
+                string = (String) value;
+            } else if (value instanceof Long) {
+                type = LONG;
+                string = value.toString();
+            } else if (value instanceof Double) {
+                type = DOUBLE;
+                string = value.toString();
+            } else if (value instanceof Boolean) {
+                type = BOOLEAN;
+                string = value.toString();
+            } else {
+                type = DATE;
+                string = String.valueOf(((Calendar) value).getTimeInMillis());
+            }
+            tokens.add(type + Base64.getUrlEncoder().withoutPadding().encodeToString(string.getBytes(UTF_8)));
+        }
+        return String.join(SEPARATOR, tokens);
+    }
+
+    /**
+     * Gets the sort values, the last one being the entry id.
+     */
+    public List<Serializable> getValues() {
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + values;
+    }
+
+}
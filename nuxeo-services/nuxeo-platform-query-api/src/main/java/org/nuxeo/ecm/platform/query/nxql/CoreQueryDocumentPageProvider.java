@@ -21,8 +21,12 @@ package org.nuxeo.ecm.platform.query.nxql;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
@@ -32,8 +36,15 @@ import org.nuxeo.ecm.core.api.DocumentModel;
 import org.nuxeo.ecm.core.api.DocumentModelList;
 import org.nuxeo.ecm.core.api.Filter;
 import org.nuxeo.ecm.core.api.NuxeoException;
+import org.nuxeo.ecm.core.api.PropertyException;
 import org.nuxeo.ecm.core.api.SortInfo;
+import org.nuxeo.ecm.core.model.Repository;
+import org.nuxeo.ecm.core.query.sql.NXQL;
+import org.nuxeo.ecm.core.repository.RepositoryService;
+import org.nuxeo.ecm.core.schema.SchemaManager;
+import org.nuxeo.ecm.core.schema.types.Field;
 import org.nuxeo.ecm.platform.query.api.AbstractPageProvider;
+import org.nuxeo.ecm.platform.query.api.PageProviderCursor;
 import org.nuxeo.ecm.platform.query.api.PageProviderDefinition;
 import org.nuxeo.ecm.platform.query.api.PageSelections;
 import org.nuxeo.ecm.platform.query.api.QuickFilter;
@@ -53,6 +64,11 @@ import org.nuxeo.runtime.services.config.ConfigurationService;
  * Since 6.0, the page provider property named {@link #USE_UNRESTRICTED_SESSION_PROPERTY} allows specifying whether the
  * query should be run as unrestricted. When such a property is set to "true", the additional property
  * {@link #DETACH_DOCUMENTS_PROPERTY} is used to detach documents (defaults to true when session is unrestricted).
+ * <p>
+ * Since 11.1, the page provider property named {@link #KEYSET_PAGINATION_PROP} enables keyset pagination: the sort is
+ * completed with the document id, and the pages following an already fetched page are queried with a predicate on the
+ * sort values of its last document instead of an offset. Only sorts on simple properties and on some {@code ecm:}
+ * columns can use keyset pagination, see {@link #isKeysetSortColumn}, other sorts fall back to offset pagination.
  *
  * @author Anahide Tchertchian
  * @since 5.4
@@ -102,6 +118,23 @@ public class CoreQueryDocumentPageProvider extends AbstractPageProvider<Document
 
     protected Long maxResults;
 
+    /**
+     * The sort of the current query when using keyset pagination, ending with the document id, or {@code null} if
+     * keyset pagination is not used.
+     *
+     * @since 11.1
+     */
+    protected List<SortInfo> keysetSortInfos;
+
+    /**
+     * The {@code ecm:} columns that can be used in a keyset pagination sort, their value being read by
+     * {@link #getSortValue}.
+     *
+     * @since 11.1
+     */
+    protected static final Set<String> KEYSET_SORT_COLUMNS = new HashSet<>(Arrays.asList(NXQL.ECM_UUID,
+            NXQL.ECM_NAME, NXQL.ECM_PRIMARYTYPE, NXQL.ECM_PARENTID, NXQL.ECM_LIFECYCLESTATE));
+
     @Override
     public List<DocumentModel> getCurrentPage() {
 
@@ -126,10 +159,12 @@ public class CoreQueryDocumentPageProvider extends AbstractPageProvider<Document
 
                 final long minMaxPageSize = getMinMaxPageSize();
 
-                final long offset = getCurrentPageOffset();
+                final PageProviderCursor cursor = getKeysetCursor();
+                final String pageQuery = cursor == null ? query : getKeysetQuery(cursor);
+                final long offset = cursor == null ? getCurrentPageOffset() : 0;
                 if (log.isDebugEnabled()) {
                     log.debug(String.format("Perform query for provider '%s': '%s' with pageSize=%s, offset=%s",
-                            getName(), query, Long.valueOf(minMaxPageSize), Long.valueOf(offset)));
+                            getName(), pageQuery, Long.valueOf(minMaxPageSize), Long.valueOf(offset)));
                 }
 
                 final DocumentModelList docs;
@@ -138,7 +173,17 @@ public class CoreQueryDocumentPageProvider extends AbstractPageProvider<Document
                 final boolean useUnrestricted = useUnrestrictedSession();
 
                 final boolean detachDocs = detachDocuments();
-                if (maxResults > 0) {
+                if (cursor != null) {
+                    // with keyset pagination, the results are only counted for the first page
+                    if (useUnrestricted) {
+                        CoreQueryUnrestrictedSessionRunner r = new CoreQueryUnrestrictedSessionRunner(coreSession,
+                                pageQuery, filter, minMaxPageSize, offset, false, 0, detachDocs);
+                        r.runUnrestricted();
+                        docs = r.getDocs();
+                    } else {
+                        docs = coreSession.query(pageQuery, getFilter(), minMaxPageSize, offset, 0);
+                    }
+                } else if (maxResults > 0) {
                     if (useUnrestricted) {
                         CoreQueryUnrestrictedSessionRunner r = new CoreQueryUnrestrictedSessionRunner(coreSession,
                                 query, filter, minMaxPageSize, offset, false, maxResults, detachDocs);
@@ -161,13 +206,21 @@ public class CoreQueryDocumentPageProvider extends AbstractPageProvider<Document
                 }
 
                 long resultsCount = docs.totalSize();
-                if (resultsCount < 0) {
+                if (cursor != null) {
+                    // keep the count of the first page if known
+                    if (getResultsCount() < 0) {
+                        setResultsCount(UNKNOWN_SIZE_AFTER_QUERY);
+                    }
+                } else if (resultsCount < 0) {
                     // results count is truncated
                     setResultsCount(UNKNOWN_SIZE_AFTER_QUERY);
                 } else {
                     setResultsCount(resultsCount);
                 }
                 currentPageDocuments = docs;
+                if (keysetSortInfos != null && minMaxPageSize > 0 && docs.size() >= minMaxPageSize) {
+                    setNextPageCursor(getCursor(docs.get(docs.size() - 1)));
+                }
 
                 if (log.isDebugEnabled()) {
                     log.debug(String.format("Performed query for provider '%s': got %s hits (limit %s)", getName(),
@@ -220,6 +273,11 @@ public class CoreQueryDocumentPageProvider extends AbstractPageProvider<Document
             sort = sortInfos;
         }
 
+        keysetSortInfos = isKeysetPagination() ? getKeysetSortInfos(sort) : null;
+        if (keysetSortInfos != null) {
+            sort = keysetSortInfos;
+        }
+
         SortInfo[] sortArray = null;
         if (sort != null) {
             sortArray = sort.toArray(new SortInfo[] {});
@@ -256,6 +314,131 @@ public class CoreQueryDocumentPageProvider extends AbstractPageProvider<Document
         query = newQuery;
     }
 
+    /**
+     * Gets the sort to use for keyset pagination, completed with the document id to be unique.
+     *
+     * @return the sort, or {@code null} if keyset pagination cannot be used because the pattern has its own sort or
+     *         because a sort column is not supported
+     * @since 11.1
+     */
+    protected List<SortInfo> getKeysetSortInfos(List<SortInfo> sort) {
+        PageProviderDefinition def = getDefinition();
+        if (def.getWhereClause() == null && StringUtils.containsIgnoreCase(def.getPattern(), "ORDER BY")) {
+            log.debug(String.format("Cannot use keyset pagination for provider '%s' with a sort in its pattern",
+                    getName()));
+            return null;
+        }
+        List<SortInfo> keysetSort = new ArrayList<>();
+        if (sort != null) {
+            for (SortInfo sortInfo : sort) {
+                if (!isKeysetSortColumn(sortInfo.getSortColumn())) {
+                    log.debug(String.format("Cannot use keyset pagination for provider '%s' with a sort on: %s",
+                            getName(), sortInfo.getSortColumn()));
+                    return null;
+                }
+                keysetSort.add(sortInfo);
+                if (NXQL.ECM_UUID.equals(sortInfo.getSortColumn())) {
+                    // next columns are useless
+                    return keysetSort;
+                }
+            }
+        }
+        keysetSort.add(new SortInfo(NXQL.ECM_UUID, true));
+        return keysetSort;
+    }
+
+    /**
+     * Checks if a column can be used in a keyset pagination sort.
+     * <p>
+     * The column value must be readable from the returned documents to build the cursor of the next page, so only
+     * simple properties and the {@link #KEYSET_SORT_COLUMNS} are allowed. Columns holding {@code null} are matched
+     * according to where the repository sorts {@code null}. Other sorts fall back to offset pagination.
+     *
+     * @since 11.1
+     */
+    protected boolean isKeysetSortColumn(String column) {
+        if (column.startsWith(NXQL.ECM_PREFIX)) {
+            return KEYSET_SORT_COLUMNS.contains(column);
+        }
+        Field field = Framework.getService(SchemaManager.class).getField(column);
+        return field != null && field.getType().isSimpleType();
+    }
+
+    /**
+     * Gets the cursor after which the current page starts when using keyset pagination.
+     *
+     * @return the cursor, or {@code null} if the current page is fetched using its offset
+     * @since 11.1
+     */
+    protected PageProviderCursor getKeysetCursor() {
+        if (keysetSortInfos == null) {
+            return null;
+        }
+        String cursor = getCurrentPageCursor();
+        return cursor == null ? null : PageProviderCursor.decode(cursor);
+    }
+
+    /**
+     * Gets the current query restricted to the documents sorting after the given cursor.
+     *
+     * @since 11.1
+     */
+    protected String getKeysetQuery(PageProviderCursor cursor) {
+        Repository repository = Framework.getService(RepositoryService.class)
+                                         .getRepository(getCoreSession().getRepositoryName());
+        Predicate<SortInfo> nullsFirst = repository == null ? SortInfo::getSortAscending
+                : sortInfo -> repository.isNullSortedFirst(sortInfo.getSortAscending());
+        String clause = NXQLQueryBuilder.getKeysetClause(keysetSortInfos, cursor.getValues(), nullsFirst);
+        return NXQLQueryBuilder.addKeysetClause(query, clause, keysetSortInfos.toArray(new SortInfo[0]));
+    }
+
+    /**
+     * Gets the keyset pagination cursor holding the sort values of a document.
+     *
+     * @return the encoded cursor, or {@code null} if a sort value is not supported by {@link PageProviderCursor}
+     * @since 11.1
+     */
+    protected String getCursor(DocumentModel doc) {
+        List<Serializable> values = new ArrayList<>(keysetSortInfos.size());
+        for (SortInfo sortInfo : keysetSortInfos) {
+            values.add(getSortValue(doc, sortInfo.getSortColumn()));
+        }
+        PageProviderCursor cursor = PageProviderCursor.of(values);
+        return cursor == null ? null : cursor.encode();
+    }
+
+    /**
+     * Gets the value of a sort column from a document.
+     *
+     * @return the value, or {@code null} if the document has no value for it
+     * @since 11.1
+     */
+    protected Serializable getSortValue(DocumentModel doc, String column) {
+        switch (column) {
+        case NXQL.ECM_UUID:
+            return doc.getId();
+        case NXQL.ECM_NAME:
+            return doc.getName();
+        case NXQL.ECM_PATH:
+            return doc.getPathAsString();
+        case NXQL.ECM_PRIMARYTYPE:
+            return doc.getType();
+        case NXQL.ECM_PARENTID:
+            return doc.getParentRef() == null ? null : doc.getParentRef().toString();
+        case NXQL.ECM_LIFECYCLESTATE:
+            return doc.getCurrentLifeCycleState();
+        default:
+            if (column.startsWith(NXQL.ECM_PREFIX)) {
+                return null;
+            }
+            try {
+                return doc.getPropertyValue(column);
+            } catch (PropertyException e) {
+                return null;
+            }
+        }
+    }
+
     protected void checkQueryCache() {
         // maybe handle refresh of select page according to query
         if (getBooleanProperty(CHECK_QUERY_CACHE_PROPERTY, false)) {
@@ -19,18 +19,24 @@
  */
 package org.nuxeo.ecm.platform.query.nxql;
 
+import static javax.servlet.http.HttpServletResponse.SC_BAD_REQUEST;
+
+import java.io.Serializable;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.StringUtils;
+import org.nuxeo.common.utils.DateUtils;
 import org.nuxeo.ecm.core.api.DocumentModel;
 import org.nuxeo.ecm.core.api.NuxeoException;
 import org.nuxeo.ecm.core.api.PropertyException;
@@ -73,6 +79,9 @@ public class NXQLQueryBuilder {
 
     public static final String REGEXP_EXCLUDE_DOUBLE_QUOTE = "\"[^\"]*\"";
 
+    // @since 11.1
+    protected static final Pattern WHERE_PATTERN = Pattern.compile("\\sWHERE\\s", Pattern.CASE_INSENSITIVE);
+
     private NXQLQueryBuilder() {
     }
 
@@ -735,6 +744,103 @@ public class NXQLQueryBuilder {
         }
     }
 
+    /**
+     * Gets the predicate matching the entries sorting strictly after the given sort values, for keyset pagination.
+     * <p>
+     * For a sort on {@code a, b} and values {@code x, y}, the predicate is {@code (a > x OR (a = x AND b > y))}, using
+     * {@code <} for descending sorts. The sort columns are expected to never be {@code null}.
+     *
+     * @param sortInfos the sort, ending with a unique column
+     * @param values the sort values of the last entry of the previous page
+     * @since 11.1
+     */
+    public static String getKeysetClause(List<SortInfo> sortInfos, List<Serializable> values) {
+        return getKeysetClause(sortInfos, values, null);
+    }
+
+    /**
+     * Gets the predicate matching the entries sorting strictly after the given sort values, for keyset pagination,
+     * on columns that may be {@code null}.
+     * <p>
+     * As {@code null} never compares to a value, the predicate adds {@code IS NULL} and {@code IS NOT NULL} branches
+     * placing {@code null} where the backend sorts it: for a descending sort on {@code a} where nulls come last and
+     * value {@code x}, the term for {@code a} is {@code (a < x OR a IS NULL)}.
+     *
+     * @param sortInfos the sort, ending with a unique column
+     * @param values the sort values of the last entry of the previous page, possibly {@code null}
+     * @param nullsFirst tells if {@code null} comes first for a sort, or {@code null} if the sort columns are never
+     *            {@code null}
+     * @since 11.1
+     */
+    public static String getKeysetClause(List<SortInfo> sortInfos, List<Serializable> values,
+            Predicate<SortInfo> nullsFirst) {
+        if (sortInfos.size() != values.size() || (nullsFirst == null && values.contains(null))) {
+            throw new NuxeoException("Page provider cursor does not match the sort: " + sortInfos, SC_BAD_REQUEST);
+        }
+        List<String> terms = new ArrayList<>(sortInfos.size());
+        StringBuilder equalities = new StringBuilder();
+        for (int i = 0; i < sortInfos.size(); i++) {
+            SortInfo sortInfo = sortInfos.get(i);
+            String column = sortInfo.getSortColumn();
+            Serializable value = values.get(i);
+            String term;
+            String equality;
+            if (value == null) {
+                // only values sort after null, when null comes first
+                term = nullsFirst.test(sortInfo) ? column + " IS NOT NULL" : null;
+                equality = column + " IS NULL";
+            } else {
+                String literal = getKeysetLiteral(value);
+                term = column + (sortInfo.getSortAscending() ? " > " : " < ") + literal;
+                if (nullsFirst != null && !nullsFirst.test(sortInfo)) {
+                    term = "(" + term + " OR " + column + " IS NULL)";
+                }
+                equality = column + " = " + literal;
+            }
+            if (term != null) {
+                terms.add(equalities.length() == 0 ? term : "(" + equalities + " AND " + term + ")");
+            }
+            if (equalities.length() > 0) {
+                equalities.append(" AND ");
+            }
+            equalities.append(equality);
+        }
+        return "(" + String.join(" OR ", terms) + ")";
+    }
+
+    protected static String getKeysetLiteral(Serializable value) {
+        if (value instanceof String) {
+            return NXQL.escapeString((String) value);
+        } else if (value instanceof Boolean) {
+            return ((Boolean) value).booleanValue() ? "1" : "0";
+        } else if (value instanceof Calendar) {
+            return "TIMESTAMP '" + DateUtils.formatISODateTime((Calendar) value) + "'";
+        } else {
+            return String.valueOf(value);
+        }
+    }
+
+    /**
+     * Adds a keyset pagination predicate to a query built with the given sort, keeping its ORDER BY clause.
+     *
+     * @since 11.1
+     */
+    public static String addKeysetClause(String query, String keysetClause, SortInfo... sortInfos) {
+        String sortClause = getSortClause(sortInfos).trim();
+        String base = query;
+        if (!sortClause.isEmpty() && base.endsWith(sortClause)) {
+            base = base.substring(0, base.length() - sortClause.length()).trim();
+        }
+        Matcher m = WHERE_PATTERN.matcher(base);
+        if (m.find()) {
+            base = base.substring(0, m.start()) + " WHERE (" + base.substring(m.end()).trim() + ") AND "
+                    + keysetClause;
+        } else {
+            base = base + " WHERE " + keysetClause;
+        }
+        return sortClause.isEmpty() ? base : base + ' ' + sortClause;
+    }
+
     /**
      * @since 8.4
      */
@@ -27,6 +27,7 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -333,4 +334,46 @@ public class TestNXQLQueryBuilder {
         PredicateDefinition predicate = predicates[0];
         assertEquals("NOT ILIKE", predicate.getOperator());
     }
+
+    @Test
+    public void testKeysetClause() {
+        List<SortInfo> sortInfos = Arrays.asList(new SortInfo("dc:title", false), new SortInfo("ecm:uuid", true));
+        PageProviderCursor cursor = PageProviderCursor.of(Arrays.asList("it's", "1234"));
+        // round trip through the opaque form
+        cursor = PageProviderCursor.decode(cursor.encode());
+        assertEquals(Arrays.asList("it's", "1234"), cursor.getValues());
+
+        String clause = NXQLQueryBuilder.getKeysetClause(sortInfos, cursor.getValues());
+        assertEquals("(dc:title < 'it\\'s' OR (dc:title = 'it\\'s' AND ecm:uuid > '1234'))", clause);
+
+        SortInfo[] sortArray = sortInfos.toArray(new SortInfo[0]);
+        String query = "SELECT * FROM Document WHERE ecm:isProxy = 0 OR ecm:isVersion = 0"
+                + " ORDER BY dc:title DESC, ecm:uuid";
+        assertEquals("SELECT * FROM Document WHERE (ecm:isProxy = 0 OR ecm:isVersion = 0) AND " + clause
+                + " ORDER BY dc:title DESC, ecm:uuid", NXQLQueryBuilder.addKeysetClause(query, clause, sortArray));
+        query = "SELECT * FROM Document ORDER BY dc:title DESC, ecm:uuid";
+        assertEquals("SELECT * FROM Document WHERE " + clause + " ORDER BY dc:title DESC, ecm:uuid",
+                NXQLQueryBuilder.addKeysetClause(query, clause, sortArray));
+    }
+
+    @Test
+    public void testKeysetClauseWithNullValues() {
+        List<SortInfo> sortInfos = Arrays.asList(new SortInfo("dc:title", false), new SortInfo("dc:source", true),
+                new SortInfo("ecm:uuid", true));
+        // null values lowest: first when ascending, last when descending
+        Predicate<SortInfo> nullsFirst = SortInfo::getSortAscending;
+        PageProviderCursor cursor = PageProviderCursor.of(Arrays.asList("foo", null, "1234"));
+        cursor = PageProviderCursor.decode(cursor.encode());
+        assertEquals(Arrays.asList("foo", null, "1234"), cursor.getValues());
+
+        String clause = NXQLQueryBuilder.getKeysetClause(sortInfos, cursor.getValues(), nullsFirst);
+        assertEquals("((dc:title < 'foo' OR dc:title IS NULL)" //
+                + " OR (dc:title = 'foo' AND dc:source IS NOT NULL)" //
+                + " OR (dc:title = 'foo' AND dc:source IS NULL AND ecm:uuid > '1234'))", clause);
+
+        cursor = PageProviderCursor.of(Arrays.asList(null, "bar", "1234"));
+        clause = NXQLQueryBuilder.getKeysetClause(sortInfos, cursor.getValues(), nullsFirst);
+        assertEquals("((dc:title IS NULL AND dc:source > 'bar')" //
+                + " OR (dc:title IS NULL AND dc:source = 'bar' AND ecm:uuid > '1234'))", clause);
+    }
 }
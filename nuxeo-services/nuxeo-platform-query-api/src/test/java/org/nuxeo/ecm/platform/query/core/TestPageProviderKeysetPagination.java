@@ -0,0 +1,166 @@
+/*
+ * (C) Copyright 2019 Nuxeo (http://nuxeo.com/) and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.nuxeo.ecm.platform.query.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.inject.Inject;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.nuxeo.ecm.core.api.CoreSession;
+import org.nuxeo.ecm.core.api.DocumentModel;
+import org.nuxeo.ecm.core.api.SortInfo;
+import org.nuxeo.ecm.core.query.sql.NXQL;
+import org.nuxeo.ecm.core.test.CoreFeature;
+import org.nuxeo.ecm.core.test.annotations.Granularity;
+import org.nuxeo.ecm.core.test.annotations.RepositoryConfig;
+import org.nuxeo.ecm.platform.query.api.PageProvider;
+import org.nuxeo.ecm.platform.query.api.PageProviderDefinition;
+import org.nuxeo.ecm.platform.query.api.PageProviderService;
+import org.nuxeo.ecm.platform.query.nxql.CoreQueryDocumentPageProvider;
+import org.nuxeo.runtime.test.runner.Deploy;
+import org.nuxeo.runtime.test.runner.Features;
+import org.nuxeo.runtime.test.runner.FeaturesRunner;
+
+/**
+ * @since 11.1
+ */
+@RunWith(FeaturesRunner.class)
+@Features(CoreFeature.class)
+@RepositoryConfig(cleanup = Granularity.METHOD)
+@Deploy("org.nuxeo.ecm.platform.query.api")
+@Deploy("org.nuxeo.ecm.platform.query.api.test:test-schemas-contrib.xml")
+@Deploy("org.nuxeo.ecm.platform.query.api.test:test-pageprovider-contrib.xml")
+public class TestPageProviderKeysetPagination {
+
+    protected static final String DUMMY_FETCH_DOCUMENTS = "DUMMY_FETCH_DOCUMENTS";
+
+    // duplicate and null sort values
+    protected static final String[] TITLES = { "a", null, "b", "a", null, "c", "a", "b", null, "a", "c" };
+
+    protected static final long PAGE_SIZE = 3;
+
+    @Inject
+    protected PageProviderService pps;
+
+    @Inject
+    protected CoreSession session;
+
+    protected Set<String> ids = new HashSet<>();
+
+    @Before
+    public void createTestDocuments() {
+        for (int i = 0; i < TITLES.length; i++) {
+            DocumentModel doc = session.createDocumentModel("/", "doc" + i, i % 2 == 0 ? "File" : "Note");
+            doc.setPropertyValue("dc:title", TITLES[i]);
+            doc.setPropertyValue("dc:source", "dummy");
+            ids.add(session.createDocument(doc).getId());
+        }
+        session.save();
+    }
+
+    @SuppressWarnings("unchecked")
+    protected PageProvider<DocumentModel> getPageProvider(boolean keyset, SortInfo... sortInfos) {
+        PageProviderDefinition ppd = pps.getPageProviderDefinition(DUMMY_FETCH_DOCUMENTS);
+        Map<String, Serializable> props = new HashMap<>();
+        props.put(CoreQueryDocumentPageProvider.CORE_SESSION_PROPERTY, (Serializable) session);
+        props.put(PageProvider.KEYSET_PAGINATION_PROP, String.valueOf(keyset));
+        return (PageProvider<DocumentModel>) pps.getPageProvider(DUMMY_FETCH_DOCUMENTS, ppd, null,
+                Arrays.asList(sortInfos), PAGE_SIZE, 0L, props);
+    }
+
+    /**
+     * Fetches all the pages, checking that no document is lost or repeated.
+     */
+    protected List<String> fetchAll(PageProvider<DocumentModel> pp, boolean expectCursor) {
+        List<String> fetched = new ArrayList<>();
+        for (;;) {
+            List<DocumentModel> page = pp.getCurrentPage();
+            page.forEach(doc -> fetched.add(doc.getId()));
+            if (page.size() < PAGE_SIZE) {
+                break;
+            }
+            if (expectCursor) {
+                assertNotNull(pp.getNextPageCursor());
+            } else {
+                assertNull(pp.getNextPageCursor());
+            }
+            pp.nextPage();
+        }
+        assertEquals(ids.size(), fetched.size());
+        assertEquals(ids, new HashSet<>(fetched));
+        return fetched;
+    }
+
+    @Test
+    public void testKeysetOnDuplicateValues() {
+        PageProvider<DocumentModel> pp = getPageProvider(true, new SortInfo(NXQL.ECM_PRIMARYTYPE, false));
+        List<String> fetched = fetchAll(pp, true);
+
+        // same order as offset pagination
+        pp = getPageProvider(false, new SortInfo(NXQL.ECM_PRIMARYTYPE, false), new SortInfo(NXQL.ECM_UUID, true));
+        assertEquals(fetched, fetchAll(pp, false));
+    }
+
+    protected void checkKeysetSameOrderAsOffset(SortInfo... sortInfos) {
+        List<String> fetched = fetchAll(getPageProvider(true, sortInfos), true);
+        List<SortInfo> offsetSort = new ArrayList<>(Arrays.asList(sortInfos));
+        offsetSort.add(new SortInfo(NXQL.ECM_UUID, true));
+        assertEquals(fetched, fetchAll(getPageProvider(false, offsetSort.toArray(new SortInfo[0])), false));
+    }
+
+    @Test
+    public void testKeysetOnNullValues() {
+        checkKeysetSameOrderAsOffset(new SortInfo("dc:title", true));
+        checkKeysetSameOrderAsOffset(new SortInfo("dc:title", false));
+        checkKeysetSameOrderAsOffset(new SortInfo("dc:title", true), new SortInfo(NXQL.ECM_PRIMARYTYPE, false));
+        checkKeysetSameOrderAsOffset(new SortInfo("dc:title", false), new SortInfo(NXQL.ECM_PRIMARYTYPE, true));
+    }
+
+    @Test
+    public void testStatelessCursor() {
+        PageProvider<DocumentModel> pp = getPageProvider(true, new SortInfo(NXQL.ECM_PRIMARYTYPE, true));
+        pp.getCurrentPage();
+        String cursor = pp.getNextPageCursor();
+        assertNotNull(cursor);
+        pp.nextPage();
+        List<DocumentModel> secondPage = pp.getCurrentPage();
+        assertEquals(PAGE_SIZE, secondPage.size());
+
+        // a new provider resumes from the cursor
+        pp = getPageProvider(true, new SortInfo(NXQL.ECM_PRIMARYTYPE, true));
+        pp.setCurrentPageCursor(cursor);
+        List<DocumentModel> page = pp.getCurrentPage();
+        assertEquals(secondPage.size(), page.size());
+        for (int i = 0; i < page.size(); i++) {
+            assertEquals(secondPage.get(i).getId(), page.get(i).getId());
+        }
+    }
+
+}